@@ -0,0 +1,264 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FilenameUtils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import edu.mit.spacenet.SpaceNet.HeadlessMode;
+import edu.mit.spacenet.io.gson.demands.DemandsAnalysisWriter.Format;
+import edu.mit.spacenet.io.gson.batch.BatchRun;
+import edu.mit.spacenet.io.gson.batch.BatchSummary;
+import edu.mit.spacenet.scenario.Scenario;
+import edu.mit.spacenet.simulator.BinaryTraceSink;
+import edu.mit.spacenet.simulator.DemandSimulator;
+import edu.mit.spacenet.simulator.TraceLevel;
+import edu.mit.spacenet.util.SimulationContext;
+
+/**
+ * Runs headless demand simulations for many scenarios on a bounded pool of worker threads. Each run
+ * opens, simulates, and writes its scenario under its own {@link SimulationContext} so runs do not
+ * share scenario options or identifier sequences. One json output is written per scenario along
+ * with a summary file recording the outcome and wall time of every run.
+ * 
+ * @author Paul Grogan
+ */
+public class BatchRunner {
+  /** The name of the summary file written to the output directory. */
+  public static final String SUMMARY_FILE_NAME = "summary.json";
+
+  private final HeadlessMode mode;
+  private final int threads;
+  private final boolean consumeExistingResources;
+  private final boolean isOverwriteConfirmed;
+  private TraceLevel traceLevel = TraceLevel.OFF;
+  private boolean binaryTrace;
+  private Format outputFormat = Format.PRETTY;
+
+  /**
+   * Instantiates a new batch runner.
+   * 
+   * @param mode the simulation mode (raw demands, aggregated demands, or auto-manifest)
+   * @param threads the number of worker threads
+   * @param consumeExistingResources whether to consume existing resources
+   * @param isOverwriteConfirmed whether existing output files may be overwritten
+   */
+  public BatchRunner(HeadlessMode mode, int threads, boolean consumeExistingResources,
+      boolean isOverwriteConfirmed) {
+    this.mode = mode;
+    this.threads = threads;
+    this.consumeExistingResources = consumeExistingResources;
+    this.isOverwriteConfirmed = isOverwriteConfirmed;
+  }
+
+  /**
+   * Sets how the simulations are traced. Console traces of concurrent runs are interleaved; binary
+   * traces are written to one {@code <name>.trace} file per scenario beside its output.
+   * 
+   * @param traceLevel the trace level (off by default)
+   * @param binaryTrace whether to write binary trace files instead of printing to the console
+   */
+  public void setTrace(TraceLevel traceLevel, boolean binaryTrace) {
+    this.traceLevel = traceLevel;
+    this.binaryTrace = binaryTrace;
+  }
+
+  /**
+   * Sets the format of the output files. Ndjson outputs are written to {@code <name>.ndjson}
+   * files, the others to {@code <name>.json} files.
+   * 
+   * @param outputFormat the output format (pretty by default)
+   */
+  public void setOutputFormat(Format outputFormat) {
+    this.outputFormat = outputFormat;
+  }
+
+  /**
+   * Runs all scenarios listed by a directory or manifest file and writes the outputs and summary to
+   * an output directory.
+   * 
+   * @param input a directory of scenario files, or a manifest file listing one scenario path per
+   *        line (blank lines and lines starting with # are ignored, relative paths are resolved
+   *        against the manifest's directory)
+   * @param outputDirectory the output directory
+   * @return true, if every run succeeded
+   */
+  public boolean run(File input, File outputDirectory) {
+    List<File> scenarios;
+    try {
+      scenarios = listScenarios(input);
+    } catch (IOException ex) {
+      System.err.println("Failed to read scenario list: " + ex.getMessage());
+      return false;
+    }
+    if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+      System.err.println("Failed to create output directory: " + outputDirectory);
+      return false;
+    }
+
+    long start = System.nanoTime();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<BatchRun>> futures = new ArrayList<Future<BatchRun>>();
+    Set<String> outputNames = new HashSet<String>();
+    for (File scenario : scenarios) {
+      String name = FilenameUtils.getBaseName(scenario.getName());
+      for (int i = 2; !outputNames.add(name); i++) {
+        name = FilenameUtils.getBaseName(scenario.getName()) + "-" + i;
+      }
+      final File scenarioFile = scenario;
+      final File outputFile = new File(outputDirectory,
+          name + (outputFormat == Format.NDJSON ? ".ndjson" : ".json"));
+      futures.add(executor.submit(new Callable<BatchRun>() {
+        public BatchRun call() {
+          return runScenario(scenarioFile, outputFile);
+        }
+      }));
+    }
+    executor.shutdown();
+
+    List<BatchRun> runs = new ArrayList<BatchRun>();
+    boolean success = true;
+    for (Future<BatchRun> future : futures) {
+      try {
+        BatchRun run = future.get();
+        success &= run.isSuccess();
+        runs.add(run);
+      } catch (InterruptedException | ExecutionException ex) {
+        // runScenario catches everything, so this only happens if the batch is interrupted
+        System.err.println("Batch interrupted: " + ex.getMessage());
+        executor.shutdownNow();
+        return false;
+      }
+    }
+    BatchSummary summary = BatchSummary.createFrom(runs, threads, System.nanoTime() - start);
+
+    Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    try {
+      BufferedWriter out =
+          new BufferedWriter(new FileWriter(new File(outputDirectory, SUMMARY_FILE_NAME)));
+      gson.toJson(summary, out);
+      out.close();
+    } catch (IOException ex) {
+      System.err.println("Failed to output summary file: " + ex.getMessage());
+      return false;
+    }
+    System.out.println(String.format("Completed %d scenarios on %d threads in %.2f s.",
+        runs.size(), threads, (System.nanoTime() - start) / 1e9));
+    return success;
+  }
+
+  private BatchRun runScenario(File scenarioFile, File outputFile) {
+    long start = System.nanoTime();
+    Throwable error = null;
+    SimulationContext previous = new SimulationContext().activate();
+    BinaryTraceSink traceFile = null;
+    try {
+      if (outputFile.exists() && !isOverwriteConfirmed) {
+        throw new IOException("Output file " + outputFile + " exists.");
+      }
+      traceFile = SpaceNet.openTraceSink(traceLevel, binaryTrace, outputFile.getPath());
+      Scenario scenario = SpaceNet.readScenario(scenarioFile.getAbsolutePath());
+      DemandSimulator simulator = new DemandSimulator(scenario);
+      simulator.setDemandsSatisfied(consumeExistingResources);
+      simulator.simulate();
+
+      BufferedWriter out = new BufferedWriter(new FileWriter(outputFile));
+      try {
+        SpaceNet.writeDemandAnalysis(scenario, simulator, mode == HeadlessMode.DEMANDS_RAW,
+            mode == HeadlessMode.AUTO_MANIFEST, outputFormat, out);
+      } finally {
+        out.close();
+      }
+      if (traceFile != null) {
+        traceFile.close();
+        traceFile = null;
+      }
+    } catch (Throwable ex) {
+      // errors (e.g. a stack overflow in one scenario) fail the run rather than the batch
+      error = ex;
+    } finally {
+      if (traceFile != null) {
+        try {
+          traceFile.close();
+        } catch (IOException ex) {
+          // already failed
+        }
+      }
+      previous.activate();
+    }
+    long wallNanos = System.nanoTime() - start;
+    if (error == null) {
+      System.out.println(String.format("Simulated %s in %.2f s.", scenarioFile.getName(),
+          wallNanos / 1e9));
+    } else {
+      System.err.println(String.format("Failed to simulate %s: %s", scenarioFile.getName(),
+          error.getMessage() == null ? error : error.getMessage()));
+    }
+    return BatchRun.createFrom(scenarioFile.getPath(), outputFile.getPath(), mode.label,
+        wallNanos, error);
+  }
+
+  private static List<File> listScenarios(File input) throws IOException {
+    List<File> scenarios = new ArrayList<File>();
+    if (input.isDirectory()) {
+      File[] files = input.listFiles();
+      Arrays.sort(files);
+      for (File file : files) {
+        String extension = FilenameUtils.getExtension(file.getName());
+        if (file.isFile() && (extension.equals("xml") || extension.equals("json")
+            || extension.equals("snb"))) {
+          scenarios.add(file);
+        }
+      }
+    } else {
+      BufferedReader in = new BufferedReader(new FileReader(input));
+      try {
+        String line;
+        while ((line = in.readLine()) != null) {
+          line = line.trim();
+          if (line.isEmpty() || line.startsWith("#")) {
+            continue;
+          }
+          File file = new File(line);
+          if (!file.isAbsolute()) {
+            file = new File(input.getAbsoluteFile().getParentFile(), line);
+          }
+          scenarios.add(file);
+        }
+      } finally {
+        in.close();
+      }
+    }
+    return scenarios;
+  }
+}
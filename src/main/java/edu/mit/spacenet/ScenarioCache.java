@@ -0,0 +1,191 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import edu.mit.spacenet.scenario.Scenario;
+import edu.mit.spacenet.util.SerializeUtil;
+import edu.mit.spacenet.util.SimulationContext;
+
+/**
+ * Keeps the most recently used parsed scenarios in memory, keyed by file path and checked against
+ * the file's modification time and length so edited files are parsed again. Cached scenarios are
+ * never handed out; each caller works on its own deep copy, so concurrent requests for the same
+ * file neither wait for each other nor see each other's changes. A file requested by several
+ * threads at once is parsed only once.
+ * 
+ * @author Paul Grogan
+ */
+public class ScenarioCache {
+  private final int capacity;
+  private final Map<String, FutureTask<Entry>> entries;
+  private long hits;
+  private long misses;
+
+  /**
+   * Instantiates a new scenario cache.
+   * 
+   * @param capacity the number of parsed scenarios to keep
+   */
+  public ScenarioCache(int capacity) {
+    this.capacity = capacity;
+    entries = new LinkedHashMap<String, FutureTask<Entry>>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, FutureTask<Entry>> eldest) {
+        return size() > ScenarioCache.this.capacity;
+      }
+    };
+  }
+
+  /**
+   * Opens a working copy of a scenario, parsing the file only if it is not cached or has changed
+   * since it was cached. The scenario options of the copy are set in the context, and its unique
+   * identifier sequence continues where it would after parsing the file in that context.
+   * 
+   * @param file the scenario file (xml, json, or snb)
+   * @param context the context the copy will be used in
+   * @return the working copy
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public Scenario open(File file, SimulationContext context) throws IOException {
+    Entry entry = getEntry(file.getAbsoluteFile());
+    Scenario scenario = (Scenario) SerializeUtil.deepClone(entry.scenario);
+    context.getParameters().setParametersFrom(scenario);
+    context.setLastUid(entry.lastUid);
+    return scenario;
+  }
+
+  /**
+   * Gets the number of cached scenarios.
+   * 
+   * @return the size
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Gets the number of cached scenarios kept before the least recently used one is dropped.
+   * 
+   * @return the capacity
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Gets the number of opens served from the cache.
+   * 
+   * @return the hits
+   */
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  /**
+   * Gets the number of opens that parsed the file.
+   * 
+   * @return the misses
+   */
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  private Entry getEntry(final File file) throws IOException {
+    final long lastModified = file.lastModified();
+    final long length = file.length();
+    FutureTask<Entry> load = null;
+    FutureTask<Entry> task;
+    synchronized (this) {
+      task = entries.get(file.getPath());
+      if (task == null || task.isDone() && isStale(task, lastModified, length)) {
+        load = new FutureTask<Entry>(new Callable<Entry>() {
+          public Entry call() throws IOException {
+            return load(file, lastModified, length);
+          }
+        });
+        entries.put(file.getPath(), load);
+        task = load;
+        misses++;
+      } else {
+        hits++;
+      }
+    }
+    if (load != null) {
+      load.run();
+    }
+    try {
+      return task.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while opening " + file, ex);
+    } catch (ExecutionException ex) {
+      synchronized (this) {
+        if (entries.get(file.getPath()) == task) {
+          entries.remove(file.getPath());
+        }
+      }
+      if (ex.getCause() instanceof IOException) {
+        throw (IOException) ex.getCause();
+      } else if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw new IOException(ex.getCause());
+    }
+  }
+
+  private static boolean isStale(FutureTask<Entry> task, long lastModified, long length) {
+    try {
+      Entry entry = task.get();
+      return entry.lastModified != lastModified || entry.length != length;
+    } catch (InterruptedException | ExecutionException ex) {
+      return true;
+    }
+  }
+
+  private static Entry load(File file, long lastModified, long length) throws IOException {
+    // parse in a fresh context so the cached identifier sequence matches a standalone run
+    SimulationContext context = new SimulationContext();
+    SimulationContext previous = context.activate();
+    try {
+      Scenario scenario = SpaceNet.readScenario(file.getPath());
+      return new Entry(scenario, context.getLastUid(), lastModified, length);
+    } finally {
+      previous.activate();
+    }
+  }
+
+  private static class Entry {
+    private final Scenario scenario;
+    private final int lastUid;
+    private final long lastModified;
+    private final long length;
+
+    private Entry(Scenario scenario, int lastUid, long lastModified, long length) {
+      this.scenario = scenario;
+      this.lastUid = lastUid;
+      this.lastModified = lastModified;
+      this.length = length;
+    }
+  }
+}
@@ -0,0 +1,427 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import edu.mit.spacenet.SpaceNet.HeadlessMode;
+import edu.mit.spacenet.io.gson.demands.DemandsAnalysisWriter.Format;
+import edu.mit.spacenet.io.gson.server.ServerParams;
+import edu.mit.spacenet.io.gson.server.ServerRequest;
+import edu.mit.spacenet.io.gson.server.ServerRun;
+import edu.mit.spacenet.io.gson.server.ServerScenario;
+import edu.mit.spacenet.io.gson.server.ServerStatus;
+import edu.mit.spacenet.scenario.Scenario;
+import edu.mit.spacenet.simulator.BinaryTraceSink;
+import edu.mit.spacenet.simulator.DemandSimulator;
+import edu.mit.spacenet.simulator.TraceLevel;
+import edu.mit.spacenet.util.SimulationContext;
+
+/**
+ * Serves headless requests from a long-running process so that repeated runs do not pay for JVM
+ * startup, class loading, and warmup, and so that parsed scenarios can be reused. Requests are
+ * JSON-RPC 2.0 messages, one per line, read from standard input or from clients connected to a
+ * loopback port; responses are written one per line in the order requests complete. Requests run
+ * concurrently on a bounded pool of worker threads, each under its own {@link SimulationContext}
+ * and on its own copy of a scenario from a {@link ScenarioCache}.
+ * 
+ * <p>
+ * The methods are {@code open} (parse and cache a scenario), the headless modes
+ * {@code demands-raw}, {@code demands-agg}, {@code auto-manifest}, and {@code convert},
+ * {@code status}, and {@code shutdown}. Parameters are {@code input} (the scenario file path),
+ * {@code output} (the output file path; if omitted, simulation results are returned in the
+ * response), {@code format}, and {@code consume}. For example:
+ * 
+ * <pre>
+ * {"jsonrpc": "2.0", "id": 1, "method": "auto-manifest",
+ *  "params": {"input": "scenario.xml", "output": "manifest.json"}}
+ * </pre>
+ * 
+ * @author Paul Grogan
+ */
+public class SimulationServer {
+  /** The method that parses and caches a scenario. */
+  public static final String OPEN = "open";
+  /** The method that reports the server status. */
+  public static final String STATUS = "status";
+  /** The method that stops the server once running requests complete. */
+  public static final String SHUTDOWN = "shutdown";
+
+  private static final String JSONRPC_VERSION = "2.0";
+  private static final int PARSE_ERROR = -32700;
+  private static final int INVALID_REQUEST = -32600;
+  private static final int METHOD_NOT_FOUND = -32601;
+  private static final int INVALID_PARAMS = -32602;
+  private static final int EXECUTION_ERROR = -32000;
+
+  private final int threads;
+  private final ScenarioCache cache;
+  private final ExecutorService executor;
+  private final boolean consumeExistingResources;
+  private final boolean isOverwriteConfirmed;
+  private final Gson gson = new Gson();
+  private final Gson responseGson = new GsonBuilder().serializeNulls().create();
+  private TraceLevel traceLevel = TraceLevel.OFF;
+  private boolean binaryTrace;
+  private Format outputFormat = Format.PRETTY;
+  private volatile boolean isShutdown;
+  private ServerSocket serverSocket;
+  private final List<Socket> clients = new ArrayList<Socket>();
+
+  /**
+   * Instantiates a new simulation server.
+   * 
+   * @param threads the number of worker threads
+   * @param cacheSize the number of parsed scenarios to keep
+   * @param consumeExistingResources whether to consume existing resources unless a request says
+   *        otherwise
+   * @param isOverwriteConfirmed whether existing output files may be overwritten
+   */
+  public SimulationServer(int threads, int cacheSize, boolean consumeExistingResources,
+      boolean isOverwriteConfirmed) {
+    this.threads = threads;
+    this.consumeExistingResources = consumeExistingResources;
+    this.isOverwriteConfirmed = isOverwriteConfirmed;
+    cache = new ScenarioCache(cacheSize);
+    executor = Executors.newFixedThreadPool(threads);
+  }
+
+  /**
+   * Sets how the simulations are traced. Console traces of concurrent requests are interleaved;
+   * binary traces are written to a {@code .trace} file beside each output file.
+   * 
+   * @param traceLevel the trace level (off by default)
+   * @param binaryTrace whether to write binary trace files instead of printing to the console
+   */
+  public void setTrace(TraceLevel traceLevel, boolean binaryTrace) {
+    this.traceLevel = traceLevel;
+    this.binaryTrace = binaryTrace;
+  }
+
+  /**
+   * Sets the format of output files for requests that do not name one.
+   * 
+   * @param outputFormat the output format (pretty by default)
+   */
+  public void setOutputFormat(Format outputFormat) {
+    this.outputFormat = outputFormat;
+  }
+
+  /**
+   * Serves requests from standard input until it is closed or a shutdown is requested. Standard
+   * output is reserved for responses, so anything else printed while serving is redirected to
+   * standard error.
+   */
+  public void serveStandardStreams() {
+    PrintStream responses = System.out;
+    System.setOut(System.err);
+    try {
+      serve(System.in, responses);
+    } finally {
+      System.setOut(responses);
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Serves requests from clients connecting to a port on the loopback interface until a shutdown
+   * is requested. Each client is served on its own thread and shares the worker threads.
+   * 
+   * @param port the port, or 0 for any free port
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public void serveLoopback(int port) throws IOException {
+    synchronized (this) {
+      serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    }
+    System.out.println(String.format("Listening on %s:%d.",
+        serverSocket.getInetAddress().getHostAddress(), serverSocket.getLocalPort()));
+    List<Thread> connections = new ArrayList<Thread>();
+    try {
+      while (!isShutdown) {
+        final Socket client;
+        try {
+          client = serverSocket.accept();
+        } catch (SocketException ex) {
+          // closed by a shutdown request
+          break;
+        }
+        synchronized (this) {
+          clients.add(client);
+        }
+        Thread connection = new Thread(new Runnable() {
+          public void run() {
+            try {
+              serve(client.getInputStream(), client.getOutputStream());
+            } catch (IOException ex) {
+              System.err.println("Failed to serve client: " + ex.getMessage());
+            } finally {
+              try {
+                client.close();
+              } catch (IOException ex) {
+                // already closed
+              }
+              synchronized (SimulationServer.this) {
+                clients.remove(client);
+              }
+            }
+          }
+        }, "spacenet-client-" + client.getPort());
+        connection.start();
+        connections.add(connection);
+      }
+      for (Thread connection : connections) {
+        connection.join();
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } finally {
+      serverSocket.close();
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Serves the requests read from a stream until it ends or a shutdown is requested, then waits for
+   * the running requests to respond.
+   * 
+   * @param in the request stream
+   * @param out the response stream
+   */
+  public void serve(InputStream in, OutputStream out) {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    final Writer writer =
+        new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    final Phaser running = new Phaser(1);
+    try {
+      String line;
+      while (!isShutdown && (line = reader.readLine()) != null) {
+        if (line.trim().isEmpty()) {
+          continue;
+        }
+        final ServerRequest request;
+        try {
+          request = gson.fromJson(line, ServerRequest.class);
+        } catch (JsonParseException ex) {
+          respond(writer, JsonNull.INSTANCE, null, error(PARSE_ERROR, ex.getMessage()));
+          continue;
+        }
+        if (request == null || !JSONRPC_VERSION.equals(request.getJsonrpc())
+            || request.getMethod() == null) {
+          respond(writer, JsonNull.INSTANCE, null,
+              error(INVALID_REQUEST, "Not a JSON-RPC 2.0 request."));
+          continue;
+        }
+        JsonObject invalid = validate(request);
+        if (invalid != null) {
+          respond(writer, request.getId(), null, invalid);
+        } else if (request.getMethod().equals(SHUTDOWN)) {
+          shutdown();
+          respond(writer, request.getId(), status(), null);
+        } else if (request.getMethod().equals(STATUS)) {
+          respond(writer, request.getId(), status(), null);
+        } else {
+          running.register();
+          executor.execute(new Runnable() {
+            public void run() {
+              try {
+                JsonElement result = null;
+                JsonObject error = null;
+                try {
+                  result = execute(request);
+                } catch (Exception ex) {
+                  error = error(EXECUTION_ERROR, ex.getClass().getSimpleName()
+                      + (ex.getMessage() == null ? "" : ": " + ex.getMessage()));
+                }
+                respond(writer, request.getId(), result, error);
+              } finally {
+                running.arriveAndDeregister();
+              }
+            }
+          });
+        }
+      }
+    } catch (IOException ex) {
+      if (!isShutdown) {
+        System.err.println("Failed to read request: " + ex.getMessage());
+      }
+    }
+    running.arriveAndAwaitAdvance();
+  }
+
+  /**
+   * Stops accepting requests. Requests already running complete and respond.
+   */
+  public synchronized void shutdown() {
+    isShutdown = true;
+    try {
+      if (serverSocket != null) {
+        serverSocket.close();
+      }
+      for (Socket client : clients) {
+        // ends the client's request stream without discarding its pending responses
+        client.shutdownInput();
+      }
+    } catch (IOException ex) {
+      System.err.println("Failed to close connections: " + ex.getMessage());
+    }
+  }
+
+  private JsonObject validate(ServerRequest request) {
+    String method = request.getMethod();
+    ServerParams params = request.getParams();
+    HeadlessMode mode = HeadlessMode.getInstance(method);
+    if (!method.equals(OPEN) && !method.equals(STATUS) && !method.equals(SHUTDOWN)
+        && mode != HeadlessMode.DEMANDS_RAW && mode != HeadlessMode.DEMANDS_AGGREGATED
+        && mode != HeadlessMode.AUTO_MANIFEST && mode != HeadlessMode.CONVERT_SCENARIO) {
+      return error(METHOD_NOT_FOUND, "Unknown method: " + method);
+    }
+    if (method.equals(STATUS) || method.equals(SHUTDOWN)) {
+      return null;
+    }
+    if (params.getInput() == null) {
+      return error(INVALID_PARAMS, "Missing input file path.");
+    }
+    if (mode == HeadlessMode.CONVERT_SCENARIO && params.getOutput() == null) {
+      return error(INVALID_PARAMS, "Missing output file path.");
+    }
+    if (params.getFormat() != null && Format.getInstance(params.getFormat()) == null) {
+      return error(INVALID_PARAMS, "Unknown output format: " + params.getFormat());
+    }
+    return null;
+  }
+
+  private JsonElement execute(ServerRequest request) throws IOException {
+    long start = System.nanoTime();
+    ServerParams params = request.getParams();
+    HeadlessMode mode = HeadlessMode.getInstance(request.getMethod());
+    File inputFile = new File(params.getInput()).getAbsoluteFile();
+    File outputFile =
+        params.getOutput() == null ? null : new File(params.getOutput()).getAbsoluteFile();
+    SimulationContext context = new SimulationContext();
+    SimulationContext previous = context.activate();
+    BinaryTraceSink traceFile = null;
+    try {
+      if (outputFile != null && outputFile.exists() && !isOverwriteConfirmed) {
+        throw new IOException("Output file " + outputFile + " exists.");
+      }
+      Scenario scenario = cache.open(inputFile, context);
+      if (mode == null) {
+        return gson.toJsonTree(ServerScenario.createFrom(inputFile.getPath(), scenario,
+            System.nanoTime() - start));
+      }
+      JsonElement analysis = null;
+      if (mode == HeadlessMode.CONVERT_SCENARIO) {
+        scenario.setFilePath(outputFile.getPath());
+        SpaceNet.writeScenario(scenario);
+      } else {
+        traceFile = SpaceNet.openTraceSink(traceLevel, binaryTrace && outputFile != null,
+            outputFile == null ? null : outputFile.getPath());
+        DemandSimulator simulator = new DemandSimulator(scenario);
+        simulator.setDemandsSatisfied(params.getConsume() == null ? consumeExistingResources
+            : params.getConsume());
+        simulator.simulate();
+        Format format = params.getFormat() == null ? outputFormat
+            : Format.getInstance(params.getFormat());
+        if (outputFile == null) {
+          StringWriter out = new StringWriter();
+          SpaceNet.writeDemandAnalysis(scenario, simulator, mode == HeadlessMode.DEMANDS_RAW,
+              mode == HeadlessMode.AUTO_MANIFEST, Format.COMPACT, out);
+          analysis = JsonParser.parseString(out.toString());
+        } else {
+          BufferedWriter out = new BufferedWriter(new FileWriter(outputFile));
+          try {
+            SpaceNet.writeDemandAnalysis(scenario, simulator, mode == HeadlessMode.DEMANDS_RAW,
+                mode == HeadlessMode.AUTO_MANIFEST, format, out);
+          } finally {
+            out.close();
+          }
+        }
+      }
+      return gson.toJsonTree(ServerRun.createFrom(inputFile.getPath(),
+          outputFile == null ? null : outputFile.getPath(), mode.label,
+          System.nanoTime() - start, analysis));
+    } finally {
+      if (traceFile != null) {
+        traceFile.close();
+      }
+      previous.activate();
+    }
+  }
+
+  private JsonElement status() {
+    return gson.toJsonTree(ServerStatus.createFrom(threads, cache.size(), cache.getCapacity(),
+        cache.getHits(), cache.getMisses()));
+  }
+
+  private static JsonObject error(int code, String message) {
+    JsonObject error = new JsonObject();
+    error.addProperty("code", code);
+    error.addProperty("message", message);
+    return error;
+  }
+
+  private void respond(Writer writer, JsonElement id, JsonElement result, JsonObject error) {
+    if (id == null) {
+      // notifications are not answered
+      return;
+    }
+    JsonObject response = new JsonObject();
+    response.addProperty("jsonrpc", JSONRPC_VERSION);
+    response.add("id", id);
+    if (error == null) {
+      response.add("result", result);
+    } else {
+      response.add("error", error);
+    }
+    synchronized (writer) {
+      try {
+        responseGson.toJson(response, writer);
+        writer.write('\n');
+        writer.flush();
+      } catch (IOException ex) {
+        System.err.println("Failed to write response: " + ex.getMessage());
+      }
+    }
+  }
+}
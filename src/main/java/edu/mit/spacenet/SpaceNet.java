@@ -22,8 +22,10 @@ import java.awt.Insets;
 import java.awt.Rectangle;
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.Scanner;
 import javax.swing.JOptionPane;
 import javax.swing.SwingWorker;
@@ -36,18 +38,21 @@ import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.apache.commons.io.FilenameUtils;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import edu.mit.spacenet.gui.SpaceNetFrame;
 import edu.mit.spacenet.gui.SpaceNetSettings;
 import edu.mit.spacenet.gui.SplashScreen;
+import edu.mit.spacenet.io.BinaryEngine;
 import edu.mit.spacenet.io.XStreamEngine;
-import edu.mit.spacenet.io.gson.demands.AggregatedDemandsAnalysis;
-import edu.mit.spacenet.io.gson.demands.ManifestAnalysis;
-import edu.mit.spacenet.io.gson.demands.RawDemandsAnalysis;
+import edu.mit.spacenet.io.gson.demands.DemandsAnalysisWriter;
+import edu.mit.spacenet.io.gson.demands.DemandsAnalysisWriter.Format;
 import edu.mit.spacenet.io.gson.scenario.GsonEngine;
+import edu.mit.spacenet.scenario.GreedyManifestStrategy;
 import edu.mit.spacenet.scenario.Scenario;
+import edu.mit.spacenet.simulator.BinaryTraceSink;
+import edu.mit.spacenet.simulator.ConsoleTraceSink;
 import edu.mit.spacenet.simulator.DemandSimulator;
+import edu.mit.spacenet.simulator.TraceLevel;
+import edu.mit.spacenet.util.SimulationContext;
 
 /**
  * This class is used to launch the SpaceNet application.
@@ -59,13 +64,30 @@ public class SpaceNet {
     DEMANDS_RAW("demands-raw"), 
     DEMANDS_AGGREGATED("demands-agg"), 
     AUTO_MANIFEST("auto-manifest"), 
-    CONVERT_SCENARIO("convert");
+    CONVERT_SCENARIO("convert"),
+    BATCH("batch"),
+    SERVER("server");
 
     public final String label;
 
     private HeadlessMode(String label) {
       this.label = label;
     }
+
+    /**
+     * Gets the mode with a label, ignoring case.
+     * 
+     * @param label the label
+     * @return the mode, or null if no mode has the label
+     */
+    public static HeadlessMode getInstance(String label) {
+      for (HeadlessMode mode : values()) {
+        if (mode.label.equalsIgnoreCase(label)) {
+          return mode;
+        }
+      }
+      return null;
+    }
   }
 
   /**
@@ -80,7 +102,9 @@ public class SpaceNet {
             + HeadlessMode.DEMANDS_RAW.label + " (raw demand simulator)" 
             + HeadlessMode.DEMANDS_AGGREGATED.label + " (aggregated demand simulator)" 
             + HeadlessMode.AUTO_MANIFEST.label + " (auto-manifest)" 
-            + HeadlessMode.CONVERT_SCENARIO.label + " (convert scenario format: xml <--> json)" 
+            + HeadlessMode.CONVERT_SCENARIO.label + " (convert scenario format: xml, json, or snb)" 
+            + HeadlessMode.BATCH.label + " (simulate a directory or manifest file of scenarios)" 
+            + HeadlessMode.SERVER.label + " (serve JSON-RPC requests on stdin or a port)" 
             + ".")
         .build();
     options.addOption(headless);
@@ -96,6 +120,36 @@ public class SpaceNet {
     Option consumeResources = Option.builder("c").longOpt("consume").hasArg(false)
         .desc("Consume existing resources.").build();
     options.addOption(consumeResources);
+    Option batchMode = Option.builder("m").longOpt("mode").argName("mode").hasArg()
+        .desc("Batch simulation mode: " + HeadlessMode.DEMANDS_RAW.label + ", "
+            + HeadlessMode.DEMANDS_AGGREGATED.label + " (default), or "
+            + HeadlessMode.AUTO_MANIFEST.label + ".")
+        .build();
+    options.addOption(batchMode);
+    Option threads = Option.builder("t").longOpt("threads").argName("count").hasArg()
+        .desc("Number of batch or server worker threads (default: available processors).").build();
+    options.addOption(threads);
+    Option trace = Option.builder("l").longOpt("trace").argName("level").hasArg()
+        .desc("Headless simulation trace level: off (default), error, warning, info, or debug.")
+        .build();
+    options.addOption(trace);
+    Option binaryTrace = Option.builder("b").longOpt("binary-trace").hasArg(false)
+        .desc("Write the headless simulation trace as compact binary records to a .trace file "
+            + "beside each output instead of printing it (default level: info).")
+        .build();
+    options.addOption(binaryTrace);
+    Option format = Option.builder("f").longOpt("format").argName("format").hasArg()
+        .desc("Headless output format: " + Format.PRETTY.label + " (default), "
+            + Format.COMPACT.label + " (one line), or " + Format.NDJSON.label
+            + " (one record per line).")
+        .build();
+    options.addOption(format);
+    Option port = Option.builder("p").longOpt("port").argName("port").hasArg()
+        .desc("Server loopback port (default: serve standard input and output).").build();
+    options.addOption(port);
+    Option cacheSize = Option.builder("s").longOpt("cache-size").argName("count").hasArg()
+        .desc("Number of parsed scenarios the server keeps (default: 16).").build();
+    options.addOption(cacheSize);
 
     CommandLineParser parser = new DefaultParser();
     HelpFormatter helper = new HelpFormatter();
@@ -104,6 +158,22 @@ public class SpaceNet {
       CommandLine line = parser.parse(options, args);
       if (line.hasOption(headless)) {
         String mode = line.getOptionValue(headless);
+        TraceLevel traceLevel = line.hasOption(binaryTrace) ? TraceLevel.INFO : TraceLevel.OFF;
+        if (line.hasOption(trace)) {
+          traceLevel = TraceLevel.getInstance(line.getOptionValue(trace));
+          if (traceLevel == null) {
+            System.err.println("Unknown trace level: " + line.getOptionValue(trace));
+            System.exit(0);
+          }
+        }
+        Format outputFormat = Format.PRETTY;
+        if (line.hasOption(format)) {
+          outputFormat = Format.getInstance(line.getOptionValue(format));
+          if (outputFormat == null) {
+            System.err.println("Unknown output format: " + line.getOptionValue(format));
+            System.exit(0);
+          }
+        }
 
         if (mode.equalsIgnoreCase(HeadlessMode.DEMANDS_RAW.label)
             || mode.equalsIgnoreCase(HeadlessMode.DEMANDS_AGGREGATED.label)
@@ -130,7 +200,10 @@ public class SpaceNet {
             line.hasOption(confirm),
             mode.equalsIgnoreCase(HeadlessMode.DEMANDS_RAW.label),
             line.hasOption(consumeResources), 
-            mode.equalsIgnoreCase(HeadlessMode.AUTO_MANIFEST.label)
+            mode.equalsIgnoreCase(HeadlessMode.AUTO_MANIFEST.label),
+            traceLevel,
+            line.hasOption(binaryTrace),
+            outputFormat
           );
         } else if (mode.equalsIgnoreCase(HeadlessMode.CONVERT_SCENARIO.label)) {
           String inputFilePath = null;
@@ -150,6 +223,71 @@ public class SpaceNet {
             System.exit(0);
           }
           convertScenario(inputFilePath, outputFilePath, line.hasOption(confirm));
+        } else if (mode.equalsIgnoreCase(HeadlessMode.BATCH.label)) {
+          if (!line.hasOption(input) || !line.hasOption(output)) {
+            System.err.println("Missing scenario directory/manifest or output directory path.");
+            helper.printHelp("Usage:", options);
+            System.exit(0);
+          }
+          HeadlessMode simulationMode = HeadlessMode.DEMANDS_AGGREGATED;
+          if (line.hasOption(batchMode)) {
+            simulationMode = HeadlessMode.getInstance(line.getOptionValue(batchMode));
+            if (simulationMode != HeadlessMode.DEMANDS_RAW
+                && simulationMode != HeadlessMode.DEMANDS_AGGREGATED
+                && simulationMode != HeadlessMode.AUTO_MANIFEST) {
+              System.err.println("Unknown batch mode: " + line.getOptionValue(batchMode));
+              System.exit(0);
+            }
+          }
+          int threadCount = Runtime.getRuntime().availableProcessors();
+          if (line.hasOption(threads)) {
+            try {
+              threadCount = Math.max(1, Integer.parseInt(line.getOptionValue(threads)));
+            } catch (NumberFormatException ex) {
+              System.err.println("Invalid thread count: " + line.getOptionValue(threads));
+              System.exit(0);
+            }
+          }
+          BatchRunner runner = new BatchRunner(simulationMode, threadCount,
+              line.hasOption(consumeResources), line.hasOption(confirm));
+          runner.setTrace(traceLevel, line.hasOption(binaryTrace));
+          runner.setOutputFormat(outputFormat);
+          boolean success = runner.run(new File(line.getOptionValue(input)).getAbsoluteFile(),
+              new File(line.getOptionValue(output)).getAbsoluteFile());
+          System.exit(success ? 0 : 1);
+        } else if (mode.equalsIgnoreCase(HeadlessMode.SERVER.label)) {
+          int threadCount = Runtime.getRuntime().availableProcessors();
+          int cacheCount = 16;
+          int portNumber = -1;
+          try {
+            if (line.hasOption(threads)) {
+              threadCount = Math.max(1, Integer.parseInt(line.getOptionValue(threads)));
+            }
+            if (line.hasOption(cacheSize)) {
+              cacheCount = Math.max(1, Integer.parseInt(line.getOptionValue(cacheSize)));
+            }
+            if (line.hasOption(port)) {
+              portNumber = Integer.parseInt(line.getOptionValue(port));
+            }
+          } catch (NumberFormatException ex) {
+            System.err.println("Invalid number: " + ex.getMessage());
+            System.exit(0);
+          }
+          SimulationServer server = new SimulationServer(threadCount, cacheCount,
+              line.hasOption(consumeResources), line.hasOption(confirm));
+          server.setTrace(traceLevel, line.hasOption(binaryTrace));
+          server.setOutputFormat(outputFormat);
+          if (portNumber < 0) {
+            server.serveStandardStreams();
+          } else {
+            try {
+              server.serveLoopback(portNumber);
+            } catch (IOException ex) {
+              System.err.println("Failed to serve port: " + ex.getMessage());
+              System.exit(1);
+            }
+          }
+          System.exit(0);
         } else {
           System.err.println("Unknown headless mode: " + mode);
           System.exit(0);
@@ -170,18 +308,9 @@ public class SpaceNet {
   }
 
   private static Scenario openScenario(String filePath) {
-    String extension = FilenameUtils.getExtension(filePath);
     Scenario scenario = null;
     try {
-      if (extension.equals("xml")) {
-        scenario = XStreamEngine.openScenario(filePath);
-        scenario.setFilePath(filePath);
-      } else if (extension.equals("json")) {
-        scenario = GsonEngine.openScenario(filePath);
-        scenario.setFilePath(filePath);
-      } else {
-        throw new UnsupportedOperationException("Invalid file path: " + filePath);
-      }
+      scenario = readScenario(filePath);
     } catch (IOException ex) {
       System.err.println("Failed to read scenario file: " + ex.getMessage());
       System.exit(1);
@@ -189,6 +318,31 @@ public class SpaceNet {
     return scenario;
   }
 
+  /**
+   * Reads a scenario from an xml, json, or binary (snb) file.
+   * 
+   * @param filePath the file path
+   * @return the scenario
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  static Scenario readScenario(String filePath) throws IOException {
+    String extension = FilenameUtils.getExtension(filePath);
+    Scenario scenario = null;
+    if (extension.equals("xml")) {
+      scenario = XStreamEngine.openScenario(filePath);
+      scenario.setFilePath(filePath);
+    } else if (extension.equals("json")) {
+      scenario = GsonEngine.openScenario(filePath);
+      scenario.setFilePath(filePath);
+    } else if (extension.equals("snb")) {
+      scenario = BinaryEngine.openScenario(filePath);
+      scenario.setFilePath(filePath);
+    } else {
+      throw new UnsupportedOperationException("Invalid file path: " + filePath);
+    }
+    return scenario;
+  }
+
   private static void saveScenario(Scenario scenario, boolean isOverwriteConfirmed) {
     File file = new File(scenario.getFilePath());
     if (file.exists() && !isOverwriteConfirmed) {
@@ -205,21 +359,33 @@ public class SpaceNet {
       } while (!(lastInput.equalsIgnoreCase("yes") || lastInput.equalsIgnoreCase("y")));
       in.close();
     }
-    String extension = FilenameUtils.getExtension(scenario.getFilePath());
     try {
-      if (extension.equals("xml")) {
-        XStreamEngine.saveScenario(scenario);
-      } else if (extension.equals("json")) {
-        GsonEngine.saveScenario(scenario);
-      } else {
-        throw new UnsupportedOperationException("Invalid file path: " + scenario);
-      }
+      writeScenario(scenario);
     } catch (IOException ex) {
       System.err.println("Failed to write scenario file: " + ex.getMessage());
       System.exit(1);
     }
   }
 
+  /**
+   * Writes a scenario to the xml, json, or binary (snb) file at its file path.
+   * 
+   * @param scenario the scenario
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  static void writeScenario(Scenario scenario) throws IOException {
+    String extension = FilenameUtils.getExtension(scenario.getFilePath());
+    if (extension.equals("xml")) {
+      XStreamEngine.saveScenario(scenario);
+    } else if (extension.equals("json")) {
+      GsonEngine.saveScenario(scenario);
+    } else if (extension.equals("snb")) {
+      BinaryEngine.saveScenario(scenario);
+    } else {
+      throw new UnsupportedOperationException("Invalid file path: " + scenario);
+    }
+  }
+
   private static void convertScenario(String inputFilePath, String outputFilePath,
       boolean isOverwriteConfirmed) {
     Scenario scenario = openScenario(inputFilePath);
@@ -229,13 +395,9 @@ public class SpaceNet {
 
   private static void runDemandSimulator(String scenarioFilePath, String outputFilePath,
       boolean isOverwriteConfirmed, boolean isRawDemands, boolean consumeExistingResources, 
-      boolean autoManifest) {
+      boolean autoManifest, TraceLevel traceLevel, boolean binaryTrace, Format outputFormat) {
     Scenario scenario = openScenario(scenarioFilePath);
 
-    DemandSimulator simulator = new DemandSimulator(scenario);
-    simulator.setDemandsSatisfied(consumeExistingResources);
-    simulator.simulate();
-
     File file = new File(outputFilePath);
     if (file.exists() && !isOverwriteConfirmed) {
       Scanner in = new Scanner(System.in);
@@ -251,22 +413,88 @@ public class SpaceNet {
       in.close();
     }
 
-    Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    // the trace file is only created once the output file may be overwritten
+    BinaryTraceSink traceFile = null;
+    try {
+      traceFile = openTraceSink(traceLevel, binaryTrace, outputFilePath);
+    } catch (IOException ex) {
+      System.err.println("Failed to open trace file: " + ex.getMessage());
+      System.exit(1);
+    }
     try {
+      DemandSimulator simulator = new DemandSimulator(scenario);
+      simulator.setDemandsSatisfied(consumeExistingResources);
+      simulator.simulate();
+
       BufferedWriter out = new BufferedWriter(new FileWriter(outputFilePath));
-      if (autoManifest) {
-        scenario.getManifest().importDemands(simulator);
-        scenario.getManifest().autoManifest();
-        gson.toJson(ManifestAnalysis.createFrom(scenario.getManifest()), out);
-      } else if (isRawDemands) {
-        gson.toJson(RawDemandsAnalysis.createFrom(simulator), out);
-      } else {
-        gson.toJson(AggregatedDemandsAnalysis.createFrom(simulator), out);
+      try {
+        writeDemandAnalysis(scenario, simulator, isRawDemands, autoManifest, outputFormat, out);
+      } finally {
+        out.close();
+      }
+      if (traceFile != null) {
+        traceFile.close();
+        traceFile = null;
       }
-      out.close();
     } catch (IOException ex) {
       System.err.println("Failed to output file: " + ex.getMessage());
       System.exit(1);
+    } finally {
+      if (traceFile != null) {
+        try {
+          traceFile.close();
+        } catch (IOException ex) {
+          // already failed
+        }
+      }
+    }
+  }
+
+  /**
+   * Sets the simulation trace sink of the active context for a headless run: a binary trace file
+   * beside the output file if requested, otherwise the console at the trace level.
+   * 
+   * @param traceLevel the trace level
+   * @param binaryTrace whether to write a binary trace file
+   * @param outputFilePath the output file path
+   * @return the binary trace sink to close when done, null if tracing to the console
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  static BinaryTraceSink openTraceSink(TraceLevel traceLevel, boolean binaryTrace,
+      String outputFilePath) throws IOException {
+    if (binaryTrace) {
+      BinaryTraceSink sink = new BinaryTraceSink(traceLevel,
+          new FileOutputStream(FilenameUtils.removeExtension(outputFilePath) + ".trace"));
+      SimulationContext.getCurrent().setTraceSink(sink);
+      return sink;
+    }
+    SimulationContext.getCurrent().setTraceSink(new ConsoleTraceSink(traceLevel));
+    return null;
+  }
+
+  /**
+   * Writes the json analysis of a completed demand simulation, auto-manifesting the scenario first
+   * if requested. Records are streamed to the writer as they are created.
+   * 
+   * @param scenario the scenario
+   * @param simulator the completed demand simulator
+   * @param isRawDemands whether to write raw (rather than aggregated) demands
+   * @param autoManifest whether to auto-manifest and write the manifest
+   * @param format the output format
+   * @param out the writer
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  static void writeDemandAnalysis(Scenario scenario, DemandSimulator simulator,
+      boolean isRawDemands, boolean autoManifest, Format format, Writer out) throws IOException {
+    DemandsAnalysisWriter writer = new DemandsAnalysisWriter(out, format);
+    if (autoManifest) {
+      scenario.getManifest().importDemands(simulator);
+      scenario.getManifest().autoManifestInParallel(new GreedyManifestStrategy());
+      writer.writeManifest(scenario.getManifest());
+    } else if (isRawDemands) {
+      writer.writeRawDemands(simulator);
+    } else {
+      writer.writeAggregatedDemands(simulator);
     }
   }
 
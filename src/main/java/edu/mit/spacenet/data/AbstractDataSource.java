@@ -250,4 +250,27 @@ public abstract class AbstractDataSource implements I_DataSource {
   public final Date getLastLoadDate() {
     return lastLoadDate;
   }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see edu.mit.spacenet.data.I_DataSource#beginTransaction()
+   */
+  public void beginTransaction() throws Exception {
+    // changes are written immediately unless a data source holds them
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see edu.mit.spacenet.data.I_DataSource#commitTransaction()
+   */
+  public void commitTransaction() throws Exception {}
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see edu.mit.spacenet.data.I_DataSource#rollbackTransaction()
+   */
+  public void rollbackTransaction() {}
 }
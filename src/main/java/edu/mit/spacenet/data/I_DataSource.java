@@ -282,4 +282,26 @@ public interface I_DataSource {
    * @throws Exception the exception
    */
   public void format() throws Exception;
+
+  /**
+   * Begins a transaction. The saves and deletes made until the transaction is committed may be held
+   * in memory and written to the data source together. Loads read the data source as last
+   * committed. If a save or delete fails, the transaction should be rolled back.
+   * 
+   * @throws Exception the exception
+   */
+  public void beginTransaction() throws Exception;
+
+  /**
+   * Commits the open transaction, writing any held changes to the data source.
+   * 
+   * @throws Exception the exception
+   */
+  public void commitTransaction() throws Exception;
+
+  /**
+   * Rolls back the open transaction, discarding any held changes. The libraries in memory may
+   * still reflect the discarded changes, so should be reloaded.
+   */
+  public void rollbackTransaction();
 }
@@ -13,13 +13,24 @@
  */
 package edu.mit.spacenet.data;
 
+import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.Cell;
@@ -108,6 +119,9 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
       STATE_INITIAL = 4;
 
   private String filePath;
+  private transient IndexedWorkbook indexedWorkbook;
+  private transient IndexedWorkbook transaction;
+  private transient boolean isTransactionModified;
 
   /**
    * Instantiates a new data source with the passed file path.
@@ -130,31 +144,13 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
    */
   public boolean deleteEdge(int tid) throws IOException {
     if (edgeLibrary.remove(loadEdge(tid))) {
-      Workbook wb = readWorkbook();
-      int rowNum = -1;
-      for (Row row : wb.getSheetAt(EDGE_SHEET)) {
-        if (row.getRowNum() == 0 || isRowEmpty(row))
-          continue;
-        if (row.getCell(EDGE_ID).getNumericCellValue() == tid) {
-          rowNum = row.getRowNum();
-          break;
-        }
-      }
-
-      if (rowNum > 0) {
-        List<Integer> burnsToDelete = new ArrayList<Integer>();
-        for (Row row : wb.getSheetAt(BURN_SHEET)) {
-          if (row.getRowNum() == 0 || isRowEmpty(row))
-            continue;
-          if (row.getCell(BURN_EDGE_ID).getNumericCellValue() == tid) {
-            burnsToDelete.add((int) row.getCell(BURN_ID).getNumericCellValue());
-          }
-        }
-        for (Integer burnId : burnsToDelete)
-          deleteBurn(wb, burnId);
-        deleteRow(wb.getSheetAt(EDGE_SHEET), rowNum);
+      IndexedWorkbook wb = getWritableWorkbook();
+      List<Row> rows = wb.getRows(EDGE_SHEET, EDGE_ID, tid);
+      if (!rows.isEmpty()) {
+        wb.deleteRows(BURN_SHEET, BURN_EDGE_ID, Collections.singleton(tid), "Burn");
+        wb.deleteRow(EDGE_SHEET, rows.get(0));
         System.out.println("Edge #" + tid + " deleted");
-        writeWorkbook(wb);
+        saveWorkbook(wb);
         return true;
       } else {
         System.out.println("Edge #" + tid + " not found in database");
@@ -166,34 +162,6 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
     }
   }
 
-  /**
-   * Deletes a burn from a workbook.
-   * 
-   * @param wb the workbook
-   * @param tid the type ID of the part to delete
-   * 
-   * @return true, if successful
-   */
-  private boolean deleteBurn(Workbook wb, int tid) {
-    int rowNum = -1;
-    for (Row row : wb.getSheetAt(BURN_SHEET)) {
-      if (row.getRowNum() == 0 || isRowEmpty(row))
-        continue;
-      if (row.getCell(BURN_ID).getNumericCellValue() == tid) {
-        rowNum = row.getRowNum();
-        break;
-      }
-    }
-    if (rowNum > 0) {
-      deleteRow(wb.getSheetAt(BURN_SHEET), rowNum);
-      System.out.println("Burn #" + tid + " deleted");
-      return true;
-    } else {
-      System.out.println("Burn #" + tid + " not found in database");
-      return false; // burn not found
-    }
-  }
-
   /*
    * (non-Javadoc)
    * 
@@ -201,53 +169,18 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
    */
   public boolean deleteElement(int tid) throws IOException {
     if (elementPreviewLibrary.remove(loadElementPreview(tid))) {
-      Workbook wb = readWorkbook();
-      int rowNum = -1;
-      for (Row row : wb.getSheetAt(ELEMENT_SHEET)) {
-        if (row.getRowNum() == 0 || isRowEmpty(row))
-          continue;
-        if (row.getCell(EDGE_ID).getNumericCellValue() == tid) {
-          rowNum = row.getRowNum();
-          break;
-        }
-      }
-      if (rowNum > 0) {
-        List<Integer> demandsToDelete = new ArrayList<Integer>();
-        for (Row row : wb.getSheetAt(DEMAND_SHEET)) {
-          if (row.getRowNum() == 0 || isRowEmpty(row))
-            continue;
-          if (row.getCell(DEMAND_CONTAINER_ID).getCellType() == CellType.NUMERIC
-              && row.getCell(DEMAND_CONTAINER_ID).getNumericCellValue() == tid) {
-            demandsToDelete.add((int) row.getCell(DEMAND_ID).getNumericCellValue());
-          }
-        }
-        for (Integer demandId : demandsToDelete)
-          deleteDemand(wb, demandId);
-
-        List<Integer> partsToDelete = new ArrayList<Integer>();
-        for (Row row : wb.getSheetAt(PART_SHEET)) {
-          if (row.getRowNum() == 0 || isRowEmpty(row))
-            continue;
-          if (row.getCell(PART_ELEMENT_ID).getNumericCellValue() == tid) {
-            partsToDelete.add((int) row.getCell(PART_ID).getNumericCellValue());
-          }
-        }
-        for (Integer partId : partsToDelete)
-          deletePart(wb, partId);
-
-        List<Integer> statesToDelete = new ArrayList<Integer>();
-        for (Row row : wb.getSheetAt(STATE_SHEET)) {
-          if (row.getRowNum() == 0 || isRowEmpty(row))
-            continue;
-          if (row.getCell(STATE_ELEMENT_ID).getNumericCellValue() == tid) {
-            statesToDelete.add((int) row.getCell(STATE_ID).getNumericCellValue());
-          }
-        }
-        for (Integer stateId : statesToDelete)
-          deleteState(wb, stateId);
-        deleteRow(wb.getSheetAt(ELEMENT_SHEET), rowNum);
+      IndexedWorkbook wb = getWritableWorkbook();
+      List<Row> rows = wb.getRows(ELEMENT_SHEET, ELEMENT_ID, tid);
+      if (!rows.isEmpty()) {
+        Set<Integer> element = Collections.singleton(tid);
+        wb.deleteRows(DEMAND_SHEET, DEMAND_CONTAINER_ID, element, "Demand");
+        wb.deleteRows(PART_SHEET, PART_ELEMENT_ID, element, "Part");
+        List<Integer> states = wb.deleteRows(STATE_SHEET, STATE_ELEMENT_ID, element, "State");
+        List<Integer> models = wb.deleteRows(MODEL_SHEET, MODEL_STATE_ID, states, "Model");
+        wb.deleteRows(DEMAND_SHEET, DEMAND_MODEL_ID, models, "Demand");
+        wb.deleteRow(ELEMENT_SHEET, rows.get(0));
         System.out.println("Element #" + tid + " deleted");
-        writeWorkbook(wb);
+        saveWorkbook(wb);
         return true;
       } else {
         System.out.println("Element #" + tid + " not found in database");
@@ -260,139 +193,27 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
   }
 
   /**
-   * Deletes a part from a workbook. Note: part objects do not have a primary key so the type ID
-   * parameter must be determined internally to the data source.
+   * Deletes states from a workbook. Also deletes any associated demand models.
    * 
    * @param wb the workbook
-   * @param tid the type ID of the part to delete
-   * 
-   * @return true, if successful
+   * @param column the column to match, either the state ID or the element ID
+   * @param keys the IDs to match
    */
-  private boolean deletePart(Workbook wb, int tid) {
-    int rowNum = -1;
-    for (Row row : wb.getSheetAt(PART_SHEET)) {
-      if (row.getRowNum() == 0 || isRowEmpty(row))
-        continue;
-      if (row.getCell(PART_ID).getNumericCellValue() == tid) {
-        rowNum = row.getRowNum();
-        break;
-      }
-    }
-    if (rowNum > 0) {
-      deleteRow(wb.getSheetAt(PART_SHEET), rowNum);
-      System.out.println("Part #" + tid + " deleted");
-      return true;
-    } else {
-      System.out.println("Part #" + tid + " not found in database");
-      return false; // part not found
-    }
+  private void deleteStates(Workbook wb, int column, Collection<Integer> keys) {
+    List<Integer> states = deleteRows(wb.getSheetAt(STATE_SHEET), column, keys, "State");
+    deleteModels(wb, MODEL_STATE_ID, states);
   }
 
   /**
-   * Deletes a state from a workbook. Also deletes any associated demand models.
+   * Deletes demand models from a workbook. Also deletes any associated demands.
    * 
    * @param wb the workbook
-   * @param tid the type ID of the state to delete
-   * 
-   * @return true, if successful
+   * @param column the column to match, either the model ID or the state ID
+   * @param keys the IDs to match
    */
-  private boolean deleteState(Workbook wb, int tid) {
-    int rowNum = -1;
-    for (Row row : wb.getSheetAt(STATE_SHEET)) {
-      if (row.getRowNum() == 0 || isRowEmpty(row))
-        continue;
-      if (row.getCell(STATE_ID).getNumericCellValue() == tid) {
-        rowNum = row.getRowNum();
-        break;
-      }
-    }
-    if (rowNum > 0) {
-      List<Integer> modelsToDelete = new ArrayList<Integer>();
-      for (Row row : wb.getSheetAt(MODEL_SHEET)) {
-        if (row.getRowNum() == 0 || isRowEmpty(row))
-          continue;
-        if (row.getCell(MODEL_STATE_ID).getNumericCellValue() == tid) {
-          modelsToDelete.add((int) row.getCell(MODEL_ID).getNumericCellValue());
-        }
-      }
-      for (Integer modelId : modelsToDelete)
-        deleteModel(wb, modelId);
-      deleteRow(wb.getSheetAt(STATE_SHEET), rowNum);
-      System.out.println("State #" + tid + " deleted");
-      return true;
-    } else {
-      System.out.println("State #" + tid + " not found in database");
-      return false; // state not found
-    }
-  }
-
-  /**
-   * Deletes a demand model from a workbook. Also deletes any associated demands. Note: demand
-   * objects do not have a primary key so the type ID parameter must be determined internally to the
-   * data source.
-   * 
-   * @param wb the workbook
-   * @param tid the type ID of the demand model to delete
-   * 
-   * @return true, if successful
-   */
-  private boolean deleteModel(Workbook wb, int tid) {
-    int rowNum = -1;
-    for (Row row : wb.getSheetAt(MODEL_SHEET)) {
-      if (row.getRowNum() == 0 || isRowEmpty(row))
-        continue;
-      if (row.getCell(MODEL_ID).getNumericCellValue() == tid) {
-        rowNum = row.getRowNum();
-        break;
-      }
-    }
-    if (rowNum > 0) {
-      List<Integer> demandsToDelete = new ArrayList<Integer>();
-      for (Row row : wb.getSheetAt(DEMAND_SHEET)) {
-        if (row.getRowNum() == 0 || isRowEmpty(row))
-          continue;
-        if (row.getCell(DEMAND_MODEL_ID).getCellType() == CellType.NUMERIC
-            && row.getCell(DEMAND_MODEL_ID).getNumericCellValue() == tid) {
-          demandsToDelete.add((int) row.getCell(DEMAND_ID).getNumericCellValue());
-        }
-      }
-      for (Integer demandId : demandsToDelete)
-        deleteDemand(wb, demandId);
-      deleteRow(wb.getSheetAt(MODEL_SHEET), rowNum);
-      System.out.println("Model #" + tid + " deleted");
-      return true;
-    } else {
-      System.out.println("Model #" + tid + " not found in database");
-      return false; // model not found
-    }
-  }
-
-  /**
-   * Deletes a demand.
-   * 
-   * @param wb the workbook
-   * @param tid the type ID of the demand to delete
-   * 
-   * @return true, if successful
-   */
-  private boolean deleteDemand(Workbook wb, int tid) {
-    int rowNum = -1;
-    for (Row row : wb.getSheetAt(DEMAND_SHEET)) {
-      if (row.getRowNum() == 0 || isRowEmpty(row))
-        continue;
-      if (row.getCell(DEMAND_ID).getNumericCellValue() == tid) {
-        rowNum = row.getRowNum();
-        break;
-      }
-    }
-    if (rowNum > 0) {
-      deleteRow(wb.getSheetAt(DEMAND_SHEET), rowNum);
-      System.out.println("Demand #" + tid + " deleted");
-      return true;
-    } else {
-      System.out.println("Demand #" + tid + " not found in database");
-      return false; // demand not found
-    }
+  private void deleteModels(Workbook wb, int column, Collection<Integer> keys) {
+    List<Integer> models = deleteRows(wb.getSheetAt(MODEL_SHEET), column, keys, "Model");
+    deleteRows(wb.getSheetAt(DEMAND_SHEET), DEMAND_MODEL_ID, models, "Demand");
   }
 
   /*
@@ -401,30 +222,18 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
    * @see edu.mit.spacenet.data.I_DataSource#deleteNode(int)
    */
   public boolean deleteNode(int tid) throws IOException {
-    Workbook wb = readWorkbook();
-    for (Row row : wb.getSheetAt(EDGE_SHEET)) {
-      if (row.getRowNum() == 0 || isRowEmpty(row))
-        continue;
-      if (row.getCell(EDGE_ORIGIN_ID).getNumericCellValue() == tid
-          || row.getCell(EDGE_DESTINATION_ID).getNumericCellValue() == tid) {
-        System.out.println("Node #" + tid + " is used in edges");
-        return false; // node is used as edge origin or destination
-      }
+    IndexedWorkbook wb = getWritableWorkbook();
+    if (!wb.getRows(EDGE_SHEET, EDGE_ORIGIN_ID, tid).isEmpty()
+        || !wb.getRows(EDGE_SHEET, EDGE_DESTINATION_ID, tid).isEmpty()) {
+      System.out.println("Node #" + tid + " is used in edges");
+      return false; // node is used as edge origin or destination
     }
     if (nodeLibrary.remove(loadNode(tid))) {
-      int rowNum = -1;
-      for (Row row : wb.getSheetAt(NODE_SHEET)) {
-        if (row.getRowNum() == 0 || isRowEmpty(row))
-          continue;
-        if (row.getCell(NODE_ID).getNumericCellValue() == tid) {
-          rowNum = row.getRowNum();
-          break;
-        }
-      }
-      if (rowNum > 0) {
-        deleteRow(wb.getSheetAt(NODE_SHEET), rowNum);
+      List<Row> rows = wb.getRows(NODE_SHEET, NODE_ID, tid);
+      if (!rows.isEmpty()) {
+        wb.deleteRow(NODE_SHEET, rows.get(0));
         System.out.println("Node #" + tid + " deleted");
-        writeWorkbook(wb);
+        saveWorkbook(wb);
         return true;
       } else {
         System.out.println("Node #" + tid + " not found in database");
@@ -442,52 +251,27 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
    * @see edu.mit.spacenet.data.I_DataSource#deleteResource(int)
    */
   public boolean deleteResource(int tid) throws IOException {
-    Workbook wb = readWorkbook();
-    for (Row row : wb.getSheetAt(ELEMENT_SHEET)) {
-      if (row.getRowNum() == 0 || isRowEmpty(row))
-        continue;
-      if ((row.getCell(ELEMENT_OMS_ID).getCellType() == CellType.NUMERIC
-          && row.getCell(ELEMENT_OMS_ID).getNumericCellValue() == tid)
-          || (row.getCell(ELEMENT_RCS_ID).getCellType() == CellType.NUMERIC
-              && row.getCell(ELEMENT_RCS_ID).getNumericCellValue() == tid)
-          || (row.getCell(ELEMENT_FUEL_ID).getCellType() != CellType.NUMERIC
-              && row.getCell(ELEMENT_FUEL_ID).getNumericCellValue() == tid)) {
-        System.out.println("Resource #" + tid + " is used in elements");
-        return false; // resource is used in elements
-      }
+    IndexedWorkbook wb = getWritableWorkbook();
+    if (!wb.getRows(ELEMENT_SHEET, ELEMENT_OMS_ID, tid).isEmpty()
+        || !wb.getRows(ELEMENT_SHEET, ELEMENT_RCS_ID, tid).isEmpty()
+        || !wb.getRows(ELEMENT_SHEET, ELEMENT_FUEL_ID, tid).isEmpty()) {
+      System.out.println("Resource #" + tid + " is used in elements");
+      return false; // resource is used in elements
     }
-    for (Row row : wb.getSheetAt(PART_SHEET)) {
-      if (row.getRowNum() == 0 || isRowEmpty(row))
-        continue;
-      if (row.getCell(PART_RESOURCE_ID).getCellType() == CellType.NUMERIC
-          && row.getCell(PART_RESOURCE_ID).getNumericCellValue() == tid) {
-        System.out.println("Resource #" + tid + " is used in applications");
-        return false; // resource is used in part applications
-      }
+    if (!wb.getRows(PART_SHEET, PART_RESOURCE_ID, tid).isEmpty()) {
+      System.out.println("Resource #" + tid + " is used in applications");
+      return false; // resource is used in part applications
     }
-    for (Row row : wb.getSheetAt(DEMAND_SHEET)) {
-      if (row.getRowNum() == 0 || isRowEmpty(row))
-        continue;
-      if (row.getCell(DEMAND_RESOURCE_ID).getCellType() == CellType.NUMERIC
-          && row.getCell(DEMAND_RESOURCE_ID).getNumericCellValue() == tid) {
-        System.out.println("Resource #" + tid + " is used in demands");
-        return false; // resource is used in demands
-      }
+    if (!wb.getRows(DEMAND_SHEET, DEMAND_RESOURCE_ID, tid).isEmpty()) {
+      System.out.println("Resource #" + tid + " is used in demands");
+      return false; // resource is used in demands
     }
     if (resourceTypeLibrary.remove(loadResource(tid))) {
-      int rowNum = -1;
-      for (Row row : wb.getSheetAt(RESOURCE_SHEET)) {
-        if (row.getRowNum() == 0 || isRowEmpty(row))
-          continue;
-        if (row.getCell(RESOURCE_ID).getNumericCellValue() == tid) {
-          rowNum = row.getRowNum();
-          break;
-        }
-      }
-      if (rowNum > 0) {
-        deleteRow(wb.getSheetAt(RESOURCE_SHEET), rowNum);
+      List<Row> rows = wb.getRows(RESOURCE_SHEET, RESOURCE_ID, tid);
+      if (!rows.isEmpty()) {
+        wb.deleteRow(RESOURCE_SHEET, rows.get(0));
         System.out.println("Resource #" + tid + " deleted");
-        writeWorkbook(wb);
+        saveWorkbook(wb);
         return true;
       } else {
         System.out.println("Resource #" + tid + " not found in database");
@@ -535,21 +319,21 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
    * @see edu.mit.spacenet.data.I_DataSource#loadEdgeLibrary()
    */
   public void loadEdgeLibrary() throws IOException {
-    loadEdgeLibrary(readWorkbook());
+    loadEdgeLibrary(getIndexedWorkbook());
   }
 
   /**
    * Load edge library from a workbook
    * 
-   * @param wb the workbook
+   * @param wb the indexed workbook
    */
-  private void loadEdgeLibrary(Workbook wb) {
+  private void loadEdgeLibrary(IndexedWorkbook wb) {
     Map<Integer, Boolean> libraryContents = new HashMap<Integer, Boolean>();
     for (Edge edge : getEdgeLibrary()) {
       // mark all edges as unfound
       libraryContents.put(edge.getTid(), false);
     }
-    for (Row row : wb.getSheetAt(EDGE_SHEET)) {
+    for (Row row : wb.getWorkbook().getSheetAt(EDGE_SHEET)) {
       if (row.getRowNum() == 0 || isRowEmpty(row))
         continue;
       try {
@@ -607,27 +391,23 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
   /**
    * Load burns for a specific space edge.
    * 
-   * @param wb the workbook
+   * @param wb the indexed workbook
    * @param edge the space edge
    */
-  private void loadBurns(Workbook wb, SpaceEdge edge) {
+  private void loadBurns(IndexedWorkbook wb, SpaceEdge edge) {
     edge.getBurns().clear();
-    for (Row row : wb.getSheetAt(BURN_SHEET)) {
+    for (Row row : wb.getBurnRows(edge.getTid())) {
       try {
-        if (row.getRowNum() == 0 || isRowEmpty(row))
-          continue;
-        if (row.getCell(BURN_EDGE_ID).getNumericCellValue() == edge.getTid()) {
-          Burn b = new Burn();
-          b.setTid((int) row.getCell(BURN_ID).getNumericCellValue());
-          b.setTime(row.getCell(BURN_TIME).getNumericCellValue());
-          b.setBurnType(BurnType.getInstance(row.getCell(BURN_TYPE).getStringCellValue()));
-          b.setDeltaV(row.getCell(BURN_DELTA_V).getNumericCellValue());
-          // TODO problems if burns are "out of order" in database... make sure this gets
-          // fixed for the online database
-          while (edge.getBurns().size() <= (int) row.getCell(BURN_ORDER).getNumericCellValue())
-            edge.getBurns().add(new Burn());
-          edge.getBurns().set((int) row.getCell(BURN_ORDER).getNumericCellValue(), b);
-        }
+        Burn b = new Burn();
+        b.setTid((int) row.getCell(BURN_ID).getNumericCellValue());
+        b.setTime(row.getCell(BURN_TIME).getNumericCellValue());
+        b.setBurnType(BurnType.getInstance(row.getCell(BURN_TYPE).getStringCellValue()));
+        b.setDeltaV(row.getCell(BURN_DELTA_V).getNumericCellValue());
+        // TODO problems if burns are "out of order" in database... make sure this gets
+        // fixed for the online database
+        while (edge.getBurns().size() <= (int) row.getCell(BURN_ORDER).getNumericCellValue())
+          edge.getBurns().add(new Burn());
+        edge.getBurns().set((int) row.getCell(BURN_ORDER).getNumericCellValue(), b);
       } catch (Exception ex) {
         // error loading burn
         ex.printStackTrace();
@@ -659,126 +439,118 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
    * @see edu.mit.spacenet.data.I_DataSource#loadElement(int)
    */
   public I_Element loadElement(int tid) throws IOException {
-    Workbook wb = readWorkbook();
-    for (Row row : wb.getSheetAt(ELEMENT_SHEET)) {
-      try {
-        if (row.getRowNum() == 0 || isRowEmpty(row))
-          continue;
-        if (row.getCell(ELEMENT_ID).getNumericCellValue() == tid) {
-          I_Element e = null;
-          String elementType = row.getCell(ELEMENT_TYPE).getStringCellValue().toLowerCase();
-          if (ElementType.ELEMENT.getName().toLowerCase().contains(elementType)) {
-            e = new Element();
-          } else if (ElementType.RESOURCE_CONTAINER.getName().toLowerCase().contains(elementType)) {
-            e = new ResourceContainer();
-            ((ResourceContainer) e)
-                .setMaxCargoMass(row.getCell(ELEMENT_CARGO_MASS).getNumericCellValue());
-            ((ResourceContainer) e)
-                .setMaxCargoVolume(row.getCell(ELEMENT_CARGO_VOLUME).getNumericCellValue());
-            ((ResourceContainer) e).setCargoEnvironment(Environment
-                .getInstance(row.getCell(ELEMENT_CARGO_ENVIRONMENT).getStringCellValue()));
-          } else if (ElementType.CREW_MEMBER.getName().toLowerCase().contains(elementType)) {
-            e = new CrewMember();
-            ((CrewMember) e).setAvailableTimeFraction(
-                row.getCell(ELEMENT_ACTIVE_FRACTION).getNumericCellValue());
-          } else if (ElementType.CARRIER.getName().toLowerCase().contains(elementType)) {
-            e = new Carrier();
-            ((Carrier) e).setMaxCrewSize((int) row.getCell(ELEMENT_MAX_CREW).getNumericCellValue());
-            ((Carrier) e).setMaxCargoMass(row.getCell(ELEMENT_CARGO_MASS).getNumericCellValue());
-            ((Carrier) e)
-                .setMaxCargoVolume(row.getCell(ELEMENT_CARGO_VOLUME).getNumericCellValue());
-            ((Carrier) e).setCargoEnvironment(Environment
-                .getInstance(row.getCell(ELEMENT_CARGO_ENVIRONMENT).getStringCellValue()));
-          } else if (ElementType.SURFACE_VEHICLE.getName().toLowerCase().contains(elementType)) {
-            e = new SurfaceVehicle();
-            ((SurfaceVehicle) e)
-                .setMaxCrewSize((int) row.getCell(ELEMENT_MAX_CREW).getNumericCellValue());
-            ((SurfaceVehicle) e)
-                .setMaxCargoMass(row.getCell(ELEMENT_CARGO_MASS).getNumericCellValue());
-            ((SurfaceVehicle) e)
-                .setMaxCargoVolume(row.getCell(ELEMENT_CARGO_VOLUME).getNumericCellValue());
-            ((SurfaceVehicle) e).setCargoEnvironment(Environment
-                .getInstance(row.getCell(ELEMENT_CARGO_ENVIRONMENT).getStringCellValue()));
-            ((SurfaceVehicle) e).setMaxSpeed(row.getCell(ELEMENT_MAX_SPEED).getNumericCellValue());
-            ((SurfaceVehicle) e).getFuelTank()
-                .setMaxAmount(row.getCell(ELEMENT_MAX_FUEL).getNumericCellValue());
-            ((SurfaceVehicle) e).getFuelTank()
-                .setAmount(row.getCell(ELEMENT_MAX_FUEL).getNumericCellValue());
-            ((SurfaceVehicle) e).getFuelTank()
-                .setResource(loadResource(row.getCell(ELEMENT_FUEL_ID)));
-          } else if (ElementType.PROPULSIVE_VEHICLE.getName().toLowerCase().contains(elementType)) {
-            e = new PropulsiveVehicle();
-            ((PropulsiveVehicle) e)
-                .setMaxCrewSize((int) row.getCell(ELEMENT_MAX_CREW).getNumericCellValue());
-            ((PropulsiveVehicle) e)
-                .setMaxCargoMass(row.getCell(ELEMENT_CARGO_MASS).getNumericCellValue());
-            ((PropulsiveVehicle) e)
-                .setMaxCargoVolume(row.getCell(ELEMENT_CARGO_VOLUME).getNumericCellValue());
-            ((PropulsiveVehicle) e).setCargoEnvironment(Environment
-                .getInstance(row.getCell(ELEMENT_CARGO_ENVIRONMENT).getStringCellValue()));
-            ((PropulsiveVehicle) e).setOmsIsp(row.getCell(ELEMENT_OMS_ISP).getNumericCellValue());
-            ((PropulsiveVehicle) e).setRcsIsp(row.getCell(ELEMENT_RCS_ISP).getNumericCellValue());
-            if (((PropulsiveVehicle) e).getOmsIsp() > 0) {
-              ((PropulsiveVehicle) e).getOmsFuelTank()
-                  .setMaxAmount(row.getCell(ELEMENT_MAX_OMS).getNumericCellValue());
-              ((PropulsiveVehicle) e).getOmsFuelTank()
-                  .setAmount(row.getCell(ELEMENT_MAX_OMS).getNumericCellValue());
-              ((PropulsiveVehicle) e).getOmsFuelTank()
-                  .setResource(loadResource(row.getCell(ELEMENT_OMS_ID)));
-            } else {
-              ((PropulsiveVehicle) e).setOmsFuelTank(null);
-            }
-            if (((PropulsiveVehicle) e).getRcsIsp() > 0
-                && row.getCell(ELEMENT_MAX_RCS).getNumericCellValue() > 0) {
-              ((PropulsiveVehicle) e).getRcsFuelTank()
-                  .setMaxAmount(row.getCell(ELEMENT_MAX_RCS).getNumericCellValue());
-              ((PropulsiveVehicle) e).getRcsFuelTank()
-                  .setAmount(row.getCell(ELEMENT_MAX_RCS).getNumericCellValue());
-              ((PropulsiveVehicle) e).getRcsFuelTank()
-                  .setResource(loadResource(row.getCell(ELEMENT_RCS_ID)));
-            } else if (((PropulsiveVehicle) e).getRcsIsp() > 0) {
-              ((PropulsiveVehicle) e).getContents()
-                  .remove(((PropulsiveVehicle) e).getRcsFuelTank());
-              ((PropulsiveVehicle) e).setRcsFuelTank(((PropulsiveVehicle) e).getOmsFuelTank());
-            } else {
-              ((PropulsiveVehicle) e).setRcsFuelTank(null);
-            }
-          } else {
-            throw new Exception("Unknown Element Type");
-          }
-          e.setTid((int) row.getCell(ELEMENT_ID).getNumericCellValue());
-          e.setName(row.getCell(ELEMENT_NAME).getStringCellValue());
-          e.setClassOfSupply(
-              ClassOfSupply.getInstance((int) row.getCell(ELEMENT_COS).getNumericCellValue()));
-          e.setEnvironment(
-              Environment.getInstance(row.getCell(ELEMENT_ENVIRONMENT).getStringCellValue()));
-          e.setAccommodationMass(row.getCell(ELEMENT_ACCOMMODATION_MASS).getNumericCellValue());
-          e.setMass(row.getCell(ELEMENT_MASS).getNumericCellValue());
-          e.setVolume(row.getCell(ELEMENT_VOLUME).getNumericCellValue());
-          e.setDescription(row.getCell(ELEMENT_DESCRIPTION).toString());
-          if (ElementIcon.getInstance(row.getCell(ELEMENT_ICON).toString()) != null) {
-            e.setIconType(ElementIcon.getInstance(row.getCell(ELEMENT_ICON).toString()));
-          }
-          if (e.getElementType() == ElementType.RESOURCE_CONTAINER) {
-            ((I_ResourceContainer) e).getContents().clear();
-            for (Row r : wb.getSheetAt(DEMAND_SHEET)) {
-              if (r.getRowNum() == 0 || isRowEmpty(r))
-                continue;
-              if (r.getCell(DEMAND_CONTAINER_ID).getNumericCellValue() == e.getTid()) {
-                ((ResourceContainer) e).getContents().put(
-                    loadResource(r.getCell(DEMAND_RESOURCE_ID)),
-                    r.getCell(DEMAND_AMOUNT).getNumericCellValue());
-              }
-            }
-          }
-          loadParts(wb, e);
-          loadStates(wb, e);
-          return e;
+    IndexedWorkbook wb = getIndexedWorkbook();
+    Row row = wb.getElementRow(tid);
+    if (row == null)
+      return null;
+    try {
+      I_Element e = null;
+      String elementType = row.getCell(ELEMENT_TYPE).getStringCellValue().toLowerCase();
+      if (ElementType.ELEMENT.getName().toLowerCase().contains(elementType)) {
+        e = new Element();
+      } else if (ElementType.RESOURCE_CONTAINER.getName().toLowerCase().contains(elementType)) {
+        e = new ResourceContainer();
+        ((ResourceContainer) e)
+            .setMaxCargoMass(row.getCell(ELEMENT_CARGO_MASS).getNumericCellValue());
+        ((ResourceContainer) e)
+            .setMaxCargoVolume(row.getCell(ELEMENT_CARGO_VOLUME).getNumericCellValue());
+        ((ResourceContainer) e).setCargoEnvironment(Environment
+            .getInstance(row.getCell(ELEMENT_CARGO_ENVIRONMENT).getStringCellValue()));
+      } else if (ElementType.CREW_MEMBER.getName().toLowerCase().contains(elementType)) {
+        e = new CrewMember();
+        ((CrewMember) e).setAvailableTimeFraction(
+            row.getCell(ELEMENT_ACTIVE_FRACTION).getNumericCellValue());
+      } else if (ElementType.CARRIER.getName().toLowerCase().contains(elementType)) {
+        e = new Carrier();
+        ((Carrier) e).setMaxCrewSize((int) row.getCell(ELEMENT_MAX_CREW).getNumericCellValue());
+        ((Carrier) e).setMaxCargoMass(row.getCell(ELEMENT_CARGO_MASS).getNumericCellValue());
+        ((Carrier) e)
+            .setMaxCargoVolume(row.getCell(ELEMENT_CARGO_VOLUME).getNumericCellValue());
+        ((Carrier) e).setCargoEnvironment(Environment
+            .getInstance(row.getCell(ELEMENT_CARGO_ENVIRONMENT).getStringCellValue()));
+      } else if (ElementType.SURFACE_VEHICLE.getName().toLowerCase().contains(elementType)) {
+        e = new SurfaceVehicle();
+        ((SurfaceVehicle) e)
+            .setMaxCrewSize((int) row.getCell(ELEMENT_MAX_CREW).getNumericCellValue());
+        ((SurfaceVehicle) e)
+            .setMaxCargoMass(row.getCell(ELEMENT_CARGO_MASS).getNumericCellValue());
+        ((SurfaceVehicle) e)
+            .setMaxCargoVolume(row.getCell(ELEMENT_CARGO_VOLUME).getNumericCellValue());
+        ((SurfaceVehicle) e).setCargoEnvironment(Environment
+            .getInstance(row.getCell(ELEMENT_CARGO_ENVIRONMENT).getStringCellValue()));
+        ((SurfaceVehicle) e).setMaxSpeed(row.getCell(ELEMENT_MAX_SPEED).getNumericCellValue());
+        ((SurfaceVehicle) e).getFuelTank()
+            .setMaxAmount(row.getCell(ELEMENT_MAX_FUEL).getNumericCellValue());
+        ((SurfaceVehicle) e).getFuelTank()
+            .setAmount(row.getCell(ELEMENT_MAX_FUEL).getNumericCellValue());
+        ((SurfaceVehicle) e).getFuelTank()
+            .setResource(loadResource(row.getCell(ELEMENT_FUEL_ID)));
+      } else if (ElementType.PROPULSIVE_VEHICLE.getName().toLowerCase().contains(elementType)) {
+        e = new PropulsiveVehicle();
+        ((PropulsiveVehicle) e)
+            .setMaxCrewSize((int) row.getCell(ELEMENT_MAX_CREW).getNumericCellValue());
+        ((PropulsiveVehicle) e)
+            .setMaxCargoMass(row.getCell(ELEMENT_CARGO_MASS).getNumericCellValue());
+        ((PropulsiveVehicle) e)
+            .setMaxCargoVolume(row.getCell(ELEMENT_CARGO_VOLUME).getNumericCellValue());
+        ((PropulsiveVehicle) e).setCargoEnvironment(Environment
+            .getInstance(row.getCell(ELEMENT_CARGO_ENVIRONMENT).getStringCellValue()));
+        ((PropulsiveVehicle) e).setOmsIsp(row.getCell(ELEMENT_OMS_ISP).getNumericCellValue());
+        ((PropulsiveVehicle) e).setRcsIsp(row.getCell(ELEMENT_RCS_ISP).getNumericCellValue());
+        if (((PropulsiveVehicle) e).getOmsIsp() > 0) {
+          ((PropulsiveVehicle) e).getOmsFuelTank()
+              .setMaxAmount(row.getCell(ELEMENT_MAX_OMS).getNumericCellValue());
+          ((PropulsiveVehicle) e).getOmsFuelTank()
+              .setAmount(row.getCell(ELEMENT_MAX_OMS).getNumericCellValue());
+          ((PropulsiveVehicle) e).getOmsFuelTank()
+              .setResource(loadResource(row.getCell(ELEMENT_OMS_ID)));
+        } else {
+          ((PropulsiveVehicle) e).setOmsFuelTank(null);
+        }
+        if (((PropulsiveVehicle) e).getRcsIsp() > 0
+            && row.getCell(ELEMENT_MAX_RCS).getNumericCellValue() > 0) {
+          ((PropulsiveVehicle) e).getRcsFuelTank()
+              .setMaxAmount(row.getCell(ELEMENT_MAX_RCS).getNumericCellValue());
+          ((PropulsiveVehicle) e).getRcsFuelTank()
+              .setAmount(row.getCell(ELEMENT_MAX_RCS).getNumericCellValue());
+          ((PropulsiveVehicle) e).getRcsFuelTank()
+              .setResource(loadResource(row.getCell(ELEMENT_RCS_ID)));
+        } else if (((PropulsiveVehicle) e).getRcsIsp() > 0) {
+          ((PropulsiveVehicle) e).getContents()
+              .remove(((PropulsiveVehicle) e).getRcsFuelTank());
+          ((PropulsiveVehicle) e).setRcsFuelTank(((PropulsiveVehicle) e).getOmsFuelTank());
+        } else {
+          ((PropulsiveVehicle) e).setRcsFuelTank(null);
         }
-      } catch (Exception ex) {
-        // error reading element
-        ex.printStackTrace();
-      }
+      } else {
+        throw new Exception("Unknown Element Type");
+      }
+      e.setTid((int) row.getCell(ELEMENT_ID).getNumericCellValue());
+      e.setName(row.getCell(ELEMENT_NAME).getStringCellValue());
+      e.setClassOfSupply(
+          ClassOfSupply.getInstance((int) row.getCell(ELEMENT_COS).getNumericCellValue()));
+      e.setEnvironment(
+          Environment.getInstance(row.getCell(ELEMENT_ENVIRONMENT).getStringCellValue()));
+      e.setAccommodationMass(row.getCell(ELEMENT_ACCOMMODATION_MASS).getNumericCellValue());
+      e.setMass(row.getCell(ELEMENT_MASS).getNumericCellValue());
+      e.setVolume(row.getCell(ELEMENT_VOLUME).getNumericCellValue());
+      e.setDescription(row.getCell(ELEMENT_DESCRIPTION).toString());
+      if (ElementIcon.getInstance(row.getCell(ELEMENT_ICON).toString()) != null) {
+        e.setIconType(ElementIcon.getInstance(row.getCell(ELEMENT_ICON).toString()));
+      }
+      if (e.getElementType() == ElementType.RESOURCE_CONTAINER) {
+        ((I_ResourceContainer) e).getContents().clear();
+        for (Row r : wb.getContentRows(e.getTid())) {
+          ((ResourceContainer) e).getContents().put(loadResource(r.getCell(DEMAND_RESOURCE_ID)),
+              r.getCell(DEMAND_AMOUNT).getNumericCellValue());
+        }
+      }
+      loadParts(wb, e);
+      loadStates(wb, e);
+      return e;
+    } catch (Exception ex) {
+      // error reading element
+      ex.printStackTrace();
     }
     return null;
   }
@@ -786,26 +558,22 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
   /**
    * Load the parts for a specific element.
    * 
-   * @param wb the workbook
+   * @param wb the indexed workbook
    * @param element the element
    */
-  private void loadParts(Workbook wb, I_Element element) {
+  private void loadParts(IndexedWorkbook wb, I_Element element) {
     element.getParts().clear();
-    for (Row row : wb.getSheetAt(PART_SHEET)) {
-      if (row.getRowNum() == 0 || isRowEmpty(row))
-        continue;
+    for (Row row : wb.getPartRows(element.getTid())) {
       try {
-        if (row.getCell(PART_ELEMENT_ID).getNumericCellValue() == element.getTid()) {
-          PartApplication partApp = new PartApplication();
-          partApp.setTid((int) row.getCell(PART_ID).getNumericCellValue());
-          partApp.setPart((Item) loadResource(row.getCell(PART_RESOURCE_ID)));
-          partApp.setQuantity((int) row.getCell(PART_QUANTITY).getNumericCellValue());
-          partApp.setDutyCycle(row.getCell(PART_DUTY_CYCLE).getNumericCellValue());
-          partApp.setMeanTimeToFailure(row.getCell(PART_MTTF).getNumericCellValue());
-          partApp.setMeanTimeToRepair(row.getCell(PART_MTTR).getNumericCellValue());
-          partApp.setMassToRepair(row.getCell(PART_REPAIR_MASS).getNumericCellValue());
-          element.getParts().add(partApp);
-        }
+        PartApplication partApp = new PartApplication();
+        partApp.setTid((int) row.getCell(PART_ID).getNumericCellValue());
+        partApp.setPart((Item) loadResource(row.getCell(PART_RESOURCE_ID)));
+        partApp.setQuantity((int) row.getCell(PART_QUANTITY).getNumericCellValue());
+        partApp.setDutyCycle(row.getCell(PART_DUTY_CYCLE).getNumericCellValue());
+        partApp.setMeanTimeToFailure(row.getCell(PART_MTTF).getNumericCellValue());
+        partApp.setMeanTimeToRepair(row.getCell(PART_MTTR).getNumericCellValue());
+        partApp.setMassToRepair(row.getCell(PART_REPAIR_MASS).getNumericCellValue());
+        element.getParts().add(partApp);
       } catch (Exception ex) {
         // error reading part
         ex.printStackTrace();
@@ -813,22 +581,18 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
     }
   }
 
-  private void loadStates(Workbook wb, I_Element element) {
+  private void loadStates(IndexedWorkbook wb, I_Element element) {
     element.getStates().clear();
-    for (Row row : wb.getSheetAt(STATE_SHEET)) {
-      if (row.getRowNum() == 0 || isRowEmpty(row))
-        continue;
+    for (Row row : wb.getStateRows(element.getTid())) {
       try {
-        if (row.getCell(STATE_ELEMENT_ID).getNumericCellValue() == element.getTid()) {
-          State state = new State();
-          state.setTid((int) row.getCell(STATE_ID).getNumericCellValue());
-          state.setName(row.getCell(STATE_NAME).getStringCellValue());
-          state.setStateType(StateType.getInstance(row.getCell(STATE_TYPE).getStringCellValue()));
-          loadModels(wb, element, state);
-          element.getStates().add(state);
-          if (row.getCell(STATE_INITIAL).getBooleanCellValue())
-            element.setCurrentState(state);
-        }
+        State state = new State();
+        state.setTid((int) row.getCell(STATE_ID).getNumericCellValue());
+        state.setName(row.getCell(STATE_NAME).getStringCellValue());
+        state.setStateType(StateType.getInstance(row.getCell(STATE_TYPE).getStringCellValue()));
+        loadModels(wb, element, state);
+        element.getStates().add(state);
+        if (row.getCell(STATE_INITIAL).getBooleanCellValue())
+          element.setCurrentState(state);
       } catch (Exception ex) {
         // error reading state
         ex.printStackTrace();
@@ -839,59 +603,47 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
   /**
    * Loads the demand models for a given element and state.
    * 
-   * @param wb the workbook
+   * @param wb the indexed workbook
    * @param element the element
    * @param state the state
    */
-  private void loadModels(Workbook wb, I_Element element, I_State state) {
-    for (Row row : wb.getSheetAt(MODEL_SHEET)) {
-      if (row.getRowNum() == 0 || isRowEmpty(row))
-        continue;
+  private void loadModels(IndexedWorkbook wb, I_Element element, I_State state) {
+    for (Row row : wb.getModelRows(state.getTid())) {
       try {
         String modelType = row.getCell(MODEL_TYPE).getStringCellValue().toLowerCase();
-        if (row.getCell(MODEL_STATE_ID).getNumericCellValue() == state.getTid()) {
-          if (DemandModelType.TIMED_IMPULSE.getName().toLowerCase().contains(modelType)) {
-            TimedImpulseDemandModel model = new TimedImpulseDemandModel();
-            model.setTid((int) row.getCell(MODEL_ID).getNumericCellValue());
-            model.setName(row.getCell(MODEL_NAME).getStringCellValue());
-            for (Row r : wb.getSheetAt(DEMAND_SHEET)) {
-              if (r.getRowNum() == 0 || isRowEmpty(r))
-                continue;
-              if (r.getCell(DEMAND_MODEL_ID).getNumericCellValue() == model.getTid()) {
-                Demand demand = new Demand();
-                demand.setResource(loadResource(r.getCell(DEMAND_RESOURCE_ID)));
-                demand.setAmount(r.getCell(DEMAND_AMOUNT).getNumericCellValue());
-                model.getDemands().add(demand);
-              }
-            }
-            state.getDemandModels().add(model);
-          } else if (DemandModelType.RATED.getName().toLowerCase().contains(modelType)) {
-            RatedDemandModel model = new RatedDemandModel();
-            model.setTid((int) row.getCell(MODEL_ID).getNumericCellValue());
-            model.setName(row.getCell(MODEL_NAME).getStringCellValue());
-            for (Row r : wb.getSheetAt(DEMAND_SHEET)) {
-              if (r.getRowNum() == 0 || isRowEmpty(r))
-                continue;
-              if (r.getCell(DEMAND_MODEL_ID).getNumericCellValue() == model.getTid()) {
-                Demand demand = new Demand();
-                demand.setResource(loadResource(r.getCell(DEMAND_RESOURCE_ID)));
-                demand.setAmount(r.getCell(DEMAND_AMOUNT).getNumericCellValue());
-                model.getDemandRates().add(demand);
-              }
-            }
-            state.getDemandModels().add(model);
-          } else if (DemandModelType.SPARING_BY_MASS.getName().toLowerCase().contains(modelType)) {
-            SparingByMassDemandModel model = new SparingByMassDemandModel(element);
-            model.setTid((int) row.getCell(MODEL_ID).getNumericCellValue());
-            model.setName(row.getCell(MODEL_NAME).getStringCellValue());
-            model.setElement(element);
-            model.setPartsListEnabled(row.getCell(MODEL_PARTS_LIST).getBooleanCellValue());
-            model.setUnpressurizedSparesRate(row.getCell(MODEL_UNPRESS_RATE).getNumericCellValue());
-            model.setPressurizedSparesRate(row.getCell(MODEL_PRESS_RATE).getNumericCellValue());
-            state.getDemandModels().add(model);
-          } else {
-            throw new Exception("Unknown Demand Model Type");
+        if (DemandModelType.TIMED_IMPULSE.getName().toLowerCase().contains(modelType)) {
+          TimedImpulseDemandModel model = new TimedImpulseDemandModel();
+          model.setTid((int) row.getCell(MODEL_ID).getNumericCellValue());
+          model.setName(row.getCell(MODEL_NAME).getStringCellValue());
+          for (Row r : wb.getDemandRows(model.getTid())) {
+            Demand demand = new Demand();
+            demand.setResource(loadResource(r.getCell(DEMAND_RESOURCE_ID)));
+            demand.setAmount(r.getCell(DEMAND_AMOUNT).getNumericCellValue());
+            model.getDemands().add(demand);
+          }
+          state.getDemandModels().add(model);
+        } else if (DemandModelType.RATED.getName().toLowerCase().contains(modelType)) {
+          RatedDemandModel model = new RatedDemandModel();
+          model.setTid((int) row.getCell(MODEL_ID).getNumericCellValue());
+          model.setName(row.getCell(MODEL_NAME).getStringCellValue());
+          for (Row r : wb.getDemandRows(model.getTid())) {
+            Demand demand = new Demand();
+            demand.setResource(loadResource(r.getCell(DEMAND_RESOURCE_ID)));
+            demand.setAmount(r.getCell(DEMAND_AMOUNT).getNumericCellValue());
+            model.getDemandRates().add(demand);
           }
+          state.getDemandModels().add(model);
+        } else if (DemandModelType.SPARING_BY_MASS.getName().toLowerCase().contains(modelType)) {
+          SparingByMassDemandModel model = new SparingByMassDemandModel(element);
+          model.setTid((int) row.getCell(MODEL_ID).getNumericCellValue());
+          model.setName(row.getCell(MODEL_NAME).getStringCellValue());
+          model.setElement(element);
+          model.setPartsListEnabled(row.getCell(MODEL_PARTS_LIST).getBooleanCellValue());
+          model.setUnpressurizedSparesRate(row.getCell(MODEL_UNPRESS_RATE).getNumericCellValue());
+          model.setPressurizedSparesRate(row.getCell(MODEL_PRESS_RATE).getNumericCellValue());
+          state.getDemandModels().add(model);
+        } else {
+          throw new Exception("Unknown Demand Model Type");
         }
       } catch (Exception ex) {
         // error reading element
@@ -906,7 +658,7 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
    * @see edu.mit.spacenet.data.I_DataSource#loadElementLibrary()
    */
   public void loadElementLibrary() throws IOException {
-    loadElementLibrary(readWorkbook());
+    loadElementLibrary(getIndexedWorkbook().getWorkbook());
   }
 
   /**
@@ -955,7 +707,7 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
    * @see edu.mit.spacenet.data.I_DataSource#loadNodeLibrary()
    */
   public void loadNodeLibrary() throws IOException {
-    loadNodeLibrary(readWorkbook());
+    loadNodeLibrary(getIndexedWorkbook().getWorkbook());
   }
 
   /**
@@ -1031,7 +783,7 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
    * @see edu.mit.spacenet.data.I_DataSource#loadResourceLibrary()
    */
   public void loadResourceLibrary() throws IOException {
-    loadResourceLibrary(readWorkbook());
+    loadResourceLibrary(getIndexedWorkbook().getWorkbook());
   }
 
   /**
@@ -1098,7 +850,8 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
    * @see edu.mit.spacenet.data.I_DataSource#saveEdge(edu.mit.spacenet.domain.network.edge.Edge)
    */
   public void saveEdge(Edge edge) throws IOException {
-    Workbook wb = readWorkbook();
+    IndexedWorkbook writable = getWritableWorkbook();
+    Workbook wb = writable.edit();
     Sheet sheet = wb.getSheetAt(EDGE_SHEET);
     int rowNum = -1, maxTid = 0;
     for (Row row : sheet) {
@@ -1138,7 +891,7 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
       row.getCell(EDGE_MAX_CREW).setCellValue(((FlightEdge) edge).getMaxCrewSize());
       row.getCell(EDGE_MAX_CARGO).setCellValue(((FlightEdge) edge).getMaxCargoMass());
     }
-    writeWorkbook(wb);
+    saveWorkbook(writable);
   }
 
   /**
@@ -1166,9 +919,7 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
           burnsToDelete.add((int) row.getCell(BURN_ID).getNumericCellValue());
       }
     }
-    for (Integer i : burnsToDelete) {
-      deleteBurn(wb, i);
-    }
+    deleteRows(sheet, BURN_ID, burnsToDelete, "Burn");
     for (Burn burn : edge.getBurns()) {
       int rowNum = -1, maxTid = 0;
       for (Row row : sheet) {
@@ -1245,7 +996,8 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
    * @see edu.mit.spacenet.data.I_DataSource#saveElement(edu.mit.spacenet.domain.element.I_Element)
    */
   public void saveElement(I_Element element) throws IOException {
-    Workbook wb = readWorkbook();
+    IndexedWorkbook writable = getWritableWorkbook();
+    Workbook wb = writable.edit();
     Sheet sheet = wb.getSheetAt(ELEMENT_SHEET);
     int rowNum = -1, maxTid = 0;
     for (Row row : sheet) {
@@ -1350,7 +1102,7 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
     }
     saveParts(wb, element);
     saveStates(wb, element);
-    writeWorkbook(wb);
+    saveWorkbook(writable);
   }
 
   /**
@@ -1379,9 +1131,7 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
           demandsToDelete.add((int) row.getCell(DEMAND_ID).getNumericCellValue());
       }
     }
-    for (Integer i : demandsToDelete) {
-      deleteDemand(wb, i);
-    }
+    deleteRows(sheet, DEMAND_ID, demandsToDelete, "Demand");
     for (I_Resource resource : container.getContents().keySet()) {
       int rowNum = -1, maxTid = 0, tid = -1;
       for (Row row : sheet) {
@@ -1439,9 +1189,7 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
           partsToDelete.add((int) row.getCell(PART_ID).getNumericCellValue());
       }
     }
-    for (Integer i : partsToDelete) {
-      deletePart(wb, i);
-    }
+    deleteRows(sheet, PART_ID, partsToDelete, "Part");
     for (PartApplication part : element.getParts()) {
       int rowNum = -1, maxTid = 0;
       for (Row row : sheet) {
@@ -1502,9 +1250,7 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
           statesToDelete.add((int) row.getCell(STATE_ID).getNumericCellValue());
       }
     }
-    for (Integer i : statesToDelete) {
-      deleteState(wb, i);
-    }
+    deleteStates(wb, STATE_ID, statesToDelete);
     for (I_State state : element.getStates()) {
       int rowNum = -1, maxTid = 0;
       for (Row row : sheet) {
@@ -1563,9 +1309,7 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
           modelsToDelete.add((int) row.getCell(MODEL_ID).getNumericCellValue());
       }
     }
-    for (Integer i : modelsToDelete) {
-      deleteModel(wb, i);
-    }
+    deleteModels(wb, MODEL_ID, modelsToDelete);
     for (I_DemandModel model : state.getDemandModels()) {
       int rowNum = -1, maxTid = 0;
       for (Row row : sheet) {
@@ -1642,9 +1386,7 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
           demandsToDelete.add((int) row.getCell(DEMAND_ID).getNumericCellValue());
       }
     }
-    for (Integer i : demandsToDelete) {
-      deleteDemand(wb, i);
-    }
+    deleteRows(sheet, DEMAND_ID, demandsToDelete, "Demand");
     for (Demand demand : demands) {
       int rowNum = -1, maxTid = 0, tid = -1;
       for (Row row : sheet) {
@@ -1683,7 +1425,8 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
    * @see edu.mit.spacenet.data.I_DataSource#saveNode(edu.mit.spacenet.domain.network.node.Node)
    */
   public void saveNode(Node node) throws IOException {
-    Workbook wb = readWorkbook();
+    IndexedWorkbook writable = getWritableWorkbook();
+    Workbook wb = writable.edit();
     Sheet sheet = wb.getSheetAt(NODE_SHEET);
     int rowNum = -1, maxTid = 0;
     for (Row row : sheet) {
@@ -1723,7 +1466,7 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
       row.getCell(NODE_BODY_2).setCellValue(((LagrangeNode) node).getMinorBody().getName());
       row.getCell(NODE_LP_NUMBER).setCellValue(((LagrangeNode) node).getNumber());
     }
-    writeWorkbook(wb);
+    saveWorkbook(writable);
   }
 
   /*
@@ -1735,7 +1478,8 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
   public void saveResource(I_Resource resource) throws IOException {
     if (resource.getResourceType() == ResourceType.GENERIC)
       return;
-    Workbook wb = readWorkbook();
+    IndexedWorkbook writable = getWritableWorkbook();
+    Workbook wb = writable.edit();
     Sheet sheet = wb.getSheetAt(RESOURCE_SHEET);
     int rowNum = -1, maxTid = 0;
     for (Row row : sheet) {
@@ -1769,7 +1513,7 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
     row.getCell(RESOURCE_PACKING_FACTOR).setCellValue(resource.getPackingFactor());
     row.getCell(RESOURCE_ENVIRONMENT).setCellValue(resource.getEnvironment().getName());
     row.getCell(RESOURCE_DESCRIPTION).setCellValue(resource.getDescription());
-    writeWorkbook(wb);
+    saveWorkbook(writable);
   }
 
   /**
@@ -1779,6 +1523,8 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
    */
   public void setFilePath(String filePath) {
     this.filePath = filePath;
+    indexedWorkbook = null;
+    rollbackTransaction();
   }
 
   /*
@@ -1787,7 +1533,7 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
    * @see edu.mit.spacenet.data.I_DataSource#validateData()
    */
   public List<String> validateData() throws IOException {
-    Workbook wb = readWorkbook();
+    Workbook wb = getIndexedWorkbook().getWorkbook();
     ArrayList<String> errors = new ArrayList<String>();
     errors.addAll(checkNodes(wb.getSheetAt(NODE_SHEET)));
     errors.addAll(checkEdges(wb.getSheetAt(EDGE_SHEET)));
@@ -2320,9 +2066,141 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
    * @throws IOException Signals that an I/O exception has occurred.
    */
   private void writeWorkbook(Workbook wb) throws IOException {
-    FileOutputStream fos = new FileOutputStream(filePath);
-    wb.write(fos);
-    fos.close();
+    indexedWorkbook = null;
+    // write to a temporary file beside the workbook and move it into place so a failed write
+    // cannot leave the workbook partially written
+    Path path = Paths.get(filePath).toAbsolutePath();
+    Path temp = File
+        .createTempFile(path.getFileName().toString(), ".tmp", path.getParent().toFile())
+        .toPath();
+    try {
+      try (OutputStream out = Files.newOutputStream(temp)) {
+        wb.write(out);
+      }
+      if (Files.exists(path)) {
+        try {
+          Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(path));
+        } catch (UnsupportedOperationException ex) {
+          // file system does not support posix permissions
+        }
+      }
+      try {
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException ex) {
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Gets a workbook to make changes to: the workbook of the open transaction, if any, or else a
+   * workbook read from file.
+   * 
+   * @return the workbook
+   * 
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private IndexedWorkbook getWritableWorkbook() throws IOException {
+    if (transaction != null) {
+      return transaction;
+    }
+    return readIndexedWorkbook();
+  }
+
+  /**
+   * Saves the changes made to a workbook from {@link #getWritableWorkbook()}. Changes to the
+   * workbook of the open transaction are written when the transaction is committed; changes to any
+   * other workbook are written immediately.
+   * 
+   * @param wb the workbook
+   * 
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void saveWorkbook(IndexedWorkbook wb) throws IOException {
+    if (wb == transaction) {
+      isTransactionModified = true;
+    } else {
+      writeWorkbook(wb.edit());
+    }
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see edu.mit.spacenet.data.I_DataSource#beginTransaction()
+   */
+  public void beginTransaction() throws IOException {
+    if (transaction != null) {
+      throw new IllegalStateException("A transaction is already open.");
+    }
+    // the transaction edits its own copy: loading fills in blank cells in the cached workbook,
+    // which should not be written back
+    transaction = readIndexedWorkbook();
+    isTransactionModified = false;
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see edu.mit.spacenet.data.I_DataSource#commitTransaction()
+   */
+  public void commitTransaction() throws IOException {
+    if (transaction == null) {
+      throw new IllegalStateException("No transaction is open.");
+    }
+    IndexedWorkbook wb = transaction;
+    boolean isModified = isTransactionModified;
+    transaction = null;
+    isTransactionModified = false;
+    if (isModified) {
+      writeWorkbook(wb.edit());
+    }
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see edu.mit.spacenet.data.I_DataSource#rollbackTransaction()
+   */
+  public void rollbackTransaction() {
+    transaction = null;
+    isTransactionModified = false;
+  }
+
+  /**
+   * Gets the parsed and indexed workbook for loading, reading it from file only if it has not been
+   * read yet or the file has been modified since.
+   * 
+   * @return the indexed workbook
+   * 
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private IndexedWorkbook getIndexedWorkbook() throws IOException {
+    File file = new File(filePath);
+    long lastModified = file.lastModified();
+    long length = file.length();
+    if (indexedWorkbook == null || indexedWorkbook.lastModified != lastModified
+        || indexedWorkbook.length != length) {
+      indexedWorkbook = new IndexedWorkbook(readWorkbook(), lastModified, length);
+    }
+    return indexedWorkbook;
+  }
+
+  /**
+   * Reads and indexes the workbook from file, without caching it.
+   * 
+   * @return the indexed workbook
+   * 
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private IndexedWorkbook readIndexedWorkbook() throws IOException {
+    File file = new File(filePath);
+    long lastModified = file.lastModified();
+    long length = file.length();
+    return new IndexedWorkbook(readWorkbook(), lastModified, length);
   }
 
   /*
@@ -2331,7 +2209,6 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
    * @see edu.mit.spacenet.data.I_DataSource#format()
    */
   public void format() throws IOException {
-    FileOutputStream fos = new FileOutputStream(filePath);
     Workbook wb = new HSSFWorkbook();
     wb.setMissingCellPolicy(MissingCellPolicy.CREATE_NULL_AS_BLANK);
     if (wb.getNumberOfSheets() <= NODE_SHEET) {
@@ -2456,21 +2333,53 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
       row.getCell(DEMAND_AMOUNT).setCellValue("amount");
       row.getCell(DEMAND_CONTAINER_ID).setCellValue("container_id");
     }
-    wb.write(fos);
-    wb.close();
-    fos.close();
+    if (transaction != null) {
+      // the formatted workbook replaces the transaction's, and is written when it is committed
+      transaction = new IndexedWorkbook(wb, transaction.lastModified, transaction.length);
+      isTransactionModified = true;
+    } else {
+      writeWorkbook(wb);
+      wb.close();
+    }
   }
 
   /**
-   * Deletes a row from a sheet and shifts all subsequent rows up one row to fill the blank spot.
+   * Deletes all rows from a sheet with a key in a column, shifting the remaining rows up to fill
+   * the blank spots in a single pass. Each block of rows between deleted rows is shifted once,
+   * rather than all subsequent rows being shifted once per deleted row.
    * 
    * @param sheet the sheet
-   * @param row the row
+   * @param column the key column
+   * @param keys the keys of the rows to delete
+   * @param label the label of the deleted objects, for logging
+   * 
+   * @return the primary keys (type IDs) of the deleted rows
    */
-  private static void deleteRow(Sheet sheet, int row) {
-    sheet.removeRow(sheet.getRow(row));
-    if (row + 1 <= sheet.getLastRowNum())
-      sheet.shiftRows(row + 1, sheet.getLastRowNum(), -1);
+  private static List<Integer> deleteRows(Sheet sheet, int column, Collection<Integer> keys,
+      String label) {
+    List<Integer> rows = new ArrayList<Integer>();
+    List<Integer> tids = new ArrayList<Integer>();
+    if (keys.isEmpty()) {
+      return tids;
+    }
+    for (Row row : sheet) {
+      if (row.getRowNum() == 0 || isRowEmpty(row))
+        continue;
+      Integer key = IndexedWorkbook.getKey(row, column);
+      if (key != null && keys.contains(key)) {
+        rows.add(row.getRowNum());
+        tids.add((int) row.getCell(0).getNumericCellValue());
+      }
+    }
+    for (int i = 0; i < rows.size(); i++) {
+      sheet.removeRow(sheet.getRow(rows.get(i)));
+      int first = rows.get(i) + 1;
+      int last = i + 1 < rows.size() ? rows.get(i + 1) - 1 : sheet.getLastRowNum();
+      if (first <= last)
+        sheet.shiftRows(first, last, -(i + 1));
+      System.out.println(label + " #" + tids.get(i) + " deleted");
+    }
+    return tids;
   }
 
   /**
@@ -2504,4 +2413,231 @@ public class Spreadsheet_2_5 extends AbstractDataSource {
     else
       return false;
   }
+
+  /**
+   * A workbook read from file with the rows of the node, edge, resource, and element sheets indexed
+   * by id and the rows of every sheet indexed by the ids they refer to. Empty rows are not indexed
+   * and rows sharing a key are kept in sheet order. Each index is built when it is first used.
+   * 
+   * <p>
+   * Rows deleted through the workbook are removed from the indices and left as gaps in their
+   * sheets until the workbook is compacted by {@link #edit()}. Compacting shifts the remaining rows
+   * up, which moves their cells to other row objects, so it also discards the indices.
+   */
+  private static class IndexedWorkbook {
+    // the sheet and column of each index
+    private static final int[][] INDEXED_COLUMNS = {{NODE_SHEET, NODE_ID}, {EDGE_SHEET, EDGE_ID},
+        {EDGE_SHEET, EDGE_ORIGIN_ID}, {EDGE_SHEET, EDGE_DESTINATION_ID}, {BURN_SHEET, BURN_EDGE_ID},
+        {RESOURCE_SHEET, RESOURCE_ID}, {ELEMENT_SHEET, ELEMENT_ID}, {ELEMENT_SHEET, ELEMENT_OMS_ID},
+        {ELEMENT_SHEET, ELEMENT_RCS_ID}, {ELEMENT_SHEET, ELEMENT_FUEL_ID},
+        {PART_SHEET, PART_ELEMENT_ID}, {PART_SHEET, PART_RESOURCE_ID},
+        {STATE_SHEET, STATE_ELEMENT_ID}, {MODEL_SHEET, MODEL_STATE_ID},
+        {DEMAND_SHEET, DEMAND_MODEL_ID}, {DEMAND_SHEET, DEMAND_CONTAINER_ID},
+        {DEMAND_SHEET, DEMAND_RESOURCE_ID}};
+
+    private final Workbook workbook;
+    private final long lastModified, length;
+    @SuppressWarnings("unchecked")
+    private final Map<Integer, List<Row>>[] indices = new Map[INDEXED_COLUMNS.length];
+    private final Map<Integer, List<Integer>> deletedRows = new HashMap<Integer, List<Integer>>();
+
+    /**
+     * Instantiates a new indexed workbook.
+     * 
+     * @param workbook the workbook
+     * @param lastModified the last modified time of the file the workbook was read from
+     * @param length the length of the file the workbook was read from
+     */
+    private IndexedWorkbook(Workbook workbook, long lastModified, long length) {
+      this.workbook = workbook;
+      this.lastModified = lastModified;
+      this.length = length;
+    }
+
+    /**
+     * Gets an index, indexing the non-empty rows of its sheet by its column if not already indexed.
+     * 
+     * @param sheet the sheet
+     * @param column the indexed column
+     * 
+     * @return the rows by key
+     */
+    private Map<Integer, List<Row>> getIndex(int sheet, int column) {
+      for (int i = 0; i < INDEXED_COLUMNS.length; i++) {
+        if (INDEXED_COLUMNS[i][0] == sheet && INDEXED_COLUMNS[i][1] == column) {
+          if (indices[i] == null) {
+            indices[i] = new HashMap<Integer, List<Row>>();
+            for (Row row : workbook.getSheetAt(sheet)) {
+              if (row.getRowNum() == 0 || isRowEmpty(row))
+                continue;
+              Integer key = getKey(row, column);
+              if (key != null) {
+                if (!indices[i].containsKey(key)) {
+                  indices[i].put(key, new ArrayList<Row>());
+                }
+                indices[i].get(key).add(row);
+              }
+            }
+          }
+          return indices[i];
+        }
+      }
+      throw new IllegalArgumentException(
+          "Column " + column + " of sheet " + sheet + " is not indexed.");
+    }
+
+    /**
+     * Gets the integer key in a cell, or null if the cell does not hold an integer number.
+     * 
+     * @param row the row
+     * @param column the key column
+     * 
+     * @return the key
+     */
+    private static Integer getKey(Row row, int column) {
+      double value;
+      try {
+        value = row.getCell(column).getNumericCellValue();
+      } catch (RuntimeException ex) {
+        return null;
+      }
+      if (value != (int) value) {
+        return null;
+      }
+      return (int) value;
+    }
+
+    /**
+     * Gets the rows of a sheet with a key in an indexed column.
+     * 
+     * @param sheet the sheet
+     * @param column the indexed column
+     * @param key the key
+     * 
+     * @return the rows, in sheet order
+     */
+    public List<Row> getRows(int sheet, int column, int key) {
+      List<Row> matches = getIndex(sheet, column).get(key);
+      if (matches == null) {
+        return new ArrayList<Row>();
+      }
+      return matches;
+    }
+
+    /**
+     * Deletes a row, leaving a gap in its sheet until the workbook is compacted.
+     * 
+     * @param sheet the sheet
+     * @param row the row
+     */
+    public void deleteRow(int sheet, Row row) {
+      // indices not built yet will not find the row once it is removed from the sheet
+      for (int i = 0; i < INDEXED_COLUMNS.length; i++) {
+        if (INDEXED_COLUMNS[i][0] == sheet && indices[i] != null) {
+          List<Row> rows = indices[i].get(getKey(row, INDEXED_COLUMNS[i][1]));
+          for (int j = 0; rows != null && j < rows.size(); j++) {
+            if (rows.get(j) == row) {
+              rows.remove(j);
+              break;
+            }
+          }
+        }
+      }
+      if (!deletedRows.containsKey(sheet)) {
+        deletedRows.put(sheet, new ArrayList<Integer>());
+      }
+      deletedRows.get(sheet).add(row.getRowNum());
+      workbook.getSheetAt(sheet).removeRow(row);
+    }
+
+    /**
+     * Deletes all rows from a sheet with a key in an indexed column.
+     * 
+     * @param sheet the sheet
+     * @param column the indexed column
+     * @param keys the keys of the rows to delete
+     * @param label the label of the deleted objects, for logging
+     * 
+     * @return the primary keys (type IDs) of the deleted rows
+     */
+    public List<Integer> deleteRows(int sheet, int column, Collection<Integer> keys,
+        String label) {
+      List<Row> rows = new ArrayList<Row>();
+      for (Integer key : keys) {
+        rows.addAll(getRows(sheet, column, key));
+      }
+      Collections.sort(rows, new Comparator<Row>() {
+        public int compare(Row a, Row b) {
+          return Integer.compare(a.getRowNum(), b.getRowNum());
+        }
+      });
+      List<Integer> tids = new ArrayList<Integer>();
+      for (int i = 0; i < rows.size(); i++) {
+        if (i > 0 && rows.get(i) == rows.get(i - 1))
+          continue;
+        int tid = (int) rows.get(i).getCell(0).getNumericCellValue();
+        deleteRow(sheet, rows.get(i));
+        tids.add(tid);
+        System.out.println(label + " #" + tid + " deleted");
+      }
+      return tids;
+    }
+
+    /**
+     * Compacts the sheets, shifting the rows after each deleted row up to fill the gaps (each block
+     * of rows between deleted rows is shifted once), and discards the indices, so that the workbook
+     * can be edited or written directly.
+     * 
+     * @return the workbook
+     */
+    public Workbook edit() {
+      for (Map.Entry<Integer, List<Integer>> entry : deletedRows.entrySet()) {
+        Sheet sheet = workbook.getSheetAt(entry.getKey());
+        List<Integer> rows = entry.getValue();
+        Collections.sort(rows);
+        for (int i = 0; i < rows.size(); i++) {
+          int first = rows.get(i) + 1;
+          int last = i + 1 < rows.size() ? rows.get(i + 1) - 1 : sheet.getLastRowNum();
+          if (first <= last)
+            sheet.shiftRows(first, last, -(i + 1));
+        }
+      }
+      deletedRows.clear();
+      Arrays.fill(indices, null);
+      return workbook;
+    }
+
+    public Workbook getWorkbook() {
+      return workbook;
+    }
+
+    public Row getElementRow(int tid) {
+      List<Row> rows = getRows(ELEMENT_SHEET, ELEMENT_ID, tid);
+      return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    public List<Row> getBurnRows(int edgeTid) {
+      return getRows(BURN_SHEET, BURN_EDGE_ID, edgeTid);
+    }
+
+    public List<Row> getPartRows(int elementTid) {
+      return getRows(PART_SHEET, PART_ELEMENT_ID, elementTid);
+    }
+
+    public List<Row> getStateRows(int elementTid) {
+      return getRows(STATE_SHEET, STATE_ELEMENT_ID, elementTid);
+    }
+
+    public List<Row> getModelRows(int stateTid) {
+      return getRows(MODEL_SHEET, MODEL_STATE_ID, stateTid);
+    }
+
+    public List<Row> getDemandRows(int modelTid) {
+      return getRows(DEMAND_SHEET, DEMAND_MODEL_ID, modelTid);
+    }
+
+    public List<Row> getContentRows(int containerTid) {
+      return getRows(DEMAND_SHEET, DEMAND_CONTAINER_ID, containerTid);
+    }
+  }
 }
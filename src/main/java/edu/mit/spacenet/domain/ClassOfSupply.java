@@ -200,6 +200,44 @@ public enum ClassOfSupply {
   private String name;
   private Color color;
 
+  /** Classes of supply indexed by number. */
+  private static final ClassOfSupply[] instances;
+
+  /** Bitsets of the ordinals of each class of supply's superclasses, indexed by ordinal. */
+  private static final long[][] superclasses;
+
+  /** Base classes of supply indexed by ordinal. */
+  private static final ClassOfSupply[] baseClasses;
+
+  static {
+    ClassOfSupply[] values = values();
+    int maxId = 0;
+    for (ClassOfSupply cos : values) {
+      maxId = Math.max(maxId, cos.id);
+    }
+    instances = new ClassOfSupply[maxId + 1];
+    for (ClassOfSupply cos : values) {
+      instances[cos.id] = cos;
+    }
+    superclasses = new long[values.length][(values.length + 63) / 64];
+    for (ClassOfSupply sub : values) {
+      for (ClassOfSupply sup : values) {
+        if (isSubclassId(sub.id, sup.id)) {
+          superclasses[sub.ordinal()][sup.ordinal() >>> 6] |= 1L << sup.ordinal();
+        }
+      }
+    }
+    baseClasses = new ClassOfSupply[values.length];
+    for (ClassOfSupply cos : values) {
+      for (int i = 0; i <= 10; i++) {
+        if (cos.isInstanceOf(instances[i])) {
+          baseClasses[cos.ordinal()] = instances[i];
+          break;
+        }
+      }
+    }
+  }
+
   /**
    * The default constructor.
    * 
@@ -221,11 +259,9 @@ public enum ClassOfSupply {
    * @return the class of supply
    */
   public static ClassOfSupply getInstance(int id) {
-    for (ClassOfSupply cos : ClassOfSupply.values()) {
-      if (cos.getId() == id)
-        return cos;
-    }
-    return null;
+    if (id < 0 || id >= instances.length)
+      return null;
+    return instances[id];
   }
 
   /**
@@ -268,11 +304,7 @@ public enum ClassOfSupply {
    * @return the base class of supply
    */
   public ClassOfSupply getBaseClass() {
-    for (int i = 0; i <= 10; i++) {
-      if (this.isInstanceOf(ClassOfSupply.getInstance(i)))
-        return ClassOfSupply.getInstance(i);
-    }
-    return null;
+    return baseClasses[ordinal()];
   }
 
   /**
@@ -299,18 +331,27 @@ public enum ClassOfSupply {
    * @return true if this is a subclass of cos, false otherwise
    */
   public boolean isSubclassOf(ClassOfSupply cos) {
-    String superclassId = new Integer(cos.getId()).toString();
-    String subclassId = new Integer(id).toString();
-    if (superclassId.length() >= subclassId.length())
+    return (superclasses[ordinal()][cos.ordinal() >>> 6] & (1L << cos.ordinal())) != 0;
+  }
+
+  /**
+   * Determines whether a class of supply number is a subclass of another, i.e. whether the
+   * superclass number is a strict prefix of the subclass number. Used to build the hierarchy.
+   * 
+   * @param subclassId the candidate subclass number
+   * @param superclassId the candidate superclass number
+   * 
+   * @return true if subclassId is a subclass of superclassId, false otherwise
+   */
+  private static boolean isSubclassId(int subclassId, int superclassId) {
+    String superclass = Integer.toString(superclassId);
+    String subclass = Integer.toString(subclassId);
+    if (superclass.length() >= subclass.length())
       return false;
-    if (id == 10 || cos.getId() == 10)
+    if (subclassId == 10 || superclassId == 10)
       return false;
     // above is a HACK to account for poor naming convention
-    for (int i = 0; i < superclassId.length(); i++) {
-      if (superclassId.charAt(i) != subclassId.charAt(i))
-        return false;
-    }
-    return true;
+    return subclass.startsWith(superclass);
   }
 
   /**
@@ -322,17 +363,6 @@ public enum ClassOfSupply {
    * @return true if this is a superclass of cos, false otherwise
    */
   public boolean isSuperclassOf(ClassOfSupply cos) {
-    String superclassId = new Integer(id).toString();
-    String subclassId = new Integer(cos.getId()).toString();
-    if (superclassId.length() >= subclassId.length())
-      return false;
-    if (id == 10 || cos.getId() == 10)
-      return false;
-    // above is a HACK to account for poor naming convention
-    for (int i = 0; i < superclassId.length(); i++) {
-      if (superclassId.charAt(i) != subclassId.charAt(i))
-        return false;
-    }
-    return true;
+    return cos.isSubclassOf(this);
   }
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet.domain;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import edu.mit.spacenet.util.GlobalParameters;
+
+/**
+ * Aggregate masses, volume, and crew counts of a container's contents, cached so that repeated
+ * reads do not recurse through the containment tree. Containers fill the values lazily and discard
+ * the whole object (see {@link I_Container#invalidateTotals()}) whenever their contents, or the
+ * mass of anything nested in them, changes. The values are only current for the parameters and
+ * parameter revision they were computed under, since every mass is rounded to the mass precision.
+ * 
+ * @author Paul Grogan
+ */
+public final class ContainerTotals {
+  private final GlobalParameters parameters;
+  private final int revision;
+  private double cargoMass = Double.NaN;
+  private double totalMass = Double.NaN;
+  private double cargoVolume = Double.NaN;
+  private int crewSize = -1;
+  private int totalCrewSize = -1;
+  private Map<ClassOfSupply, Double> totalMassByClass;
+
+  /**
+   * Instantiates a new, empty set of totals for the active parameters.
+   */
+  public ContainerTotals() {
+    parameters = GlobalParameters.getSingleton();
+    revision = parameters.getRevision();
+  }
+
+  /**
+   * Gets whether the totals were computed under the active parameters and are still current.
+   * 
+   * @param totals the totals, may be null
+   * @return true, if the totals can be used
+   */
+  public static boolean isCurrent(ContainerTotals totals) {
+    if (totals == null) {
+      return false;
+    }
+    GlobalParameters active = GlobalParameters.getSingleton();
+    return totals.parameters == active && totals.revision == active.getRevision();
+  }
+
+  /**
+   * Gets the cached cargo mass.
+   * 
+   * @return the cargo mass (kilograms), or NaN if not cached
+   */
+  public double getCargoMass() {
+    return cargoMass;
+  }
+
+  /**
+   * Caches the cargo mass.
+   * 
+   * @param cargoMass the cargo mass (kilograms)
+   */
+  public void setCargoMass(double cargoMass) {
+    this.cargoMass = cargoMass;
+  }
+
+  /**
+   * Gets the cached total mass.
+   * 
+   * @return the total mass (kilograms), or NaN if not cached
+   */
+  public double getTotalMass() {
+    return totalMass;
+  }
+
+  /**
+   * Caches the total mass.
+   * 
+   * @param totalMass the total mass (kilograms)
+   */
+  public void setTotalMass(double totalMass) {
+    this.totalMass = totalMass;
+  }
+
+  /**
+   * Gets the cached total mass of a class of supply.
+   * 
+   * @param cos the class of supply
+   * @return the total mass (kilograms), or NaN if not cached
+   */
+  public double getTotalMass(ClassOfSupply cos) {
+    Double mass = totalMassByClass == null ? null : totalMassByClass.get(cos);
+    return mass == null ? Double.NaN : mass;
+  }
+
+  /**
+   * Caches the total mass of a class of supply.
+   * 
+   * @param cos the class of supply
+   * @param totalMass the total mass (kilograms)
+   */
+  public void setTotalMass(ClassOfSupply cos, double totalMass) {
+    if (totalMassByClass == null) {
+      totalMassByClass = new EnumMap<ClassOfSupply, Double>(ClassOfSupply.class);
+    }
+    totalMassByClass.put(cos, totalMass);
+  }
+
+  /**
+   * Gets the cached cargo volume.
+   * 
+   * @return the cargo volume (cubic meters), or NaN if not cached
+   */
+  public double getCargoVolume() {
+    return cargoVolume;
+  }
+
+  /**
+   * Caches the cargo volume.
+   * 
+   * @param cargoVolume the cargo volume (cubic meters)
+   */
+  public void setCargoVolume(double cargoVolume) {
+    this.cargoVolume = cargoVolume;
+  }
+
+  /**
+   * Gets the cached number of crew members.
+   * 
+   * @return the number of crew members, or -1 if not cached
+   */
+  public int getCrewSize() {
+    return crewSize;
+  }
+
+  /**
+   * Caches the number of crew members.
+   * 
+   * @param crewSize the number of crew members
+   */
+  public void setCrewSize(int crewSize) {
+    this.crewSize = crewSize;
+  }
+
+  /**
+   * Gets the cached total crew size including nested elements.
+   * 
+   * @return the total number of crew members, or -1 if not cached
+   */
+  public int getTotalCrewSize() {
+    return totalCrewSize;
+  }
+
+  /**
+   * Caches the total crew size including nested elements.
+   * 
+   * @param totalCrewSize the total number of crew members
+   */
+  public void setTotalCrewSize(int totalCrewSize) {
+    this.totalCrewSize = totalCrewSize;
+  }
+}
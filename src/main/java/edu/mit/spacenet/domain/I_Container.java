@@ -18,7 +18,11 @@ import java.util.SortedSet;
 import edu.mit.spacenet.domain.element.I_Element;
 
 /**
- * The interface for any object that can contain items.
+ * The interface for any object that can contain items. Containers cache the aggregate masses,
+ * volume, and crew counts of their contents; the caches are kept current by {@link #add(I_Element)}
+ * and {@link #remove(I_Element)} and by the mutators of nested elements and resource containers,
+ * but code that changes a contents set or resource map directly must call
+ * {@link #invalidateTotals()} afterwards.
  * 
  * @author Paul Grogan
  */
@@ -108,4 +112,9 @@ public interface I_Container extends I_DomainType {
    * @return the cargo volume (cubic meters)
    */
   public double getCargoVolume();
+
+  /**
+   * Discards the cached aggregates of this container and of every container that holds it.
+   */
+  public void invalidateTotals();
 }
@@ -17,6 +17,7 @@ import java.util.SortedSet;
 import java.util.TreeSet;
 
 import edu.mit.spacenet.domain.ClassOfSupply;
+import edu.mit.spacenet.domain.ContainerTotals;
 import edu.mit.spacenet.domain.Environment;
 import edu.mit.spacenet.domain.I_Container;
 import edu.mit.spacenet.domain.resource.DemandSet;
@@ -34,6 +35,7 @@ public class Carrier extends Element implements I_Carrier {
   private double maxCargoVolume;
   private Environment cargoEnvironment;
   private int maxCrewSize;
+  private transient ContainerTotals totals;
 
   /**
    * The default constructor that initializes the contents, crew, and cargo structures.
@@ -87,13 +89,17 @@ public class Carrier extends Element implements I_Carrier {
    * @see edu.mit.spacenet.domain.I_Container#getCargoMass()
    */
   public double getCargoMass() {
-    double mass = 0;
-    for (I_Element i : contents) {
-      if (!(i instanceof CrewMember)) {
-        mass += i.getTotalMass();
+    ContainerTotals totals = getTotals();
+    if (Double.isNaN(totals.getCargoMass())) {
+      double mass = 0;
+      for (I_Element i : contents) {
+        if (!(i instanceof CrewMember)) {
+          mass += i.getTotalMass();
+        }
       }
+      totals.setCargoMass(mass);
     }
-    return mass;
+    return totals.getCargoMass();
   }
 
   /*
@@ -120,13 +126,17 @@ public class Carrier extends Element implements I_Carrier {
    * @see edu.mit.spacenet.domain.I_Container#getCargoVolume()
    */
   public double getCargoVolume() {
-    double volume = 0;
-    for (I_Element e : contents) {
-      if (!(e instanceof CrewMember)) {
-        volume += e.getVolume();
+    ContainerTotals totals = getTotals();
+    if (Double.isNaN(totals.getCargoVolume())) {
+      double volume = 0;
+      for (I_Element e : contents) {
+        if (!(e instanceof CrewMember)) {
+          volume += e.getVolume();
+        }
       }
+      totals.setCargoVolume(GlobalParameters.getSingleton().getRoundedVolume(volume));
     }
-    return GlobalParameters.getSingleton().getRoundedVolume(volume);
+    return totals.getCargoVolume();
   }
 
   /*
@@ -135,13 +145,17 @@ public class Carrier extends Element implements I_Carrier {
    * @see edu.mit.spacenet.domain.I_Container#getCrewSize()
    */
   public int getCrewSize() {
-    int crew = 0;
-    for (I_Element e : contents) {
-      if (e instanceof CrewMember) {
-        crew++;
+    ContainerTotals totals = getTotals();
+    if (totals.getCrewSize() < 0) {
+      int crew = 0;
+      for (I_Element e : contents) {
+        if (e instanceof CrewMember) {
+          crew++;
+        }
       }
+      totals.setCrewSize(crew);
     }
-    return crew;
+    return totals.getCrewSize();
   }
 
   /*
@@ -150,15 +164,19 @@ public class Carrier extends Element implements I_Carrier {
    * @see edu.mit.spacenet.domain.I_Container#getTotalCrewSize()
    */
   public int getTotalCrewSize() {
-    int crew = 0;
-    for (I_Element e : contents) {
-      if (e instanceof CrewMember) {
-        crew++;
-      } else if (e instanceof I_Carrier) {
-        crew += ((I_Carrier) e).getTotalCrewSize();
+    ContainerTotals totals = getTotals();
+    if (totals.getTotalCrewSize() < 0) {
+      int crew = 0;
+      for (I_Element e : contents) {
+        if (e instanceof CrewMember) {
+          crew++;
+        } else if (e instanceof I_Carrier) {
+          crew += ((I_Carrier) e).getTotalCrewSize();
+        }
       }
+      totals.setTotalCrewSize(crew);
     }
-    return crew;
+    return totals.getTotalCrewSize();
   }
 
   /*
@@ -237,6 +255,7 @@ public class Carrier extends Element implements I_Carrier {
         element.getContainer().remove(element);
       element.setContainer(this);
       contents.add(element);
+      invalidateTotals();
       return true;
     } else
       return false;
@@ -251,11 +270,30 @@ public class Carrier extends Element implements I_Carrier {
     if (contents.contains(element)) {
       element.setContainer(null);
       contents.remove(element);
+      invalidateTotals();
       return true;
     } else
       return false;
   }
 
+  /*
+   * (non-Javadoc)
+   * 
+   * @see edu.mit.spacenet.domain.I_Container#invalidateTotals()
+   */
+  @Override
+  public void invalidateTotals() {
+    totals = null;
+    super.invalidateTotals();
+  }
+
+  private ContainerTotals getTotals() {
+    if (!ContainerTotals.isCurrent(totals)) {
+      totals = new ContainerTotals();
+    }
+    return totals;
+  }
+
   /*
    * (non-Javadoc)
    * 
@@ -293,11 +331,16 @@ public class Carrier extends Element implements I_Carrier {
    */
   @Override
   public double getTotalMass() {
-    double mass = 0;
-    for (I_Element e : contents) {
-      mass += e.getTotalMass();
+    ContainerTotals totals = getTotals();
+    if (Double.isNaN(totals.getTotalMass())) {
+      double mass = 0;
+      for (I_Element e : contents) {
+        mass += e.getTotalMass();
+      }
+      totals.setTotalMass(
+          GlobalParameters.getSingleton().getRoundedMass(super.getTotalMass() + mass));
     }
-    return GlobalParameters.getSingleton().getRoundedMass(super.getTotalMass() + mass);
+    return totals.getTotalMass();
   }
 
   /*
@@ -308,11 +351,15 @@ public class Carrier extends Element implements I_Carrier {
    */
   @Override
   public double getTotalMass(ClassOfSupply cos) {
-    double amount = super.getTotalMass(cos);
-    for (I_Element e : getContents()) {
-      amount += e.getTotalMass(cos);
+    ContainerTotals totals = getTotals();
+    if (Double.isNaN(totals.getTotalMass(cos))) {
+      double amount = super.getTotalMass(cos);
+      for (I_Element e : getContents()) {
+        amount += e.getTotalMass(cos);
+      }
+      totals.setTotalMass(cos, GlobalParameters.getSingleton().getRoundedMass(amount));
     }
-    return GlobalParameters.getSingleton().getRoundedMass(amount);
+    return totals.getTotalMass(cos);
   }
 
   /*
@@ -76,6 +76,7 @@ public class Element extends DomainObject implements I_Element {
    */
   public void setClassOfSupply(ClassOfSupply classOfSupply) {
     this.classOfSupply = classOfSupply;
+    invalidateTotals();
   }
 
   /*
@@ -132,6 +133,7 @@ public class Element extends DomainObject implements I_Element {
    */
   public void setMass(double mass) {
     this.mass = mass;
+    invalidateTotals();
   }
 
   /*
@@ -159,6 +161,7 @@ public class Element extends DomainObject implements I_Element {
    */
   public void setVolume(double volume) {
     this.volume = volume;
+    invalidateTotals();
   }
 
   /*
@@ -202,10 +205,12 @@ public class Element extends DomainObject implements I_Element {
                     application.getPart(), application.getQuantity(), getLocation(), this));
                 demand.setAmount(demand.getAmount() - application.getQuantity());
                 application.setQuantity(0);
+                invalidateTotals();
               } else {
                 simulator.getScavengedParts().add(new SimScavenge(simulator.getTime(),
                     application.getPart(), demand.getAmount(), getLocation(), this));
                 application.setQuantity(application.getQuantity() - demand.getAmount());
+                invalidateTotals();
                 demands.remove(demand);
                 break;
               }
@@ -260,6 +265,7 @@ public class Element extends DomainObject implements I_Element {
    */
   public void setParts(SortedSet<PartApplication> parts) {
     this.parts = parts;
+    invalidateTotals();
   }
 
   /*
@@ -298,9 +304,11 @@ public class Element extends DomainObject implements I_Element {
   public boolean setCurrentState(I_State newState) {
     if (states.size() == 0 && newState == null) {
       this.currentState = null;
+      invalidateTotals();
       return true;
     } else if (states.contains(newState)) {
       this.currentState = newState;
+      invalidateTotals();
       return true;
     } else
       return false;
@@ -325,6 +333,16 @@ public class Element extends DomainObject implements I_Element {
     this.container = container;
   }
 
+  /**
+   * Discards the cached aggregates of the containers holding this element after a change to its
+   * mass, volume, class of supply, state, parts, or contents.
+   */
+  protected void invalidateTotals() {
+    if (container != null) {
+      container.invalidateTotals();
+    }
+  }
+
   /*
    * (non-Javadoc)
    * 
@@ -115,6 +115,7 @@ public class GenericResourceContainer extends ResourceContainer {
    */
   public void setMassPackingFactor(double massPackingFactor) {
     this.massPackingFactor = massPackingFactor;
+    invalidateTotals();
   }
 
   /**
@@ -133,6 +134,7 @@ public class GenericResourceContainer extends ResourceContainer {
    */
   public void setVolumePackingFactor(double volumePackingFactor) {
     this.volumePackingFactor = volumePackingFactor;
+    invalidateTotals();
   }
 
   /**
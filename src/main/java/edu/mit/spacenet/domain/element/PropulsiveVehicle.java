@@ -94,6 +94,7 @@ public class PropulsiveVehicle extends Carrier {
       omsFuelTank.setName(getName() + " OMS Fuel Tank");
       omsFuelTank.setContainer(this);
     }
+    invalidateTotals();
   }
 
   /**
@@ -134,6 +135,7 @@ public class PropulsiveVehicle extends Carrier {
       rcsFuelTank.setName(getName() + " RCS Fuel Tank");
       rcsFuelTank.setContainer(this);
     }
+    invalidateTotals();
   }
 
   /*
@@ -81,6 +81,7 @@ public class ResourceContainer extends Element implements I_ResourceContainer {
       } else {
         contents.put(resource, amount);
       }
+      invalidateTotals();
       return true;
     } else
       return false;
@@ -97,9 +98,11 @@ public class ResourceContainer extends Element implements I_ResourceContainer {
     if (contents.keySet().contains(resource) && contents.get(resource) > amount) {
       double q = contents.get(resource);
       contents.put(resource, q - amount);
+      invalidateTotals();
       return true;
     } else if (contents.keySet().contains(resource) && contents.get(resource) == amount) {
       contents.remove(resource);
+      invalidateTotals();
       return true;
     } else
       return false;
@@ -247,6 +250,7 @@ public class ResourceContainer extends Element implements I_ResourceContainer {
   @Override
   public void satisfyDemands(DemandSet demands, I_Simulator simulator) {
     super.satisfyDemands(demands, simulator);
+    boolean changed = false;
     for (Demand demand : demands) {
       if (demand.getAmount() > 0) { // consumption
         for (I_Resource resource : contents.keySet()) {
@@ -254,12 +258,16 @@ public class ResourceContainer extends Element implements I_ResourceContainer {
             if (demand.getAmount() >= contents.get(resource)) {
               // don't consume science demands!
               demand.setAmount(demand.getAmount() - contents.get(resource));
-              if (!demand.getResource().getClassOfSupply().isInstanceOf(ClassOfSupply.COS6))
+              if (!demand.getResource().getClassOfSupply().isInstanceOf(ClassOfSupply.COS6)) {
                 contents.put(resource, 0d);
+                changed = true;
+              }
             } else {
               // don't consume science demands!
-              if (!demand.getResource().getClassOfSupply().isInstanceOf(ClassOfSupply.COS6))
+              if (!demand.getResource().getClassOfSupply().isInstanceOf(ClassOfSupply.COS6)) {
                 contents.put(resource, contents.get(resource) - demand.getAmount());
+                changed = true;
+              }
               demand.setAmount(0);
               break;
             }
@@ -276,10 +284,14 @@ public class ResourceContainer extends Element implements I_ResourceContainer {
               contents.put(resource, contents.get(resource) + -demand.getAmount());
               demand.setAmount(0);
             }
+            changed = true;
           }
         }
       }
     }
+    if (changed) {
+      invalidateTotals();
+    }
     demands.clean();
   }
 
@@ -76,6 +76,7 @@ public class ResourceTank extends Element implements I_ResourceContainer {
         this.resource = resource;
       }
       this.amount += amount;
+      invalidateTotals();
       return true;
     } else
       return false;
@@ -104,6 +105,7 @@ public class ResourceTank extends Element implements I_ResourceContainer {
       return false;
     } else if (this.amount - amount >= 0) {
       this.amount = this.amount - amount;
+      invalidateTotals();
       return true;
     } else
       return false;
@@ -136,6 +138,7 @@ public class ResourceTank extends Element implements I_ResourceContainer {
    */
   public void setResource(I_Resource resource) {
     this.resource = resource;
+    invalidateTotals();
   }
 
   /**
@@ -154,6 +157,7 @@ public class ResourceTank extends Element implements I_ResourceContainer {
    */
   public void setAmount(double amount) {
     this.amount = amount;
+    invalidateTotals();
   }
 
   /**
@@ -233,8 +237,10 @@ public class ResourceTank extends Element implements I_ResourceContainer {
   @Override
   public void satisfyDemands(DemandSet demands, I_Simulator simulator) {
     super.satisfyDemands(demands, simulator);
+    boolean changed = false;
     for (Demand demand : demands) {
       if (demand.getResource().isSubstitutableFor(resource)) {
+        changed = true;
         if (demand.getAmount() > 0) { // consumption
           if (demand.getAmount() > amount) {
             demand.setAmount(demand.getAmount() - amount);
@@ -254,6 +260,9 @@ public class ResourceTank extends Element implements I_ResourceContainer {
         }
       }
     }
+    if (changed) {
+      invalidateTotals();
+    }
     demands.clean();
   }
 
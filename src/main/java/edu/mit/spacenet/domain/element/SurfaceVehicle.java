@@ -90,6 +90,7 @@ public class SurfaceVehicle extends Carrier {
       fuelTank.setName(getName() + " Fuel Tank");
       fuelTank.setContainer(this);
     }
+    invalidateTotals();
   }
 
   /*
@@ -17,6 +17,7 @@ import java.util.SortedSet;
 import java.util.TreeSet;
 
 import edu.mit.spacenet.domain.ClassOfSupply;
+import edu.mit.spacenet.domain.ContainerTotals;
 import edu.mit.spacenet.domain.DomainType;
 import edu.mit.spacenet.domain.I_Container;
 import edu.mit.spacenet.domain.element.CrewMember;
@@ -31,6 +32,7 @@ import edu.mit.spacenet.simulator.I_Simulator;
  */
 public abstract class Location extends DomainType implements I_Container, Comparable<Location> {
   private SortedSet<I_Element> contents;
+  private transient ContainerTotals totals;
 
   /**
    * The default constructor initializes the contents structure.
@@ -96,7 +98,9 @@ public abstract class Location extends DomainType implements I_Container, Compar
     if (element.getContainer() != null)
       element.getContainer().remove(element);
     element.setContainer(this);
-    return contents.add(element);
+    boolean added = contents.add(element);
+    invalidateTotals();
+    return added;
   }
 
   /*
@@ -106,7 +110,9 @@ public abstract class Location extends DomainType implements I_Container, Compar
    */
   public boolean remove(I_Element element) {
     element.setContainer(null);
-    return contents.remove(element);
+    boolean removed = contents.remove(element);
+    invalidateTotals();
+    return removed;
   }
 
   /*
@@ -115,13 +121,17 @@ public abstract class Location extends DomainType implements I_Container, Compar
    * @see edu.mit.spacenet.domain.I_Container#getCargoMass()
    */
   public double getCargoMass() {
-    double mass = 0;
-    for (I_Element i : contents) {
-      if (!(i instanceof CrewMember)) {
-        mass += i.getTotalMass();
+    ContainerTotals totals = getTotals();
+    if (Double.isNaN(totals.getCargoMass())) {
+      double mass = 0;
+      for (I_Element i : contents) {
+        if (!(i instanceof CrewMember)) {
+          mass += i.getTotalMass();
+        }
       }
+      totals.setCargoMass(mass);
     }
-    return mass;
+    return totals.getCargoMass();
   }
 
   /*
@@ -130,13 +140,17 @@ public abstract class Location extends DomainType implements I_Container, Compar
    * @see edu.mit.spacenet.domain.I_Container#getCargoVolume()
    */
   public double getCargoVolume() {
-    double volume = 0;
-    for (I_Element e : contents) {
-      if (!(e instanceof CrewMember)) {
-        volume += e.getVolume();
+    ContainerTotals totals = getTotals();
+    if (Double.isNaN(totals.getCargoVolume())) {
+      double volume = 0;
+      for (I_Element e : contents) {
+        if (!(e instanceof CrewMember)) {
+          volume += e.getVolume();
+        }
       }
+      totals.setCargoVolume(volume);
     }
-    return volume;
+    return totals.getCargoVolume();
   }
 
   /*
@@ -145,13 +159,17 @@ public abstract class Location extends DomainType implements I_Container, Compar
    * @see edu.mit.spacenet.domain.I_Container#getCrewSize()
    */
   public int getCrewSize() {
-    int crew = 0;
-    for (I_Element e : contents) {
-      if (e instanceof CrewMember) {
-        crew++;
+    ContainerTotals totals = getTotals();
+    if (totals.getCrewSize() < 0) {
+      int crew = 0;
+      for (I_Element e : contents) {
+        if (e instanceof CrewMember) {
+          crew++;
+        }
       }
+      totals.setCrewSize(crew);
     }
-    return crew;
+    return totals.getCrewSize();
   }
 
   /*
@@ -160,15 +178,19 @@ public abstract class Location extends DomainType implements I_Container, Compar
    * @see edu.mit.spacenet.domain.I_Container#getTotalCrewSize()
    */
   public int getTotalCrewSize() {
-    int crew = 0;
-    for (I_Element e : contents) {
-      if (e instanceof CrewMember) {
-        crew++;
-      } else if (e instanceof I_Carrier) {
-        crew += ((I_Carrier) e).getTotalCrewSize();
+    ContainerTotals totals = getTotals();
+    if (totals.getTotalCrewSize() < 0) {
+      int crew = 0;
+      for (I_Element e : contents) {
+        if (e instanceof CrewMember) {
+          crew++;
+        } else if (e instanceof I_Carrier) {
+          crew += ((I_Carrier) e).getTotalCrewSize();
+        }
       }
+      totals.setTotalCrewSize(crew);
     }
-    return crew;
+    return totals.getTotalCrewSize();
   }
 
   /*
@@ -198,11 +220,31 @@ public abstract class Location extends DomainType implements I_Container, Compar
    * @return the total mass
    */
   public double getTotalMass(ClassOfSupply cos, I_Simulator simulator) {
-    double amount = 0;
-    for (I_Element element : getContents()) {
-      amount += element.getTotalMass(cos);
+    ContainerTotals totals = getTotals();
+    if (Double.isNaN(totals.getTotalMass(cos))) {
+      double amount = 0;
+      for (I_Element element : getContents()) {
+        amount += element.getTotalMass(cos);
+      }
+      totals.setTotalMass(cos, amount);
+    }
+    return totals.getTotalMass(cos);
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see edu.mit.spacenet.domain.I_Container#invalidateTotals()
+   */
+  public void invalidateTotals() {
+    totals = null;
+  }
+
+  private ContainerTotals getTotals() {
+    if (!ContainerTotals.isCurrent(totals)) {
+      totals = new ContainerTotals();
     }
-    return amount;
+    return totals;
   }
 
   /*
@@ -15,8 +15,10 @@ package edu.mit.spacenet.domain.network;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
@@ -38,6 +40,8 @@ public class Network {
   private SortedSet<Edge> edges;
   private SortedMap<Integer, I_Element> registrar;
   private SortedMap<Integer, I_Element> removedRegistrar;
+  private transient Map<Integer, Node> nodesByTid;
+  private transient Map<Integer, Edge> edgesByTid;
 
   /**
    * Default constructor that initializes the structures for the nodes and edges.
@@ -66,12 +70,11 @@ public class Network {
    * @return the node, or null if not found
    */
   public Node getNodeByTid(int tid) {
-    Node node = null;
-    for (Node n : nodes) {
-      if (n.getTid() == tid) {
-        node = n;
-        break;
-      }
+    Node node = nodesByTid == null ? null : nodesByTid.get(tid);
+    if (node == null || node.getTid() != tid || !nodes.contains(node)) {
+      // the node set is exposed for editing, so rebuild the index rather than trust a miss
+      nodesByTid = indexByTid(nodes);
+      node = nodesByTid.get(tid);
     }
     return node;
   }
@@ -93,16 +96,24 @@ public class Network {
    * @return the edge, or null if not found
    */
   public Edge getEdgeByTid(int tid) {
-    Edge edge = null;
-    for (Edge e : edges) {
-      if (e.getTid() == tid) {
-        edge = e;
-        break;
-      }
+    Edge edge = edgesByTid == null ? null : edgesByTid.get(tid);
+    if (edge == null || edge.getTid() != tid || !edges.contains(edge)) {
+      edgesByTid = indexByTid(edges);
+      edge = edgesByTid.get(tid);
     }
     return edge;
   }
 
+  private static <T extends Location> Map<Integer, T> indexByTid(Set<T> locations) {
+    Map<Integer, T> index = new HashMap<Integer, T>();
+    for (T location : locations) {
+      if (!index.containsKey(location.getTid())) {
+        index.put(location.getTid(), location);
+      }
+    }
+    return index;
+  }
+
   /**
    * Adds a network component (node or edge) to the network. In the case of an edge, the origin and
    * destination node must exist in the network to be successful.
@@ -184,37 +195,59 @@ public class Network {
   }
 
   /**
-   * Gets the contents of.
+   * Gets the registered elements directly inside a container. The container's own contents set,
+   * which is kept current by {@link I_Container#add(I_Element)} and
+   * {@link I_Container#remove(I_Element)}, serves as the index, so only the container's contents
+   * are visited rather than the whole registry.
    * 
-   * @param container the container
+   * @param container the container, or an equal container from another copy of the network
    * 
    * @return the contents of
    */
   public SortedSet<I_Element> getContentsOf(I_Container container) {
     TreeSet<I_Element> elements = new TreeSet<I_Element>();
-    for (I_Element element : getRegistrar().values()) {
-      if (element.getContainer().equals(container))
+    for (I_Element element : resolve(container).getContents()) {
+      if (registrar.get(element.getUid()) == element && element.getContainer().equals(container))
         elements.add(element);
     }
     return elements;
   }
 
   /**
-   * Gets the complete contents of.
+   * Gets the registered elements at a location, including any nested elements at any level.
    * 
-   * @param location the location
+   * @param location the location, or an equal location from another copy of the network
    * 
    * @return the complete contents of
    */
   public SortedSet<I_Element> getCompleteContentsOf(Location location) {
     TreeSet<I_Element> elements = new TreeSet<I_Element>();
-    for (I_Element element : getRegistrar().values()) {
-      if (element.getLocation().equals(location))
+    for (I_Element element : resolve(location).getCompleteContents()) {
+      if (registrar.get(element.getUid()) == element)
         elements.add(element);
     }
     return elements;
   }
 
+  /**
+   * Gets this network's instance of a container, which may be passed in from another copy of the
+   * network (for example, the scenario's network rather than a simulator's).
+   */
+  private I_Container resolve(I_Container container) {
+    I_Container resolved = null;
+    if (container instanceof Node) {
+      resolved = getNodeByTid(((Node) container).getTid());
+    } else if (container instanceof Edge) {
+      resolved = getEdgeByTid(((Edge) container).getTid());
+    } else if (container instanceof I_Element) {
+      I_Element element = registrar.get(((I_Element) container).getUid());
+      if (element instanceof I_Container) {
+        resolved = (I_Container) element;
+      }
+    }
+    return resolved != null && resolved.equals(container) ? resolved : container;
+  }
+
   /**
    * Prints a network representation to console.
    */
@@ -13,21 +13,24 @@
  */
 package edu.mit.spacenet.domain.resource;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
+import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
 import edu.mit.spacenet.util.GlobalParameters;
 
 /**
- * A wrapper for a set of demands that performs grouping operations.
+ * A wrapper for a set of demands that performs grouping operations. Demands are iterated in
+ * resource order and are also indexed by resource so that adding or removing a demand does not scan
+ * the set.
  * 
  * @author Paul Grogan
  */
 public class DemandSet implements Iterable<Demand> {
   private SortedSet<Demand> demands;
+  private transient Map<ResourceKey, Demand> index;
 
   /**
    * The constructor.
@@ -44,16 +47,20 @@ public class DemandSet implements Iterable<Demand> {
    * @return whether the operation was successful
    */
   public boolean add(Demand demand) {
-    for (Demand d : demands) {
-      if (d.getResource().equals((demand.getResource()))) {
-        d.setAmount(d.getAmount() + demand.getAmount());
-        return true;
-      }
+    ResourceKey key = new ResourceKey(demand.getResource());
+    Demand d = getIndex().get(key);
+    if (d != null) {
+      d.setAmount(d.getAmount() + demand.getAmount());
+      return true;
     }
-    Demand d = new Demand();
+    d = new Demand();
     d.setResource(demand.getResource());
     d.setAmount(demand.getAmount());
-    return demands.add(d);
+    if (demands.add(d)) {
+      index.put(key, d);
+      return true;
+    }
+    return false;
   }
 
   /**
@@ -75,20 +82,18 @@ public class DemandSet implements Iterable<Demand> {
    * @return whether the operation was successful
    */
   public boolean remove(Demand demand) {
-    for (Demand d : demands) {
-      if (d.getResource().equals(demand.getResource())) {
-        if (d.getAmount() >= demand.getAmount()) {
-          d.setAmount(d.getAmount() - demand.getAmount());
-          demand.setAmount(0);
-          return true;
-        } else {
-          demand.setAmount(demand.getAmount() - d.getAmount());
-          d.setAmount(0);
-          return false;
-        }
-      }
+    Demand d = getIndex().get(new ResourceKey(demand.getResource()));
+    if (d == null) {
+      return false;
+    } else if (d.getAmount() >= demand.getAmount()) {
+      d.setAmount(d.getAmount() - demand.getAmount());
+      demand.setAmount(0);
+      return true;
+    } else {
+      demand.setAmount(demand.getAmount() - d.getAmount());
+      d.setAmount(0);
+      return false;
     }
-    return false;
   }
 
   /**
@@ -123,7 +128,24 @@ public class DemandSet implements Iterable<Demand> {
    * @see java.lang.Iterable#iterator()
    */
   public Iterator<Demand> iterator() {
-    return demands.iterator();
+    final Iterator<Demand> iterator = demands.iterator();
+    return new Iterator<Demand>() {
+      private Demand last;
+
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      public Demand next() {
+        last = iterator.next();
+        return last;
+      }
+
+      public void remove() {
+        iterator.remove();
+        getIndex().remove(new ResourceKey(last.getResource()));
+      }
+    };
   }
 
   /*
@@ -149,19 +171,61 @@ public class DemandSet implements Iterable<Demand> {
    */
   public void clear() {
     demands.clear();
+    if (index != null) {
+      index.clear();
+    }
   }
 
   /**
    * Removes any demands with zero amount.
    */
   public void clean() {
-    List<Demand> forRemoval = new ArrayList<Demand>();
-    for (Demand demand : this) {
-      if (demand == null || demand.getAmount() == 0)
-        forRemoval.add(demand);
+    for (Iterator<Demand> i = iterator(); i.hasNext();) {
+      if (i.next().getAmount() == 0) {
+        i.remove();
+      }
+    }
+  }
+
+  /**
+   * Gets the resource index, rebuilding it if this set was deserialized or copied without it.
+   * 
+   * @return the index
+   */
+  private Map<ResourceKey, Demand> getIndex() {
+    if (index == null) {
+      index = new HashMap<ResourceKey, Demand>();
+      for (Demand demand : demands) {
+        index.put(new ResourceKey(demand.getResource()), demand);
+      }
     }
-    for (Demand d : forRemoval) {
-      demands.remove(d);
+    return index;
+  }
+
+  /**
+   * A hash key for a resource that is consistent with resource equality (type id, class, and
+   * environment).
+   */
+  private static final class ResourceKey {
+    private final I_Resource resource;
+
+    private ResourceKey(I_Resource resource) {
+      this.resource = resource;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      I_Resource other = ((ResourceKey) object).resource;
+      return resource == null ? other == null : resource.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+      if (resource == null) {
+        return 0;
+      }
+      return 31 * resource.getTid()
+          + (resource.getEnvironment() == null ? 0 : resource.getEnvironment().ordinal());
     }
   }
 }
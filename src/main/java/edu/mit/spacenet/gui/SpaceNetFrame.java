@@ -35,6 +35,7 @@ import javax.swing.JPanel;
 import org.apache.commons.io.FilenameUtils;
 
 import edu.mit.spacenet.domain.element.I_Element;
+import edu.mit.spacenet.io.BinaryEngine;
 import edu.mit.spacenet.io.ScenarioFileFilter;
 import edu.mit.spacenet.io.XStreamEngine;
 import edu.mit.spacenet.io.gson.scenario.GsonEngine;
@@ -208,6 +209,10 @@ public class SpaceNetFrame extends JFrame {
         Scenario scenario = GsonEngine.openScenario(filePath);
         scenario.setFilePath(filePath);
         setScenario(scenario);
+      } else if (extension.equals("snb")) {
+        Scenario scenario = BinaryEngine.openScenario(filePath);
+        scenario.setFilePath(filePath);
+        setScenario(scenario);
       }
     } catch (FileNotFoundException e) {
       JOptionPane.showMessageDialog(this, "The scenario file path (" + filePath + ") is invalid.",
@@ -235,6 +240,8 @@ public class SpaceNetFrame extends JFrame {
         XStreamEngine.saveScenario(scenarioPanel.getScenario());
       } else if (extension.equals("json")) {
         GsonEngine.saveScenario(scenarioPanel.getScenario());
+      } else if (extension.equals("snb")) {
+        BinaryEngine.saveScenario(scenarioPanel.getScenario());
       }
     } catch (FileNotFoundException e) {
       JOptionPane.showMessageDialog(this,
@@ -63,6 +63,8 @@ public class AddMissionCommand implements I_Command {
       }
     }
     missionsTab.getScenarioPanel().getScenario().getMissionList().add(mission);
+    missionsTab.getScenarioPanel().getScenario().invalidateElements();
+    missionsTab.getScenarioPanel().getScenario().invalidateLocationUses();
     missionsTab.editMission(mission);
   }
 
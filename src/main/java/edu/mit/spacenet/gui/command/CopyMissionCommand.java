@@ -248,6 +248,8 @@ public class CopyMissionCommand implements I_Command {
         ((FlightTransport) event).getElements().addAll(elements);
       }
     }
+    getScenario().invalidateElements();
+    getScenario().invalidateLocationUses();
     missionsTab.editMission(mission);
   }
 
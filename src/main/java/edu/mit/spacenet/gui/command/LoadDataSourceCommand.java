@@ -102,6 +102,8 @@ public class LoadDataSourceCommand implements I_Command {
                   dataSourceDialog.updateNodes(), dataSourceDialog.updateEdges(),
                   dataSourceDialog.updateResources());
             }
+            // updated edges may connect different nodes
+            scenarioPanel.getScenario().invalidateLocationUses();
             if (dataSourceDialog != null && dataSourceDialog.updateInstantiatedElements()) {
               for (I_Element element : scenarioPanel.getScenario().getElements()) {
                 if (element.getTid() > 0) {
@@ -78,6 +78,8 @@ public class RemoveMissionCommand implements I_Command {
       for (Mission mission : missions) {
         missionsTab.getScenarioPanel().getScenario().getMissionList().remove(mission);
       }
+      missionsTab.getScenarioPanel().getScenario().invalidateElements();
+      missionsTab.getScenarioPanel().getScenario().invalidateLocationUses();
     }
     missionsTab.updateView();
   }
@@ -68,7 +68,8 @@ public class SaveScenarioAsCommand implements I_Command {
     if (fileChooser.showSaveDialog(spaceNetFrame) == JFileChooser.APPROVE_OPTION) {
       String filepath = fileChooser.getSelectedFile().getAbsolutePath();
       String extension = FilenameUtils.getExtension(filepath);
-      if (extension == null || !(extension.equals("xml") || extension.equals("json"))) {
+      if (extension == null || !(extension.equals("xml") || extension.equals("json")
+          || extension.equals("snb"))) {
         filepath += ".xml";
       }
       spaceNetFrame.getScenarioPanel().getScenario().setFilePath(filepath);
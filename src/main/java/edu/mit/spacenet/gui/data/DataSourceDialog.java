@@ -397,65 +397,59 @@ public class DataSourceDialog extends JDialog {
             JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.WARNING_MESSAGE);
         if (response == JOptionPane.YES_OPTION) {
           ArrayList<String> errorMessages = new ArrayList<String>(0);
-          switch (libraryTabs.getSelectedIndex()) {
-            case 0:
-              for (int i : reverse(nodeTable.getSelectedRows())) {
-                try {
+          try {
+            // delete all selected objects together so the data source is only written once
+            dataSource.beginTransaction();
+            switch (libraryTabs.getSelectedIndex()) {
+              case 0:
+                for (int i : reverse(nodeTable.getSelectedRows())) {
                   boolean isSuccessful =
                       dataSource.deleteNode(dataSource.getNodeLibrary().get(i).getTid());
                   if (!isSuccessful) {
                     errorMessages.add("Node " + dataSource.getNodeLibrary().get(i).getTid());
                   }
-                } catch (Exception e1) {
-                  e1.printStackTrace();
                 }
-              }
-              loadDataSource();
-              break;
-            case 1:
-              for (int i : reverse(edgeTable.getSelectedRows())) {
-                try {
+                break;
+              case 1:
+                for (int i : reverse(edgeTable.getSelectedRows())) {
                   boolean isSuccessful =
                       dataSource.deleteEdge(dataSource.getEdgeLibrary().get(i).getTid());
                   if (!isSuccessful) {
                     errorMessages.add("Edge " + dataSource.getEdgeLibrary().get(i).getTid());
                   }
-                } catch (Exception e1) {
-                  e1.printStackTrace();
                 }
-              }
-              loadDataSource();
-              break;
-            case 2:
-              for (int i : reverse(resourceTable.getSelectedRows())) {
-                try {
+                break;
+              case 2:
+                for (int i : reverse(resourceTable.getSelectedRows())) {
                   boolean isSuccessful =
                       dataSource.deleteResource(dataSource.getResourceLibrary().get(i).getTid());
                   if (!isSuccessful) {
                     errorMessages
                         .add("Resource " + dataSource.getResourceLibrary().get(i).getTid());
                   }
-                } catch (Exception e1) {
-                  e1.printStackTrace();
                 }
-              }
-              loadDataSource();
-              break;
-            case 3:
-              for (int i : reverse(elementTable.getSelectedRows())) {
-                try {
+                break;
+              case 3:
+                for (int i : reverse(elementTable.getSelectedRows())) {
                   boolean isSuccessful =
                       dataSource.deleteElement(dataSource.getElementPreviewLibrary().get(i).ID);
                   if (!isSuccessful) {
-                    errorMessages.add("Element " + dataSource.getElementPreviewLibrary().get(i).ID);
+                    errorMessages
+                        .add("Element " + dataSource.getElementPreviewLibrary().get(i).ID);
                   }
-                } catch (Exception e1) {
-                  e1.printStackTrace();
                 }
-              }
-              loadDataSource();
-              break;
+                break;
+            }
+            dataSource.commitTransaction();
+          } catch (Exception e1) {
+            dataSource.rollbackTransaction();
+            errorMessages.clear();
+            e1.printStackTrace();
+            JOptionPane.showMessageDialog(getThis(),
+                "An error occurred while deleting objects from the data source.", "SpaceNet Error",
+                JOptionPane.ERROR_MESSAGE);
           }
+          loadDataSource();
           if (errorMessages.size() > 0) {
             String tempError =
                 "The following objects could not be deleted because of existing references: \n";
@@ -214,6 +214,9 @@ public class ResourceContainerPanel extends AbstractElementPanel {
     container.setMaxCargoVolume(maxCargoVolumeModel.getNumber().doubleValue());
     container.setCargoEnvironment((Environment) environmentCombo.getSelectedItem());
     container.getContents().clear();
+    if (container.getContainer() != null) {
+      container.getContainer().invalidateTotals();
+    }
     for (Demand demand : resourcesList.getDemands()) {
       if (demand.getResource() != null)
         container.add(demand.getResource(), demand.getAmount());
@@ -92,6 +92,9 @@ public class EventDialog extends JDialog {
     initPriority = event.getPriority();
     initLocation = event.getLocation();
     preSim = new PreSimulator(missionPanel.getMissionSplitPane().getMission().getScenario());
+    // the edited event is excluded so checkpoints stay valid as its time and priority change
+    preSim.setExcludedEvent(event);
+    preSim.setCheckpointsEnabled(true);
     preSim.simulate(
         DateFunctions.getDaysBetween(
             missionPanel.getMissionSplitPane().getMission().getScenario().getStartDate(),
@@ -274,6 +277,8 @@ public class EventDialog extends JDialog {
     if (!missionPanel.getMissionSplitPane().getMission().getEventList().contains(event)) {
       missionPanel.getMissionSplitPane().getMission().getEventList().add(event);
     }
+    missionPanel.getMissionSplitPane().getMission().getScenario().invalidateElements();
+    missionPanel.getMissionSplitPane().getMission().getScenario().invalidateLocationUses();
   }
 
   /**
@@ -284,13 +289,13 @@ public class EventDialog extends JDialog {
       public Void doInBackground() throws Exception {
         SpaceNetFrame.getInstance().getStatusBar().setStatusMessage("Pre-simulating...");
         setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-        preSim = new PreSimulator(
-            missionPanel.getMissionSplitPane().getMissionsTab().getScenarioPanel().getScenario());
         double time = DateFunctions.getDaysBetween(getScenario().getStartDate(),
             missionPanel.getMissionSplitPane().getMission().getStartDate())
             + timeModel.getNumber().doubleValue();
         int priority = ((Integer) priorityCombo.getSelectedItem()).intValue();
-        preSim.simulate(time, priority);
+        synchronized (preSim) {
+          preSim.simulate(time, priority);
+        }
         return null;
       }
 
@@ -132,6 +132,7 @@ public class MissionPanel extends JPanel {
       public void itemStateChanged(ItemEvent e) {
         if (e.getStateChange() == ItemEvent.SELECTED) {
           missionSplitPane.getMission().setOrigin((Node) ddlOrigin.getSelectedItem());
+          missionSplitPane.getMission().getScenario().invalidateLocationUses();
         }
       }
     });
@@ -142,6 +143,7 @@ public class MissionPanel extends JPanel {
       public void itemStateChanged(ItemEvent e) {
         if (e.getStateChange() == ItemEvent.SELECTED) {
           missionSplitPane.getMission().setDestination((Node) ddlDestination.getSelectedItem());
+          missionSplitPane.getMission().getScenario().invalidateLocationUses();
         }
       }
     });
@@ -166,6 +168,7 @@ public class MissionPanel extends JPanel {
     ddlReturnOrigin.addItemListener(new ItemListener() {
       public void itemStateChanged(ItemEvent e) {
         missionSplitPane.getMission().setReturnOrigin((Node) ddlReturnOrigin.getSelectedItem());
+        missionSplitPane.getMission().getScenario().invalidateLocationUses();
       }
     });
     returnPanel.add(ddlReturnOrigin, g);
@@ -175,6 +178,7 @@ public class MissionPanel extends JPanel {
       public void itemStateChanged(ItemEvent e) {
         missionSplitPane.getMission()
             .setReturnDestination((Node) ddlReturnDestination.getSelectedItem());
+        missionSplitPane.getMission().getScenario().invalidateLocationUses();
       }
     });
     returnPanel.add(ddlReturnDestination, g);
@@ -368,6 +372,8 @@ public class MissionPanel extends JPanel {
           for (I_Event event : events) {
             missionSplitPane.getMission().getEventList().remove(event);
           }
+          missionSplitPane.getMission().getScenario().invalidateElements();
+          missionSplitPane.getMission().getScenario().invalidateLocationUses();
 
         }
         missionSplitPane.getMissionsTab().updateView();
@@ -258,5 +258,7 @@ public class ResourceEditorPanel extends JPanel {
     resource.setUnitMass(unitMassModel.getNumber().doubleValue());
     resource.setUnitVolume(unitVolumeModel.getNumber().doubleValue());
     resource.setDescription(descriptionText.getText());
+    // containers cache masses computed from the unit mass
+    GlobalParameters.getSingleton().incrementRevision();
   }
 }
@@ -59,6 +59,7 @@ import edu.mit.spacenet.gui.component.ElementTree;
 import edu.mit.spacenet.gui.component.FuelPanel;
 import edu.mit.spacenet.gui.visualization.NetworkPanel;
 import edu.mit.spacenet.scenario.Scenario;
+import edu.mit.spacenet.simulator.NetworkHistory;
 import edu.mit.spacenet.util.DateFunctions;
 import edu.mit.spacenet.util.GlobalParameters;
 
@@ -419,13 +420,10 @@ public class NetworkHistoryVisualization extends JSplitPane {
         network = tab.getSimulator().getScenario().getNetwork();
         time = tab.getSimulator().getTime();
       } else {
-        int i = 0;
-        while (tab.getSimulator().getNetworkHistory().get(i + 1).getTime()
-            * stepsPerDay <= timeSlider.getValue()
-            && i < tab.getSimulator().getNetworkHistory().size() - 2) {
-          i++;
-        }
-        network = tab.getSimulator().getNetworkHistory().get(i).getNetwork();
+        NetworkHistory history = tab.getSimulator().getNetworkHistory();
+        int i = Math.max(0,
+            Math.min(history.getIndex(timeSlider.getValue() / stepsPerDay), history.size() - 2));
+        network = history.getNetwork(i);
         time = timeSlider.getValue() / stepsPerDay;
       }
       SimpleDateFormat dateFormat = new SimpleDateFormat("MMM d, yyyy kk:mm");
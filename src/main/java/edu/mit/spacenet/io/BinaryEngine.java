@@ -0,0 +1,93 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet.io;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import edu.mit.spacenet.scenario.Scenario;
+import edu.mit.spacenet.util.BinaryGraphCodec;
+import edu.mit.spacenet.util.GlobalParameters;
+
+/**
+ * Saves and opens scenarios in the binary (.snb) format, a compact encoding of the same scenario
+ * contents as the xml format that loads without parsing text. As with the xml format, the
+ * manifest is not saved.
+ * 
+ * @author Paul Grogan
+ */
+public abstract class BinaryEngine {
+
+  private static BinaryGraphCodec getCodec() {
+    BinaryGraphCodec codec = new BinaryGraphCodec();
+    // skip manifest (as for xml)
+    codec.omitField(Scenario.class, "manifest");
+    return codec;
+  }
+
+  /**
+   * Serializes and saves a scenario.
+   * 
+   * @param scenario the scenario to save
+   * 
+   * @throws FileNotFoundException the file not found exception
+   * @throws IOException the i/o exception
+   */
+  public static void saveScenario(Scenario scenario) throws FileNotFoundException, IOException {
+    FileChannel channel;
+    try {
+      channel = FileChannel.open(Paths.get(scenario.getFilePath()), StandardOpenOption.WRITE,
+          StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+    } catch (NoSuchFileException ex) {
+      throw new FileNotFoundException(ex.getMessage());
+    }
+    try {
+      getCodec().write(scenario, channel);
+    } finally {
+      channel.close();
+    }
+  }
+
+  /**
+   * Opens and deserializes a scenario based on a file path.
+   * 
+   * @param filePath the file path to open
+   * 
+   * @return the deserialized scenario
+   * 
+   * @throws FileNotFoundException the file not found exception
+   * @throws IOException the i/o exception
+   */
+  public static Scenario openScenario(String filePath) throws FileNotFoundException, IOException {
+    Scenario scenario = new Scenario();
+
+    FileChannel channel;
+    try {
+      channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+    } catch (NoSuchFileException ex) {
+      throw new FileNotFoundException(ex.getMessage());
+    }
+    try {
+      getCodec().read(channel, scenario);
+    } finally {
+      channel.close();
+    }
+    GlobalParameters.getSingleton().setParametersFrom(scenario);
+    return scenario;
+  }
+}
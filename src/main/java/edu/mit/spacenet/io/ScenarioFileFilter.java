@@ -20,7 +20,7 @@ import javax.swing.filechooser.FileFilter;
 import org.apache.commons.io.FilenameUtils;
 
 /**
- * A filter for file dialogs to only show .xml and .json files.
+ * A filter for file dialogs to only show .xml, .json, and .snb files.
  * 
  * @author Paul Grogan
  */
@@ -36,7 +36,8 @@ public class ScenarioFileFilter extends FileFilter {
       return true;
     }
     String extension = FilenameUtils.getExtension(f.getName());
-    if (extension != null && (extension.equals("xml") || extension.equals("json"))) {
+    if (extension != null && (extension.equals("xml") || extension.equals("json")
+        || extension.equals("snb"))) {
       return true;
     }
     return false;
@@ -48,6 +49,6 @@ public class ScenarioFileFilter extends FileFilter {
    * @see javax.swing.filechooser.FileFilter#getDescription()
    */
   public String getDescription() {
-    return "Scenario Files (.xml or .json)";
+    return "Scenario Files (.xml, .json, or .snb)";
   }
 }
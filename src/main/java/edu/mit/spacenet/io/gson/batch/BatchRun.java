@@ -0,0 +1,29 @@
+package edu.mit.spacenet.io.gson.batch;
+
+public class BatchRun {
+  protected String scenario;
+  protected String output;
+  protected String mode;
+  protected Boolean success;
+  protected Double wallTime;
+  protected String error;
+
+  public static BatchRun createFrom(String scenario, String output, String mode, long wallNanos,
+      Throwable error) {
+    BatchRun r = new BatchRun();
+    r.scenario = scenario;
+    r.output = output;
+    r.mode = mode;
+    r.success = error == null;
+    r.wallTime = wallNanos / 1e9;
+    if (error != null) {
+      r.error = error.getClass().getSimpleName()
+          + (error.getMessage() == null ? "" : ": " + error.getMessage());
+    }
+    return r;
+  }
+
+  public boolean isSuccess() {
+    return success;
+  }
+}
@@ -0,0 +1,29 @@
+package edu.mit.spacenet.io.gson.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchSummary {
+  protected Integer threads;
+  protected Integer succeeded = 0;
+  protected Integer failed = 0;
+  protected Double wallTime;
+  protected Double totalRunTime = 0.0;
+  protected List<BatchRun> runs = new ArrayList<BatchRun>();
+
+  public static BatchSummary createFrom(List<BatchRun> runs, int threads, long wallNanos) {
+    BatchSummary o = new BatchSummary();
+    o.threads = threads;
+    o.wallTime = wallNanos / 1e9;
+    o.runs = runs;
+    for (BatchRun r : runs) {
+      if (r.success) {
+        o.succeeded++;
+      } else {
+        o.failed++;
+      }
+      o.totalRunTime += r.wallTime;
+    }
+    return o;
+  }
+}
@@ -0,0 +1,190 @@
+package edu.mit.spacenet.io.gson.demands;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writes demand and manifest analyses record by record as it walks the simulator or manifest
+ * results, so only one record is held in memory at a time. The pretty format is the same document
+ * as serializing {@link RawDemandsAnalysis}, {@link AggregatedDemandsAnalysis}, or
+ * {@link ManifestAnalysis} with pretty printing; the compact format is the same document on one
+ * line. The ndjson format writes one record per line instead of a document, with a
+ * {@code "section"} member naming the document array the record belongs to.
+ * 
+ * @author Paul Grogan
+ */
+public class DemandsAnalysisWriter {
+  public static enum Format {
+    PRETTY("pretty"),
+    COMPACT("compact"),
+    NDJSON("ndjson");
+
+    public final String label;
+
+    private Format(String label) {
+      this.label = label;
+    }
+
+    /**
+     * Gets the format with a label, ignoring case.
+     * 
+     * @param label the label
+     * @return the format, or null if no format has the label
+     */
+    public static Format getInstance(String label) {
+      for (Format format : values()) {
+        if (format.label.equalsIgnoreCase(label)) {
+          return format;
+        }
+      }
+      return null;
+    }
+  }
+
+  /** The name of the member naming the section of each ndjson record. */
+  public static final String SECTION = "section";
+
+  private final Writer out;
+  private final Format format;
+  private final Gson gson;
+  private JsonWriter writer;
+
+  /**
+   * Instantiates a new demands analysis writer.
+   * 
+   * @param out the writer to write to, which is flushed but not closed
+   * @param format the output format
+   */
+  public DemandsAnalysisWriter(Writer out, Format format) {
+    this.out = out;
+    this.format = format;
+    GsonBuilder builder = new GsonBuilder();
+    if (format == Format.PRETTY) {
+      builder.setPrettyPrinting();
+    }
+    gson = builder.create();
+  }
+
+  /**
+   * Writes the raw (unsatisfied) demands of a completed simulation.
+   * 
+   * @param simulator the demand simulator
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public void writeRawDemands(edu.mit.spacenet.simulator.DemandSimulator simulator)
+      throws IOException {
+    beginDocument();
+    beginSection("demands");
+    for (edu.mit.spacenet.simulator.SimDemand demands : simulator.getUnsatisfiedDemands()) {
+      write("demands", RawDemand.createFrom(demands), RawDemand.class);
+    }
+    endSection();
+    endDocument();
+  }
+
+  /**
+   * Writes the demands of a completed simulation aggregated to supply points and supply edges.
+   * 
+   * @param simulator the demand simulator
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public void writeAggregatedDemands(edu.mit.spacenet.simulator.DemandSimulator simulator)
+      throws IOException {
+    beginDocument();
+    beginSection("nodes");
+    Map<edu.mit.spacenet.scenario.SupplyPoint, edu.mit.spacenet.domain.resource.DemandSet> nodes =
+        simulator.getAggregatedNodeDemands();
+    for (edu.mit.spacenet.scenario.SupplyPoint point : nodes.keySet()) {
+      write("nodes", NodeDemand.createFrom(point, nodes.get(point)), NodeDemand.class);
+    }
+    endSection();
+    beginSection("edges");
+    Map<edu.mit.spacenet.scenario.SupplyEdge, edu.mit.spacenet.domain.resource.DemandSet> edges =
+        simulator.getAggregatedEdgeDemands();
+    for (edu.mit.spacenet.scenario.SupplyEdge edge : edges.keySet()) {
+      write("edges", EdgeDemand.createFrom(edge, edges.get(edge)), EdgeDemand.class);
+    }
+    endSection();
+    endDocument();
+  }
+
+  /**
+   * Writes the containers, manifesting actions, and unmanifested containers (gaps) of a manifest.
+   * 
+   * @param manifest the manifest
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public void writeManifest(edu.mit.spacenet.scenario.Manifest manifest) throws IOException {
+    beginDocument();
+    beginSection("containers");
+    for (edu.mit.spacenet.domain.element.I_ResourceContainer container : manifest
+        .getPackedDemands().keySet()) {
+      write("containers", ManifestContainer.createFrom(container, manifest),
+          ManifestContainer.class);
+    }
+    endSection();
+    beginSection("actions");
+    for (edu.mit.spacenet.scenario.SupplyEdge edge : manifest.getSupplyEdges()) {
+      write("actions", ManifestAction.createFrom(edge, manifest), ManifestAction.class);
+    }
+    endSection();
+    beginSection("gaps");
+    for (edu.mit.spacenet.scenario.SupplyPoint point : manifest.getSupplyPoints()) {
+      write("gaps", ManifestGap.createFrom(point, manifest), ManifestGap.class);
+    }
+    endSection();
+    endDocument();
+  }
+
+  private void beginDocument() throws IOException {
+    if (format != Format.NDJSON) {
+      writer = gson.newJsonWriter(out);
+      writer.beginObject();
+    }
+  }
+
+  private void beginSection(String name) throws IOException {
+    if (writer != null) {
+      writer.name(name);
+      writer.beginArray();
+    }
+  }
+
+  private <T> void write(String section, T record, Class<T> type) throws IOException {
+    if (writer != null) {
+      gson.toJson(record, type, writer);
+    } else {
+      JsonObject line = new JsonObject();
+      line.addProperty(SECTION, section);
+      for (Map.Entry<String, JsonElement> member : gson.toJsonTree(record, type).getAsJsonObject()
+          .entrySet()) {
+        line.add(member.getKey(), member.getValue());
+      }
+      gson.toJson(line, out);
+      out.write('\n');
+    }
+  }
+
+  private void endSection() throws IOException {
+    if (writer != null) {
+      writer.endArray();
+    }
+  }
+
+  private void endDocument() throws IOException {
+    if (writer != null) {
+      writer.endObject();
+      writer.flush();
+      writer = null;
+    } else {
+      out.flush();
+    }
+  }
+}
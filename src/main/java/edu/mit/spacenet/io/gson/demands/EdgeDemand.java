@@ -21,31 +21,36 @@ public class EdgeDemand {
   protected Double maxCargoVolume;
   protected Double netCargoVolume;
 
+  public static EdgeDemand createFrom(edu.mit.spacenet.scenario.SupplyEdge edge,
+      edu.mit.spacenet.domain.resource.DemandSet demands) {
+    EdgeDemand d = new EdgeDemand();
+    d.startTime = edge.getStartTime();
+    d.endTime = edge.getEndTime();
+    d.origin = Location.createFrom(edge.getEdge().getOrigin());
+    d.destination = Location.createFrom(edge.getEdge().getDestination());
+    d.location = Location.createFrom(edge.getEdge());
+    d.consumption = Resource.createFrom(demands, true);
+    d.production = Resource.createFrom(demands, false);
+    for (Resource r : d.consumption) {
+      d.totalConsumptionMass += r.mass;
+      d.totalConsumptionVolume += r.volume;
+    }
+    for (Resource r : d.production) {
+      d.totalProductionMass += r.mass;
+      d.totalProductionVolume += r.volume;
+    }
+    d.maxCargoMass = edge.getMaxCargoMass();
+    d.netCargoMass = edge.getNetCargoMass();
+    d.maxCargoVolume = edge.getMaxCargoVolume();
+    d.netCargoVolume = edge.getNetCargoVolume();
+    return d;
+  }
+
   public static List<EdgeDemand> createFrom(
       Map<edu.mit.spacenet.scenario.SupplyEdge, edu.mit.spacenet.domain.resource.DemandSet> demands) {
     List<EdgeDemand> ds = new ArrayList<EdgeDemand>();
     for (edu.mit.spacenet.scenario.SupplyEdge edge : demands.keySet()) {
-      EdgeDemand d = new EdgeDemand();
-      d.startTime = edge.getStartTime();
-      d.endTime = edge.getEndTime();
-      d.origin = Location.createFrom(edge.getEdge().getOrigin());
-      d.destination = Location.createFrom(edge.getEdge().getDestination());
-      d.location = Location.createFrom(edge.getEdge());
-      d.consumption = Resource.createFrom(demands.get(edge), true);
-      d.production = Resource.createFrom(demands.get(edge), false);
-      for (Resource r : d.consumption) {
-        d.totalConsumptionMass += r.mass;
-        d.totalConsumptionVolume += r.volume;
-      }
-      for (Resource r : d.production) {
-        d.totalProductionMass += r.mass;
-        d.totalProductionVolume += r.volume;
-      }
-      d.maxCargoMass = edge.getMaxCargoMass();
-      d.netCargoMass = edge.getNetCargoMass();
-      d.maxCargoVolume = edge.getMaxCargoVolume();
-      d.netCargoVolume = edge.getNetCargoVolume();
-      ds.add(d);
+      ds.add(EdgeDemand.createFrom(edge, demands.get(edge)));
     }
     return ds;
   }
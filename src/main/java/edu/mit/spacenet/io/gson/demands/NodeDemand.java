@@ -14,24 +14,29 @@ public class NodeDemand {
   protected Double totalProductionMass = 0.0;
   protected Double totalProductionVolume = 0.0;
 
+  public static NodeDemand createFrom(edu.mit.spacenet.scenario.SupplyPoint point,
+      edu.mit.spacenet.domain.resource.DemandSet demands) {
+    NodeDemand d = new NodeDemand();
+    d.time = point.getTime();
+    d.location = Location.createFrom(point.getNode());
+    d.consumption = Resource.createFrom(demands, true);
+    d.production = Resource.createFrom(demands, false);
+    for (Resource r : d.consumption) {
+      d.totalConsumptionMass += r.mass;
+      d.totalConsumptionVolume += r.volume;
+    }
+    for (Resource r : d.production) {
+      d.totalProductionMass += r.mass;
+      d.totalProductionVolume += r.volume;
+    }
+    return d;
+  }
+
   public static List<NodeDemand> createFrom(
       Map<edu.mit.spacenet.scenario.SupplyPoint, edu.mit.spacenet.domain.resource.DemandSet> demands) {
     List<NodeDemand> ds = new ArrayList<NodeDemand>();
     for (edu.mit.spacenet.scenario.SupplyPoint point : demands.keySet()) {
-      NodeDemand d = new NodeDemand();
-      d.time = point.getTime();
-      d.location = Location.createFrom(point.getNode());
-      d.consumption = Resource.createFrom(demands.get(point), true);
-      d.production = Resource.createFrom(demands.get(point), false);
-      for (Resource r : d.consumption) {
-        d.totalConsumptionMass += r.mass;
-        d.totalConsumptionVolume += r.volume;
-      }
-      for (Resource r : d.production) {
-        d.totalProductionMass += r.mass;
-        d.totalProductionVolume += r.volume;
-      }
-      ds.add(d);
+      ds.add(NodeDemand.createFrom(point, demands.get(point)));
     }
     return ds;
   }
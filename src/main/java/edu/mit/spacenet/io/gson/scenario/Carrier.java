@@ -22,7 +22,7 @@ public class Carrier extends Element {
   public static Carrier createFrom(edu.mit.spacenet.domain.element.Carrier element,
       Context context) {
     Carrier e = new Carrier();
-    e.id = UUID.randomUUID();
+    e.id = context.createJsonId();
     context.put(element, e.id, e);
     e.templateId = context.getElementTemplate(element.getTid());
     Carrier template = (Carrier) context.getJsonObject(e.templateId);
@@ -3,27 +3,33 @@ package edu.mit.spacenet.io.gson.scenario;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
-import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
-
 import edu.mit.spacenet.domain.element.I_Element;
 import edu.mit.spacenet.domain.model.I_DemandModel;
 
 public class Context {
-  private BiMap<Integer, Object> javaId_javaObject = HashBiMap.create();
-  private BiMap<UUID, Object> jsonId_jsonObject = HashBiMap.create();
-  private BiMap<Integer, UUID> javaId_jsonId = HashBiMap.create();
+  private Map<Object, Integer> javaObject_javaId = new IdentityHashMap<Object, Integer>();
+  private Map<Integer, Object> javaId_javaObject = new HashMap<Integer, Object>();
+  private Map<UUID, Object> jsonId_jsonObject = new HashMap<UUID, Object>();
+  private Map<Integer, UUID> javaId_jsonId = new HashMap<Integer, UUID>();
+  private Map<UUID, Integer> jsonId_javaId = new HashMap<UUID, Integer>();
+  private long lastJsonId = 0;
+
+  // ids are counted rather than random so saving a scenario twice writes the same ids
+  public UUID createJsonId() {
+    return new UUID(0L, ++lastJsonId);
+  }
 
   public int getJavaId(Object javaObject) {
-    return javaId_javaObject.inverse().get(javaObject);
+    return javaObject_javaId.get(javaObject);
   }
 
   public int getJavaId(UUID jsonId) {
-    return javaId_jsonId.inverse().get(jsonId);
+    return jsonId_javaId.get(jsonId);
   }
 
   public Object getJsonObject(UUID jsonId) {
@@ -62,11 +68,18 @@ public class Context {
   private int nextJavaId = 0;
 
   public void put(Object javaObject, UUID jsonId, Object jsonObject) {
-    if (javaId_javaObject.inverse().get(javaObject) == null) {
-      javaId_javaObject.put(++nextJavaId, javaObject);
+    Integer javaId = javaObject_javaId.get(javaObject);
+    if (javaId == null) {
+      javaId = ++nextJavaId;
+      javaObject_javaId.put(javaObject, javaId);
+      javaId_javaObject.put(javaId, javaObject);
     }
     jsonId_jsonObject.put(jsonId, jsonObject);
-    javaId_jsonId.put(getJavaId(javaObject), jsonId);
+    UUID previousJsonId = javaId_jsonId.put(javaId, jsonId);
+    if (previousJsonId != null) {
+      jsonId_javaId.remove(previousJsonId);
+    }
+    jsonId_javaId.put(jsonId, javaId);
   }
 
   private Map<Integer, UUID> modelTemplates = new HashMap<Integer, UUID>();
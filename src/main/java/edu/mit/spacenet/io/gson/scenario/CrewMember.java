@@ -18,7 +18,7 @@ public class CrewMember extends Element {
   public static CrewMember createFrom(edu.mit.spacenet.domain.element.CrewMember element,
       Context context) {
     CrewMember e = new CrewMember();
-    e.id = UUID.randomUUID();
+    e.id = context.createJsonId();
     context.put(element, e.id, e);
     e.templateId = context.getElementTemplate(element.getTid());
     CrewMember template = (CrewMember) context.getJsonObject(e.templateId);
@@ -46,7 +46,7 @@ public class Element implements Cloneable {
   public static Element createFrom(I_Element element, Context context) {
     if (element.getElementType() == ElementType.ELEMENT) {
       Element e = new Element();
-      e.id = UUID.randomUUID();
+      e.id = context.createJsonId();
       context.put(element, e.id, e);
       e.templateId = context.getElementTemplate(element.getTid());
       Element template = (Element) context.getJsonObject(e.templateId);
@@ -12,7 +12,6 @@ import org.threeten.extra.PeriodDuration;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.typeadapters.RuntimeTypeAdapterFactory;
 import com.google.gson.typeadapters.UtcDateTypeAdapter;
 
 import edu.mit.spacenet.domain.element.ElementType;
@@ -24,10 +23,14 @@ import edu.mit.spacenet.simulator.event.EventType;
 import edu.mit.spacenet.util.GlobalParameters;
 
 public abstract class GsonEngine {
+  // gson instances are thread-safe and cache their type adapters, so one is shared by every open
+  // and save
+  private static final Gson GSON = createGson();
+
   public static Scenario openScenario(String filePath) throws FileNotFoundException, IOException {
     BufferedReader in = new BufferedReader(new FileReader(filePath));
     Scenario scenario =
-        getGson().fromJson(in, edu.mit.spacenet.io.gson.scenario.Scenario.class).toSpaceNet();
+        GSON.fromJson(in, edu.mit.spacenet.io.gson.scenario.Scenario.class).toSpaceNet();
     in.close();
     GlobalParameters.getSingleton().setParametersFrom(scenario);
     return scenario;
@@ -35,30 +38,30 @@ public abstract class GsonEngine {
 
   public static void saveScenario(Scenario scenario) throws FileNotFoundException, IOException {
     BufferedWriter out = new BufferedWriter(new FileWriter(scenario.getFilePath()));
-    getGson().toJson(edu.mit.spacenet.io.gson.scenario.Scenario.createFrom(scenario), out);
+    GSON.toJson(edu.mit.spacenet.io.gson.scenario.Scenario.createFrom(scenario), out);
     out.close();
   }
 
-  private static Gson getGson() {
-    RuntimeTypeAdapterFactory<Location> locationAdapterFactory =
-        RuntimeTypeAdapterFactory.of(Location.class, "type")
+  private static Gson createGson() {
+    ModelTypeAdapterFactory<Location> locationAdapterFactory =
+        ModelTypeAdapterFactory.of(Location.class, "type")
             .registerSubtype(SurfaceNode.class, Node.TYPE_MAP.inverse().get(NodeType.SURFACE))
             .registerSubtype(OrbitalNode.class, Node.TYPE_MAP.inverse().get(NodeType.ORBITAL))
             .registerSubtype(LagrangeNode.class, Node.TYPE_MAP.inverse().get(NodeType.LAGRANGE))
             .registerSubtype(SurfaceEdge.class, Edge.TYPE_MAP.inverse().get(EdgeType.SURFACE))
             .registerSubtype(SpaceEdge.class, Edge.TYPE_MAP.inverse().get(EdgeType.SPACE))
             .registerSubtype(FlightEdge.class, Edge.TYPE_MAP.inverse().get(EdgeType.FLIGHT));
-    RuntimeTypeAdapterFactory<Node> nodeAdapterFactory =
-        RuntimeTypeAdapterFactory.of(Node.class, "type")
+    ModelTypeAdapterFactory<Node> nodeAdapterFactory =
+        ModelTypeAdapterFactory.of(Node.class, "type")
             .registerSubtype(SurfaceNode.class, Node.TYPE_MAP.inverse().get(NodeType.SURFACE))
             .registerSubtype(OrbitalNode.class, Node.TYPE_MAP.inverse().get(NodeType.ORBITAL))
             .registerSubtype(LagrangeNode.class, Node.TYPE_MAP.inverse().get(NodeType.LAGRANGE));
-    RuntimeTypeAdapterFactory<Edge> edgeAdapterFactory =
-        RuntimeTypeAdapterFactory.of(Edge.class, "type")
+    ModelTypeAdapterFactory<Edge> edgeAdapterFactory =
+        ModelTypeAdapterFactory.of(Edge.class, "type")
             .registerSubtype(SurfaceEdge.class, Edge.TYPE_MAP.inverse().get(EdgeType.SURFACE))
             .registerSubtype(SpaceEdge.class, Edge.TYPE_MAP.inverse().get(EdgeType.SPACE))
             .registerSubtype(FlightEdge.class, Edge.TYPE_MAP.inverse().get(EdgeType.FLIGHT));
-    RuntimeTypeAdapterFactory<Event> eventAdapterFactory = RuntimeTypeAdapterFactory
+    ModelTypeAdapterFactory<Event> eventAdapterFactory = ModelTypeAdapterFactory
         .of(Event.class, "type")
         .registerSubtype(CreateElements.class, Event.TYPE_MAP.inverse().get(EventType.CREATE))
         .registerSubtype(MoveElements.class, Event.TYPE_MAP.inverse().get(EventType.MOVE))
@@ -79,8 +82,8 @@ public abstract class GsonEngine {
             Event.TYPE_MAP.inverse().get(EventType.SURFACE_TRANSPORT))
         .registerSubtype(FlightTransport.class,
             Event.TYPE_MAP.inverse().get(EventType.FLIGHT_TRANSPORT));
-    RuntimeTypeAdapterFactory<DemandModel> demandModelAdapterFactory =
-        RuntimeTypeAdapterFactory.of(DemandModel.class, "type")
+    ModelTypeAdapterFactory<DemandModel> demandModelAdapterFactory =
+        ModelTypeAdapterFactory.of(DemandModel.class, "type")
             .registerSubtype(RatedDemandModel.class,
                 DemandModel.TYPE_MAP.inverse().get(DemandModelType.RATED))
             .registerSubtype(ImpulseDemandModel.class,
@@ -89,7 +92,7 @@ public abstract class GsonEngine {
                 DemandModel.TYPE_MAP.inverse().get(DemandModelType.SPARING_BY_MASS))
             .registerSubtype(ConsumablesDemandModel.class,
                 DemandModel.TYPE_MAP.inverse().get(DemandModelType.CREW_CONSUMABLES));
-    RuntimeTypeAdapterFactory<Element> elementAdapterFactory = RuntimeTypeAdapterFactory
+    ModelTypeAdapterFactory<Element> elementAdapterFactory = ModelTypeAdapterFactory
         .of(Element.class, "type")
         .registerSubtype(Element.class, Element.TYPE_MAP.inverse().get(ElementType.ELEMENT))
         .registerSubtype(CrewMember.class, Element.TYPE_MAP.inverse().get(ElementType.CREW_MEMBER))
@@ -1,7 +1,5 @@
 package edu.mit.spacenet.io.gson.scenario;
 
-import java.util.UUID;
-
 import edu.mit.spacenet.domain.network.node.Body;
 
 public class LagrangeNode extends Node {
@@ -11,7 +9,7 @@ public class LagrangeNode extends Node {
   public static LagrangeNode createFrom(edu.mit.spacenet.domain.network.node.LagrangeNode node,
       Context context) {
     LagrangeNode n = new LagrangeNode();
-    n.id = UUID.randomUUID();
+    n.id = context.createJsonId();
     context.put(node, n.id, n);
     n.name = node.getName();
     n.description = node.getDescription();
@@ -0,0 +1,229 @@
+package edu.mit.spacenet.io.gson.scenario;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+public class ModelTypeAdapterFactory<T> implements TypeAdapterFactory {
+  private final Class<T> baseType;
+  private final String typeFieldName;
+  private final Map<String, Class<? extends T>> labelToSubtype =
+      new LinkedHashMap<String, Class<? extends T>>();
+
+  private ModelTypeAdapterFactory(Class<T> baseType, String typeFieldName) {
+    this.baseType = baseType;
+    this.typeFieldName = typeFieldName;
+  }
+
+  public static <T> ModelTypeAdapterFactory<T> of(Class<T> baseType, String typeFieldName) {
+    return new ModelTypeAdapterFactory<T>(baseType, typeFieldName);
+  }
+
+  public ModelTypeAdapterFactory<T> registerSubtype(Class<? extends T> type, String label) {
+    if (labelToSubtype.containsKey(label) || labelToSubtype.containsValue(type)) {
+      throw new IllegalArgumentException("types and labels must be unique");
+    }
+    labelToSubtype.put(label, type);
+    return this;
+  }
+
+  @Override
+  public <R> TypeAdapter<R> create(Gson gson, TypeToken<R> type) {
+    if (type.getRawType() != baseType) {
+      return null;
+    }
+    final Map<String, BoundType> labelToBound = new HashMap<String, BoundType>();
+    final Map<Class<?>, BoundType> subtypeToBound = new HashMap<Class<?>, BoundType>();
+    for (Map.Entry<String, Class<? extends T>> entry : labelToSubtype.entrySet()) {
+      BoundType bound = new BoundType(gson, entry.getKey(), entry.getValue());
+      labelToBound.put(entry.getKey(), bound);
+      subtypeToBound.put(entry.getValue(), bound);
+    }
+    final TypeAdapter<JsonElement> jsonElementAdapter = gson.getAdapter(JsonElement.class);
+
+    return new TypeAdapter<R>() {
+      @Override
+      public R read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+          in.nextNull();
+          return null;
+        }
+        in.beginObject();
+        if (!in.hasNext()) {
+          throw new JsonParseException("cannot deserialize " + baseType
+              + " because it does not define a field named " + typeFieldName);
+        }
+        String name = in.nextName();
+        if (name.equals(typeFieldName)) {
+          // the type label leads every object this factory writes, so the fields can be read as
+          // they stream past
+          Object value = getBound(in.nextString()).read(in);
+          in.endObject();
+          return cast(value);
+        }
+        // otherwise buffer the object until the type label is known
+        JsonObject object = new JsonObject();
+        object.add(name, jsonElementAdapter.read(in));
+        while (in.hasNext()) {
+          object.add(in.nextName(), jsonElementAdapter.read(in));
+        }
+        in.endObject();
+        JsonElement label = object.remove(typeFieldName);
+        if (label == null) {
+          throw new JsonParseException("cannot deserialize " + baseType
+              + " because it does not define a field named " + typeFieldName);
+        }
+        return cast(getBound(label.getAsString()).read(object));
+      }
+
+      private BoundType getBound(String label) {
+        BoundType bound = labelToBound.get(label);
+        if (bound == null) {
+          throw new JsonParseException("cannot deserialize " + baseType + " subtype named " + label
+              + "; did you forget to register a subtype?");
+        }
+        return bound;
+      }
+
+      @SuppressWarnings("unchecked") // registration requires that subtype extends T
+      private R cast(Object value) {
+        return (R) value;
+      }
+
+      @Override
+      public void write(JsonWriter out, R value) throws IOException {
+        if (value == null) {
+          out.nullValue();
+          return;
+        }
+        BoundType bound = subtypeToBound.get(value.getClass());
+        if (bound == null) {
+          throw new JsonParseException("cannot serialize " + value.getClass().getName()
+              + "; did you forget to register a subtype?");
+        }
+        out.beginObject();
+        out.name(typeFieldName).value(bound.label);
+        bound.write(out, value);
+        out.endObject();
+      }
+    };
+  }
+
+  // binds the fields of a subtype in the order Gson's reflective adapter does: the fields declared
+  // by the subtype first, then those of each superclass
+  private static class BoundType {
+    private final String label;
+    private final Constructor<?> constructor;
+    private final Map<String, BoundField> fields = new LinkedHashMap<String, BoundField>();
+
+    private BoundType(Gson gson, String label, Class<?> subtype) {
+      this.label = label;
+      try {
+        constructor = subtype.getDeclaredConstructor();
+        constructor.setAccessible(true);
+      } catch (NoSuchMethodException e) {
+        throw new IllegalArgumentException(subtype + " does not have a no-argument constructor",
+            e);
+      }
+      for (Class<?> c = subtype; c != Object.class; c = c.getSuperclass()) {
+        for (Field field : c.getDeclaredFields()) {
+          if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())
+              || field.isSynthetic()) {
+            continue;
+          }
+          field.setAccessible(true);
+          if (fields.put(field.getName(), new BoundField(gson, field)) != null) {
+            throw new IllegalArgumentException(
+                subtype + " declares multiple JSON fields named " + field.getName());
+          }
+        }
+      }
+    }
+
+    private Object newInstance() {
+      try {
+        return constructor.newInstance();
+      } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+        throw new JsonIOException("cannot instantiate " + constructor.getDeclaringClass(), e);
+      }
+    }
+
+    private Object read(JsonReader in) throws IOException {
+      Object value = newInstance();
+      while (in.hasNext()) {
+        BoundField field = fields.get(in.nextName());
+        if (field == null) {
+          in.skipValue();
+        } else {
+          field.set(value, field.adapter.read(in));
+        }
+      }
+      return value;
+    }
+
+    private Object read(JsonObject object) {
+      Object value = newInstance();
+      for (Map.Entry<String, JsonElement> member : object.entrySet()) {
+        BoundField field = fields.get(member.getKey());
+        if (field != null) {
+          field.set(value, field.adapter.fromJsonTree(member.getValue()));
+        }
+      }
+      return value;
+    }
+
+    private void write(JsonWriter out, Object value) throws IOException {
+      for (BoundField field : fields.values()) {
+        field.write(out, value);
+      }
+    }
+  }
+
+  private static class BoundField {
+    private final Field field;
+    private final TypeAdapter<Object> adapter;
+
+    @SuppressWarnings("unchecked") // the adapter is for the field's own type
+    private BoundField(Gson gson, Field field) {
+      this.field = field;
+      this.adapter = (TypeAdapter<Object>) gson.getAdapter(TypeToken.get(field.getGenericType()));
+    }
+
+    private void set(Object target, Object value) {
+      if (value != null || !field.getType().isPrimitive()) {
+        try {
+          field.set(target, value);
+        } catch (IllegalAccessException e) {
+          throw new JsonIOException(e);
+        }
+      }
+    }
+
+    private void write(JsonWriter out, Object source) throws IOException {
+      try {
+        // null values are dropped by the writer unless it serializes nulls
+        out.name(field.getName());
+        adapter.write(out, field.get(source));
+      } catch (IllegalAccessException e) {
+        throw new JsonIOException(e);
+      }
+    }
+  }
+}
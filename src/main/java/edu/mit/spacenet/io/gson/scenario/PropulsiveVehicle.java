@@ -21,7 +21,7 @@ public class PropulsiveVehicle extends Carrier {
   public static PropulsiveVehicle createFrom(
       edu.mit.spacenet.domain.element.PropulsiveVehicle element, Context context) {
     PropulsiveVehicle e = new PropulsiveVehicle();
-    e.id = UUID.randomUUID();
+    e.id = context.createJsonId();
     context.put(element, e.id, e);
     e.templateId = context.getElementTemplate(element.getTid());
     PropulsiveVehicle template = (PropulsiveVehicle) context.getJsonObject(e.templateId);
@@ -21,7 +21,7 @@ public class ResourceContainer extends Element {
   public static ResourceContainer createFrom(
       edu.mit.spacenet.domain.element.ResourceContainer element, Context context) {
     ResourceContainer e = new ResourceContainer();
-    e.id = UUID.randomUUID();
+    e.id = context.createJsonId();
     context.put(element, e.id, e);
     e.templateId = context.getElementTemplate(element.getTid());
     ResourceContainer template = (ResourceContainer) context.getJsonObject(e.templateId);
@@ -21,7 +21,7 @@ public class ResourceTank extends Element {
   public static ResourceTank createFrom(edu.mit.spacenet.domain.element.ResourceTank element,
       Context context) {
     ResourceTank e = new ResourceTank();
-    e.id = UUID.randomUUID();
+    e.id = context.createJsonId();
     context.put(element, e.id, e);
     e.templateId = context.getElementTemplate(element.getTid());
     ResourceTank template = (ResourceTank) context.getJsonObject(e.templateId);
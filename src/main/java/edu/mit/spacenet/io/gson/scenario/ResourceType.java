@@ -32,7 +32,7 @@ public class ResourceType {
 
   public static ResourceType createFrom(I_Resource resource, Context context) {
     ResourceType r = new ResourceType();
-    r.id = UUID.randomUUID();
+    r.id = context.createJsonId();
     context.put(resource, r.id, r);
     r.type = TYPE_MAP.inverse().get(resource.getResourceType());
     r.name = resource.getName();
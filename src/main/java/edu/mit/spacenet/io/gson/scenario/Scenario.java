@@ -3,7 +3,6 @@ package edu.mit.spacenet.io.gson.scenario;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.UUID;
 
 import com.google.common.collect.BiMap;
 import com.google.common.collect.ImmutableBiMap;
@@ -57,7 +56,7 @@ public class Scenario {
       for (I_DemandModel model : mission.getDemandModels()) {
         if (context.getModelTemplate(model.getTid()) == null) {
           DemandModel m = DemandModel.createFrom(model, context);
-          m.id = UUID.randomUUID();
+          m.id = context.createJsonId();
           m.templateId = null;
           context.putModelTemplate(model, m.id, m);
           s.demandModels.add(m);
@@ -69,7 +68,7 @@ public class Scenario {
         for (I_DemandModel model : state.getDemandModels()) {
           if (context.getModelTemplate(model.getTid()) == null) {
             DemandModel m = DemandModel.createFrom(model, context);
-            m.id = UUID.randomUUID();
+            m.id = context.createJsonId();
             m.templateId = null;
             context.putModelTemplate(model, m.id, m);
             s.demandModels.add(m);
@@ -85,7 +84,7 @@ public class Scenario {
           for (I_DemandModel model : state.getDemandModels()) {
             if (context.getModelTemplate(model.getTid()) == null) {
               DemandModel m = DemandModel.createFrom(model, context);
-              m.id = UUID.randomUUID();
+              m.id = context.createJsonId();
               m.templateId = null;
               context.putModelTemplate(model, m.id, m);
               s.demandModels.add(m);
@@ -137,6 +136,8 @@ public class Scenario {
     Element.toSpaceNet(instantiatedElements, context);
     // load missions
     s.getMissionList().addAll(Mission.toSpaceNet(missionList, s, context));
+    s.invalidateElements();
+    s.invalidateLocationUses();
 
     // TODO add manifest
 
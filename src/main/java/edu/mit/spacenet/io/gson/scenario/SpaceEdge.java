@@ -3,7 +3,6 @@ package edu.mit.spacenet.io.gson.scenario;
 import java.time.Duration;
 import java.time.Period;
 import java.util.List;
-import java.util.UUID;
 
 import org.threeten.extra.PeriodDuration;
 
@@ -14,7 +13,7 @@ public class SpaceEdge extends Edge {
   public static SpaceEdge createFrom(edu.mit.spacenet.domain.network.edge.SpaceEdge edge,
       Context context) {
     SpaceEdge e = new SpaceEdge();
-    e.id = UUID.randomUUID();
+    e.id = context.createJsonId();
     context.put(edge, e.id, e);
     e.name = edge.getName();
     e.description = edge.getDescription();
@@ -29,7 +29,7 @@ public class State implements Cloneable {
 
   public static State createFrom(I_State state, Context context) {
     State s = new State();
-    s.id = UUID.randomUUID();
+    s.id = context.createJsonId();
     context.put(state, s.id, s);
     s.name = state.getName();
     s.description = state.getDescription();
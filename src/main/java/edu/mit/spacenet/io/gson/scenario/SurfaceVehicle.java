@@ -21,7 +21,7 @@ public class SurfaceVehicle extends Carrier {
   public static SurfaceVehicle createFrom(edu.mit.spacenet.domain.element.SurfaceVehicle element,
       Context context) {
     SurfaceVehicle e = new SurfaceVehicle();
-    e.id = UUID.randomUUID();
+    e.id = context.createJsonId();
     context.put(element, e.id, e);
     e.templateId = context.getElementTemplate(element.getTid());
     SurfaceVehicle template = (SurfaceVehicle) context.getJsonObject(e.templateId);
@@ -0,0 +1,24 @@
+package edu.mit.spacenet.io.gson.server;
+
+public class ServerParams {
+  protected String input;
+  protected String output;
+  protected String format;
+  protected Boolean consume;
+
+  public String getInput() {
+    return input;
+  }
+
+  public String getOutput() {
+    return output;
+  }
+
+  public String getFormat() {
+    return format;
+  }
+
+  public Boolean getConsume() {
+    return consume;
+  }
+}
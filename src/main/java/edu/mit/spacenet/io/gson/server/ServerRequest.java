@@ -0,0 +1,26 @@
+package edu.mit.spacenet.io.gson.server;
+
+import com.google.gson.JsonElement;
+
+public class ServerRequest {
+  protected String jsonrpc;
+  protected JsonElement id;
+  protected String method;
+  protected ServerParams params;
+
+  public String getJsonrpc() {
+    return jsonrpc;
+  }
+
+  public JsonElement getId() {
+    return id;
+  }
+
+  public String getMethod() {
+    return method;
+  }
+
+  public ServerParams getParams() {
+    return params == null ? new ServerParams() : params;
+  }
+}
@@ -0,0 +1,22 @@
+package edu.mit.spacenet.io.gson.server;
+
+import com.google.gson.JsonElement;
+
+public class ServerRun {
+  protected String scenario;
+  protected String output;
+  protected String mode;
+  protected Double wallTime;
+  protected JsonElement analysis;
+
+  public static ServerRun createFrom(String scenario, String output, String mode, long wallNanos,
+      JsonElement analysis) {
+    ServerRun r = new ServerRun();
+    r.scenario = scenario;
+    r.output = output;
+    r.mode = mode;
+    r.wallTime = wallNanos / 1e9;
+    r.analysis = analysis;
+    return r;
+  }
+}
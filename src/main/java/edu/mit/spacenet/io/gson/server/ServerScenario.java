@@ -0,0 +1,20 @@
+package edu.mit.spacenet.io.gson.server;
+
+public class ServerScenario {
+  protected String scenario;
+  protected String name;
+  protected Integer missions;
+  protected Integer elements;
+  protected Double wallTime;
+
+  public static ServerScenario createFrom(String filePath,
+      edu.mit.spacenet.scenario.Scenario scenario, long wallNanos) {
+    ServerScenario s = new ServerScenario();
+    s.scenario = filePath;
+    s.name = scenario.getName();
+    s.missions = scenario.getMissionList().size();
+    s.elements = scenario.getElements().size();
+    s.wallTime = wallNanos / 1e9;
+    return s;
+  }
+}
@@ -0,0 +1,20 @@
+package edu.mit.spacenet.io.gson.server;
+
+public class ServerStatus {
+  protected Integer threads;
+  protected Integer cached;
+  protected Integer capacity;
+  protected Long hits;
+  protected Long misses;
+
+  public static ServerStatus createFrom(int threads, int cached, int capacity, long hits,
+      long misses) {
+    ServerStatus s = new ServerStatus();
+    s.threads = threads;
+    s.cached = cached;
+    s.capacity = capacity;
+    s.hits = hits;
+    s.misses = misses;
+    return s;
+  }
+}
@@ -0,0 +1,416 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet.scenario;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import edu.mit.spacenet.domain.ClassOfSupply;
+import edu.mit.spacenet.domain.element.I_Carrier;
+import edu.mit.spacenet.domain.element.I_ResourceContainer;
+import edu.mit.spacenet.domain.element.ResourceContainerFactory;
+import edu.mit.spacenet.domain.resource.Demand;
+import edu.mit.spacenet.util.GlobalParameters;
+
+/**
+ * An auto-manifesting algorithm based on first-fit decreasing vector bin packing. At each supply
+ * point, demands are packed largest first (by mass and, if volume is constrained, volume,
+ * relative to a cargo transfer bag) into the first cargo transfer bag or tank of the right type
+ * with room, in the order the containers were created. Containers are then manifested largest first
+ * (relative to the largest carrier that can take them) onto the first supply edge and carrier with
+ * room, considering only the edges that arrive at the supply point in time. Mass, volume, and
+ * environment constraints are enforced by the manifest.
+ * 
+ * <p>
+ * An optional local search pass runs after packing at each supply point: it tries to empty the
+ * least-filled containers by moving their contents into the other containers at the point,
+ * removing each container that empties and restoring any that do not. The pass stops when its time
+ * budget for the supply point is spent.
+ * 
+ * <p>
+ * Demands for propellants and for science, infrastructure, transportation, and miscellaneous items
+ * are packed as in the {@link GreedyManifestStrategy}.
+ * 
+ * @author Paul Grogan
+ */
+public class FirstFitDecreasingManifestStrategy implements I_ManifestStrategy {
+  private long localSearchBudget;
+
+  /**
+   * Instantiates a new first-fit decreasing strategy without local search.
+   */
+  public FirstFitDecreasingManifestStrategy() {
+    this(0);
+  }
+
+  /**
+   * Instantiates a new first-fit decreasing strategy.
+   * 
+   * @param localSearchBudget the time budget for local search at each supply point
+   *        (milliseconds), zero to disable it
+   */
+  public FirstFitDecreasingManifestStrategy(long localSearchBudget) {
+    this.localSearchBudget = localSearchBudget;
+  }
+
+  /**
+   * Gets the time budget for local search at each supply point.
+   * 
+   * @return the time budget (milliseconds), zero if local search is disabled
+   */
+  public long getLocalSearchBudget() {
+    return localSearchBudget;
+  }
+
+  /**
+   * Sets the time budget for local search at each supply point.
+   * 
+   * @param localSearchBudget the time budget (milliseconds), zero to disable local search
+   */
+  public void setLocalSearchBudget(long localSearchBudget) {
+    this.localSearchBudget = localSearchBudget;
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see edu.mit.spacenet.scenario.I_ManifestStrategy#getName()
+   */
+  public String getName() {
+    return "First-Fit Decreasing";
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see edu.mit.spacenet.scenario.I_ManifestStrategy#autoManifest(edu.mit.spacenet.scenario.
+   * Manifest, edu.mit.spacenet.scenario.SupplyPoint)
+   */
+  public void autoManifest(Manifest manifest, SupplyPoint point) {
+    long deadline = System.nanoTime() + localSearchBudget * 1000000L;
+    // reusable containers in the order they were created
+    List<I_ResourceContainer> containers = new ArrayList<I_ResourceContainer>();
+    for (I_ResourceContainer container : manifest.getContainers()) {
+      if (ContainerType.of(container) != null) {
+        containers.add(container);
+      }
+    }
+    Collections.sort(containers, BY_UID);
+
+    int created = containers.size();
+    // pack edge demands first
+    packDecreasing(manifest, manifest.getAggregatedEdgeDemands(point.getEdge()), containers);
+    // then pack node demands
+    packDecreasing(manifest, manifest.getAggregatedNodeDemands(point), containers);
+    if (localSearchBudget > 0) {
+      consolidate(manifest, point, containers,
+          new ArrayList<I_ResourceContainer>(containers.subList(created, containers.size())),
+          deadline);
+    }
+
+    List<I_ResourceContainer> edgeContainers = new ArrayList<I_ResourceContainer>();
+    List<I_ResourceContainer> nodeContainers = new ArrayList<I_ResourceContainer>();
+    for (I_ResourceContainer container : manifest.getContainers()) {
+      if (point.equals(manifest.getCurrentSupplyPoint(container))) {
+        if (manifest.isEdgeDemand(container)) {
+          edgeContainers.add(container);
+        } else {
+          nodeContainers.add(container);
+        }
+      }
+    }
+    // manifest edge demands first
+    manifestDecreasing(manifest, point, edgeContainers,
+        Collections.singletonList(point.getEdge()));
+    // then manifest node demands
+    manifestDecreasing(manifest, point, nodeContainers,
+        new ArrayList<SupplyEdge>(new TreeSet<SupplyEdge>(manifest.getSupplyEdges(point))));
+  }
+
+  /**
+   * Packs demands largest first into the first container of the right type with room, creating
+   * containers as needed.
+   */
+  private void packDecreasing(Manifest manifest, Iterable<Demand> demands,
+      List<I_ResourceContainer> containers) {
+    final GlobalParameters parameters = GlobalParameters.getSingleton();
+    List<Demand> sorted = new ArrayList<Demand>();
+    for (Demand demand : demands) {
+      sorted.add(demand);
+    }
+    Collections.sort(sorted, new Comparator<Demand>() {
+      public int compare(Demand a, Demand b) {
+        return Double.compare(getSize(b, parameters), getSize(a, parameters));
+      }
+    });
+
+    for (Demand demand : sorted) {
+      ContainerType type = ContainerType.of(demand.getResource().getClassOfSupply());
+      if (type == null) {
+        manifest.autoPackDemand(demand);
+        continue;
+      }
+      for (I_ResourceContainer container : containers) {
+        if (manifest.getRemainingAmount(demand) <= 0) {
+          break;
+        }
+        if (ContainerType.of(container) == type && manifest.canPackDemand(demand, container)) {
+          manifest.packDemand(demand, container);
+        }
+      }
+      while (manifest.getRemainingAmount(demand) > 0) {
+        double remainingAmount = manifest.getRemainingAmount(demand);
+        I_ResourceContainer container = type.create(manifest, demand, parameters);
+        container.setEnvironment(demand.getResource().getEnvironment());
+        container.setCargoEnvironment(demand.getResource().getEnvironment());
+        manifest.addContainer(container);
+        containers.add(container);
+        manifest.packDemand(demand, container);
+        if (manifest.getRemainingAmount(demand) >= remainingAmount) {
+          // the demand does not fit in an empty container
+          manifest.removeContainer(container);
+          containers.remove(container);
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the size of a demand relative to the capacity of a cargo transfer bag.
+   */
+  private static double getSize(Demand demand, GlobalParameters parameters) {
+    double size = demand.getMass() / parameters.getCargoTransferBagMaxMass();
+    if (parameters.isVolumeConstrained()) {
+      size = Math.max(size, demand.getVolume() / parameters.getCargoTransferBagMaxVolume());
+    }
+    return size;
+  }
+
+  /**
+   * Tries to empty the least-filled containers created for a supply point into the other
+   * containers at the supply point. Only containers created for the supply point are emptied as
+   * they hold no other demands and are not yet manifested.
+   */
+  private void consolidate(Manifest manifest, SupplyPoint point,
+      List<I_ResourceContainer> containers, List<I_ResourceContainer> created, long deadline) {
+    final Map<I_ResourceContainer, Double> cargoMass = new HashMap<I_ResourceContainer, Double>();
+    List<I_ResourceContainer> candidates = new ArrayList<I_ResourceContainer>();
+    for (I_ResourceContainer container : containers) {
+      if (point.equals(manifest.getCurrentSupplyPoint(container))) {
+        candidates.add(container);
+        cargoMass.put(container, manifest.getCargoMass(container, point));
+      }
+    }
+    Comparator<I_ResourceContainer> byCargoMass = new Comparator<I_ResourceContainer>() {
+      public int compare(I_ResourceContainer a, I_ResourceContainer b) {
+        return Double.compare(cargoMass.get(a), cargoMass.get(b));
+      }
+    };
+    Collections.sort(created, byCargoMass);
+
+    for (I_ResourceContainer source : created) {
+      if (System.nanoTime() >= deadline) {
+        return;
+      }
+      List<I_ResourceContainer> targets = new ArrayList<I_ResourceContainer>();
+      for (I_ResourceContainer container : candidates) {
+        if (container != source && ContainerType.of(container) == ContainerType.of(source)) {
+          targets.add(container);
+        }
+      }
+      // fill the fullest containers first
+      Collections.sort(targets, Collections.reverseOrder(byCargoMass));
+      if (empty(manifest, source, targets)) {
+        manifest.removeContainer(source);
+        containers.remove(source);
+        candidates.remove(source);
+      }
+      for (I_ResourceContainer container : candidates) {
+        cargoMass.put(container, manifest.getCargoMass(container, point));
+      }
+    }
+  }
+
+  /**
+   * Moves all packed demands from a container into other containers, or restores them to the
+   * container if they do not all fit.
+   * 
+   * @return true, if the container was emptied
+   */
+  private boolean empty(Manifest manifest, I_ResourceContainer source,
+      List<I_ResourceContainer> targets) {
+    Map<I_ResourceContainer, Set<Demand>> packedBefore =
+        new HashMap<I_ResourceContainer, Set<Demand>>();
+    for (I_ResourceContainer target : targets) {
+      packedBefore.put(target, new HashSet<Demand>(manifest.getPackedDemands(target)));
+    }
+    List<Demand> moved = new ArrayList<Demand>();
+    boolean isEmptied = true;
+    for (Demand demandAsPacked : new ArrayList<Demand>(manifest.getPackedDemands(source))) {
+      Demand demand = manifest.getDemand(demandAsPacked);
+      if (demand == null || manifest.getRemainingAmount(demand) > 0) {
+        // only move fully packed demands so restoring them is exact
+        isEmptied = false;
+        break;
+      }
+      manifest.unpackDemand(demandAsPacked, source);
+      moved.add(demand);
+      for (I_ResourceContainer target : targets) {
+        if (manifest.getRemainingAmount(demand) <= 0) {
+          break;
+        }
+        if (manifest.canPackDemand(demand, target)) {
+          manifest.packDemand(demand, target);
+        }
+      }
+      if (manifest.getRemainingAmount(demand) > 0) {
+        isEmptied = false;
+        break;
+      }
+    }
+    if (!isEmptied) {
+      for (I_ResourceContainer target : targets) {
+        for (Demand demandAsPacked : new ArrayList<Demand>(manifest.getPackedDemands(target))) {
+          if (!packedBefore.get(target).contains(demandAsPacked)) {
+            manifest.unpackDemand(demandAsPacked, target);
+          }
+        }
+      }
+      for (Demand demand : moved) {
+        if (manifest.getRemainingAmount(demand) > 0) {
+          manifest.packDemand(demand, source);
+        }
+      }
+    }
+    return isEmptied;
+  }
+
+  /**
+   * Manifests containers largest first onto the first supply edge and carrier with room.
+   */
+  private void manifestDecreasing(final Manifest manifest, final SupplyPoint point,
+      List<I_ResourceContainer> containers, List<SupplyEdge> edges) {
+    double maxMass = 0, maxVolume = 0;
+    for (SupplyEdge edge : edges) {
+      for (I_Carrier carrier : edge.getCarriers()) {
+        maxMass = Math.max(maxMass, carrier.getMaxCargoMass());
+        maxVolume = Math.max(maxVolume, carrier.getMaxCargoVolume());
+      }
+    }
+    final double massScale = maxMass > 0 ? maxMass : 1;
+    final double volumeScale = maxVolume > 0 ? maxVolume : 1;
+    final boolean isVolumeConstrained = GlobalParameters.getSingleton().isVolumeConstrained();
+    final Map<I_ResourceContainer, Double> size = new HashMap<I_ResourceContainer, Double>();
+    for (I_ResourceContainer container : containers) {
+      double s = (container.getMass() + manifest.getCargoMass(container, point)) / massScale;
+      if (isVolumeConstrained) {
+        s = Math.max(s, container.getVolume() / volumeScale);
+      }
+      size.put(container, s);
+    }
+    Collections.sort(containers, new Comparator<I_ResourceContainer>() {
+      public int compare(I_ResourceContainer a, I_ResourceContainer b) {
+        int c = Double.compare(size.get(b), size.get(a));
+        return c != 0 ? c : BY_UID.compare(a, b);
+      }
+    });
+
+    for (I_ResourceContainer container : containers) {
+      manifest: for (SupplyEdge edge : edges) {
+        for (I_Carrier carrier : edge.getCarriers()) {
+          if (manifest.canManifestContainer(container, edge, carrier)) {
+            manifest.manifestContainer(container, edge, carrier);
+            break manifest;
+          }
+        }
+      }
+    }
+  }
+
+  private static final Comparator<I_ResourceContainer> BY_UID =
+      new Comparator<I_ResourceContainer>() {
+        public int compare(I_ResourceContainer a, I_ResourceContainer b) {
+          return Integer.compare(a.getUid(), b.getUid());
+        }
+      };
+
+  /**
+   * The types of reusable resource containers.
+   */
+  private enum ContainerType {
+    CARGO_TRANSFER_BAG, GAS_TANK, LIQUID_TANK;
+
+    private static ContainerType of(ClassOfSupply cos) {
+      if (cos == ClassOfSupply.COS203) {
+        return GAS_TANK;
+      } else if (cos == ClassOfSupply.COS201) {
+        return LIQUID_TANK;
+      }
+      for (ClassOfSupply bagged : new ClassOfSupply[] {ClassOfSupply.COS2, ClassOfSupply.COS3,
+          ClassOfSupply.COS4, ClassOfSupply.COS7}) {
+        if (cos.equals(bagged) || cos.isSubclassOf(bagged)) {
+          return CARGO_TRANSFER_BAG;
+        }
+      }
+      return null;
+    }
+
+    private static ContainerType of(I_ResourceContainer container) {
+      switch (container.getTid()) {
+        case ResourceContainerFactory.CTB_TID:
+          return CARGO_TRANSFER_BAG;
+        case ResourceContainerFactory.GT_TID: // same as GTD_TID
+          return GAS_TANK;
+        case ResourceContainerFactory.LT_TID:
+        case ResourceContainerFactory.LTD_TID:
+          return LIQUID_TANK;
+        default:
+          return null;
+      }
+    }
+
+    /**
+     * Creates a container for the remaining amount of a demand, choosing between the large and
+     * small tanks as the greedy strategy does.
+     */
+    private I_ResourceContainer create(Manifest manifest, Demand demand,
+        GlobalParameters parameters) {
+      double mass = manifest.getRemainingAmount(demand) * demand.getResource().getUnitMass();
+      double volume = manifest.getRemainingAmount(demand) * demand.getResource().getUnitVolume();
+      switch (this) {
+        case GAS_TANK:
+          return mass > parameters.getSmallGasTankMaxMass() || (parameters.isVolumeConstrained()
+              && volume > parameters.getSmallGasTankMaxVolume())
+                  ? ResourceContainerFactory.createGT()
+                  : ResourceContainerFactory.createGTD();
+        case LIQUID_TANK:
+          return mass > parameters.getSmallLiquidTankMaxMass()
+              || (parameters.isVolumeConstrained()
+                  && volume > parameters.getSmallLiquidTankMaxVolume())
+                      ? ResourceContainerFactory.createLT()
+                      : ResourceContainerFactory.createLTD();
+        default:
+          return ResourceContainerFactory.createCTB();
+      }
+    }
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet.scenario;
+
+import edu.mit.spacenet.domain.element.I_Carrier;
+import edu.mit.spacenet.domain.element.I_ResourceContainer;
+import edu.mit.spacenet.domain.resource.Demand;
+
+/**
+ * The original auto-manifesting algorithm. At each supply point, it packs each demand into the
+ * first resource container with room, then manifests each container onto the first supply edge and
+ * carrier that can take it.
+ * 
+ * @author Paul Grogan
+ */
+public class GreedyManifestStrategy implements I_ManifestStrategy {
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see edu.mit.spacenet.scenario.I_ManifestStrategy#getName()
+   */
+  public String getName() {
+    return "Greedy";
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see edu.mit.spacenet.scenario.I_ManifestStrategy#autoManifest(edu.mit.spacenet.scenario.
+   * Manifest, edu.mit.spacenet.scenario.SupplyPoint)
+   */
+  public void autoManifest(Manifest manifest, SupplyPoint point) {
+    // pack edge demands first
+    for (Demand demand : manifest.getAggregatedEdgeDemands(point.getEdge())) {
+      manifest.autoPackDemand(demand);
+    }
+    // then pack node demands
+    for (Demand demand : manifest.getAggregatedNodeDemands(point)) {
+      manifest.autoPackDemand(demand);
+    }
+    // manifest edge demands first
+    for (I_ResourceContainer container : manifest.getContainers()) {
+      if (point.equals(manifest.getCurrentSupplyPoint(container))
+          && manifest.isEdgeDemand(container)) {
+        manifestOnFirstCarrier(manifest, container);
+      }
+    }
+    // then manifest node demands
+    for (I_ResourceContainer container : manifest.getContainers()) {
+      if (point.equals(manifest.getCurrentSupplyPoint(container))
+          && !manifest.isEdgeDemand(container)) {
+        manifestOnFirstCarrier(manifest, container);
+      }
+    }
+  }
+
+  private static void manifestOnFirstCarrier(Manifest manifest, I_ResourceContainer container) {
+    for (SupplyEdge edge : manifest.getSupplyEdges()) {
+      for (I_Carrier carrier : edge.getCarriers()) {
+        if (manifest.canManifestContainer(container, edge, carrier)) {
+          manifest.manifestContainer(container, edge, carrier);
+          return;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet.scenario;
+
+/**
+ * The I_ManifestStrategy interface is used for algorithms that automatically pack the demands of a
+ * manifest into resource containers and manifest the containers onto carriers.
+ * 
+ * @author Paul Grogan
+ */
+public interface I_ManifestStrategy {
+
+  /**
+   * Gets the name of the strategy.
+   * 
+   * @return the name
+   */
+  public String getName();
+
+  /**
+   * Packs and manifests the demands aggregated to a supply point. The manifest calls this for each
+   * of its supply points in time order, after its supply network and aggregated demands have been
+   * imported. Supply points in independent supply chains may be manifested concurrently, each in
+   * its own copy of its part of the manifest, so implementations should keep no state between
+   * calls.
+   * 
+   * @param manifest the manifest
+   * @param point the supply point
+   */
+  public void autoManifest(Manifest manifest, SupplyPoint point);
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet.scenario;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.mit.spacenet.domain.network.Location;
+import edu.mit.spacenet.domain.network.edge.Edge;
+import edu.mit.spacenet.domain.network.node.Node;
+import edu.mit.spacenet.simulator.event.I_Event;
+import edu.mit.spacenet.simulator.event.I_Transport;
+
+/**
+ * A reverse index from network locations to the missions and events that use them, built in one
+ * pass over a scenario's missions. Direct references (mission origins and destinations, event
+ * locations) are indexed by type identifier. Transports are indexed by edge, and edges by the
+ * type identifiers of their origin and destination; the nodes a transport visits are re-read from
+ * its edge when queried, so the index must be rebuilt if an edge's origin or destination changes.
+ * Queries return the same lists, in the same order, as a scan of every
+ * mission and event, or null if a mission or event they match has since moved in its list (for
+ * example, after the lists are sorted), in which case the index must be rebuilt.
+ * 
+ * @author Paul Grogan
+ */
+class LocationUsageIndex {
+  private final List<Mission> missions;
+  private final Map<Integer, List<Use>> byLocation = new HashMap<Integer, List<Use>>();
+  private final Map<Integer, List<Use>> byEdge = new HashMap<Integer, List<Use>>();
+  private final Map<Edge, List<Use>> byEdgeInstance = new IdentityHashMap<Edge, List<Use>>();
+  private final Map<Integer, List<Edge>> byEndpoint = new HashMap<Integer, List<Edge>>();
+
+  /**
+   * Instantiates a new index of the uses in a list of missions.
+   * 
+   * @param missions the missions
+   */
+  LocationUsageIndex(List<Mission> missions) {
+    this.missions = missions;
+    int sequence = 0;
+    for (int i = 0; i < missions.size(); i++) {
+      Mission m = missions.get(i);
+      add(byLocation, m.getOrigin(), new Use(m, i, null, -1, sequence++));
+      add(byLocation, m.getDestination(), new Use(m, i, null, -1, sequence++));
+      add(byLocation, m.getReturnOrigin(), new Use(m, i, null, -1, sequence++));
+      add(byLocation, m.getReturnDestination(), new Use(m, i, null, -1, sequence++));
+      int index = 0;
+      for (I_Event e : m.getEventList()) {
+        add(byLocation, e.getLocation(), new Use(m, i, e, index, sequence++));
+        Edge edge = e instanceof I_Transport ? ((I_Transport) e).getEdge() : null;
+        if (edge != null) {
+          Use use = new Use(m, i, e, index, sequence++);
+          add(byEdge, edge, use);
+          List<Use> list = byEdgeInstance.get(edge);
+          if (list == null) {
+            list = new ArrayList<Use>();
+            byEdgeInstance.put(edge, list);
+            addEndpoint(edge.getOrigin(), edge);
+            if (edge.getDestination() != edge.getOrigin()) {
+              addEndpoint(edge.getDestination(), edge);
+            }
+          }
+          list.add(use);
+        }
+        index++;
+      }
+    }
+  }
+
+  private static void add(Map<Integer, List<Use>> uses, Location location, Use use) {
+    if (location != null) {
+      List<Use> list = uses.get(location.getTid());
+      if (list == null) {
+        list = new ArrayList<Use>();
+        uses.put(location.getTid(), list);
+      }
+      use.location = location;
+      list.add(use);
+    }
+  }
+
+  private void addEndpoint(Node node, Edge edge) {
+    if (node != null) {
+      List<Edge> edges = byEndpoint.get(node.getTid());
+      if (edges == null) {
+        edges = new ArrayList<Edge>();
+        byEndpoint.put(node.getTid(), edges);
+      }
+      edges.add(edge);
+    }
+  }
+
+  /**
+   * Gets the uses of a node: each mission that starts, ends, or has an event at the node, followed
+   * by those of its events.
+   * 
+   * @param node the node
+   * @return the list of missions and events, or null if the index is out of date
+   */
+  List<Object> getNodeUses(Node node) {
+    List<Use> matches = new ArrayList<Use>();
+    List<Use> direct = byLocation.get(node.getTid());
+    if (direct != null) {
+      for (Use use : direct) {
+        if (use.location.equals(node)) {
+          matches.add(use);
+        }
+      }
+    }
+    List<Edge> edges = byEndpoint.get(node.getTid());
+    for (Edge edge : edges == null ? Collections.<Edge>emptyList() : edges) {
+      // candidates are keyed by type identifier, so check the edge connects this node
+      if (node.equals(edge.getOrigin()) || node.equals(edge.getDestination())) {
+        for (Use use : byEdgeInstance.get(edge)) {
+          I_Transport transport = (I_Transport) use.event;
+          if (node.equals(transport.getOrigin()) || node.equals(transport.getDestination())) {
+            matches.add(use);
+          }
+        }
+      }
+    }
+    if (!isCurrent(matches)) {
+      return null;
+    }
+    Collections.sort(matches, SEQUENCE);
+
+    List<Object> uses = new ArrayList<Object>();
+    Mission mission = null;
+    int eventIndex = -1;
+    for (Use use : matches) {
+      if (use.mission != mission) {
+        mission = use.mission;
+        eventIndex = -1;
+        uses.add(mission);
+      }
+      if (use.event != null && use.eventIndex != eventIndex) {
+        eventIndex = use.eventIndex;
+        uses.add(use.event);
+      }
+    }
+    return uses;
+  }
+
+  /**
+   * Gets the uses of an edge: each transport along the edge, preceded by its mission.
+   * 
+   * @param edge the edge
+   * @return the list of missions and events, or null if the index is out of date
+   */
+  List<Object> getEdgeUses(Edge edge) {
+    List<Use> matches = new ArrayList<Use>();
+    List<Use> transports = byEdge.get(edge.getTid());
+    if (transports != null) {
+      for (Use use : transports) {
+        if (edge.equals(use.location)) {
+          matches.add(use);
+        }
+      }
+    }
+    if (!isCurrent(matches)) {
+      return null;
+    }
+    List<Object> uses = new ArrayList<Object>();
+    for (Use use : matches) {
+      uses.add(use.mission);
+      uses.add(use.event);
+    }
+    return uses;
+  }
+
+  /**
+   * Checks that each use's mission and event are still at their indexed positions, so ordering by
+   * sequence matches the current list order.
+   */
+  private boolean isCurrent(List<Use> uses) {
+    for (Use use : uses) {
+      if (use.missionIndex >= missions.size() || missions.get(use.missionIndex) != use.mission) {
+        return false;
+      }
+      List<I_Event> events = use.mission.getEventList();
+      if (use.event != null
+          && (use.eventIndex >= events.size() || events.get(use.eventIndex) != use.event)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static final Comparator<Use> SEQUENCE = new Comparator<Use>() {
+    public int compare(Use a, Use b) {
+      return Integer.compare(a.sequence, b.sequence);
+    }
+  };
+
+  /**
+   * A reference to a location from a mission or one of its events.
+   */
+  private static class Use {
+    private final Mission mission;
+    private final int missionIndex;
+    private final I_Event event;
+    private final int eventIndex;
+    private final int sequence;
+    private Location location;
+
+    private Use(Mission mission, int missionIndex, I_Event event, int eventIndex, int sequence) {
+      this.mission = mission;
+      this.missionIndex = missionIndex;
+      this.event = event;
+      this.eventIndex = eventIndex;
+      this.sequence = sequence;
+    }
+  }
+}
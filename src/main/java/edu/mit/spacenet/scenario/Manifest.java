@@ -13,13 +13,21 @@
  */
 package edu.mit.spacenet.scenario;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
 
 import edu.mit.spacenet.domain.ClassOfSupply;
 import edu.mit.spacenet.domain.Environment;
@@ -51,6 +59,12 @@ public class Manifest {
   private Map<Demand, Set<Demand>> demandsAsPacked;
   private Map<I_ResourceContainer, Set<Demand>> packedDemands;
   private Map<SupplyEdge, Map<I_Carrier, Set<I_ResourceContainer>>> manifestedContainers;
+  private transient SupplyNetworkIndex supplyIndex;
+  private transient Map<Demand, SupplyPoint> supplyPointsByDemand;
+  private transient Map<Demand, Demand> demandsByPacked;
+  private transient Map<Integer, List<SupplyEdge>> supplyEdgesByCarrier;
+  private transient Map<I_ResourceContainer, SortedSet<SupplyEdge>> manifestedEdges;
+  private boolean consistencyChecked;
 
   /**
    * Instantiates a new manifest.
@@ -63,11 +77,69 @@ public class Manifest {
     supplyPoints = new TreeSet<SupplyPoint>();
     aggregatedNodeDemands = new TreeMap<SupplyPoint, DemandSet>();
     aggregatedEdgeDemands = new TreeMap<SupplyEdge, DemandSet>();
-    demandsAsPacked = new HashMap<Demand, Set<Demand>>();
-    packedDemands = new HashMap<I_ResourceContainer, Set<Demand>>();
+    demandsAsPacked = new LinkedHashMap<Demand, Set<Demand>>();
+    packedDemands = new LinkedHashMap<I_ResourceContainer, Set<Demand>>();
     manifestedContainers = new TreeMap<SupplyEdge, Map<I_Carrier, Set<I_ResourceContainer>>>();
   }
 
+  /**
+   * Instantiates a manifest for part of another manifest's supply network, used to auto-manifest
+   * independent supply chains in parallel. The part shares the supply points, supply edges, and
+   * aggregated demands of the other manifest and copies its packing and manifesting of them and of
+   * the given resource containers.
+   * 
+   * @param manifest the manifest
+   * @param points the supply points in the part
+   * @param edges the supply edges in the part
+   * @param containers the resource containers in the part
+   */
+  Manifest(Manifest manifest, Set<SupplyPoint> points, Set<SupplyEdge> edges,
+      Set<I_ResourceContainer> containers) {
+    this(manifest.scenario);
+    consistencyChecked = manifest.consistencyChecked;
+    for (SupplyPoint point : manifest.supplyPoints) {
+      if (points.contains(point)) {
+        supplyPoints.add(point);
+      }
+    }
+    for (SupplyPoint point : manifest.aggregatedNodeDemands.keySet()) {
+      if (points.contains(point)) {
+        aggregatedNodeDemands.put(point, manifest.aggregatedNodeDemands.get(point));
+        for (Demand demand : aggregatedNodeDemands.get(point)) {
+          demandsAsPacked.put(demand,
+              new LinkedHashSet<Demand>(manifest.demandsAsPacked.get(demand)));
+        }
+      }
+    }
+    for (SupplyEdge edge : manifest.supplyEdges) {
+      if (edges.contains(edge)) {
+        supplyEdges.add(edge);
+        Map<I_Carrier, Set<I_ResourceContainer>> carriers =
+            new TreeMap<I_Carrier, Set<I_ResourceContainer>>();
+        for (I_Carrier carrier : manifest.manifestedContainers.get(edge).keySet()) {
+          carriers.put(carrier, new LinkedHashSet<I_ResourceContainer>(
+              manifest.manifestedContainers.get(edge).get(carrier)));
+        }
+        manifestedContainers.put(edge, carriers);
+      }
+    }
+    for (SupplyEdge edge : manifest.aggregatedEdgeDemands.keySet()) {
+      if (edges.contains(edge)) {
+        aggregatedEdgeDemands.put(edge, manifest.aggregatedEdgeDemands.get(edge));
+        for (Demand demand : aggregatedEdgeDemands.get(edge)) {
+          demandsAsPacked.put(demand,
+              new LinkedHashSet<Demand>(manifest.demandsAsPacked.get(demand)));
+        }
+      }
+    }
+    for (I_ResourceContainer container : manifest.packedDemands.keySet()) {
+      if (containers.contains(container)) {
+        packedDemands.put(container,
+            new LinkedHashSet<Demand>(manifest.packedDemands.get(container)));
+      }
+    }
+  }
+
   /**
    * Gets the remaining amount to pack for a given aggregated demand.
    * 
@@ -170,17 +242,8 @@ public class Manifest {
    * @return the supply point
    */
   public SupplyPoint getSupplyPoint(Demand demand) {
-    for (SupplyPoint p : supplyPoints) {
-      for (Demand d : aggregatedNodeDemands.get(p)) {
-        if (d.equals(demand))
-          return p;
-      }
-      for (Demand d : aggregatedEdgeDemands.get(p.getEdge())) {
-        if (d.equals(demand))
-          return p;
-      }
-    }
-    return null;
+    buildIndices();
+    return supplyPointsByDemand.get(demand);
   }
 
   /**
@@ -194,14 +257,14 @@ public class Manifest {
     if (edge.getOrigin() instanceof SurfaceNode && edge.getOrigin().getBody() == Body.EARTH)
       return null;
 
-    SupplyPoint point = null;
-    for (SupplyPoint p : supplyPoints) {
-      if (p.getNode().equals(edge.getOrigin()) && p.getTime() <= edge.getStartTime()
-          && (point == null || p.getTime() > point.getTime())) {
-        point = p;
-      }
+    return getSupplyIndex().getSupplyPoint(edge.getOrigin(), edge.getStartTime());
+  }
+
+  private SupplyNetworkIndex getSupplyIndex() {
+    if (!SupplyNetworkIndex.isCurrent(supplyIndex)) {
+      supplyIndex = new SupplyNetworkIndex(supplyEdges, supplyPoints);
     }
-    return point;
+    return supplyIndex;
   }
 
   /**
@@ -212,13 +275,8 @@ public class Manifest {
    * @return the aggregated demand
    */
   public Demand getDemand(Demand demandAsPacked) {
-    for (Demand demand : demandsAsPacked.keySet()) {
-      for (Demand d : demandsAsPacked.get(demand)) {
-        if (d.equals(demandAsPacked))
-          return demand;
-      }
-    }
-    return null;
+    buildIndices();
+    return demandsByPacked.get(demandAsPacked);
   }
 
   /**
@@ -229,7 +287,7 @@ public class Manifest {
    * @return the supply edge associated with the carrier
    */
   public SupplyEdge getSupplyEdge(I_Carrier carrier) {
-    for (SupplyEdge e : supplyEdges) {
+    for (SupplyEdge e : getSupplyEdgesOf(carrier)) {
       for (I_Carrier c : e.getCarriers()) {
         // must use == because carriers are repeated on edges
         if (c == carrier)
@@ -247,13 +305,8 @@ public class Manifest {
    * @return a set of supply edges that can supply the supply point
    */
   public Set<SupplyEdge> getSupplyEdges(SupplyPoint point) {
-    HashSet<SupplyEdge> edges = new HashSet<SupplyEdge>();
-    for (SupplyEdge edge : supplyEdges) {
-      if (edge.getDestination().equals(point.getNode()) && edge.getEndTime() <= point.getTime()) {
-        edges.add(edge);
-      }
-    }
-    return edges;
+    return new HashSet<SupplyEdge>(
+        getSupplyIndex().getSupplyEdges(point.getNode(), point.getTime()));
   }
 
   /**
@@ -265,7 +318,7 @@ public class Manifest {
    */
   public SupplyPoint getInitialSupplyPoint(I_ResourceContainer container) {
     SupplyEdge edge = null;
-    for (SupplyEdge e : supplyEdges) {
+    for (SupplyEdge e : getManifestedEdges(container)) {
       for (I_Carrier carrier : e.getCarriers()) {
         if (manifestedContainers.get(e).get(carrier).contains(container)
             && (edge == null || e.getEndTime() > edge.getEndTime())) {
@@ -293,12 +346,12 @@ public class Manifest {
    * 
    * @return the current supply point
    */
-  private SupplyPoint getCurrentSupplyPoint(I_ResourceContainer container) {
+  public SupplyPoint getCurrentSupplyPoint(I_ResourceContainer container) {
     SupplyPoint point = getInitialSupplyPoint(container);
     if (point == null) {
       return null;
     }
-    for (SupplyEdge edge : supplyEdges) {
+    for (SupplyEdge edge : getManifestedEdges(container)) {
       if (edge.getEndTime() <= point.getTime()) {
         for (I_Carrier carrier : edge.getAllCarriers()) {
           if (manifestedContainers.get(edge).get(carrier).contains(container)) {
@@ -319,7 +372,7 @@ public class Manifest {
    * @return the set of empty resource containers
    */
   public Set<I_ResourceContainer> getEmptyContainers() {
-    HashSet<I_ResourceContainer> emptyContainers = new HashSet<I_ResourceContainer>();
+    Set<I_ResourceContainer> emptyContainers = new LinkedHashSet<I_ResourceContainer>();
     Set<I_ResourceContainer> containers = packedDemands.keySet();
     for (I_ResourceContainer container : containers) {
       if (packedDemands.get(container).size() == 0 && getInitialSupplyPoint(container) == null)
@@ -536,8 +589,11 @@ public class Manifest {
                   Math.min(remainingAmountMass, remainingAmountVolume));
       if (amount > 0) {
         Demand demandAsPacked = new Demand(demand.getResource(), amount);
+        buildIndices();
         demandsAsPacked.get(demand).add(demandAsPacked);
+        demandsByPacked.put(demandAsPacked, demand);
         packedDemands.get(container).add(demandAsPacked);
+        checkConsistencyIfEnabled();
       }
     }
   }
@@ -549,14 +605,17 @@ public class Manifest {
    */
   public void unpackDemand(Demand demand) {
     if (canUnpackDemand(demand)) {
+      buildIndices();
       for (Demand demandAsPacked : demandsAsPacked.get(demand)) {
         for (I_ResourceContainer container : packedDemands.keySet()) {
           if (packedDemands.get(container).contains(demandAsPacked)) {
             packedDemands.get(container).remove(demandAsPacked);
           }
         }
+        demandsByPacked.remove(demandAsPacked);
       }
       demandsAsPacked.get(demand).clear();
+      checkConsistencyIfEnabled();
     }
   }
 
@@ -568,10 +627,13 @@ public class Manifest {
    */
   public void unpackDemand(Demand demandAsPacked, I_ResourceContainer container) {
     if (canUnpackDemand(demandAsPacked, container)) {
+      buildIndices();
       packedDemands.get(container).remove(demandAsPacked);
-      for (Demand d : demandsAsPacked.keySet()) {
-        demandsAsPacked.get(d).remove(demandAsPacked);
+      Demand demand = demandsByPacked.remove(demandAsPacked);
+      if (demand != null) {
+        demandsAsPacked.get(demand).remove(demandAsPacked);
       }
+      checkConsistencyIfEnabled();
     }
   }
 
@@ -635,7 +697,7 @@ public class Manifest {
   private boolean isManifested(I_ResourceContainer container, SupplyPoint point) {
     if (container == null || point == null)
       return false;
-    for (SupplyEdge edge : supplyEdges) {
+    for (SupplyEdge edge : getManifestedEdges(container)) {
       if (edge.getPoint().getNode().equals(point.getNode())
           && edge.getPoint().getTime() <= point.getTime()) {
         for (I_Carrier carrier : edge.getAllCarriers()) {
@@ -762,7 +824,15 @@ public class Manifest {
    */
   public void manifestContainer(I_ResourceContainer container, SupplyEdge edge, I_Carrier carrier) {
     if (canManifestContainer(container, edge, carrier)) {
+      buildIndices();
       manifestedContainers.get(edge).get(carrier).add(container);
+      SortedSet<SupplyEdge> edges = manifestedEdges.get(container);
+      if (edges == null) {
+        edges = new TreeSet<SupplyEdge>();
+        manifestedEdges.put(container, edges);
+      }
+      edges.add(edge);
+      checkConsistencyIfEnabled();
     }
   }
 
@@ -774,17 +844,26 @@ public class Manifest {
    */
   public void unmanifestContainer(I_ResourceContainer container, SupplyEdge edge) {
     if (canUnmanifestContainer(container, edge)) {
+      buildIndices();
+      SortedSet<SupplyEdge> edges = manifestedEdges.get(container);
       for (I_Carrier carrier : manifestedContainers.get(edge).keySet()) {
         manifestedContainers.get(edge).get(carrier).remove(container);
       }
-      for (SupplyEdge e : supplyEdges) {
+      edges.remove(edge);
+      for (Iterator<SupplyEdge> i = edges.iterator(); i.hasNext();) {
+        SupplyEdge e = i.next();
         // clean up earlier manifests... not guaranteed anymore
         if (e.getEndTime() < edge.getEndTime()) {
           for (I_Carrier carrier : manifestedContainers.get(e).keySet()) {
             manifestedContainers.get(e).get(carrier).remove(container);
           }
+          i.remove();
         }
       }
+      if (edges.isEmpty()) {
+        manifestedEdges.remove(container);
+      }
+      checkConsistencyIfEnabled();
     }
   }
 
@@ -794,7 +873,7 @@ public class Manifest {
    * @param container the resource container
    */
   public void addContainer(I_ResourceContainer container) {
-    packedDemands.put(container, new HashSet<Demand>());
+    packedDemands.put(container, new LinkedHashSet<Demand>());
   }
 
   /**
@@ -803,24 +882,23 @@ public class Manifest {
    * @param container the resource container
    */
   public void removeContainer(I_ResourceContainer container) {
+    buildIndices();
     for (Demand demandAsPacked : packedDemands.get(container)) {
-      for (DemandSet demands : aggregatedNodeDemands.values()) {
-        for (Demand demand : demands) {
-          demandsAsPacked.get(demand).remove(demandAsPacked);
-        }
-      }
-      for (DemandSet demands : aggregatedEdgeDemands.values()) {
-        for (Demand demand : demands) {
-          demandsAsPacked.get(demand).remove(demandAsPacked);
-        }
+      Demand demand = demandsByPacked.remove(demandAsPacked);
+      if (demand != null) {
+        demandsAsPacked.get(demand).remove(demandAsPacked);
       }
     }
     packedDemands.remove(container);
-    for (SupplyEdge edge : supplyEdges) {
-      for (I_Carrier carrier : edge.getAllCarriers()) {
-        manifestedContainers.get(edge).get(carrier).remove(container);
+    SortedSet<SupplyEdge> edges = manifestedEdges.remove(container);
+    if (edges != null) {
+      for (SupplyEdge edge : edges) {
+        for (I_Carrier carrier : edge.getAllCarriers()) {
+          manifestedContainers.get(edge).get(carrier).remove(container);
+        }
       }
     }
+    checkConsistencyIfEnabled();
   }
 
   /**
@@ -835,21 +913,22 @@ public class Manifest {
     for (SupplyEdge edge : supplyEdges) {
       manifestedContainers.put(edge, new TreeMap<I_Carrier, Set<I_ResourceContainer>>());
       for (I_Carrier carrier : edge.getAllCarriers()) {
-        manifestedContainers.get(edge).put(carrier, new HashSet<I_ResourceContainer>());
+        manifestedContainers.get(edge).put(carrier, new LinkedHashSet<I_ResourceContainer>());
       }
     }
     aggregatedNodeDemands.putAll(simulator.getAggregatedNodeDemands());
     for (DemandSet demands : aggregatedNodeDemands.values()) {
       for (Demand demand : demands) {
-        demandsAsPacked.put(demand, new HashSet<Demand>());
+        demandsAsPacked.put(demand, new LinkedHashSet<Demand>());
       }
     }
     aggregatedEdgeDemands.putAll(simulator.getAggregatedEdgeDemands());
     for (DemandSet demands : aggregatedEdgeDemands.values()) {
       for (Demand demand : demands) {
-        demandsAsPacked.put(demand, new HashSet<Demand>());
+        demandsAsPacked.put(demand, new LinkedHashSet<Demand>());
       }
     }
+    clearIndices();
   }
 
   /**
@@ -919,7 +998,7 @@ public class Manifest {
    * @return the set of packed demands
    */
   public Set<Demand> getPackedDemands(I_ResourceContainer container, SupplyPoint point) {
-    HashSet<Demand> demands = new HashSet<Demand>();
+    Set<Demand> demands = new LinkedHashSet<Demand>();
     if (packedDemands.get(container) != null) {
       for (Demand demand : packedDemands.get(container)) {
         if (getSupplyPoint(getDemand(demand)).getTime() >= point.getTime())
@@ -951,8 +1030,8 @@ public class Manifest {
    * @return the set of resource containers
    */
   public Set<I_ResourceContainer> getManifestedContainers(I_Carrier carrier, SupplyPoint point) {
-    HashSet<I_ResourceContainer> containers = new HashSet<I_ResourceContainer>();
-    for (SupplyEdge edge : supplyEdges) {
+    Set<I_ResourceContainer> containers = new LinkedHashSet<I_ResourceContainer>();
+    for (SupplyEdge edge : getSupplyEdgesOf(carrier)) {
       if (manifestedContainers.get(edge).keySet().contains(carrier)
           && edge.getEndTime() <= point.getTime()) {
         for (I_ResourceContainer container : manifestedContainers.get(edge).get(carrier)) {
@@ -969,6 +1048,7 @@ public class Manifest {
   public void reset() {
     supplyEdges.clear();
     supplyPoints.clear();
+    clearIndices();
     aggregatedNodeDemands.clear();
     aggregatedEdgeDemands.clear();
     demandsAsPacked.clear();
@@ -1005,6 +1085,9 @@ public class Manifest {
     HashSet<ManifestEvent> events = new HashSet<ManifestEvent>();
     for (I_ResourceContainer container : packedDemands.keySet()) {
       container.getContents().clear();
+      if (container.getContainer() != null) {
+        container.getContainer().invalidateTotals();
+      }
       for (Demand demand : packedDemands.get(container)) {
         if (!container.add(demand.getResource(), demand.getAmount())) {
           System.out.println(demand + " could not be added to " + container);
@@ -1037,55 +1120,228 @@ public class Manifest {
   }
 
   /**
-   * Runs an auto-manifesting algorithm.
+   * Runs the default (greedy) auto-manifesting algorithm.
    */
   public void autoManifest() {
+    autoManifest(new GreedyManifestStrategy());
+  }
+
+  /**
+   * Runs an auto-manifesting algorithm.
+   * 
+   * @param strategy the auto-manifesting strategy
+   */
+  public void autoManifest(I_ManifestStrategy strategy) {
     for (SupplyPoint point : supplyPoints) {
-      // pack edge demands first
-      for (Demand demand : aggregatedEdgeDemands.get(point.getEdge())) {
-        autoPackDemand(demand);
+      strategy.autoManifest(this, point);
+    }
+  }
+
+  /**
+   * Runs an auto-manifesting algorithm on the independent supply chains of the manifest in
+   * parallel. Supply chains that share no supply edges or carriers are manifested on separate
+   * fork-join tasks in the common pool and merged with the same result as
+   * {@link #autoManifest(I_ManifestStrategy)}, including the unique identifiers of new resource
+   * containers.
+   * 
+   * @param strategy the auto-manifesting strategy
+   */
+  public void autoManifestInParallel(I_ManifestStrategy strategy) {
+    new ManifestPartition(this).autoManifest(strategy, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Replaces the packing and manifesting of this manifest with that of the parts it was divided
+   * into. Resource containers added by the parts follow the existing containers in order of unique
+   * identifier.
+   * 
+   * @param parts the parts, which together hold all supply points and resource containers
+   */
+  void merge(List<Manifest> parts) {
+    Map<I_ResourceContainer, Set<Demand>> packed =
+        new HashMap<I_ResourceContainer, Set<Demand>>();
+    for (Manifest part : parts) {
+      demandsAsPacked.putAll(part.demandsAsPacked);
+      manifestedContainers.putAll(part.manifestedContainers);
+      packed.putAll(part.packedDemands);
+    }
+    Map<I_ResourceContainer, Set<Demand>> merged =
+        new LinkedHashMap<I_ResourceContainer, Set<Demand>>();
+    for (I_ResourceContainer container : packedDemands.keySet()) {
+      // containers missing from the parts were removed
+      if (packed.containsKey(container)) {
+        merged.put(container, packed.remove(container));
       }
-      // then pack node demands
+    }
+    List<I_ResourceContainer> added = new ArrayList<I_ResourceContainer>(packed.keySet());
+    Collections.sort(added, new Comparator<I_ResourceContainer>() {
+      public int compare(I_ResourceContainer a, I_ResourceContainer b) {
+        return Integer.compare(a.getUid(), b.getUid());
+      }
+    });
+    for (I_ResourceContainer container : added) {
+      merged.put(container, packed.get(container));
+    }
+    packedDemands = merged;
+    clearIndices();
+    checkConsistencyIfEnabled();
+  }
+
+  /**
+   * Builds the reverse indices from the supply network, packed demands, and manifested containers
+   * if they are not built. The indices map each aggregated demand to its supply point, each packed
+   * demand to its aggregated demand, each carrier's unique identifier to the supply edges carrying
+   * it, and each resource container to the supply edges it is manifested on. They are kept up to
+   * date by the packing and manifesting methods and rebuilt after reset or import.
+   */
+  private void buildIndices() {
+    if (demandsByPacked != null) {
+      return;
+    }
+    supplyPointsByDemand = new HashMap<Demand, SupplyPoint>();
+    for (SupplyPoint point : supplyPoints) {
       for (Demand demand : aggregatedNodeDemands.get(point)) {
-        autoPackDemand(demand);
+        if (!supplyPointsByDemand.containsKey(demand)) {
+          supplyPointsByDemand.put(demand, point);
+        }
       }
-      // manifest edge demands first
-      for (I_ResourceContainer container : packedDemands.keySet()) {
-        if (point.equals(getCurrentSupplyPoint(container)) && isEdgeDemand(container)) {
-          boolean isManifested = false;
-          for (SupplyEdge edge : supplyEdges) {
-            for (I_Carrier carrier : edge.getCarriers()) {
-              isManifested = canManifestContainer(container, edge, carrier);
-              manifestContainer(container, edge, carrier);
-              if (isManifested)
-                break;
-            }
-            if (isManifested)
-              break;
-          }
+      for (Demand demand : aggregatedEdgeDemands.get(point.getEdge())) {
+        if (!supplyPointsByDemand.containsKey(demand)) {
+          supplyPointsByDemand.put(demand, point);
         }
       }
-      // then manifest node demands
-      for (I_ResourceContainer container : packedDemands.keySet()) {
-        if (point.equals(getCurrentSupplyPoint(container)) && !isEdgeDemand(container)) {
-          boolean isManifested = false;
-          for (SupplyEdge edge : supplyEdges) {
-            for (I_Carrier carrier : edge.getCarriers()) {
-              if (canManifestContainer(container, edge, carrier)) {
-                isManifested = canManifestContainer(container, edge, carrier);
-                manifestContainer(container, edge, carrier);
-                if (isManifested)
-                  break;
-              }
-            }
-            if (isManifested)
-              break;
+    }
+    supplyEdgesByCarrier = new HashMap<Integer, List<SupplyEdge>>();
+    for (SupplyEdge edge : supplyEdges) {
+      for (I_Carrier carrier : edge.getAllCarriers()) {
+        List<SupplyEdge> edges = supplyEdgesByCarrier.get(carrier.getUid());
+        if (edges == null) {
+          edges = new ArrayList<SupplyEdge>();
+          supplyEdgesByCarrier.put(carrier.getUid(), edges);
+        }
+        if (edges.isEmpty() || edges.get(edges.size() - 1) != edge) {
+          edges.add(edge);
+        }
+      }
+    }
+    demandsByPacked = new HashMap<Demand, Demand>();
+    for (Demand demand : demandsAsPacked.keySet()) {
+      for (Demand demandAsPacked : demandsAsPacked.get(demand)) {
+        demandsByPacked.put(demandAsPacked, demand);
+      }
+    }
+    manifestedEdges = new HashMap<I_ResourceContainer, SortedSet<SupplyEdge>>();
+    for (SupplyEdge edge : supplyEdges) {
+      for (Set<I_ResourceContainer> containers : manifestedContainers.get(edge).values()) {
+        for (I_ResourceContainer container : containers) {
+          SortedSet<SupplyEdge> edges = manifestedEdges.get(container);
+          if (edges == null) {
+            edges = new TreeSet<SupplyEdge>();
+            manifestedEdges.put(container, edges);
           }
+          edges.add(edge);
         }
       }
     }
   }
 
+  /**
+   * Discards the reverse indices and supply network index.
+   */
+  private void clearIndices() {
+    supplyIndex = null;
+    supplyPointsByDemand = null;
+    demandsByPacked = null;
+    supplyEdgesByCarrier = null;
+    manifestedEdges = null;
+  }
+
+  /**
+   * Gets the supply edges a resource container is manifested on, in supply edge order.
+   */
+  private SortedSet<SupplyEdge> getManifestedEdges(I_ResourceContainer container) {
+    buildIndices();
+    SortedSet<SupplyEdge> edges = manifestedEdges.get(container);
+    return edges == null ? Collections.<SupplyEdge>emptySortedSet() : edges;
+  }
+
+  /**
+   * Gets the supply edges carrying a carrier with the same unique identifier as a carrier, in
+   * supply edge order. Carriers are copied onto each supply edge, so the copies share an
+   * identifier.
+   */
+  private List<SupplyEdge> getSupplyEdgesOf(I_Carrier carrier) {
+    buildIndices();
+    List<SupplyEdge> edges = supplyEdgesByCarrier.get(carrier.getUid());
+    return edges == null ? Collections.<SupplyEdge>emptyList() : edges;
+  }
+
+  /**
+   * Gets whether the reverse indices are checked after every packing and manifesting change.
+   * 
+   * @return true, if consistency is checked
+   */
+  public boolean isConsistencyChecked() {
+    return consistencyChecked;
+  }
+
+  /**
+   * Sets whether the reverse indices are checked after every packing and manifesting change. This
+   * is slow and intended for testing.
+   * 
+   * @param consistencyChecked whether consistency is checked
+   */
+  public void setConsistencyChecked(boolean consistencyChecked) {
+    this.consistencyChecked = consistencyChecked;
+  }
+
+  private void checkConsistencyIfEnabled() {
+    if (consistencyChecked) {
+      checkConsistency();
+    }
+  }
+
+  /**
+   * Checks that the maintained reverse indices match indices rebuilt from the supply network,
+   * packed demands, and manifested containers.
+   * 
+   * @throws IllegalStateException if an index is inconsistent
+   */
+  public void checkConsistency() {
+    buildIndices();
+    Map<Demand, SupplyPoint> supplyPointsByDemand = this.supplyPointsByDemand;
+    Map<Demand, Demand> demandsByPacked = this.demandsByPacked;
+    Map<Integer, List<SupplyEdge>> supplyEdgesByCarrier = this.supplyEdgesByCarrier;
+    Map<I_ResourceContainer, SortedSet<SupplyEdge>> manifestedEdges = this.manifestedEdges;
+    this.demandsByPacked = null;
+    buildIndices();
+    try {
+      checkIndex("supply points by demand", supplyPointsByDemand, this.supplyPointsByDemand);
+      checkIndex("demands by packed demand", demandsByPacked, this.demandsByPacked);
+      checkIndex("supply edges by carrier", supplyEdgesByCarrier, this.supplyEdgesByCarrier);
+      checkIndex("manifested edges", manifestedEdges, this.manifestedEdges);
+    } finally {
+      this.supplyPointsByDemand = supplyPointsByDemand;
+      this.demandsByPacked = demandsByPacked;
+      this.supplyEdgesByCarrier = supplyEdgesByCarrier;
+      this.manifestedEdges = manifestedEdges;
+    }
+  }
+
+  private static <K, V> void checkIndex(String name, Map<K, V> maintained, Map<K, V> rebuilt) {
+    if (maintained.size() != rebuilt.size()) {
+      throw new IllegalStateException("Inconsistent " + name + ": " + maintained.size()
+          + " entries, expected " + rebuilt.size());
+    }
+    for (K key : rebuilt.keySet()) {
+      V value = maintained.get(key);
+      if (!(value == rebuilt.get(key) || value != null && value.equals(rebuilt.get(key)))) {
+        throw new IllegalStateException("Inconsistent " + name + " for " + key + ": " + value
+            + ", expected " + rebuilt.get(key));
+      }
+    }
+  }
+
   /**
    * Gets the scenario.
    * 
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet.scenario;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import edu.mit.spacenet.domain.element.I_Carrier;
+import edu.mit.spacenet.domain.element.I_ResourceContainer;
+import edu.mit.spacenet.util.SimulationContext;
+
+/**
+ * Divides a manifest into independent supply chains that can be auto-manifested in parallel. Two
+ * nodes are in the same supply chain if a supply edge that can be serviced by an earlier supply
+ * point connects them (resource containers manifested on the edge move to its origin) or if supply
+ * edges to both nodes share a carrier (the carrier's cargo counts against both). Each supply chain
+ * is manifested on its own fork-join task in a private copy of its part of the manifest, and the
+ * parts are merged back when all tasks finish.
+ * 
+ * <p>
+ * The result is the same as a serial run: strategies process the supply points of each chain in
+ * the same order, the manifest iterates containers and packed demands in insertion order, and new
+ * resource containers are given the unique identifiers (and default names) they would have drawn in
+ * a serial run.
+ * 
+ * @author Paul Grogan
+ */
+class ManifestPartition {
+  private final Manifest manifest;
+  private final Map<Integer, Integer> parents = new HashMap<Integer, Integer>();
+
+  /**
+   * Instantiates a new manifest partition.
+   * 
+   * @param manifest the manifest
+   */
+  ManifestPartition(Manifest manifest) {
+    this.manifest = manifest;
+  }
+
+  /**
+   * Runs an auto-manifesting algorithm on each supply chain in parallel. Runs serially if the
+   * manifest has only one supply chain, has empty containers (which can be packed at any node), or
+   * has containers that are not assigned to a supply point.
+   * 
+   * @param strategy the auto-manifesting strategy
+   * @param pool the fork-join pool
+   */
+  void autoManifest(I_ManifestStrategy strategy, ForkJoinPool pool) {
+    final List<Chain> chains = divide(strategy);
+    if (chains == null) {
+      manifest.autoManifest(strategy);
+      return;
+    }
+
+    SimulationContext context = SimulationContext.getCurrent();
+    int lastUid = context.getLastUid();
+    for (Chain chain : chains) {
+      chain.context = context.fork();
+    }
+    pool.invoke(new RecursiveAction() {
+      private static final long serialVersionUID = 1L;
+
+      protected void compute() {
+        invokeAll(chains);
+      }
+    });
+
+    context.setLastUid(renumber(chains, lastUid));
+    List<Manifest> parts = new ArrayList<Manifest>();
+    for (Chain chain : chains) {
+      parts.add(chain.part);
+    }
+    manifest.merge(parts);
+  }
+
+  /**
+   * Divides the manifest into supply chains.
+   * 
+   * @return the supply chains in order of their first supply point, or null if there are fewer
+   *         than two or the manifest has empty or unassigned containers
+   */
+  private List<Chain> divide(I_ManifestStrategy strategy) {
+    if (!manifest.getEmptyContainers().isEmpty()) {
+      return null;
+    }
+    Map<Integer, Integer> nodesByCarrier = new HashMap<Integer, Integer>();
+    for (SupplyEdge edge : manifest.getSupplyEdges()) {
+      int node = edge.getDestination().getTid();
+      if (manifest.getNextSupplyPoint(edge) != null) {
+        union(node, edge.getOrigin().getTid());
+      }
+      for (I_Carrier carrier : edge.getAllCarriers()) {
+        Integer other = nodesByCarrier.put(carrier.getUid(), node);
+        if (other != null) {
+          union(node, other);
+        }
+      }
+    }
+
+    Map<Integer, Chain> chains = new LinkedHashMap<Integer, Chain>();
+    for (SupplyPoint point : manifest.getSupplyPoints()) {
+      int root = find(point.getNode().getTid());
+      if (!chains.containsKey(root)) {
+        chains.put(root, new Chain(strategy));
+      }
+      chains.get(root).points.add(point);
+    }
+    if (chains.size() < 2) {
+      return null;
+    }
+    for (SupplyEdge edge : manifest.getSupplyEdges()) {
+      Chain chain = chains.get(find(edge.getDestination().getTid()));
+      if (chain != null) {
+        chain.edges.add(edge);
+      }
+    }
+    for (I_ResourceContainer container : manifest.getContainers()) {
+      // a container without a supply point in a known chain is left to a serial run
+      SupplyPoint point = manifest.getCurrentSupplyPoint(container);
+      Chain chain = point == null ? null : chains.get(find(point.getNode().getTid()));
+      if (chain == null) {
+        return null;
+      }
+      chain.containers.add(container);
+    }
+    for (Chain chain : chains.values()) {
+      chain.part = new Manifest(manifest, new HashSet<SupplyPoint>(chain.points), chain.edges,
+          chain.containers);
+    }
+    return new ArrayList<Chain>(chains.values());
+  }
+
+  private int find(int node) {
+    Integer parent = parents.get(node);
+    if (parent == null) {
+      parents.put(node, node);
+      return node;
+    } else if (parent == node) {
+      return node;
+    }
+    int root = find(parent);
+    parents.put(node, root);
+    return root;
+  }
+
+  private void union(int a, int b) {
+    int rootA = find(a);
+    int rootB = find(b);
+    if (rootA != rootB) {
+      parents.put(rootA, rootB);
+    }
+  }
+
+  /**
+   * Gives new resource containers the unique identifiers they would have drawn in a serial run,
+   * which visits the supply points of all chains in time order.
+   * 
+   * @param chains the manifested supply chains
+   * @param lastUid the last unique identifier drawn before manifesting
+   * @return the last unique identifier drawn by a serial run
+   */
+  private int renumber(List<Chain> chains, int lastUid) {
+    Map<SupplyPoint, Chain> chainsByPoint = new HashMap<SupplyPoint, Chain>();
+    Map<SupplyPoint, Integer> indices = new HashMap<SupplyPoint, Integer>();
+    for (Chain chain : chains) {
+      for (int i = 0; i < chain.points.size(); i++) {
+        chainsByPoint.put(chain.points.get(i), chain);
+        indices.put(chain.points.get(i), i);
+      }
+    }
+    // first identifier of those drawn by each chain at each supply point in the serial sequence
+    int next = lastUid + 1;
+    for (SupplyPoint point : manifest.getSupplyPoints()) {
+      Chain chain = chainsByPoint.get(point);
+      int i = indices.get(point);
+      chain.firstUids[i] = next;
+      next += chain.lastUids[i] - (i == 0 ? lastUid : chain.lastUids[i - 1]);
+    }
+
+    for (Chain chain : chains) {
+      for (I_ResourceContainer container : chain.part.getContainers()) {
+        int uid = container.getUid();
+        if (uid <= lastUid) {
+          continue;
+        }
+        // first supply point after which the chain's last identifier is at least uid
+        int i = 0;
+        for (int j = chain.lastUids.length - 1; i < j;) {
+          int k = (i + j) / 2;
+          if (chain.lastUids[k] < uid) {
+            i = k + 1;
+          } else {
+            j = k;
+          }
+        }
+        int serialUid = chain.firstUids[i] + uid - (i == 0 ? lastUid : chain.lastUids[i - 1]) - 1;
+        container.setUid(serialUid);
+        // default containers are named after their unique identifier
+        if (container.getName() != null && container.getName().endsWith(" " + uid)) {
+          container.setName(container.getName().substring(0,
+              container.getName().length() - Integer.toString(uid).length()) + serialUid);
+        }
+      }
+    }
+    return next - 1;
+  }
+
+  /**
+   * A supply chain manifested on its own task.
+   */
+  private class Chain extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final I_ManifestStrategy strategy;
+    private final List<SupplyPoint> points = new ArrayList<SupplyPoint>();
+    private final Set<SupplyEdge> edges = new HashSet<SupplyEdge>();
+    private final Set<I_ResourceContainer> containers = new HashSet<I_ResourceContainer>();
+    private Manifest part;
+    private SimulationContext context;
+    private int[] firstUids;
+    private int[] lastUids;
+
+    private Chain(I_ManifestStrategy strategy) {
+      this.strategy = strategy;
+    }
+
+    protected void compute() {
+      firstUids = new int[points.size()];
+      lastUids = new int[points.size()];
+      SimulationContext previous = context.activate();
+      try {
+        for (int i = 0; i < points.size(); i++) {
+          strategy.autoManifest(part, points.get(i));
+          lastUids[i] = context.getLastUid();
+        }
+      } finally {
+        previous.activate();
+      }
+    }
+  }
+}
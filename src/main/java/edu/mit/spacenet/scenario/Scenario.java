@@ -14,6 +14,7 @@
 package edu.mit.spacenet.scenario;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -25,8 +26,6 @@ import edu.mit.spacenet.domain.element.I_Element;
 import edu.mit.spacenet.domain.network.Network;
 import edu.mit.spacenet.domain.network.edge.Edge;
 import edu.mit.spacenet.domain.network.node.Node;
-import edu.mit.spacenet.simulator.event.I_Event;
-import edu.mit.spacenet.simulator.event.I_Transport;
 import edu.mit.spacenet.util.GlobalParameters;
 
 /**
@@ -93,6 +92,10 @@ public class Scenario {
   private boolean detailedEva;
   private boolean detailedExploration;
 
+  private transient List<I_Element> elements;
+  private transient Map<Integer, I_Element> elementsByUid;
+  private transient LocationUsageIndex locationUses;
+
   /**
    * The default constructor sets a default name and date, chooses the lunar scenario type, and
    * initializes the data structures.
@@ -153,18 +156,49 @@ public class Scenario {
   }
 
   /**
-   * Gets a list of all the elements instantiated in the scenario.
+   * Gets a list of all the elements instantiated in the scenario. The list is cached until
+   * {@link #invalidateElements()} is called.
    * 
-   * @return the list of scenario elements
+   * @return the unmodifiable list of scenario elements
    */
   public List<I_Element> getElements() {
-    ArrayList<I_Element> elements = new ArrayList<I_Element>();
-    for (Mission m : missionList) {
-      elements.addAll(m.getElements());
+    if (elements == null) {
+      ArrayList<I_Element> elements = new ArrayList<I_Element>();
+      for (Mission m : missionList) {
+        elements.addAll(m.getElements());
+      }
+      this.elements = Collections.unmodifiableList(elements);
     }
     return elements;
   }
 
+  /**
+   * Discards the cached element list and unique identifier index. Must be called after adding or
+   * removing missions, adding or removing create events, or changing the elements of a create
+   * event.
+   */
+  public void invalidateElements() {
+    elements = null;
+    elementsByUid = null;
+  }
+
+  /**
+   * Discards the cached index of node and edge uses. Must be called after adding missions or
+   * events, changing a mission's origin or destination, or changing an event's location or a
+   * transport's edge or an edge's origin or destination. Sorting missions or events does not require
+   * it.
+   */
+  public void invalidateLocationUses() {
+    locationUses = null;
+  }
+
+  private LocationUsageIndex getLocationUses() {
+    if (locationUses == null) {
+      locationUses = new LocationUsageIndex(missionList);
+    }
+    return locationUses;
+  }
+
   /**
    * Gets a scenario element by its unique identifier.
    * 
@@ -173,11 +207,19 @@ public class Scenario {
    * @return the element
    */
   public I_Element getElementByUid(int uid) {
-    for (I_Element e : getElements()) {
-      if (e.getUid() == uid)
-        return e;
+    I_Element element = elementsByUid == null ? null : elementsByUid.get(uid);
+    if (element == null || element.getUid() != uid) {
+      // a miss or a since-changed uid may mean the cached index is stale
+      invalidateElements();
+      elementsByUid = new HashMap<Integer, I_Element>();
+      for (I_Element e : getElements()) {
+        if (!elementsByUid.containsKey(e.getUid())) {
+          elementsByUid.put(e.getUid(), e);
+        }
+      }
+      element = elementsByUid.get(uid);
     }
-    return null;
+    return element;
   }
 
   /**
@@ -372,27 +414,18 @@ public class Scenario {
   }
 
   /**
-   * Gets a list of usages of a node.
+   * Gets a list of usages of a node. Uses are looked up in an index that is cached until
+   * {@link #invalidateLocationUses()} is called.
    * 
    * @param node the node
    * 
    * @return a list of objects that use the node
    */
   public List<Object> getNodeUses(Node node) {
-    ArrayList<Object> uses = new ArrayList<Object>();
-    for (Mission m : getMissionList()) {
-      if (node.equals(m.getOrigin()) || node.equals(m.getDestination())
-          || node.equals(m.getReturnOrigin()) || node.equals(m.getReturnDestination()))
-        uses.add(m);
-      for (I_Event e : m.getEventList()) {
-        if (e.getLocation().equals(node)
-            || (e instanceof I_Transport && (node.equals(((I_Transport) e).getOrigin())
-                || node.equals(((I_Transport) e).getDestination())))) {
-          if (!uses.contains(m))
-            uses.add(m);
-          uses.add(e);
-        }
-      }
+    List<Object> uses = getLocationUses().getNodeUses(node);
+    if (uses == null) {
+      invalidateLocationUses();
+      uses = getLocationUses().getNodeUses(node);
     }
     return uses;
   }
@@ -409,21 +442,18 @@ public class Scenario {
   }
 
   /**
-   * Gets a list of usages of an edge.
+   * Gets a list of usages of an edge. Uses are looked up in an index that is cached until
+   * {@link #invalidateLocationUses()} is called.
    * 
    * @param edge the edge
    * 
    * @return a list of objects that use the edge
    */
   public List<Object> getEdgeUses(Edge edge) {
-    ArrayList<Object> uses = new ArrayList<Object>();
-    for (Mission m : getMissionList()) {
-      for (I_Event e : m.getEventList()) {
-        if (e instanceof I_Transport && edge.equals(((I_Transport) e).getEdge())) {
-          uses.add(m);
-          uses.add(e);
-        }
-      }
+    List<Object> uses = getLocationUses().getEdgeUses(edge);
+    if (uses == null) {
+      invalidateLocationUses();
+      uses = getLocationUses().getEdgeUses(edge);
     }
     return uses;
   }
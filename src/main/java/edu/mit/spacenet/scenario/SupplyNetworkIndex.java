@@ -0,0 +1,304 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet.scenario;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.mit.spacenet.domain.network.Location;
+import edu.mit.spacenet.domain.network.edge.Edge;
+import edu.mit.spacenet.domain.network.node.Node;
+import edu.mit.spacenet.util.GlobalParameters;
+
+/**
+ * Time indices over a supply network. Supply points are kept per node as time-sorted arrays so the
+ * point governing a time is found by binary search, supply edges are kept per destination node in
+ * the same way, and supply edges are kept per network edge in an interval index (sorted by end
+ * time, with a tree of minimum start times) so the edge covering a time is found without a scan.
+ * Queries return the same supply point or edge as scanning the sorted sets the index was built
+ * from, ties included.
+ * 
+ * <p>
+ * Supply times are rounded to the time precision, so an index is only current for the parameters
+ * and parameter revision it was built under.
+ * 
+ * @author Paul Grogan
+ */
+public class SupplyNetworkIndex {
+  private final GlobalParameters parameters;
+  private final int revision;
+  private final Map<Integer, List<Timeline<SupplyPoint>>> pointsByNode =
+      new HashMap<Integer, List<Timeline<SupplyPoint>>>();
+  private final Map<Integer, List<Timeline<SupplyEdge>>> edgesByDestination =
+      new HashMap<Integer, List<Timeline<SupplyEdge>>>();
+  private final Map<Integer, List<Intervals>> edgesByEdge = new HashMap<Integer, List<Intervals>>();
+
+  /**
+   * Instantiates a new index for the active parameters.
+   * 
+   * @param supplyEdges the supply edges, in their sorted order (latest end time first)
+   * @param supplyPoints the supply points, in their sorted order (latest time first)
+   */
+  public SupplyNetworkIndex(Collection<SupplyEdge> supplyEdges,
+      Collection<SupplyPoint> supplyPoints) {
+    parameters = GlobalParameters.getSingleton();
+    revision = parameters.getRevision();
+
+    Map<Timeline<SupplyPoint>, List<SupplyPoint>> points =
+        new HashMap<Timeline<SupplyPoint>, List<SupplyPoint>>();
+    for (SupplyPoint point : supplyPoints) {
+      add(pointsByNode, points, point.getNode(), point);
+    }
+    for (Map.Entry<Timeline<SupplyPoint>, List<SupplyPoint>> entry : points.entrySet()) {
+      double[] times = new double[entry.getValue().size()];
+      for (int i = 0; i < times.length; i++) {
+        times[i] = entry.getValue().get(i).getTime();
+      }
+      entry.getKey().set(entry.getValue(), times);
+    }
+
+    Map<Timeline<SupplyEdge>, List<SupplyEdge>> arrivals =
+        new HashMap<Timeline<SupplyEdge>, List<SupplyEdge>>();
+    Map<Integer, List<Timeline<SupplyEdge>>> byEdge =
+        new HashMap<Integer, List<Timeline<SupplyEdge>>>();
+    Map<Timeline<SupplyEdge>, List<SupplyEdge>> traversals =
+        new HashMap<Timeline<SupplyEdge>, List<SupplyEdge>>();
+    for (SupplyEdge edge : supplyEdges) {
+      add(edgesByDestination, arrivals, edge.getDestination(), edge);
+      add(byEdge, traversals, edge.getEdge(), edge);
+    }
+    for (Map.Entry<Timeline<SupplyEdge>, List<SupplyEdge>> entry : arrivals.entrySet()) {
+      double[] times = new double[entry.getValue().size()];
+      for (int i = 0; i < times.length; i++) {
+        times[i] = entry.getValue().get(i).getEndTime();
+      }
+      entry.getKey().set(entry.getValue(), times);
+    }
+    for (Map.Entry<Integer, List<Timeline<SupplyEdge>>> entry : byEdge.entrySet()) {
+      List<Intervals> intervals = new ArrayList<Intervals>();
+      for (Timeline<SupplyEdge> timeline : entry.getValue()) {
+        intervals.add(new Intervals(timeline.location, traversals.get(timeline)));
+      }
+      edgesByEdge.put(entry.getKey(), intervals);
+    }
+  }
+
+  /**
+   * Adds an item to the timeline of the location equal to its own, creating the timeline if needed.
+   * Locations are grouped by type identifier and then by equality, since locations do not hash.
+   */
+  private static <T> void add(Map<Integer, List<Timeline<T>>> timelines,
+      Map<Timeline<T>, List<T>> items, Location location, T item) {
+    if (location == null) {
+      return;
+    }
+    List<Timeline<T>> group = timelines.get(location.getTid());
+    if (group == null) {
+      group = new ArrayList<Timeline<T>>(1);
+      timelines.put(location.getTid(), group);
+    }
+    Timeline<T> timeline = find(group, location);
+    if (timeline == null) {
+      timeline = new Timeline<T>(location);
+      group.add(timeline);
+      items.put(timeline, new ArrayList<T>());
+    }
+    items.get(timeline).add(item);
+  }
+
+  private static <T extends Located> T find(List<T> group, Location location) {
+    if (group != null) {
+      for (T t : group) {
+        if (t.location.equals(location)) {
+          return t;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Gets whether an index was built under the active parameters and is still current.
+   * 
+   * @param index the index, may be null
+   * @return true, if the index can be used
+   */
+  public static boolean isCurrent(SupplyNetworkIndex index) {
+    if (index == null) {
+      return false;
+    }
+    GlobalParameters active = GlobalParameters.getSingleton();
+    return index.parameters == active && index.revision == active.getRevision();
+  }
+
+  /**
+   * Gets the latest supply point at a node at or before a time.
+   * 
+   * @param node the node
+   * @param time the time
+   * @return the supply point, or null if there is none
+   */
+  public SupplyPoint getSupplyPoint(Node node, double time) {
+    Timeline<SupplyPoint> timeline = find(pointsByNode.get(node.getTid()), node);
+    if (timeline == null) {
+      return null;
+    }
+    int i = timeline.firstAtOrBefore(time);
+    return i < timeline.items.size() ? timeline.items.get(i) : null;
+  }
+
+  /**
+   * Gets the supply edges that arrive at a node at or before a time.
+   * 
+   * @param destination the destination node
+   * @param time the time
+   * @return the supply edges, latest end time first
+   */
+  public List<SupplyEdge> getSupplyEdges(Node destination, double time) {
+    Timeline<SupplyEdge> timeline = find(edgesByDestination.get(destination.getTid()), destination);
+    if (timeline == null) {
+      return Collections.emptyList();
+    }
+    return timeline.items.subList(timeline.firstAtOrBefore(time), timeline.items.size());
+  }
+
+  /**
+   * Gets the supply edge along a network edge that is in transit at a time (start and end times
+   * inclusive). If several are, the one with the earliest end time is returned.
+   * 
+   * @param edge the network edge
+   * @param time the time
+   * @return the supply edge, or null if there is none
+   */
+  public SupplyEdge getSupplyEdge(Edge edge, double time) {
+    Intervals intervals = find(edgesByEdge.get(edge.getTid()), edge);
+    return intervals == null ? null : intervals.get(time);
+  }
+
+  /**
+   * An index entry for one location.
+   */
+  private static class Located {
+    protected final Location location;
+
+    private Located(Location location) {
+      this.location = location;
+    }
+  }
+
+  /**
+   * The supply points or edges at one node, latest time first.
+   */
+  private static class Timeline<T> extends Located {
+    private List<T> items;
+    private double[] times;
+
+    private Timeline(Location location) {
+      super(location);
+    }
+
+    private void set(List<T> items, double[] times) {
+      this.items = Collections.unmodifiableList(items);
+      this.times = times;
+    }
+
+    /**
+     * Gets the position of the first item at or before a time, or the number of items if none is.
+     */
+    private int firstAtOrBefore(double time) {
+      int low = 0, high = times.length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (times[mid] > time) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+
+  /**
+   * The supply edges along one network edge, latest end time first, with a tree of the minimum
+   * start time over each range of positions.
+   */
+  private static class Intervals extends Located {
+    private final List<SupplyEdge> edges;
+    private final double[] starts;
+    private final double[] ends;
+    private final double[] minStart;
+
+    private Intervals(Location location, List<SupplyEdge> edges) {
+      super(location);
+      this.edges = edges;
+      starts = new double[edges.size()];
+      ends = new double[edges.size()];
+      for (int i = 0; i < starts.length; i++) {
+        starts[i] = edges.get(i).getStartTime();
+        ends[i] = edges.get(i).getEndTime();
+      }
+      minStart = new double[4 * Math.max(1, starts.length)];
+      Arrays.fill(minStart, Double.POSITIVE_INFINITY);
+      build(0, 0, starts.length);
+    }
+
+    private void build(int node, int low, int high) {
+      if (high - low == 1) {
+        minStart[node] = starts[low];
+      } else if (high - low > 1) {
+        int mid = (low + high) >>> 1;
+        build(2 * node + 1, low, mid);
+        build(2 * node + 2, mid, high);
+        minStart[node] = Math.min(minStart[2 * node + 1], minStart[2 * node + 2]);
+      }
+    }
+
+    /**
+     * Gets the last supply edge (earliest end time) that starts at or before and ends at or after a
+     * time. Edges ending at or after the time form a prefix of the list, so this is the last
+     * position in that prefix with a start time at or before the time.
+     */
+    private SupplyEdge get(double time) {
+      int low = 0, high = ends.length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (ends[mid] >= time) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      int i = lastStartingBy(0, 0, starts.length, low, time);
+      return i < 0 ? null : edges.get(i);
+    }
+
+    private int lastStartingBy(int node, int low, int high, int limit, double time) {
+      if (low >= limit || low >= high || minStart[node] > time) {
+        return -1;
+      }
+      if (high - low == 1) {
+        return low;
+      }
+      int mid = (low + high) >>> 1;
+      int i = lastStartingBy(2 * node + 2, mid, high, limit, time);
+      return i >= 0 ? i : lastStartingBy(2 * node + 1, low, mid, limit, time);
+    }
+  }
+}
@@ -15,14 +15,12 @@ package edu.mit.spacenet.simulator;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.PriorityQueue;
 
 import edu.mit.spacenet.domain.ClassOfSupply;
 import edu.mit.spacenet.domain.element.I_Element;
 import edu.mit.spacenet.domain.network.Location;
+import edu.mit.spacenet.domain.network.edge.Edge;
 import edu.mit.spacenet.domain.resource.Demand;
 import edu.mit.spacenet.domain.resource.DemandSet;
 import edu.mit.spacenet.domain.resource.GenericResource;
@@ -39,6 +37,7 @@ import edu.mit.spacenet.simulator.event.MissionEvent;
 import edu.mit.spacenet.simulator.moe.MoeCrewTime;
 import edu.mit.spacenet.util.DateFunctions;
 import edu.mit.spacenet.util.SerializeUtil;
+import edu.mit.spacenet.util.SimulationContext;
 
 /**
  * An abstract implementation of the simulator interface.
@@ -46,18 +45,18 @@ import edu.mit.spacenet.util.SerializeUtil;
  * @author Paul Grogan
  */
 public abstract class AbstractSimulator implements I_Simulator {
+  private final SimulationContext context;
   private Scenario scenario;
   private Scenario clone;
-  private PriorityQueue<I_Event> events;
+  private EventQueue events;
   private double time;
   private List<SimSpatialError> spatialErrors;
   private List<SimDemand> unsatisfiedDemands;
   private List<SimWarning> warnings;
   private List<SimScavenge> scavengedParts;
   private List<SimRepair> repairedParts;
-  private Map<I_Element, Map<Item, Double>> itemDemandsByElement;
-  private Map<Item, Double> itemDemandsByScenario;
-  private Map<Location, Map<Item, Double>> itemDemandsByLocation;
+  private ItemDemandAccumulator itemDemands;
+  private DemandHistoryIndex demandIndex;
   private boolean packingDemandsAdded, demandsSatisfied;
   private boolean itemsRepaired;
 
@@ -71,21 +70,69 @@ public abstract class AbstractSimulator implements I_Simulator {
    */
   public AbstractSimulator(Scenario scenario) {
     this.scenario = scenario;
-    events = new PriorityQueue<I_Event>();
+    context = new SimulationContext();
+    context.setTraceSink(SimulationContext.getCurrent().getTraceSink());
+    events = new EventQueue();
     spatialErrors = new ArrayList<SimSpatialError>();
     unsatisfiedDemands = new ArrayList<SimDemand>();
     warnings = new ArrayList<SimWarning>();
     scavengedParts = new ArrayList<SimScavenge>();
     repairedParts = new ArrayList<SimRepair>();
-    itemDemandsByElement = new HashMap<I_Element, Map<Item, Double>>();
-    itemDemandsByLocation = new HashMap<Location, Map<Item, Double>>();
-    itemDemandsByScenario = new HashMap<Item, Double>();
+    itemDemands = new ItemDemandAccumulator();
+    demandIndex = new DemandHistoryIndex();
     packingDemandsAdded = false;
     demandsSatisfied = true;
     itemsRepaired = false;
   }
 
-  protected PriorityQueue<I_Event> getEvents() {
+  /*
+   * (non-Javadoc)
+   * 
+   * @see edu.mit.spacenet.simulator.I_Simulator#simulate()
+   */
+  public void simulate() {
+    SimulationContext previous = context.activate();
+    try {
+      runSimulation();
+    } finally {
+      previous.activate();
+    }
+  }
+
+  /**
+   * Runs the simulation while this simulator's context is active.
+   */
+  protected abstract void runSimulation();
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see edu.mit.spacenet.simulator.I_Simulator#getContext()
+   */
+  public SimulationContext getContext() {
+    return context;
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see edu.mit.spacenet.simulator.I_Simulator#getTraceSink()
+   */
+  public I_TraceSink getTraceSink() {
+    return context.getTraceSink();
+  }
+
+  /**
+   * Sets the sink that receives simulation trace messages. By default, a simulator uses the trace
+   * sink of the context that was active when it was created.
+   * 
+   * @param traceSink the trace sink
+   */
+  public void setTraceSink(I_TraceSink traceSink) {
+    context.setTraceSink(traceSink);
+  }
+
+  protected EventQueue getEvents() {
     return events;
   }
 
@@ -173,6 +220,7 @@ public abstract class AbstractSimulator implements I_Simulator {
     scavengedParts.clear();
     repairedParts.clear();
     time = 0;
+    context.setScenario(scenario);
 
     // serialize scenario for deep cloning
     clone = (Scenario) SerializeUtil.deepClone(scenario);
@@ -181,16 +229,70 @@ public abstract class AbstractSimulator implements I_Simulator {
       p.setMission(m);
       schedule(p);
     }
+    itemDemands.clear();
+    demandIndex.clear();
+  }
 
-    if (clone.getItemDiscretization() == ItemDiscretization.BY_ELEMENT) {
-      for (I_Element element : clone.getElements()) {
-        itemDemandsByElement.put(element, new HashMap<Item, Double>());
-      }
-    } else if (clone.getItemDiscretization() == ItemDiscretization.BY_LOCATION) {
-      for (Location location : clone.getNetwork().getLocations()) {
-        itemDemandsByLocation.put(location, new HashMap<Item, Double>());
-      }
-    }
+  /**
+   * Captures a deep copy of the current simulation state: the scenario clone, the event queue, the
+   * logged errors and warnings, the item discretization accumulators, and the last executed event.
+   * The copy shares no mutable objects with the running simulation.
+   * 
+   * @return the captured state
+   */
+  protected SimulationState saveState() {
+    SimulationState state = new SimulationState();
+    state.clone = clone;
+    state.events = events;
+    state.time = time;
+    state.event = event;
+    state.spatialErrors = spatialErrors;
+    state.unsatisfiedDemands = unsatisfiedDemands;
+    state.warnings = warnings;
+    state.scavengedParts = scavengedParts;
+    state.repairedParts = repairedParts;
+    state.itemDemands = itemDemands;
+    return (SimulationState) SerializeUtil.deepClone(state);
+  }
+
+  /**
+   * Restores a simulation state previously captured with {@link #saveState()}. The state is copied
+   * again before use so it can be restored any number of times.
+   * 
+   * @param saved the captured state
+   */
+  protected void restoreState(SimulationState saved) {
+    SimulationState state = (SimulationState) SerializeUtil.deepClone(saved);
+    clone = state.clone;
+    events = state.events;
+    time = state.time;
+    event = state.event;
+    duration = 0;
+    spatialErrors = state.spatialErrors;
+    unsatisfiedDemands = state.unsatisfiedDemands;
+    warnings = state.warnings;
+    scavengedParts = state.scavengedParts;
+    repairedParts = state.repairedParts;
+    itemDemands = state.itemDemands;
+  }
+
+  /**
+   * A snapshot of the mutable simulation state, copied as a single object graph so that references
+   * between the scenario clone, the event queue, and the logs are preserved.
+   */
+  protected static final class SimulationState {
+    private Scenario clone;
+    private EventQueue events;
+    private double time;
+    private I_Event event;
+    private List<SimSpatialError> spatialErrors;
+    private List<SimDemand> unsatisfiedDemands;
+    private List<SimWarning> warnings;
+    private List<SimScavenge> scavengedParts;
+    private List<SimRepair> repairedParts;
+    private ItemDemandAccumulator itemDemands;
+
+    private SimulationState() {}
   }
 
   protected void scheduleManifestEvents() {
@@ -219,20 +321,16 @@ public abstract class AbstractSimulator implements I_Simulator {
           try {
             d.execute(this);
           } catch (SimError error) {
-            if (error instanceof SimSpatialError) {
-              spatialErrors.add((SimSpatialError) error);
-            } else if (error instanceof SimDemand) {
-              /*
-               * TODO double-counting? see DemandEvent.execute if(isPackingDemandsAdded()) { Demand
-               * packingDemand = new Demand(new GenericResource(ClassOfSupply.COS5), 0); for(Demand
-               * demand : ((SimDemand)error).getDemands()) { if(demand.getAmount()>0 &&
-               * demand.getResource().getPackingFactor()>0)
-               * packingDemand.setAmount(packingDemand.getAmount() +
-               * demand.getAmount()*demand.getResource().getPackingFactor()); }
-               * ((SimDemand)error).getDemands().add(packingDemand); }
-               */
-              unsatisfiedDemands.add((SimDemand) error);
-            }
+            /*
+             * TODO double-counting? see DemandEvent.execute if(isPackingDemandsAdded()) { Demand
+             * packingDemand = new Demand(new GenericResource(ClassOfSupply.COS5), 0); for(Demand
+             * demand : ((SimDemand)error).getDemands()) { if(demand.getAmount()>0 &&
+             * demand.getResource().getPackingFactor()>0)
+             * packingDemand.setAmount(packingDemand.getAmount() +
+             * demand.getAmount()*demand.getResource().getPackingFactor()); }
+             * ((SimDemand)error).getDemands().add(packingDemand); }
+             */
+            report(error);
           }
         }
       }
@@ -253,56 +351,21 @@ public abstract class AbstractSimulator implements I_Simulator {
   }
 
   private DemandSet discretizeDemands(DemandSet demands, I_Element element, Location location) {
+    int owner;
     if (getScenario().getItemDiscretization() == ItemDiscretization.BY_ELEMENT && element != null) {
-      for (Demand demand : demands) {
-        if (demand.getResource() instanceof Item) {
-          Item item = (Item) demand.getResource();
-          if (!itemDemandsByElement.get(element).containsKey(item)) {
-            itemDemandsByElement.get(element).put(item, new Double(0));
-          }
-          itemDemandsByElement.get(element).put(item,
-              itemDemandsByElement.get(element).get(item) + demand.getAmount());
-          demand.setAmount(0);
-          while (itemDemandsByElement.get(element).get(item) >= getScenario()
-              .getItemAggregation()) {
-            demand.setAmount(demand.getAmount() + 1);
-            itemDemandsByElement.get(element).put(item,
-                itemDemandsByElement.get(element).get(item) - 1);
-          }
-        }
-      }
+      owner = ItemDemandAccumulator.getElementOwner(element.getUid());
     } else if (getScenario().getItemDiscretization() == ItemDiscretization.BY_LOCATION) {
-      for (Demand demand : demands) {
-        if (demand.getResource() instanceof Item) {
-          Item item = (Item) demand.getResource();
-          if (!itemDemandsByLocation.get(location).containsKey(item)) {
-            itemDemandsByLocation.get(location).put(item, new Double(0));
-          }
-          itemDemandsByLocation.get(location).put(item,
-              itemDemandsByLocation.get(location).get(item) + demand.getAmount());
-          demand.setAmount(0);
-          while (itemDemandsByLocation.get(location).get(item) >= getScenario()
-              .getItemAggregation()) {
-            demand.setAmount(demand.getAmount() + 1);
-            itemDemandsByLocation.get(location).put(item,
-                itemDemandsByLocation.get(location).get(item) - 1);
-          }
-        }
-      }
+      owner = ItemDemandAccumulator.getLocationOwner(location.getTid(), location instanceof Edge);
     } else if (getScenario().getItemDiscretization() == ItemDiscretization.BY_SCENARIO) {
-      for (Demand demand : demands) {
-        if (demand.getResource() instanceof Item) {
-          Item item = (Item) demand.getResource();
-          if (!itemDemandsByScenario.containsKey(item)) {
-            itemDemandsByScenario.put(item, new Double(0));
-          }
-          itemDemandsByScenario.put(item, itemDemandsByScenario.get(item) + demand.getAmount());
-          demand.setAmount(0);
-          while (itemDemandsByScenario.get(item) >= getScenario().getItemAggregation()) {
-            demand.setAmount(demand.getAmount() + 1);
-            itemDemandsByScenario.put(item, itemDemandsByScenario.get(item) - 1);
-          }
-        }
+      owner = ItemDemandAccumulator.SCENARIO_OWNER;
+    } else {
+      demands.clean();
+      return demands;
+    }
+    for (Demand demand : demands) {
+      if (demand.getResource() instanceof Item) {
+        demand.setAmount(itemDemands.discretize(owner, (Item) demand.getResource(),
+            demand.getAmount(), getScenario().getItemAggregation()));
       }
     }
     demands.clean();
@@ -364,14 +427,40 @@ public abstract class AbstractSimulator implements I_Simulator {
     try {
       event.execute(this);
     } catch (SimError error) {
-      if (error instanceof SimSpatialError) {
-        spatialErrors.add((SimSpatialError) error);
-      } else if (error instanceof SimDemand) {
-        unsatisfiedDemands.add((SimDemand) error);
+      report(error);
+    }
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see edu.mit.spacenet.simulator.I_Simulator#report(edu.mit.spacenet.simulator.SimError)
+   */
+  public void report(SimError error) {
+    if (error instanceof SimSpatialError) {
+      if (getTraceSink().isEnabled(TraceLevel.ERROR)) {
+        getTraceSink().trace(TraceLevel.ERROR, time, error.getEvent(), null,
+            "!!! Error: (%s) %s", error.getEvent(), error.getMessage());
       }
+      spatialErrors.add((SimSpatialError) error);
+    } else if (error instanceof SimDemand) {
+      unsatisfiedDemands.add((SimDemand) error);
     }
   }
 
+  /*
+   * (non-Javadoc)
+   * 
+   * @see edu.mit.spacenet.simulator.I_Simulator#report(edu.mit.spacenet.simulator.SimWarning)
+   */
+  public void report(SimWarning warning) {
+    if (getTraceSink().isEnabled(TraceLevel.WARNING)) {
+      getTraceSink().trace(TraceLevel.WARNING, time, warning.getEvent(), null,
+          "!!! Warning: (%s) %s", warning.getEvent(), warning.getMessage());
+    }
+    warnings.add(warning);
+  }
+
   /*
    * (non-Javadoc)
    * 
@@ -379,13 +468,17 @@ public abstract class AbstractSimulator implements I_Simulator {
    * I_Element)
    */
   public List<SimDemand> getDemandHistory(I_Element element) {
-    ArrayList<SimDemand> demands = new ArrayList<SimDemand>();
-    for (SimDemand d : getUnsatisfiedDemands()) {
-      if (element.equals(d.getElement())) {
-        demands.add(d);
-      }
-    }
-    return demands;
+    return getDemandIndex().getDemands(element);
+  }
+
+  /**
+   * Gets the demand history index, bringing it up to date with the unsatisfied demands.
+   * 
+   * @return the demand history index
+   */
+  private DemandHistoryIndex getDemandIndex() {
+    demandIndex.update(getUnsatisfiedDemands());
+    return demandIndex;
   }
 
   /*
@@ -394,16 +487,10 @@ public abstract class AbstractSimulator implements I_Simulator {
    * @see edu.mit.spacenet.simulator.I_Simulator#getDemandHistory(edu.mit.spacenet.scenario.Mission)
    */
   public List<SimDemand> getDemandHistory(Mission mission) {
-    ArrayList<SimDemand> demands = new ArrayList<SimDemand>();
     double startTime =
         DateFunctions.getDaysBetween(mission.getStartDate(), getScenario().getStartDate());
     double endTime = startTime + mission.getDuration();
-    for (SimDemand s : getUnsatisfiedDemands()) {
-      if (s.getTime() > startTime && s.getTime() <= endTime) {
-        demands.add(s);
-      }
-    }
-    return demands;
+    return getDemandIndex().getDemands(startTime, endTime);
   }
 
   /*
@@ -413,13 +500,7 @@ public abstract class AbstractSimulator implements I_Simulator {
    * Location)
    */
   public List<SimDemand> getDemandHistory(Location location) {
-    ArrayList<SimDemand> demands = new ArrayList<SimDemand>();
-    for (SimDemand d : getUnsatisfiedDemands()) {
-      if (location.equals(d.getLocation())) {
-        demands.add(d);
-      }
-    }
-    return demands;
+    return getDemandIndex().getDemands(location);
   }
 
   /*
@@ -493,7 +574,7 @@ public abstract class AbstractSimulator implements I_Simulator {
    */
   public DemandSet getDemands(I_Element element, ClassOfSupply cos) {
     DemandSet demands = new DemandSet();
-    for (SimDemand d : getUnsatisfiedDemands()) {
+    for (SimDemand d : getDemandIndex().getDemands(element, cos)) {
       for (Demand demand : d.getDemands()) {
         if (element.equals(d.getElement()) && (demand.getResource().getClassOfSupply().equals(cos)
             || demand.getResource().getClassOfSupply().isSubclassOf(cos))) {
@@ -513,7 +594,7 @@ public abstract class AbstractSimulator implements I_Simulator {
    */
   public DemandSet getDemands(Location location, ClassOfSupply cos) {
     DemandSet demands = new DemandSet();
-    for (SimDemand d : getUnsatisfiedDemands()) {
+    for (SimDemand d : getDemandIndex().getDemands(location, cos)) {
       for (Demand demand : d.getDemands()) {
         if (location.equals(d.getLocation()) && (demand.getResource().getClassOfSupply().equals(cos)
             || demand.getResource().getClassOfSupply().isSubclassOf(cos))) {
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet.simulator;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+
+import edu.mit.spacenet.domain.element.I_Element;
+import edu.mit.spacenet.domain.network.edge.Edge;
+import edu.mit.spacenet.simulator.event.I_Event;
+
+/**
+ * Trace sink that writes a compact binary record for each message at or below a threshold level.
+ * Message text is not written, so nothing is formatted. The stream starts with the magic number
+ * {@value #MAGIC} and the format version {@value #VERSION}, followed by one record per message:
+ * 
+ * <ul>
+ * <li>level ordinal (byte)</li>
+ * <li>simulation time (double)</li>
+ * <li>event type ordinal (byte), -1 if there is no event or it has no type (such as mission and
+ * manifest events)</li>
+ * <li>event location kind (byte): {@value #NODE} for a node, {@value #EDGE} for an edge, -1 if
+ * there is no event location</li>
+ * <li>event location tid (int), -1 if there is no event location; node and edge tids overlap, so
+ * the location is identified by its kind and tid together</li>
+ * <li>number of elements (int), followed by each element uid (int)</li>
+ * </ul>
+ * 
+ * All values are big-endian as written by {@link DataOutputStream}. Write failures are deferred and
+ * thrown when the sink is closed.
+ * 
+ * @author Paul Grogan
+ */
+public class BinaryTraceSink implements I_TraceSink, Closeable {
+  /** The magic number at the start of a binary trace ("SNTR"). */
+  public static final int MAGIC = 0x534E5452;
+
+  /** The binary trace format version. */
+  public static final short VERSION = 2;
+
+  /** The location kind of a node. */
+  public static final byte NODE = 0;
+
+  /** The location kind of an edge. */
+  public static final byte EDGE = 1;
+
+  private final TraceLevel threshold;
+  private final DataOutputStream out;
+  private IOException error;
+
+  /**
+   * Instantiates a new binary trace sink and writes the trace header.
+   * 
+   * @param threshold the most verbose level to record
+   * @param out the output stream, which is closed with the sink
+   * 
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public BinaryTraceSink(TraceLevel threshold, OutputStream out) throws IOException {
+    this.threshold = threshold;
+    this.out = new DataOutputStream(new BufferedOutputStream(out));
+    this.out.writeInt(MAGIC);
+    this.out.writeShort(VERSION);
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see edu.mit.spacenet.simulator.I_TraceSink#isEnabled(edu.mit.spacenet.simulator.TraceLevel)
+   */
+  public boolean isEnabled(TraceLevel level) {
+    return level != TraceLevel.OFF && level.compareTo(threshold) <= 0;
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see edu.mit.spacenet.simulator.I_TraceSink#trace(edu.mit.spacenet.simulator.TraceLevel,
+   * double, edu.mit.spacenet.simulator.event.I_Event, java.util.Collection, java.lang.String,
+   * java.lang.Object[])
+   */
+  public synchronized void trace(TraceLevel level, double time, I_Event event,
+      Collection<? extends I_Element> elements, String format, Object... args) {
+    if (!isEnabled(level) || error != null) {
+      return;
+    }
+    try {
+      out.writeByte(level.ordinal());
+      out.writeDouble(time);
+      out.writeByte(
+          event == null || event.getEventType() == null ? -1 : event.getEventType().ordinal());
+      if (event == null || event.getLocation() == null) {
+        out.writeByte(-1);
+        out.writeInt(-1);
+      } else {
+        out.writeByte(event.getLocation() instanceof Edge ? EDGE : NODE);
+        out.writeInt(event.getLocation().getTid());
+      }
+      if (elements == null) {
+        out.writeInt(0);
+      } else {
+        out.writeInt(elements.size());
+        for (I_Element element : elements) {
+          out.writeInt(element.getUid());
+        }
+      }
+    } catch (IOException ex) {
+      error = ex;
+    }
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see java.io.Closeable#close()
+   */
+  public synchronized void close() throws IOException {
+    try {
+      out.close();
+    } catch (IOException ex) {
+      if (error == null) {
+        error = ex;
+      }
+    }
+    if (error != null) {
+      throw error;
+    }
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet.simulator;
+
+import java.io.PrintStream;
+import java.util.Collection;
+
+import edu.mit.spacenet.domain.element.I_Element;
+import edu.mit.spacenet.simulator.event.I_Event;
+
+/**
+ * Trace sink that prints messages at or below a threshold level as lines of text, each prefixed by
+ * the simulation time.
+ * 
+ * @author Paul Grogan
+ */
+public class ConsoleTraceSink implements I_TraceSink {
+  private final TraceLevel threshold;
+  private final PrintStream out;
+
+  /**
+   * Instantiates a new console trace sink that prints to the current standard output.
+   * 
+   * @param threshold the most verbose level to print
+   */
+  public ConsoleTraceSink(TraceLevel threshold) {
+    this(threshold, null);
+  }
+
+  /**
+   * Instantiates a new console trace sink that prints to a stream.
+   * 
+   * @param threshold the most verbose level to print
+   * @param out the output stream, null to use the current standard output
+   */
+  public ConsoleTraceSink(TraceLevel threshold, PrintStream out) {
+    this.threshold = threshold;
+    this.out = out;
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see edu.mit.spacenet.simulator.I_TraceSink#isEnabled(edu.mit.spacenet.simulator.TraceLevel)
+   */
+  public boolean isEnabled(TraceLevel level) {
+    return level != TraceLevel.OFF && level.compareTo(threshold) <= 0;
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see edu.mit.spacenet.simulator.I_TraceSink#trace(edu.mit.spacenet.simulator.TraceLevel,
+   * double, edu.mit.spacenet.simulator.event.I_Event, java.util.Collection, java.lang.String,
+   * java.lang.Object[])
+   */
+  public void trace(TraceLevel level, double time, I_Event event,
+      Collection<? extends I_Element> elements, String format, Object... args) {
+    if (isEnabled(level)) {
+      String message = String.format("%.3f: %s\n", time, String.format(format, args));
+      (out == null ? System.out : out).print(message);
+    }
+  }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet.simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import edu.mit.spacenet.domain.ClassOfSupply;
+import edu.mit.spacenet.domain.element.I_Element;
+import edu.mit.spacenet.domain.network.Location;
+import edu.mit.spacenet.domain.resource.Demand;
+
+/**
+ * Indices over a simulator's unsatisfied demand history: by element uid, by location tid, by base
+ * class of supply within each element and location, and by time (demands are logged as the
+ * simulation advances, so the history itself is sorted by time). The index follows the history
+ * list incrementally, indexing only demands appended since the last query, and rebuilds itself if
+ * the list is replaced or shrinks; it must be cleared if the list is cleared and refilled. Every
+ * query returns a new list of demands in history order. Updates and queries are synchronized, so
+ * the simulator's demand history can be queried from several threads (e.g. report panels).
+ * 
+ * @author Paul Grogan
+ */
+class DemandHistoryIndex {
+  private List<SimDemand> history;
+  private int indexed;
+  private Map<Integer, Bucket> byElement;
+  private Map<Integer, Bucket> byLocation;
+  private double[] times;
+  private boolean timeOrdered;
+
+  /**
+   * Instantiates a new, empty index.
+   */
+  DemandHistoryIndex() {
+    reset(null);
+  }
+
+  /**
+   * Removes all indexed demands.
+   */
+  synchronized void clear() {
+    reset(null);
+  }
+
+  private void reset(List<SimDemand> history) {
+    this.history = history;
+    indexed = 0;
+    byElement = new HashMap<Integer, Bucket>();
+    byLocation = new HashMap<Integer, Bucket>();
+    times = new double[16];
+    timeOrdered = true;
+  }
+
+  /**
+   * Brings the index up to date with a demand history.
+   * 
+   * @param history the demand history
+   */
+  synchronized void update(List<SimDemand> history) {
+    if (history != this.history || history.size() < indexed) {
+      reset(history);
+    }
+    for (; indexed < history.size(); indexed++) {
+      SimDemand demand = history.get(indexed);
+      if (demand.getElement() != null) {
+        getBucket(byElement, demand.getElement().getUid()).add(demand);
+      }
+      if (demand.getLocation() != null) {
+        getBucket(byLocation, demand.getLocation().getTid()).add(demand);
+      }
+      addTime(demand.getTime());
+    }
+  }
+
+  private static Bucket getBucket(Map<Integer, Bucket> buckets, int key) {
+    Bucket bucket = buckets.get(key);
+    if (bucket == null) {
+      bucket = new Bucket();
+      buckets.put(key, bucket);
+    }
+    return bucket;
+  }
+
+  private void addTime(double time) {
+    if (indexed == times.length) {
+      times = Arrays.copyOf(times, 2 * indexed);
+    }
+    if (indexed > 0 && times[indexed - 1] > time) {
+      // demands are logged as simulation time advances, so this only happens if the history was
+      // built some other way; fall back to scanning
+      timeOrdered = false;
+    }
+    times[indexed] = time;
+  }
+
+  /**
+   * Gets the position of the first demand logged after a time.
+   */
+  private int upperBound(double time, int size) {
+    int low = 0, high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (times[mid] <= time) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Gets the demands of an element.
+   * 
+   * @param element the element
+   * @return the demands
+   */
+  synchronized List<SimDemand> getDemands(I_Element element) {
+    Bucket bucket = byElement.get(element.getUid());
+    List<SimDemand> demands = new ArrayList<SimDemand>();
+    if (bucket != null) {
+      for (SimDemand d : bucket.all) {
+        if (element.equals(d.getElement())) {
+          demands.add(d);
+        }
+      }
+    }
+    return demands;
+  }
+
+  /**
+   * Gets the demands of an element that include a class of supply's base class.
+   * 
+   * @param element the element
+   * @param cos the class of supply
+   * @return the candidate demands
+   */
+  synchronized List<SimDemand> getDemands(I_Element element, ClassOfSupply cos) {
+    Bucket bucket = byElement.get(element.getUid());
+    return bucket == null ? new ArrayList<SimDemand>() : bucket.get(cos);
+  }
+
+  /**
+   * Gets the demands at a location.
+   * 
+   * @param location the location
+   * @return the demands
+   */
+  synchronized List<SimDemand> getDemands(Location location) {
+    Bucket bucket = byLocation.get(location.getTid());
+    List<SimDemand> demands = new ArrayList<SimDemand>();
+    if (bucket != null) {
+      for (SimDemand d : bucket.all) {
+        if (location.equals(d.getLocation())) {
+          demands.add(d);
+        }
+      }
+    }
+    return demands;
+  }
+
+  /**
+   * Gets the demands at a location that include a class of supply's base class.
+   * 
+   * @param location the location
+   * @param cos the class of supply
+   * @return the candidate demands
+   */
+  synchronized List<SimDemand> getDemands(Location location, ClassOfSupply cos) {
+    Bucket bucket = byLocation.get(location.getTid());
+    return bucket == null ? new ArrayList<SimDemand>() : bucket.get(cos);
+  }
+
+  /**
+   * Gets the demands logged in a time window.
+   * 
+   * @param startTime the start time (exclusive)
+   * @param endTime the end time (inclusive)
+   * @return the demands
+   */
+  synchronized List<SimDemand> getDemands(double startTime, double endTime) {
+    List<SimDemand> demands = new ArrayList<SimDemand>();
+    if (timeOrdered) {
+      for (int i = upperBound(startTime, indexed); i < indexed && times[i] <= endTime; i++) {
+        demands.add(history.get(i));
+      }
+    } else {
+      for (int i = 0; i < indexed; i++) {
+        if (times[i] > startTime && times[i] <= endTime) {
+          demands.add(history.get(i));
+        }
+      }
+    }
+    return demands;
+  }
+
+  /**
+   * The demands of one element or location, in history order, with sub-lists of the demands that
+   * include each base class of supply.
+   */
+  private static class Bucket {
+    private final List<SimDemand> all = new ArrayList<SimDemand>();
+    private final Map<ClassOfSupply, List<SimDemand>> byBaseClass =
+        new EnumMap<ClassOfSupply, List<SimDemand>>(ClassOfSupply.class);
+
+    private void add(SimDemand demand) {
+      all.add(demand);
+      Set<ClassOfSupply> bases = EnumSet.noneOf(ClassOfSupply.class);
+      for (Demand d : demand.getDemands()) {
+        if (d.getResource() != null && d.getResource().getClassOfSupply() != null) {
+          bases.add(d.getResource().getClassOfSupply().getBaseClass());
+        }
+      }
+      for (ClassOfSupply base : bases) {
+        List<SimDemand> demands = byBaseClass.get(base);
+        if (demands == null) {
+          demands = new ArrayList<SimDemand>();
+          byBaseClass.put(base, demands);
+        }
+        demands.add(demand);
+      }
+    }
+
+    private List<SimDemand> get(ClassOfSupply cos) {
+      List<SimDemand> demands = byBaseClass.get(cos.getBaseClass());
+      return demands == null ? new ArrayList<SimDemand>() : new ArrayList<SimDemand>(demands);
+    }
+  }
+}
@@ -16,7 +16,7 @@ package edu.mit.spacenet.simulator;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
@@ -38,6 +38,7 @@ import edu.mit.spacenet.scenario.Mission;
 import edu.mit.spacenet.scenario.RepairItem;
 import edu.mit.spacenet.scenario.Scenario;
 import edu.mit.spacenet.scenario.SupplyEdge;
+import edu.mit.spacenet.scenario.SupplyNetworkIndex;
 import edu.mit.spacenet.scenario.SupplyPoint;
 import edu.mit.spacenet.simulator.event.I_Transport;
 import edu.mit.spacenet.simulator.event.SurfaceTransport;
@@ -78,9 +79,9 @@ public class DemandSimulator extends AbstractSimulator {
   /*
    * (non-Javadoc)
    * 
-   * @see edu.mit.spacenet.simulator.I_Simulator#simulate()
+   * @see edu.mit.spacenet.simulator.AbstractSimulator#runSimulation()
    */
-  public void simulate() {
+  protected void runSimulation() {
     initializeSimulation();
 
     sortedRepairItems.clear();
@@ -104,7 +105,7 @@ public class DemandSimulator extends AbstractSimulator {
 
       // find supply edges and supply points
       if (event instanceof I_Transport) {
-        HashSet<I_Carrier> carriers = new HashSet<I_Carrier>();
+        Set<I_Carrier> carriers = new LinkedHashSet<I_Carrier>();
         for (I_Element element : ((I_Transport) event).getElements()) {
           if (element instanceof I_Carrier) {
             carriers.add((I_Carrier) SerializeUtil.deepClone(element));
@@ -170,35 +171,28 @@ public class DemandSimulator extends AbstractSimulator {
   }
 
   private void aggregateDemands() {
+    SupplyNetworkIndex index = new SupplyNetworkIndex(supplyEdges, supplyPoints);
     for (SimDemand demand : getUnsatisfiedDemands()) {
       if (demand.getLocation() instanceof Node) {
-        SupplyPoint point = null;
-        for (SupplyPoint p : supplyPoints) {
-          if (p.getNode().equals(demand.getLocation()) && p.getTime() <= demand.getTime()
-              && (point == null || p.getTime() > point.getTime())) {
-            point = p;
-          }
-        }
+        SupplyPoint point = index.getSupplyPoint((Node) demand.getLocation(), demand.getTime());
         if (point == null && demand.getLocation() instanceof SurfaceNode
             && ((SurfaceNode) demand.getLocation()).getBody() == Body.EARTH) {
           // ignore demands at earth surface nodes
         } else if (point == null) {
-          System.out.println("No supply point found to satisfy demands! " + demand.getTime() + " "
-              + demand.getDemands());
+          if (getTraceSink().isEnabled(TraceLevel.WARNING)) {
+            getTraceSink().trace(TraceLevel.WARNING, demand.getTime(), demand.getEvent(), null,
+                "No supply point found to satisfy demands! %s", demand.getDemands());
+          }
         } else {
           aggregatedNodeDemands.get(point).addAll(demand.getDemands());
         }
       } else if (demand.getLocation() instanceof Edge) {
-        SupplyEdge edge = null;
-        for (SupplyEdge e : supplyEdges) {
-          if (e.getEdge().equals((demand.getLocation())) && demand.getTime() >= e.getStartTime()
-              && demand.getTime() <= e.getEndTime()) {
-            edge = e;
-          }
-        }
+        SupplyEdge edge = index.getSupplyEdge((Edge) demand.getLocation(), demand.getTime());
         if (edge == null) {
-          System.out.println("No supply edge found to satisfy demands! " + demand.getTime() + " "
-              + demand.getDemands());
+          if (getTraceSink().isEnabled(TraceLevel.WARNING)) {
+            getTraceSink().trace(TraceLevel.WARNING, demand.getTime(), demand.getEvent(), null,
+                "No supply edge found to satisfy demands! %s", demand.getDemands());
+          }
         } else {
           aggregatedEdgeDemands.get(edge).addAll(demand.getDemands());
         }
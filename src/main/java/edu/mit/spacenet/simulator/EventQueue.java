@@ -0,0 +1,180 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet.simulator;
+
+import java.util.Arrays;
+
+import edu.mit.spacenet.simulator.event.I_Event;
+
+/**
+ * The queue of scheduled simulation events, ordered the same way as
+ * {@link edu.mit.spacenet.simulator.event.AbstractEvent#compareTo(I_Event)}: by time, then
+ * priority, then name. Each event's (rounded) time and priority are read once when it is scheduled
+ * and kept in primitive arrays alongside a binary heap, so ordering the queue does not call back
+ * into the events; names are only compared between events scheduled for the same time and
+ * priority. Events that tie on all three are executed in the order they were scheduled, so replay
+ * order is fully deterministic.
+ * 
+ * <p>
+ * An event's time and priority must not be changed while it is scheduled.
+ * 
+ * @author Paul Grogan
+ */
+public final class EventQueue {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private I_Event[] events;
+  private double[] times;
+  private int[] priorities;
+  private long[] sequences;
+  private int size;
+  private long nextSequence;
+
+  /**
+   * Instantiates a new, empty event queue.
+   */
+  public EventQueue() {
+    events = new I_Event[INITIAL_CAPACITY];
+    times = new double[INITIAL_CAPACITY];
+    priorities = new int[INITIAL_CAPACITY];
+    sequences = new long[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Schedules an event.
+   * 
+   * @param event the event
+   */
+  public void add(I_Event event) {
+    if (size == events.length) {
+      int capacity = 2 * size;
+      events = Arrays.copyOf(events, capacity);
+      times = Arrays.copyOf(times, capacity);
+      priorities = Arrays.copyOf(priorities, capacity);
+      sequences = Arrays.copyOf(sequences, capacity);
+    }
+    double time = event.getTime();
+    int priority = event.getPriority();
+    long sequence = nextSequence++;
+    int i = size++;
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (compare(time, priority, event, sequence, parent) >= 0) {
+        break;
+      }
+      move(parent, i);
+      i = parent;
+    }
+    set(i, event, time, priority, sequence);
+  }
+
+  /**
+   * Gets the next event without removing it.
+   * 
+   * @return the next event, null if the queue is empty
+   */
+  public I_Event peek() {
+    return size == 0 ? null : events[0];
+  }
+
+  /**
+   * Removes and returns the next event.
+   * 
+   * @return the next event, null if the queue is empty
+   */
+  public I_Event poll() {
+    if (size == 0) {
+      return null;
+    }
+    I_Event next = events[0];
+    int last = --size;
+    I_Event event = events[last];
+    double time = times[last];
+    int priority = priorities[last];
+    long sequence = sequences[last];
+    events[last] = null;
+    if (last > 0) {
+      int i = 0;
+      int half = last >>> 1;
+      while (i < half) {
+        int child = 2 * i + 1;
+        int right = child + 1;
+        if (right < last && compare(times[right], priorities[right], events[right],
+            sequences[right], child) < 0) {
+          child = right;
+        }
+        if (compare(time, priority, event, sequence, child) <= 0) {
+          break;
+        }
+        move(child, i);
+        i = child;
+      }
+      set(i, event, time, priority, sequence);
+    }
+    return next;
+  }
+
+  /**
+   * Gets the number of scheduled events.
+   * 
+   * @return the number of events
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Checks if no events are scheduled.
+   * 
+   * @return true, if the queue is empty
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes all scheduled events.
+   */
+  public void clear() {
+    Arrays.fill(events, 0, size, null);
+    size = 0;
+  }
+
+  /**
+   * Compares an event key with the key at a heap position.
+   */
+  private int compare(double time, int priority, I_Event event, long sequence, int i) {
+    if (time != times[i]) {
+      return time < times[i] ? -1 : 1;
+    } else if (priority != priorities[i]) {
+      return priority < priorities[i] ? -1 : 1;
+    }
+    int names = event.getName().compareTo(events[i].getName());
+    if (names != 0) {
+      return names;
+    }
+    return Long.compare(sequence, sequences[i]);
+  }
+
+  private void move(int from, int to) {
+    set(to, events[from], times[from], priorities[from], sequences[from]);
+  }
+
+  private void set(int i, I_Event event, double time, int priority, long sequence) {
+    events[i] = event;
+    times[i] = time;
+    priorities[i] = priority;
+    sequences[i] = sequence;
+  }
+}
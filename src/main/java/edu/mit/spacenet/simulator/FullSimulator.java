@@ -20,7 +20,6 @@ import edu.mit.spacenet.domain.ClassOfSupply;
 import edu.mit.spacenet.domain.element.CrewMember;
 import edu.mit.spacenet.domain.element.I_Carrier;
 import edu.mit.spacenet.domain.element.I_Element;
-import edu.mit.spacenet.domain.network.Network;
 import edu.mit.spacenet.domain.network.edge.SurfaceEdge;
 import edu.mit.spacenet.domain.network.node.Body;
 import edu.mit.spacenet.domain.network.node.OrbitalNode;
@@ -35,7 +34,6 @@ import edu.mit.spacenet.simulator.moe.MoeExplorationCapability;
 import edu.mit.spacenet.simulator.moe.MoeExplorationMassDelivered;
 import edu.mit.spacenet.simulator.moe.MoeLaunchMass;
 import edu.mit.spacenet.simulator.moe.MoeMassCapacityUtilization;
-import edu.mit.spacenet.util.SerializeUtil;
 
 /**
  * A simulator that logs and generates measures of effectiveness.
@@ -43,7 +41,7 @@ import edu.mit.spacenet.util.SerializeUtil;
  * @author Paul Grogan
  */
 public class FullSimulator extends AbstractSimulator {
-  private List<SimNetwork> networkHistory;
+  private NetworkHistory networkHistory;
   private List<MoeCrewSurfaceDays> crewSurfaceDaysHistory;
   private List<MoeCrewTime> crewTimeHistory;
   private List<MoeExplorationMassDelivered> explorationMassDeliveredHistory;
@@ -61,7 +59,7 @@ public class FullSimulator extends AbstractSimulator {
     super(scenario);
     setPackingDemandsAdded(false);
     setItemsRepaired(true);
-    networkHistory = new ArrayList<SimNetwork>();
+    networkHistory = new NetworkHistory();
     crewSurfaceDaysHistory = new ArrayList<MoeCrewSurfaceDays>();
     crewTimeHistory = new ArrayList<MoeCrewTime>();
     explorationMassDeliveredHistory = new ArrayList<MoeExplorationMassDelivered>();
@@ -74,9 +72,9 @@ public class FullSimulator extends AbstractSimulator {
   /*
    * (non-Javadoc)
    * 
-   * @see edu.mit.spacenet.simulator.I_Simulator#simulate()
+   * @see edu.mit.spacenet.simulator.AbstractSimulator#runSimulation()
    */
-  public void simulate() {
+  protected void runSimulation() {
     initializeSimulation();
     networkHistory.clear();
     crewSurfaceDaysHistory.clear();
@@ -90,10 +88,9 @@ public class FullSimulator extends AbstractSimulator {
     scheduleManifestEvents();
 
     // save initial conditions
-    networkHistory.add(
-        new SimNetwork(getTime(), (Network) SerializeUtil.deepClone(getScenario().getNetwork())));
+    networkHistory.record(getTime(), getScenario().getNetwork());
 
-    // simulate events, serializing and saving after each time step
+    // simulate events, journaling the network after each time step
     while (getEvents().peek() != null) {
       getNextEvent();
 
@@ -206,8 +203,7 @@ public class FullSimulator extends AbstractSimulator {
       executeEvent();
 
       if (getEvents().peek() == null || getEvents().peek().getTime() > getTime())
-        networkHistory.add(new SimNetwork(getTime(),
-            (Network) SerializeUtil.deepClone(getScenario().getNetwork())));
+        networkHistory.record(getTime(), getScenario().getNetwork());
     }
   }
 
@@ -216,7 +212,7 @@ public class FullSimulator extends AbstractSimulator {
    * 
    * @return the network history
    */
-  public List<SimNetwork> getNetworkHistory() {
+  public NetworkHistory getNetworkHistory() {
     return networkHistory;
   }
 
@@ -22,6 +22,7 @@ import edu.mit.spacenet.domain.resource.DemandSet;
 import edu.mit.spacenet.scenario.Mission;
 import edu.mit.spacenet.scenario.Scenario;
 import edu.mit.spacenet.simulator.event.I_Event;
+import edu.mit.spacenet.util.SimulationContext;
 
 /**
  * Interface for a simulator that executes events and updates a network of objects.
@@ -35,6 +36,14 @@ public interface I_Simulator {
    */
   public void simulate();
 
+  /**
+   * Gets the context that holds the scenario options and unique identifier sequence in effect while
+   * this simulator runs.
+   * 
+   * @return the simulation context
+   */
+  public SimulationContext getContext();
+
   /**
    * Gets the current simulation time.
    * 
@@ -63,6 +72,28 @@ public interface I_Simulator {
    */
   public List<SimError> getErrors();
 
+  /**
+   * Reports an error that occurs during simulation. Events report problems that should not abort
+   * their execution (such as unsatisfied demands) through this method rather than throwing them.
+   * 
+   * @param error the error
+   */
+  public void report(SimError error);
+
+  /**
+   * Reports a warning that occurs during simulation.
+   * 
+   * @param warning the warning
+   */
+  public void report(SimWarning warning);
+
+  /**
+   * Gets the sink that receives simulation trace messages.
+   * 
+   * @return the trace sink
+   */
+  public I_TraceSink getTraceSink();
+
   /**
    * Gets a list of spatial errors generated during simulation.
    * 
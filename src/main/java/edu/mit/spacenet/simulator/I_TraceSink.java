@@ -0,0 +1,59 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet.simulator;
+
+import java.util.Collection;
+
+import edu.mit.spacenet.domain.element.I_Element;
+import edu.mit.spacenet.simulator.event.I_Event;
+
+/**
+ * Interface for a receiver of simulation trace messages. Messages are passed as a format string and
+ * arguments so that sinks which do not print text never format them, and callers check
+ * {@link #isEnabled(TraceLevel)} before building the arguments, for example:
+ * 
+ * <pre>
+ * I_TraceSink trace = simulator.getTraceSink();
+ * if (trace.isEnabled(TraceLevel.INFO)) {
+ *   trace.trace(TraceLevel.INFO, getTime(), this, elements, "Transferring %s to %s", elements,
+ *       container);
+ * }
+ * </pre>
+ * 
+ * @author Paul Grogan
+ */
+public interface I_TraceSink {
+
+  /**
+   * Checks whether messages of a level are traced.
+   * 
+   * @param level the message level
+   * 
+   * @return true, if messages of the level are traced
+   */
+  public boolean isEnabled(TraceLevel level);
+
+  /**
+   * Traces a message.
+   * 
+   * @param level the message level
+   * @param time the simulation time of the message
+   * @param event the event being executed, null if none
+   * @param elements the elements involved, null if none
+   * @param format the message format string (see {@link String#format(String, Object...)})
+   * @param args the message format arguments
+   */
+  public void trace(TraceLevel level, double time, I_Event event,
+      Collection<? extends I_Element> elements, String format, Object... args);
+}
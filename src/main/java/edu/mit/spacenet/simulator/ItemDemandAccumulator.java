@@ -0,0 +1,154 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet.simulator;
+
+import edu.mit.spacenet.domain.Environment;
+import edu.mit.spacenet.domain.resource.Item;
+
+/**
+ * Accumulates fractional item demands for item discretization. Accumulators are primitive doubles
+ * held in an open-addressing hash table keyed by an owner identifier (see
+ * {@link #getElementOwner(int)}, {@link #getLocationOwner(int, boolean)}, and
+ * {@link #SCENARIO_OWNER}) and an item, which like item equality includes the item tid and its
+ * environment.
+ * 
+ * @author Paul Grogan
+ */
+class ItemDemandAccumulator {
+  private static final int INITIAL_CAPACITY = 64;
+
+  /** The owner identifier of demands discretized over the whole scenario. */
+  static final int SCENARIO_OWNER = 0;
+
+  private long[] keys;
+  private double[] values;
+  private boolean[] used;
+  private int size;
+
+  /**
+   * Instantiates a new, empty accumulator.
+   */
+  ItemDemandAccumulator() {
+    clear();
+  }
+
+  /**
+   * Gets the owner identifier of demands discretized by element.
+   * 
+   * @param uid the element uid
+   * @return the owner identifier
+   */
+  static int getElementOwner(int uid) {
+    return uid;
+  }
+
+  /**
+   * Gets the owner identifier of demands discretized by location. Node and edge tids overlap, so
+   * the identifier also records whether the location is an edge.
+   * 
+   * @param tid the location tid
+   * @param isEdge whether the location is an edge
+   * @return the owner identifier
+   */
+  static int getLocationOwner(int tid, boolean isEdge) {
+    return tid << 1 | (isEdge ? 1 : 0);
+  }
+
+  /**
+   * Removes all accumulated demands.
+   */
+  void clear() {
+    keys = new long[INITIAL_CAPACITY];
+    values = new double[INITIAL_CAPACITY];
+    used = new boolean[INITIAL_CAPACITY];
+    size = 0;
+  }
+
+  /**
+   * Adds a fractional demand to an accumulator and removes the whole units it can satisfy. Whole
+   * units are removed one at a time while the accumulated amount is at least the aggregation
+   * threshold, so for an accumulated amount {@code a} and threshold {@code t} the number of units is
+   * the smallest {@code n >= 0} with {@code a - n < t}.
+   * 
+   * @param owner the owner identifier
+   * @param item the item
+   * @param amount the demanded amount
+   * @param aggregation the aggregation threshold
+   * @return the number of whole units demanded
+   */
+  double discretize(int owner, Item item, double amount, double aggregation) {
+    int itemKey = item.getTid() * Environment.values().length + item.getEnvironment().ordinal();
+    int slot = getSlot(((long) owner << 32) | (itemKey & 0xffffffffL));
+    double accumulated = values[slot] + amount;
+    long units = 0;
+    if (accumulated >= aggregation) {
+      // a - k is exact for integer k while |a| < 2^53, so correct the floor estimate in place
+      units = Math.max(1, (long) Math.floor(accumulated - aggregation) + 1);
+      while (units > 1 && accumulated - (units - 1) < aggregation) {
+        units--;
+      }
+      while (accumulated - units >= aggregation) {
+        units++;
+      }
+    }
+    values[slot] = accumulated - units;
+    return units;
+  }
+
+  private int getSlot(long key) {
+    int mask = keys.length - 1;
+    int slot = hash(key) & mask;
+    while (used[slot]) {
+      if (keys[slot] == key) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    if (2 * (size + 1) > keys.length) {
+      grow();
+      return getSlot(key);
+    }
+    used[slot] = true;
+    keys[slot] = key;
+    values[slot] = 0;
+    size++;
+    return slot;
+  }
+
+  private void grow() {
+    long[] oldKeys = keys;
+    double[] oldValues = values;
+    boolean[] oldUsed = used;
+    keys = new long[oldKeys.length * 2];
+    values = new double[oldKeys.length * 2];
+    used = new boolean[oldKeys.length * 2];
+    int mask = keys.length - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldUsed[i]) {
+        int slot = hash(oldKeys[i]) & mask;
+        while (used[slot]) {
+          slot = (slot + 1) & mask;
+        }
+        used[slot] = true;
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  private static int hash(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+}
@@ -39,9 +39,9 @@ public class MiniSimulator extends AbstractSimulator {
   /*
    * (non-Javadoc)
    * 
-   * @see edu.mit.spacenet.simulator.I_Simulator#simulate()
+   * @see edu.mit.spacenet.simulator.AbstractSimulator#runSimulation()
    */
-  public void simulate() {
+  protected void runSimulation() {
     initializeSimulation();
     locationHistory.clear();
 
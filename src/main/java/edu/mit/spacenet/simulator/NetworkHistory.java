@@ -0,0 +1,523 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet.simulator;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import edu.mit.spacenet.domain.I_Container;
+import edu.mit.spacenet.domain.element.I_Element;
+import edu.mit.spacenet.domain.element.I_State;
+import edu.mit.spacenet.domain.element.PartApplication;
+import edu.mit.spacenet.domain.element.PropulsiveVehicle;
+import edu.mit.spacenet.domain.element.ResourceContainer;
+import edu.mit.spacenet.domain.element.ResourceTank;
+import edu.mit.spacenet.domain.element.SurfaceVehicle;
+import edu.mit.spacenet.domain.network.Network;
+import edu.mit.spacenet.domain.network.edge.Edge;
+import edu.mit.spacenet.domain.network.node.Node;
+import edu.mit.spacenet.domain.resource.I_Resource;
+import edu.mit.spacenet.util.GlobalParameters;
+import edu.mit.spacenet.util.SerializeUtil;
+
+/**
+ * A journal of the scenario network over the course of a simulation. Rather than storing a full
+ * copy of the network after every time step, the journal stores periodic keyframes (full copies)
+ * and, for the steps in between, a delta of the elements whose container, registration, current
+ * state, resource amounts, or part quantities (reduced by scavenging) changed. Steps that introduce new elements to the network are always
+ * stored as keyframes.
+ *
+ * The network at any recorded step is reconstructed on demand by copying the nearest earlier
+ * keyframe (or recently reconstructed step) and applying the intervening deltas. Reconstructed
+ * networks are cached and must be treated as read-only.
+ *
+ * @author Paul Grogan
+ */
+public class NetworkHistory extends AbstractList<SimNetwork> {
+  /** The default number of steps between keyframes. */
+  public static final int DEFAULT_KEYFRAME_INTERVAL = 32;
+  private static final int CACHE_SIZE = 4;
+
+  private final int keyframeInterval;
+  private double[] times;
+  private int size;
+  private int[] keyframeSteps;
+  private int keyframeCount;
+  private List<Network> keyframes;
+  private List<ElementRecord[]> deltas;
+  private Map<Integer, ElementRecord> lastRecords;
+  private LinkedHashMap<Integer, Network> cache;
+
+  /**
+   * Instantiates a new network history with the default keyframe interval.
+   */
+  public NetworkHistory() {
+    this(DEFAULT_KEYFRAME_INTERVAL);
+  }
+
+  /**
+   * Instantiates a new network history.
+   *
+   * @param keyframeInterval the maximum number of steps between keyframes
+   */
+  public NetworkHistory(int keyframeInterval) {
+    this.keyframeInterval = Math.max(1, keyframeInterval);
+    times = new double[16];
+    keyframeSteps = new int[4];
+    keyframes = new ArrayList<Network>();
+    deltas = new ArrayList<ElementRecord[]>();
+    lastRecords = new HashMap<Integer, ElementRecord>();
+    cache = new LinkedHashMap<Integer, Network>(CACHE_SIZE, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, Network> eldest) {
+        return size() > CACHE_SIZE;
+      }
+    };
+  }
+
+  /**
+   * Records the state of the network at a simulation time.
+   *
+   * @param time the simulation time
+   * @param network the (live) scenario network
+   */
+  public void record(double time, Network network) {
+    List<ElementRecord> changes = new ArrayList<ElementRecord>();
+    boolean isKeyframe =
+        keyframeCount == 0 || size - keyframeSteps[keyframeCount - 1] >= keyframeInterval;
+    if (!isKeyframe) {
+      isKeyframe = findChanges(network.getRegistrar(), true, changes)
+          || findChanges(network.getRemovedRegistrar(), false, changes);
+    }
+    if (isKeyframe) {
+      lastRecords.clear();
+      for (I_Element element : network.getRegistrar().values()) {
+        lastRecords.put(element.getUid(), new ElementRecord(element, true));
+      }
+      for (I_Element element : network.getRemovedRegistrar().values()) {
+        lastRecords.put(element.getUid(), new ElementRecord(element, false));
+      }
+      if (keyframeCount == keyframeSteps.length) {
+        keyframeSteps = Arrays.copyOf(keyframeSteps, 2 * keyframeCount);
+      }
+      keyframeSteps[keyframeCount++] = size;
+      keyframes.add((Network) SerializeUtil.deepClone(network));
+      deltas.add(null);
+    } else {
+      for (ElementRecord record : changes) {
+        lastRecords.put(record.uid, record);
+      }
+      deltas.add(changes.toArray(new ElementRecord[changes.size()]));
+    }
+    if (size == times.length) {
+      times = Arrays.copyOf(times, 2 * size);
+    }
+    times[size++] = time;
+  }
+
+  /**
+   * Finds the elements in a registry whose records changed since the last recorded step.
+   *
+   * @param registrar the element registry
+   * @param registered whether the registry holds registered (true) or removed (false) elements
+   * @param changes the list of changed records to populate
+   *
+   * @return true if a keyframe is needed (new element or changed parts), false otherwise
+   */
+  private boolean findChanges(SortedMap<Integer, I_Element> registrar, boolean registered,
+      List<ElementRecord> changes) {
+    for (I_Element element : registrar.values()) {
+      ElementRecord last = lastRecords.get(element.getUid());
+      if (last == null || !last.isCompatible(element)) {
+        return true;
+      } else if (!last.matches(element, registered)) {
+        changes.add(new ElementRecord(element, registered));
+      }
+    }
+    return false;
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see java.util.AbstractList#get(int)
+   */
+  @Override
+  public SimNetwork get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return new SimNetwork(times[index], this, index);
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see java.util.AbstractCollection#size()
+   */
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /*
+   * (non-Javadoc)
+   *
+   * @see java.util.AbstractList#clear()
+   */
+  @Override
+  public void clear() {
+    size = 0;
+    keyframeCount = 0;
+    keyframes.clear();
+    deltas.clear();
+    lastRecords.clear();
+    cache.clear();
+    modCount++;
+  }
+
+  /**
+   * Gets the number of keyframes (full network copies) stored in the history.
+   *
+   * @return the number of keyframes
+   */
+  public int getKeyframeCount() {
+    return keyframeCount;
+  }
+
+  /**
+   * Gets the index of the last recorded step at or before a simulation time using a binary search.
+   *
+   * @param time the simulation time
+   *
+   * @return the step index, or -1 if the time precedes the first step
+   */
+  public int getIndex(double time) {
+    int low = 0;
+    int high = size - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (GlobalParameters.getSingleton().getRoundedTime(times[mid]) <= time) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return high;
+  }
+
+  /**
+   * Gets the (read-only) network at a recorded step, reconstructing it if necessary.
+   *
+   * @param index the step index
+   *
+   * @return the network
+   */
+  public synchronized Network getNetwork(int index) {
+    Network network = cache.get(index);
+    if (network != null) {
+      return network;
+    }
+    int keyframe = getKeyframe(index);
+    int baseStep = keyframeSteps[keyframe];
+    Network base = keyframes.get(keyframe);
+    for (Iterator<Map.Entry<Integer, Network>> i = cache.entrySet().iterator(); i.hasNext();) {
+      Map.Entry<Integer, Network> entry = i.next();
+      if (entry.getKey() > baseStep && entry.getKey() < index) {
+        baseStep = entry.getKey();
+        base = entry.getValue();
+      }
+    }
+    network = (Network) SerializeUtil.deepClone(base);
+    for (int step = baseStep + 1; step <= index; step++) {
+      for (ElementRecord record : deltas.get(step)) {
+        record.applyTo(network);
+      }
+    }
+    cache.put(index, network);
+    return network;
+  }
+
+  /**
+   * Gets the position of the last keyframe at or before a step using a binary search.
+   *
+   * @param index the step index
+   *
+   * @return the keyframe position
+   */
+  private int getKeyframe(int index) {
+    int low = 0;
+    int high = keyframeCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (keyframeSteps[mid] <= index) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return high;
+  }
+
+  /**
+   * The recorded state of one element: its container, registration, current state, resource
+   * amounts (including any integral fuel tanks), and part quantities.
+   */
+  private static class ElementRecord {
+    private static final int NONE = 0, ELEMENT = 1, NODE = 2, EDGE = 3;
+
+    private final int uid;
+    private final boolean registered;
+    private final int containerType;
+    private final int containerId;
+    private final int stateIndex;
+    private final I_Resource[] resources;
+    private final double[] amounts;
+    private final double[] partQuantities;
+
+    ElementRecord(I_Element element, boolean registered) {
+      uid = element.getUid();
+      this.registered = registered;
+      containerType = getContainerType(element.getContainer());
+      containerId = getContainerId(element.getContainer());
+      stateIndex = getStateIndex(element);
+      if (element instanceof ResourceContainer) {
+        SortedMap<I_Resource, Double> contents = ((ResourceContainer) element).getContents();
+        resources = contents.keySet().toArray(new I_Resource[contents.size()]);
+        amounts = new double[resources.length];
+        int i = 0;
+        for (Double amount : contents.values()) {
+          amounts[i++] = amount;
+        }
+      } else {
+        resources = null;
+        amounts = getAmounts(element);
+      }
+      partQuantities = new double[element.getParts().size()];
+      int i = 0;
+      for (PartApplication part : element.getParts()) {
+        partQuantities[i++] = part.getQuantity();
+      }
+    }
+
+    /**
+     * Checks whether this record can describe an element as a delta, i.e. the element has the same
+     * number of part applications (so the quantities line up).
+     *
+     * @param element the element
+     *
+     * @return true if the record is compatible, false if a keyframe is needed
+     */
+    boolean isCompatible(I_Element element) {
+      return partQuantities.length == element.getParts().size();
+    }
+
+    /**
+     * Checks whether this record still describes an element.
+     *
+     * @param element the element
+     * @param registered whether the element is registered
+     *
+     * @return true if the record matches, false otherwise
+     */
+    boolean matches(I_Element element, boolean registered) {
+      if (this.registered != registered
+          || containerType != getContainerType(element.getContainer())
+          || containerId != getContainerId(element.getContainer())
+          || stateIndex != getStateIndex(element)) {
+        return false;
+      }
+      int j = 0;
+      for (PartApplication part : element.getParts()) {
+        if (part.getQuantity() != partQuantities[j++]) {
+          return false;
+        }
+      }
+      if (element instanceof ResourceContainer) {
+        SortedMap<I_Resource, Double> contents = ((ResourceContainer) element).getContents();
+        if (contents.size() != resources.length) {
+          return false;
+        }
+        int i = 0;
+        for (Map.Entry<I_Resource, Double> entry : contents.entrySet()) {
+          if (!entry.getKey().equals(resources[i])
+              || entry.getValue().doubleValue() != amounts[i]) {
+            return false;
+          }
+          i++;
+        }
+        return true;
+      } else {
+        return Arrays.equals(amounts, getAmounts(element));
+      }
+    }
+
+    /**
+     * Applies this record to the corresponding element in a reconstructed network.
+     *
+     * @param network the reconstructed network
+     */
+    void applyTo(Network network) {
+      I_Element element = network.getRegistrar().get(uid);
+      if (element == null) {
+        element = network.getRemovedRegistrar().get(uid);
+      }
+      if (registered && !network.getRegistrar().containsKey(uid)) {
+        network.getRemovedRegistrar().remove(uid);
+        network.getRegistrar().put(uid, element);
+      } else if (!registered && network.getRegistrar().containsKey(uid)) {
+        network.getRegistrar().remove(uid);
+        network.getRemovedRegistrar().put(uid, element);
+      }
+      I_Container container = getContainer(network);
+      if (element.getContainer() != container) {
+        if (element.getContainer() != null) {
+          element.getContainer().getContents().remove(element);
+          element.getContainer().invalidateTotals();
+        }
+        if (container != null) {
+          container.getContents().add(element);
+        }
+        element.setContainer(container);
+        if (container != null) {
+          container.invalidateTotals();
+        }
+      }
+      if (stateIndex >= 0 && stateIndex != getStateIndex(element)) {
+        int i = 0;
+        for (I_State state : element.getStates()) {
+          if (i++ == stateIndex) {
+            element.setCurrentState(state);
+            break;
+          }
+        }
+      }
+      int j = 0;
+      boolean isPartChanged = false;
+      for (PartApplication part : element.getParts()) {
+        if (part.getQuantity() != partQuantities[j]) {
+          part.setQuantity(partQuantities[j]);
+          isPartChanged = true;
+        }
+        j++;
+      }
+      if (isPartChanged && element.getContainer() != null) {
+        element.getContainer().invalidateTotals();
+      }
+      if (element instanceof ResourceContainer) {
+        SortedMap<I_Resource, Double> contents = ((ResourceContainer) element).getContents();
+        contents.clear();
+        for (int i = 0; i < resources.length; i++) {
+          contents.put(resources[i], amounts[i]);
+        }
+        if (element.getContainer() != null) {
+          element.getContainer().invalidateTotals();
+        }
+      } else if (element instanceof ResourceTank) {
+        ((ResourceTank) element).setAmount(amounts[0]);
+      } else if (element instanceof PropulsiveVehicle) {
+        PropulsiveVehicle vehicle = (PropulsiveVehicle) element;
+        if (vehicle.getOmsFuelTank() != null) {
+          vehicle.getOmsFuelTank().setAmount(amounts[0]);
+        }
+        if (vehicle.getRcsFuelTank() != null) {
+          vehicle.getRcsFuelTank().setAmount(amounts[1]);
+        }
+      } else if (element instanceof SurfaceVehicle) {
+        if (((SurfaceVehicle) element).getFuelTank() != null) {
+          ((SurfaceVehicle) element).getFuelTank().setAmount(amounts[0]);
+        }
+      }
+    }
+
+    private I_Container getContainer(Network network) {
+      switch (containerType) {
+        case ELEMENT:
+          I_Element element = network.getRegistrar().get(containerId);
+          if (element == null) {
+            element = network.getRemovedRegistrar().get(containerId);
+          }
+          return (I_Container) element;
+        case NODE:
+          return network.getNodeByTid(containerId);
+        case EDGE:
+          return network.getEdgeByTid(containerId);
+        default:
+          return null;
+      }
+    }
+
+    private static int getContainerType(I_Container container) {
+      if (container instanceof I_Element) {
+        return ELEMENT;
+      } else if (container instanceof Node) {
+        return NODE;
+      } else if (container instanceof Edge) {
+        return EDGE;
+      } else {
+        return NONE;
+      }
+    }
+
+    private static int getContainerId(I_Container container) {
+      if (container instanceof I_Element) {
+        return ((I_Element) container).getUid();
+      } else if (container != null) {
+        return container.getTid();
+      } else {
+        return 0;
+      }
+    }
+
+    private static int getStateIndex(I_Element element) {
+      if (element.getCurrentState() == null) {
+        return -1;
+      }
+      int i = 0;
+      for (I_State state : element.getStates()) {
+        if (state.equals(element.getCurrentState())) {
+          return i;
+        }
+        i++;
+      }
+      return -1;
+    }
+
+    private static double[] getAmounts(I_Element element) {
+      if (element instanceof ResourceTank) {
+        return new double[] {((ResourceTank) element).getAmount()};
+      } else if (element instanceof PropulsiveVehicle) {
+        PropulsiveVehicle vehicle = (PropulsiveVehicle) element;
+        return new double[] {
+            vehicle.getOmsFuelTank() == null ? 0 : vehicle.getOmsFuelTank().getAmount(),
+            vehicle.getRcsFuelTank() == null ? 0 : vehicle.getRcsFuelTank().getAmount()};
+      } else if (element instanceof SurfaceVehicle) {
+        SurfaceVehicle vehicle = (SurfaceVehicle) element;
+        return new double[] {
+            vehicle.getFuelTank() == null ? 0 : vehicle.getFuelTank().getAmount()};
+      } else {
+        return null;
+      }
+    }
+  }
+}
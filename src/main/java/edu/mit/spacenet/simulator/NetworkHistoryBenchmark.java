@@ -0,0 +1,121 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet.simulator;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.mit.spacenet.domain.network.Network;
+import edu.mit.spacenet.io.XStreamEngine;
+import edu.mit.spacenet.scenario.Scenario;
+import edu.mit.spacenet.util.SerializeUtil;
+
+/**
+ * Memory benchmark of the full simulator's network history. For each scenario it reports the heap
+ * retained by the {@link NetworkHistory} journal and by a full copy of the network at every step
+ * (the history kept before the journal), both in total and per simulated year. Run with:
+ *
+ * <pre>
+ * java -cp spacenet-2.5.1470-jar-with-dependencies.jar \
+ *     edu.mit.spacenet.simulator.NetworkHistoryBenchmark scenario.xml...
+ * </pre>
+ *
+ * Retained heap is the drop in heap in use after garbage collection when the histories of several
+ * simulations are released, so results are approximate.
+ *
+ * @author Paul Grogan
+ */
+public class NetworkHistoryBenchmark {
+  private static final double DAYS_PER_YEAR = 365.25;
+  private static final int REPETITIONS = 10;
+
+  /**
+   * The main method.
+   *
+   * @param args the paths of the scenario files to benchmark
+   *
+   * @throws Exception the exception
+   */
+  public static void main(String[] args) throws Exception {
+    if (args.length == 0) {
+      System.err.println("Usage: NetworkHistoryBenchmark scenario.xml...");
+      System.exit(1);
+    }
+    for (String filePath : args) {
+      Scenario scenario = XStreamEngine.openScenario(filePath);
+      // warm up so lazily-initialized caches are not counted
+      simulate(scenario).getNetworkHistory().getNetwork(0);
+
+      // several simulations are held at once so measurement noise is small per history
+      List<FullSimulator> simulators = new ArrayList<FullSimulator>(REPETITIONS);
+      for (int i = 0; i < REPETITIONS; i++) {
+        simulators.add(simulate(scenario));
+      }
+      NetworkHistory history = simulators.get(0).getNetworkHistory();
+      int steps = history.size();
+      int keyframes = history.getKeyframeCount();
+      double years = simulators.get(0).getTime() / DAYS_PER_YEAR;
+      long used = getUsedHeap();
+      for (FullSimulator simulator : simulators) {
+        simulator.getNetworkHistory().clear();
+      }
+      long journal = (used - getUsedHeap()) / REPETITIONS;
+
+      // rebuild the previous history: a full copy of the network at every step
+      List<Network> snapshots = new ArrayList<Network>(REPETITIONS * steps);
+      for (int i = 0; i < REPETITIONS; i++) {
+        history = simulate(scenario).getNetworkHistory();
+        for (int j = 0; j < steps; j++) {
+          snapshots.add((Network) SerializeUtil.deepClone(history.getNetwork(j)));
+        }
+      }
+      history = null;
+      used = getUsedHeap();
+      snapshots.clear();
+      long full = (used - getUsedHeap()) / REPETITIONS;
+
+      System.out.printf(
+          "%s: %d steps over %.2f years; journal %.1f KB (%.1f KB/yr, %d keyframes); "
+              + "full copies %.1f KB (%.1f KB/yr)%n",
+          scenario.getName(), steps, years, journal / 1024d, journal / 1024d / years, keyframes,
+          full / 1024d, full / 1024d / years);
+    }
+  }
+
+  private static FullSimulator simulate(Scenario scenario) {
+    FullSimulator simulator = new FullSimulator(scenario);
+    simulator.setTraceSink(new ConsoleTraceSink(TraceLevel.OFF));
+    simulator.simulate();
+    return simulator;
+  }
+
+  private static long getUsedHeap() {
+    long used = Long.MAX_VALUE;
+    // some collectors only fully compact every few collections, so take the least heap in use
+    for (int i = 0; i < 8; i++) {
+      System.gc();
+      long current = 0;
+      for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+        if (pool.getType() == MemoryType.HEAP) {
+          current += pool.getUsage().getUsed();
+        }
+      }
+      used = Math.min(used, current);
+    }
+    return used;
+  }
+}
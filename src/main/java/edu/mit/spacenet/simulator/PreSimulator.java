@@ -13,9 +13,15 @@
  */
 package edu.mit.spacenet.simulator;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.mit.spacenet.domain.network.Location;
+import edu.mit.spacenet.scenario.Mission;
 import edu.mit.spacenet.scenario.Scenario;
 import edu.mit.spacenet.simulator.event.I_Event;
 import edu.mit.spacenet.simulator.event.MissionEvent;
+import edu.mit.spacenet.util.SimulationContext;
 
 /**
  * A fast simulator that does not log any information.
@@ -23,6 +29,16 @@ import edu.mit.spacenet.simulator.event.MissionEvent;
  * @author Paul Grogan
  */
 public class PreSimulator extends AbstractSimulator {
+  private static final int MAX_QUERY_CHECKPOINTS = 2;
+
+  private boolean checkpointsEnabled;
+  private I_Event excludedEvent;
+  private boolean excludedMissionStarted;
+  private List<Checkpoint> checkpoints = new ArrayList<Checkpoint>();
+  private int queryCheckpoints;
+  private int eventsExecuted;
+  private double lastEventTime;
+  private int lastEventPriority;
 
   /**
    * The constructor sets the scenario.
@@ -36,9 +52,9 @@ public class PreSimulator extends AbstractSimulator {
   /*
    * (non-Javadoc)
    * 
-   * @see edu.mit.spacenet.simulator.I_Simulator#simulate()
+   * @see edu.mit.spacenet.simulator.AbstractSimulator#runSimulation()
    */
-  public void simulate() {
+  protected void runSimulation() {
     simulate(Double.MAX_VALUE, Integer.MAX_VALUE);
   }
 
@@ -89,18 +105,54 @@ public class PreSimulator extends AbstractSimulator {
    * @param reset whether to initialize before simulation
    */
   public void simulate(double time, int priority, boolean reset) {
-    if (getScenario() == null || reset) {
+    SimulationContext previous = getContext().activate();
+    try {
+      simulateEvents(time, priority, reset);
+    } finally {
+      previous.activate();
+    }
+  }
+
+  private void simulateEvents(double time, int priority, boolean reset) {
+    // checkpoints are only saved from runs that start at a clean state
+    boolean saveCheckpoints = checkpointsEnabled && (getScenario() == null || reset);
+    if (checkpointsEnabled && reset && !checkpoints.isEmpty()) {
+      restoreCheckpoint(getLatestCheckpoint(time, priority));
+    } else if (getScenario() == null || reset) {
       initializeSimulation();
+      eventsExecuted = 0;
+      excludedMissionStarted = false;
+      lastEventTime = Double.NEGATIVE_INFINITY;
+      lastEventPriority = Integer.MIN_VALUE;
+      if (saveCheckpoints) {
+        saveCheckpoint(false);
+      }
     }
     // simulate events up to target event
     while (getEvents().peek() != null && getEvents().peek().getTime() <= time
         && ((!(getEvents().peek() instanceof MissionEvent) && getEvents().peek().getTime() == time)
             ? getEvents().peek().getPriority() < priority
             : true)) {
+      if (excludedEvent != null && excludedEvent.equals(getEvents().peek())) {
+        getEvents().poll();
+        continue;
+      }
+      if (saveCheckpoints && getEvents().peek() instanceof MissionEvent) {
+        saveCheckpoint(false);
+      }
       getNextEvent();
       handleDemands(); // 7/12/2010: added demand cycle in pre-sim for pre-manifested resources
                        // (delta-v feasibility en route)
       executeEvent();
+      recordExecuted(event);
+      if (excludedEvent != null && event instanceof MissionEvent
+          && ((MissionEvent) event).getMission().getEventList().contains(excludedEvent)) {
+        // mission demands and transit durations read the excluded event's attributes
+        excludedMissionStarted = true;
+      }
+    }
+    if (saveCheckpoints) {
+      saveCheckpoint(true);
     }
     // 7-28-2011: added one last demands cycle to trigger demands before
     // prospective event (e.g. resource transfer)
@@ -108,4 +160,175 @@ public class PreSimulator extends AbstractSimulator {
     setTime(time);
     handleDemands();
   }
+
+  /**
+   * Checks if checkpoints are enabled. When enabled, the simulator keeps snapshots of its state at
+   * mission boundaries and at the end of each query so that a later simulation with reset can resume
+   * from the latest snapshot preceding its target instead of replaying the scenario from the start.
+   * 
+   * @return true, if checkpoints are enabled
+   */
+  public boolean isCheckpointsEnabled() {
+    return checkpointsEnabled;
+  }
+
+  /**
+   * Sets whether checkpoints are enabled. Checkpoints assume that the scenario is not modified
+   * between simulations; call {@link #invalidateCheckpoints()} after any change.
+   * 
+   * @param checkpointsEnabled whether checkpoints are enabled
+   */
+  public void setCheckpointsEnabled(boolean checkpointsEnabled) {
+    this.checkpointsEnabled = checkpointsEnabled;
+    if (!checkpointsEnabled) {
+      invalidateCheckpoints();
+    }
+  }
+
+  /**
+   * Gets the event excluded from simulation.
+   * 
+   * @return the excluded event, null if none
+   */
+  public I_Event getExcludedEvent() {
+    return excludedEvent;
+  }
+
+  /**
+   * Sets an event (matched by equality) to be skipped during simulation. Excluding an event that is
+   * being edited keeps checkpoints valid while its time, priority, or location change.
+   * 
+   * @param excludedEvent the event to exclude, null if none
+   */
+  public void setExcludedEvent(I_Event excludedEvent) {
+    this.excludedEvent = excludedEvent;
+    invalidateCheckpoints();
+  }
+
+  /**
+   * Discards all checkpoints so that the next simulation replays the scenario from the start.
+   */
+  public void invalidateCheckpoints() {
+    checkpoints.clear();
+    queryCheckpoints = 0;
+  }
+
+  private void recordExecuted(I_Event event) {
+    if (event.getTime() > lastEventTime || eventsExecuted == 0) {
+      lastEventTime = event.getTime();
+      lastEventPriority = Integer.MIN_VALUE;
+    }
+    if (!(event instanceof MissionEvent)) {
+      lastEventPriority = Math.max(lastEventPriority, event.getPriority());
+    }
+    eventsExecuted++;
+  }
+
+  private void saveCheckpoint(boolean query) {
+    Checkpoint last = checkpoints.isEmpty() ? null : checkpoints.get(checkpoints.size() - 1);
+    if (last != null && last.eventsExecuted >= eventsExecuted) {
+      return;
+    }
+    if (query && queryCheckpoints >= MAX_QUERY_CHECKPOINTS) {
+      for (int i = 0; i < checkpoints.size(); i++) {
+        if (checkpoints.get(i).query) {
+          checkpoints.remove(i);
+          queryCheckpoints--;
+          break;
+        }
+      }
+    }
+    Checkpoint checkpoint = new Checkpoint(saveState(), eventsExecuted, lastEventTime,
+        lastEventPriority, query);
+    if (excludedMissionStarted) {
+      checkpoint.dependent = true;
+      checkpoint.excludedTime = excludedEvent.getTime();
+      checkpoint.excludedPriority = excludedEvent.getPriority();
+      checkpoint.excludedLocation = excludedEvent.getLocation();
+    }
+    checkpoints.add(checkpoint);
+    if (query) {
+      queryCheckpoints++;
+    }
+  }
+
+  private void restoreCheckpoint(Checkpoint checkpoint) {
+    restoreState(checkpoint.state);
+    eventsExecuted = checkpoint.eventsExecuted;
+    lastEventTime = checkpoint.lastEventTime;
+    lastEventPriority = checkpoint.lastEventPriority;
+    excludedMissionStarted = checkpoint.dependent;
+    if (excludedEvent != null) {
+      // the restored scenario clone still holds the excluded event as it was when saved
+      for (Mission mission : getScenario().getMissionList()) {
+        int index = mission.getEventList().indexOf(excludedEvent);
+        if (index >= 0) {
+          I_Event event = mission.getEventList().get(index);
+          event.setTime(excludedEvent.getTime());
+          event.setPriority(excludedEvent.getPriority());
+          event.setLocation(getLocation(excludedEvent.getLocation()));
+        }
+      }
+    }
+  }
+
+  private Location getLocation(Location location) {
+    if (location != null) {
+      for (Location l : getScenario().getNetwork().getLocations()) {
+        if (l.equals(location)) {
+          return l;
+        }
+      }
+    }
+    return location;
+  }
+
+  /**
+   * Gets the checkpoint with the most executed events whose executed events would all be executed
+   * by a simulation to the given time and priority. Checkpoints are kept in order of executed
+   * events, and the initial checkpoint (no executed events) is always valid. Checkpoints taken
+   * after the excluded event's mission started are only valid while that event is unchanged.
+   */
+  private Checkpoint getLatestCheckpoint(double time, int priority) {
+    for (int i = checkpoints.size() - 1; i > 0; i--) {
+      Checkpoint c = checkpoints.get(i);
+      if (c.dependent && (c.excludedTime != excludedEvent.getTime()
+          || c.excludedPriority != excludedEvent.getPriority()
+          || !equals(c.excludedLocation, excludedEvent.getLocation()))) {
+        continue;
+      }
+      if (c.lastEventTime < time || (c.lastEventTime == time && c.lastEventPriority < priority)) {
+        return c;
+      }
+    }
+    return checkpoints.get(0);
+  }
+
+  private static boolean equals(Location a, Location b) {
+    return a == null ? b == null : a.equals(b);
+  }
+
+  /**
+   * A saved simulation state with the bookkeeping needed to decide which queries it can serve.
+   */
+  private static class Checkpoint {
+    private final SimulationState state;
+    private final int eventsExecuted;
+    private final double lastEventTime;
+    private final int lastEventPriority;
+    private final boolean query;
+    private boolean dependent;
+    private double excludedTime;
+    private int excludedPriority;
+    private Location excludedLocation;
+
+    private Checkpoint(SimulationState state, int eventsExecuted, double lastEventTime,
+        int lastEventPriority, boolean query) {
+      this.state = state;
+      this.eventsExecuted = eventsExecuted;
+      this.lastEventTime = lastEventTime;
+      this.lastEventPriority = lastEventPriority;
+      this.query = query;
+    }
+  }
 }
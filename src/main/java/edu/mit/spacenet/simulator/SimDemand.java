@@ -41,14 +41,24 @@ public class SimDemand extends SimError {
    */
   public SimDemand(double time, I_Event event, Location location, I_Element element,
       DemandSet demands) {
-    super(time, event, "Insufficient resources for demand: " + demands);
+    super(time, event, null);
     this.location = location;
     this.element = element;
     demands.clean();
-    setMessage("Insufficient resources for demand: " + demands);
     this.demands = demands;
   }
 
+  /*
+   * (non-Javadoc)
+   * 
+   * @see edu.mit.spacenet.simulator.SimError#getMessage()
+   */
+  public String getMessage() {
+    // most logged demands are never displayed, so the message is built when it is requested
+    String message = super.getMessage();
+    return message == null ? "Insufficient resources for demand: " + demands : message;
+  }
+
   /**
    * Gets the location of the demand.
    * 
@@ -17,7 +17,10 @@ import edu.mit.spacenet.simulator.event.I_Event;
 import edu.mit.spacenet.util.GlobalParameters;
 
 /**
- * Represents an abstracted error that occurs during simulation.
+ * Represents an abstracted error that occurs during simulation. Errors are either thrown by an
+ * event to abort its execution or reported to the simulator with
+ * {@link I_Simulator#report(SimError)}; in both cases they are plain records of the problem, so
+ * they do not capture a stack trace.
  * 
  * @author Paul Grogan
  */
@@ -35,6 +38,7 @@ public abstract class SimError extends Exception implements Comparable<SimError>
    * @param message a message associated with the error
    */
   public SimError(double time, I_Event event, String message) {
+    super(null, null, false, false);
     this.time = time;
     this.event = event;
     this.message = message;
@@ -82,7 +86,7 @@ public abstract class SimError extends Exception implements Comparable<SimError>
    * @see java.lang.Throwable#toString()
    */
   public String toString() {
-    return event + " " + message;
+    return event + " " + getMessage();
   }
 
   /*
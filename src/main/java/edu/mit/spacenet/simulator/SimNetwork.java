@@ -24,6 +24,8 @@ import edu.mit.spacenet.util.GlobalParameters;
 public class SimNetwork implements Comparable<SimNetwork> {
   private double time;
   private Network network;
+  private NetworkHistory history;
+  private int index;
 
   /**
    * Instantiates a new sim network.
@@ -36,6 +38,19 @@ public class SimNetwork implements Comparable<SimNetwork> {
     this.network = network;
   }
 
+  /**
+   * Instantiates a new sim network whose network is reconstructed from a history on demand.
+   * 
+   * @param time the simulation time
+   * @param history the network history
+   * @param index the step index within the history
+   */
+  SimNetwork(double time, NetworkHistory history, int index) {
+    this.time = time;
+    this.history = history;
+    this.index = index;
+  }
+
   /**
    * Gets the simulation time of the log.
    * 
@@ -46,11 +61,15 @@ public class SimNetwork implements Comparable<SimNetwork> {
   }
 
   /**
-   * Gets the scenario network.
+   * Gets the scenario network. Networks reconstructed from a history are shared and must not be
+   * modified.
    * 
    * @return the network
    */
   public Network getNetwork() {
+    if (network == null && history != null) {
+      network = history.getNetwork(index);
+    }
     return network;
   }
 
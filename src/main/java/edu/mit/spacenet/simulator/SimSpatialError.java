@@ -32,6 +32,5 @@ public class SimSpatialError extends SimError {
    */
   public SimSpatialError(double time, I_Event event, String message) {
     super(time, event, message);
-    System.out.println("!!! Error: (" + event + ") " + message);
   }
 }
@@ -17,7 +17,8 @@ import edu.mit.spacenet.simulator.event.I_Event;
 import edu.mit.spacenet.util.GlobalParameters;
 
 /**
- * Represents a warning message that occurs during simulation.
+ * Represents a warning message that occurs during simulation. Warnings do not capture a stack
+ * trace.
  * 
  * @author Paul Grogan
  */
@@ -35,10 +36,10 @@ public class SimWarning extends Exception implements Comparable<SimWarning> {
    * @param message the warning message
    */
   public SimWarning(double time, I_Event event, String message) {
+    super(null, null, false, false);
     this.time = time;
     this.event = event;
     this.message = message;
-    System.out.println("!!! Warning: (" + event + ") " + message);
   }
 
   /**
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet.simulator;
+
+/**
+ * Enumeration of the levels of simulation trace messages, from the least to the most verbose.
+ * 
+ * @author Paul Grogan
+ */
+public enum TraceLevel {
+
+  /** No messages are traced (only used as a sink threshold). */
+  OFF("Off"),
+
+  /** Spatial errors and other problems that stop an event or a demand from being processed. */
+  ERROR("Error"),
+
+  /** Warnings about incomplete event definitions. */
+  WARNING("Warning"),
+
+  /** The execution of events. */
+  INFO("Info"),
+
+  /** Step-by-step details within events, such as individual propulsive burns. */
+  DEBUG("Debug");
+
+  private String name;
+
+  private TraceLevel(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Gets the name of the trace level.
+   * 
+   * @return the trace level name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /*
+   * (non-Javadoc)
+   * 
+   * @see java.lang.Enum#toString()
+   */
+  public String toString() {
+    return getName();
+  }
+
+  /**
+   * Gets a trace level instance based on a given name.
+   * 
+   * @param name the trace level name to match
+   * 
+   * @return the trace level, null if no match was found.
+   */
+  public static TraceLevel getInstance(String name) {
+    for (TraceLevel t : TraceLevel.values()) {
+      if (t.getName().toLowerCase().equals(name.toLowerCase())) {
+        return t;
+      }
+    }
+    return null;
+  }
+}
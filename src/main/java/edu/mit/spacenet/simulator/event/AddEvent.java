@@ -13,6 +13,8 @@
  */
 package edu.mit.spacenet.simulator.event;
 
+import java.util.Collections;
+
 import edu.mit.spacenet.domain.element.I_ResourceContainer;
 import edu.mit.spacenet.domain.resource.Demand;
 import edu.mit.spacenet.domain.resource.DemandSet;
@@ -20,6 +22,7 @@ import edu.mit.spacenet.simulator.I_Simulator;
 import edu.mit.spacenet.simulator.SimError;
 import edu.mit.spacenet.simulator.SimSpatialError;
 import edu.mit.spacenet.simulator.SimWarning;
+import edu.mit.spacenet.simulator.TraceLevel;
 
 /**
  * An event that adds resources to a resource container.
@@ -51,9 +54,12 @@ public class AddEvent extends AbstractEvent {
           + container.getLocation() + " instead of " + getLocation() + ".");
     }
     if (demands.size() == 0) {
-      simulator.getWarnings().add(new SimWarning(simulator.getTime(), this, "No demands defined."));
+      simulator.report(new SimWarning(simulator.getTime(), this, "No demands defined."));
     } else {
-      System.out.printf("%.3f: %s\n", getTime(), "Adding " + demands + " to " + container);
+      if (simulator.getTraceSink().isEnabled(TraceLevel.INFO)) {
+        simulator.getTraceSink().trace(TraceLevel.INFO, getTime(), this,
+            Collections.singleton(container), "Adding %s to %s", demands, container);
+      }
       for (Demand demand : demands) {
         if (container.add(demand.getResource(), demand.getAmount())) {
           // success
@@ -15,6 +15,7 @@ package edu.mit.spacenet.simulator.event;
 
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -26,6 +27,7 @@ import edu.mit.spacenet.domain.network.edge.BurnType;
 import edu.mit.spacenet.simulator.I_Simulator;
 import edu.mit.spacenet.simulator.SimError;
 import edu.mit.spacenet.simulator.SimSpatialError;
+import edu.mit.spacenet.simulator.TraceLevel;
 import edu.mit.spacenet.util.Formulae;
 
 /**
@@ -68,8 +70,11 @@ public class BurnEvent extends AbstractEvent {
           stackMass += element.getTotalMass();
         }
         if (burn.getBurnType() == BurnType.OMS) {
-          System.out.printf("%.3f: %s %.2f %s", getTime(),
-              "Starting " + v.getName() + " Burn (OMS) for target", deltaVReq, "m/s delta-V\n");
+          if (simulator.getTraceSink().isEnabled(TraceLevel.INFO)) {
+            simulator.getTraceSink().trace(TraceLevel.INFO, getTime(), this,
+                Collections.singleton(v), "Starting %s Burn (OMS) for target %.2f m/s delta-V",
+                v.getName(), deltaVReq);
+          }
           if (Formulae.getRequiredFuelMass(stackMass, deltaVReq, v.getOmsIsp()) > v.getOmsFuelTank()
               .getAmount()) {
             double deltaVAchieved = Formulae.getAchievedDeltaV(stackMass, v.getOmsIsp(),
@@ -85,9 +90,12 @@ public class BurnEvent extends AbstractEvent {
              * //d.setElement(v); d.setDemands(demands); //simulator.schedule(d);
              * d.execute(simulator);
              */
-            System.out.printf("%.3f: %s %.2f %s %.2f %s\n", getTime(),
-                v.getName() + " Burn (OMS) achieved", deltaVAchieved, "m/s delta-V,", deltaVReq,
-                "m/s delta-V remaining");
+            if (simulator.getTraceSink().isEnabled(TraceLevel.DEBUG)) {
+              simulator.getTraceSink().trace(TraceLevel.DEBUG, getTime(), this,
+                  Collections.singleton(v),
+                  "%s Burn (OMS) achieved %.2f m/s delta-V, %.2f m/s delta-V remaining",
+                  v.getName(), deltaVAchieved, deltaVReq);
+            }
           } else {
             v.getOmsFuelTank()
                 .remove(Formulae.getRequiredFuelMass(stackMass, deltaVReq, v.getOmsIsp()));
@@ -100,14 +108,20 @@ public class BurnEvent extends AbstractEvent {
              * d.setElement(v.getOmsFuelTank()); //d.setElement(v); d.setDemands(demands);
              * //simulator.schedule(d); d.execute(simulator);
              */
-            System.out.printf("%.3f: %s %.2f %s, %.2f %s\n", getTime(),
-                v.getName() + " Burn (OMS) achieved", deltaVReq, "m/s delta-V",
-                v.getOmsFuelTank().getCargoMass(), "kg fuel remaining");
+            if (simulator.getTraceSink().isEnabled(TraceLevel.DEBUG)) {
+              simulator.getTraceSink().trace(TraceLevel.DEBUG, getTime(), this,
+                  Collections.singleton(v),
+                  "%s Burn (OMS) achieved %.2f m/s delta-V, %.2f kg fuel remaining", v.getName(),
+                  deltaVReq, v.getOmsFuelTank().getCargoMass());
+            }
             deltaVReq = 0;
           }
         } else if (burn.getBurnType() == BurnType.RCS) {
-          System.out.printf("%.3f: %s %.2f %s", getTime(),
-              "Starting " + v.getName() + " Burn (RCS) for target", deltaVReq, "m/s delta-V\n");
+          if (simulator.getTraceSink().isEnabled(TraceLevel.INFO)) {
+            simulator.getTraceSink().trace(TraceLevel.INFO, getTime(), this,
+                Collections.singleton(v), "Starting %s Burn (RCS) for target %.2f m/s delta-V",
+                v.getName(), deltaVReq);
+          }
           if (Formulae.getRequiredFuelMass(stackMass, deltaVReq, v.getRcsIsp()) > v.getRcsFuelTank()
               .getAmount()) {
             double deltaVAchieved = Formulae.getAchievedDeltaV(stackMass, v.getRcsIsp(),
@@ -123,9 +137,12 @@ public class BurnEvent extends AbstractEvent {
              * //d.setElement(v); d.setDemands(demands); //simulator.schedule(d);
              * d.execute(simulator);
              */
-            System.out.printf("%.3f: %s %.2f %s %.2f %s\n", getTime(),
-                v.getName() + " Burn (RCS) achieved", deltaVAchieved, "m/s delta-V,", deltaVReq,
-                "m/s delta-V remaining");
+            if (simulator.getTraceSink().isEnabled(TraceLevel.DEBUG)) {
+              simulator.getTraceSink().trace(TraceLevel.DEBUG, getTime(), this,
+                  Collections.singleton(v),
+                  "%s Burn (RCS) achieved %.2f m/s delta-V, %.2f m/s delta-V remaining",
+                  v.getName(), deltaVAchieved, deltaVReq);
+            }
           } else {
             v.getRcsFuelTank()
                 .remove(Formulae.getRequiredFuelMass(stackMass, deltaVReq, v.getRcsIsp()));
@@ -138,9 +155,12 @@ public class BurnEvent extends AbstractEvent {
              * d.setElement(v.getRcsFuelTank()); //d.setElement(v); d.setDemands(demands);
              * //simulator.schedule(d); d.execute(simulator);
              */
-            System.out.printf("%.3f: %s %.2f %s, %.2f %s\n", getTime(),
-                v.getName() + " Burn (RCS) achieved", deltaVReq, "m/s delta-V",
-                v.getRcsFuelTank().getCargoMass(), "kg fuel remaining");
+            if (simulator.getTraceSink().isEnabled(TraceLevel.DEBUG)) {
+              simulator.getTraceSink().trace(TraceLevel.DEBUG, getTime(), this,
+                  Collections.singleton(v),
+                  "%s Burn (RCS) achieved %.2f m/s delta-V, %.2f kg fuel remaining", v.getName(),
+                  deltaVReq, v.getRcsFuelTank().getCargoMass());
+            }
             deltaVReq = 0;
           }
         }
@@ -23,6 +23,7 @@ import edu.mit.spacenet.simulator.I_Simulator;
 import edu.mit.spacenet.simulator.SimError;
 import edu.mit.spacenet.simulator.SimSpatialError;
 import edu.mit.spacenet.simulator.SimWarning;
+import edu.mit.spacenet.simulator.TraceLevel;
 
 /**
  * An event that instantiates items in the simulation at a particular location.
@@ -48,7 +49,7 @@ public class CreateEvent extends AbstractEvent {
    */
   public void execute(I_Simulator simulator) throws SimError {
     if (container == null) {
-      simulator.getWarnings().add(new SimWarning(simulator.getTime(), this,
+      simulator.report(new SimWarning(simulator.getTime(), this,
           "No container defined, defaulting to " + getLocation() + "."));
       container = getLocation();
     }
@@ -56,11 +57,13 @@ public class CreateEvent extends AbstractEvent {
       throw new SimSpatialError(simulator.getTime(), this, container + " was not found.");
     }
     if (elements.size() == 0) {
-      simulator.getWarnings()
-          .add(new SimWarning(simulator.getTime(), this, "No elements defined."));
+      simulator.report(new SimWarning(simulator.getTime(), this, "No elements defined."));
     }
 
-    System.out.printf("%.3f: %s\n", getTime(), "Creating " + elements + " in " + container);
+    if (simulator.getTraceSink().isEnabled(TraceLevel.INFO)) {
+      simulator.getTraceSink().trace(TraceLevel.INFO, getTime(), this, elements,
+          "Creating %s in %s", elements, container);
+    }
     for (I_Element element : elements) {
       if (element.getLocation() != null) {
         throw new SimSpatialError(simulator.getTime(), this,
@@ -13,6 +13,8 @@
  */
 package edu.mit.spacenet.simulator.event;
 
+import java.util.Collections;
+
 import edu.mit.spacenet.domain.ClassOfSupply;
 import edu.mit.spacenet.domain.element.I_Carrier;
 import edu.mit.spacenet.domain.element.I_Element;
@@ -23,6 +25,7 @@ import edu.mit.spacenet.simulator.I_Simulator;
 import edu.mit.spacenet.simulator.SimDemand;
 import edu.mit.spacenet.simulator.SimError;
 import edu.mit.spacenet.simulator.SimSpatialError;
+import edu.mit.spacenet.simulator.TraceLevel;
 
 /**
  * An event that schedules an instantaneous set of demands.
@@ -62,8 +65,11 @@ public class DemandEvent extends AbstractEvent {
         d.add(demand);
     }
 
-    System.out.printf("%.3f: %s\n", getTime(),
-        "Demand for " + demands + " from " + (element == null ? getLocation() : element));
+    if (simulator.getTraceSink().isEnabled(TraceLevel.INFO)) {
+      simulator.getTraceSink().trace(TraceLevel.INFO, getTime(), this,
+          element == null ? null : Collections.singleton(element), "Demand for %s from %s", demands,
+          element == null ? getLocation() : element);
+    }
 
     if (simulator.isDemandsSatisfied()) {
       if (element != null) {
@@ -87,7 +93,7 @@ public class DemandEvent extends AbstractEvent {
         }
         d.add(packingDemand);
       }
-      throw new SimDemand(simulator.getTime(), this, getLocation(), getElement(), d);
+      simulator.report(new SimDemand(simulator.getTime(), this, getLocation(), getElement(), d));
     }
   }
 
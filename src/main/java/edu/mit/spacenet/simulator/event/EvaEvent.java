@@ -24,6 +24,7 @@ import edu.mit.spacenet.simulator.I_Simulator;
 import edu.mit.spacenet.simulator.SimError;
 import edu.mit.spacenet.simulator.SimSpatialError;
 import edu.mit.spacenet.simulator.SimWarning;
+import edu.mit.spacenet.simulator.TraceLevel;
 
 /**
  * Event that represents an EVA excursion outside a crew vehicle. It includes reconfigure events
@@ -55,8 +56,7 @@ public class EvaEvent extends AbstractEvent {
    */
   public void execute(I_Simulator simulator) throws SimError {
     if (stateMap.size() == 0) {
-      simulator.getWarnings()
-          .add(new SimWarning(simulator.getTime(), this, "No crew members defined."));
+      simulator.report(new SimWarning(simulator.getTime(), this, "No crew members defined."));
     }
     if (vehicle == null) {
       throw new SimSpatialError(simulator.getTime(), this, "No crew habitat defined.");
@@ -77,8 +77,10 @@ public class EvaEvent extends AbstractEvent {
       }
     }
 
-    System.out.printf("%.3f: %s\n", getTime(),
-        "Commencing EVA at " + getLocation() + " for " + getEvaDuration() + " hours");
+    if (simulator.getTraceSink().isEnabled(TraceLevel.INFO)) {
+      simulator.getTraceSink().trace(TraceLevel.INFO, getTime(), this, stateMap.keySet(),
+          "Commencing EVA at %s for %s hours", getLocation(), getEvaDuration());
+    }
 
     if (simulator.getScenario().isDetailedEva()) {
       TreeMap<I_Element, I_State> previousStates = new TreeMap<I_Element, I_State>();
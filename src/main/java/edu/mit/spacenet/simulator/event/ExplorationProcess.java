@@ -24,6 +24,7 @@ import edu.mit.spacenet.simulator.I_Simulator;
 import edu.mit.spacenet.simulator.SimError;
 import edu.mit.spacenet.simulator.SimSpatialError;
 import edu.mit.spacenet.simulator.SimWarning;
+import edu.mit.spacenet.simulator.TraceLevel;
 
 /**
  * Event that automatically schedules EVA events with equal time before and after each EVA.
@@ -74,8 +75,7 @@ public class ExplorationProcess extends AbstractEvent implements I_Process {
    */
   public void execute(I_Simulator simulator) throws SimError {
     if (stateMap.size() == 0) {
-      simulator.getWarnings()
-          .add(new SimWarning(simulator.getTime(), this, "No crew members defined."));
+      simulator.report(new SimWarning(simulator.getTime(), this, "No crew members defined."));
     }
     if (vehicle == null) {
       throw new SimSpatialError(simulator.getTime(), this, "No crew habitat defined.");
@@ -96,8 +96,11 @@ public class ExplorationProcess extends AbstractEvent implements I_Process {
       }
     }
 
-    System.out.printf("%.3f: %s\n", getTime(), "Commencing exploration at " + getLocation()
-        + " for " + getDuration() + " days with " + getNumberEva() + " EVAs");
+    if (simulator.getTraceSink().isEnabled(TraceLevel.INFO)) {
+      simulator.getTraceSink().trace(TraceLevel.INFO, getTime(), this, stateMap.keySet(),
+          "Commencing exploration at %s for %s days with %s EVAs", getLocation(), getDuration(),
+          getNumberEva());
+    }
 
     if (simulator.getScenario().isDetailedEva()) {
       for (int i = 0; i < getNumberEva(); i++) {
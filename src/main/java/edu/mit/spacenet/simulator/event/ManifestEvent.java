@@ -13,6 +13,7 @@
  */
 package edu.mit.spacenet.simulator.event;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -21,6 +22,7 @@ import edu.mit.spacenet.domain.element.I_ResourceContainer;
 import edu.mit.spacenet.simulator.I_Simulator;
 import edu.mit.spacenet.simulator.SimError;
 import edu.mit.spacenet.simulator.SimSpatialError;
+import edu.mit.spacenet.simulator.TraceLevel;
 
 /**
  * An event that either creates or moves a set of resource containers to a new carrier.
@@ -48,7 +50,10 @@ public class ManifestEvent extends AbstractEvent {
   public void execute(I_Simulator simulator) throws SimError {
     for (I_ResourceContainer container : containers) {
       if (!carrier.getContents().contains(container)) {
-        System.out.printf("%.3f: %s\n", getTime(), "Manifesting " + container + " into " + carrier);
+        if (simulator.getTraceSink().isEnabled(TraceLevel.INFO)) {
+          simulator.getTraceSink().trace(TraceLevel.INFO, getTime(), this,
+              Arrays.asList(container, carrier), "Manifesting %s into %s", container, carrier);
+        }
         if (carrier.add(container)) {
           simulator.getScenario().getNetwork().getRegistrar().put(container.getUid(), container);
         } else {
@@ -16,6 +16,7 @@ package edu.mit.spacenet.simulator.event;
 import edu.mit.spacenet.scenario.Mission;
 import edu.mit.spacenet.simulator.I_Simulator;
 import edu.mit.spacenet.simulator.SimWarning;
+import edu.mit.spacenet.simulator.TraceLevel;
 import edu.mit.spacenet.util.DateFunctions;
 
 /**
@@ -59,10 +60,13 @@ public class MissionEvent extends AbstractEvent {
    */
   public void execute(I_Simulator simulator) {
     if (mission.getEventList().size() == 0) {
-      simulator.getWarnings().add(new SimWarning(simulator.getTime(), this, "No events defined."));
+      simulator.report(new SimWarning(simulator.getTime(), this, "No events defined."));
     }
 
-    System.out.printf("%.3f: %s\n", getTime(), "Commencing Mission: " + mission.getName());
+    if (simulator.getTraceSink().isEnabled(TraceLevel.INFO)) {
+      simulator.getTraceSink().trace(TraceLevel.INFO, getTime(), this, null,
+          "Commencing Mission: %s", mission.getName());
+    }
     for (I_Event e : mission.getEventList()) {
       e.setTime(e.getTime() + getTime());
       simulator.schedule(e);
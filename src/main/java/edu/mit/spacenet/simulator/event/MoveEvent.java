@@ -23,6 +23,7 @@ import edu.mit.spacenet.simulator.I_Simulator;
 import edu.mit.spacenet.simulator.SimError;
 import edu.mit.spacenet.simulator.SimSpatialError;
 import edu.mit.spacenet.simulator.SimWarning;
+import edu.mit.spacenet.simulator.TraceLevel;
 
 /**
  * An event that moves a set of elements to a new container.
@@ -48,7 +49,7 @@ public class MoveEvent extends AbstractEvent {
    */
   public void execute(I_Simulator simulator) throws SimError {
     if (container == null) {
-      simulator.getWarnings().add(new SimWarning(simulator.getTime(), this,
+      simulator.report(new SimWarning(simulator.getTime(), this,
           "No container defined, defaulting to " + getLocation() + "."));
       container = getLocation();
     }
@@ -57,10 +58,12 @@ public class MoveEvent extends AbstractEvent {
     }
 
     if (elements.size() == 0) {
-      simulator.getWarnings()
-          .add(new SimWarning(simulator.getTime(), this, "No elements defined."));
+      simulator.report(new SimWarning(simulator.getTime(), this, "No elements defined."));
     } else {
-      System.out.printf("%.3f: %s\n", getTime(), "Transferring " + elements + " to " + container);
+      if (simulator.getTraceSink().isEnabled(TraceLevel.INFO)) {
+        simulator.getTraceSink().trace(TraceLevel.INFO, getTime(), this, elements,
+            "Transferring %s to %s", elements, container);
+      }
       for (I_Element element : elements) {
         if (element.getLocation() == null) {
           throw new SimSpatialError(simulator.getTime(), this, element + " was not found.");
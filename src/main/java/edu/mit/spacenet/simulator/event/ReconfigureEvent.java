@@ -13,12 +13,15 @@
  */
 package edu.mit.spacenet.simulator.event;
 
+import java.util.Collections;
+
 import edu.mit.spacenet.domain.element.I_Element;
 import edu.mit.spacenet.domain.element.I_State;
 import edu.mit.spacenet.simulator.I_Simulator;
 import edu.mit.spacenet.simulator.SimError;
 import edu.mit.spacenet.simulator.SimSpatialError;
 import edu.mit.spacenet.simulator.SimWarning;
+import edu.mit.spacenet.simulator.TraceLevel;
 
 /**
  * An event that reconfigures an element to a new operational state.
@@ -43,7 +46,7 @@ public class ReconfigureEvent extends AbstractEvent {
    */
   public void execute(I_Simulator simulator) throws SimError {
     if (element == null) {
-      simulator.getWarnings().add(new SimWarning(simulator.getTime(), this, "No element defined."));
+      simulator.report(new SimWarning(simulator.getTime(), this, "No element defined."));
     } else {
       if (element.getLocation() == null) {
         throw new SimSpatialError(simulator.getTime(), this, element + " was not found.");
@@ -51,8 +54,10 @@ public class ReconfigureEvent extends AbstractEvent {
         throw new SimSpatialError(simulator.getTime(), this, element + " is located at "
             + element.getLocation() + " instead of " + getLocation() + ".");
       } else if (element.setCurrentState(state)) {
-        System.out.printf("%.3f: %s\n", getTime(),
-            "Reconfiguring " + element + " to " + state + " state");
+        if (simulator.getTraceSink().isEnabled(TraceLevel.INFO)) {
+          simulator.getTraceSink().trace(TraceLevel.INFO, getTime(), this,
+              Collections.singleton(element), "Reconfiguring %s to %s state", element, state);
+        }
       } else {
         throw new SimSpatialError(simulator.getTime(), this,
             "Element " + element + " does not contain state " + state + ".");
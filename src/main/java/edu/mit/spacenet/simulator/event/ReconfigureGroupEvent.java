@@ -13,6 +13,7 @@
  */
 package edu.mit.spacenet.simulator.event;
 
+import java.util.Collections;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
@@ -23,6 +24,7 @@ import edu.mit.spacenet.simulator.I_Simulator;
 import edu.mit.spacenet.simulator.SimError;
 import edu.mit.spacenet.simulator.SimSpatialError;
 import edu.mit.spacenet.simulator.SimWarning;
+import edu.mit.spacenet.simulator.TraceLevel;
 
 /**
  * An event that reconfigures a group of elements to a new operational state type.
@@ -46,8 +48,7 @@ public class ReconfigureGroupEvent extends AbstractEvent {
    */
   public void execute(I_Simulator simulator) throws SimError {
     if (elements.size() == 0) {
-      simulator.getWarnings()
-          .add(new SimWarning(simulator.getTime(), this, "No elements defined."));
+      simulator.report(new SimWarning(simulator.getTime(), this, "No elements defined."));
     } else {
       for (I_Element element : elements) {
         I_State state = null;
@@ -64,11 +65,13 @@ public class ReconfigureGroupEvent extends AbstractEvent {
           throw new SimSpatialError(simulator.getTime(), this, element + " is located at "
               + element.getLocation() + " instead of " + getLocation() + ".");
         } else if (state == null) {
-          simulator.getWarnings().add(new SimWarning(simulator.getTime(), this,
+          simulator.report(new SimWarning(simulator.getTime(), this,
               "No " + stateType + " state for " + element + "."));
         } else if (element.setCurrentState(state)) {
-          System.out.printf("%.3f: %s\n", getTime(),
-              "Reconfiguring " + element + " to " + state + " state");
+          if (simulator.getTraceSink().isEnabled(TraceLevel.INFO)) {
+            simulator.getTraceSink().trace(TraceLevel.INFO, getTime(), this,
+                Collections.singleton(element), "Reconfiguring %s to %s state", element, state);
+          }
         } else {
           throw new SimSpatialError(simulator.getTime(), this,
               "Element " + element + " does not contain state " + state + ".");
@@ -13,6 +13,7 @@
  */
 package edu.mit.spacenet.simulator.event;
 
+import java.util.Collections;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
@@ -22,6 +23,7 @@ import edu.mit.spacenet.simulator.I_Simulator;
 import edu.mit.spacenet.simulator.SimError;
 import edu.mit.spacenet.simulator.SimSpatialError;
 import edu.mit.spacenet.simulator.SimWarning;
+import edu.mit.spacenet.simulator.TraceLevel;
 
 /**
  * An event that removes a set of elements from the simulation.
@@ -46,8 +48,7 @@ public class RemoveEvent extends AbstractEvent {
    */
   public void execute(I_Simulator simulator) throws SimError {
     if (elements.size() == 0) {
-      simulator.getWarnings()
-          .add(new SimWarning(simulator.getTime(), this, "No elements defined."));
+      simulator.report(new SimWarning(simulator.getTime(), this, "No elements defined."));
     } else {
       for (I_Element element : elements) {
         if (element.getLocation() == null) {
@@ -56,8 +57,10 @@ public class RemoveEvent extends AbstractEvent {
           throw new SimSpatialError(simulator.getTime(), this, element + " is located at "
               + element.getLocation() + " instead of " + getLocation() + ".");
         } else {
-          System.out.printf("%.3f: %s\n", getTime(),
-              "Removing " + elements.toString() + " from Simulation");
+          if (simulator.getTraceSink().isEnabled(TraceLevel.INFO)) {
+            simulator.getTraceSink().trace(TraceLevel.INFO, getTime(), this,
+                Collections.singleton(element), "Removing %s from Simulation", elements);
+          }
           element.getContainer().remove(element);
           recursiveRemove(simulator, element);
         }
@@ -25,6 +25,7 @@ import edu.mit.spacenet.simulator.I_Simulator;
 import edu.mit.spacenet.simulator.SimError;
 import edu.mit.spacenet.simulator.SimSpatialError;
 import edu.mit.spacenet.simulator.SimWarning;
+import edu.mit.spacenet.simulator.TraceLevel;
 
 /**
  * Event that represents a series of propulsive burns to move from node to node.
@@ -52,8 +53,7 @@ public class SpaceTransport extends AbstractEvent implements I_Transport {
    */
   public void execute(I_Simulator simulator) throws SimError {
     if (elements.size() == 0) {
-      simulator.getWarnings()
-          .add(new SimWarning(simulator.getTime(), this, "No elements defined."));
+      simulator.report(new SimWarning(simulator.getTime(), this, "No elements defined."));
     }
     if (edge == null) {
       throw new SimSpatialError(simulator.getTime(), this, "No flight edge defined.");
@@ -68,7 +68,10 @@ public class SpaceTransport extends AbstractEvent implements I_Transport {
       }
     }
 
-    System.out.printf("%.3f: %s\n", getTime(), "Commencing space transport");
+    if (simulator.getTraceSink().isEnabled(TraceLevel.INFO)) {
+      simulator.getTraceSink().trace(TraceLevel.INFO, getTime(), this, elements,
+          "Commencing space transport");
+    }
 
     MoveEvent m1 = new MoveEvent();
     m1.setTime(getTime());
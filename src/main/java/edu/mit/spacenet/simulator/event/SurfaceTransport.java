@@ -13,6 +13,7 @@
  */
 package edu.mit.spacenet.simulator.event;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -24,6 +25,7 @@ import edu.mit.spacenet.domain.network.node.Node;
 import edu.mit.spacenet.simulator.I_Simulator;
 import edu.mit.spacenet.simulator.SimError;
 import edu.mit.spacenet.simulator.SimSpatialError;
+import edu.mit.spacenet.simulator.TraceLevel;
 import edu.mit.spacenet.util.GlobalParameters;
 
 /**
@@ -69,7 +71,10 @@ public class SurfaceTransport extends AbstractEvent implements I_Transport {
       throw new SimSpatialError(simulator.getTime(), this, "Infinite travel duration.");
     }
 
-    System.out.printf("%.3f: %s\n", getTime(), "Commencing surface transport");
+    if (simulator.getTraceSink().isEnabled(TraceLevel.INFO)) {
+      simulator.getTraceSink().trace(TraceLevel.INFO, getTime(), this,
+          Collections.singleton(vehicle), "Commencing surface transport");
+    }
 
     I_State previousState = vehicle.getCurrentState();
 
@@ -13,6 +13,8 @@
  */
 package edu.mit.spacenet.simulator.event;
 
+import java.util.Arrays;
+
 import edu.mit.spacenet.domain.element.I_ResourceContainer;
 import edu.mit.spacenet.domain.resource.Demand;
 import edu.mit.spacenet.domain.resource.DemandSet;
@@ -20,6 +22,7 @@ import edu.mit.spacenet.simulator.I_Simulator;
 import edu.mit.spacenet.simulator.SimError;
 import edu.mit.spacenet.simulator.SimSpatialError;
 import edu.mit.spacenet.simulator.SimWarning;
+import edu.mit.spacenet.simulator.TraceLevel;
 
 /**
  * An event that transfers resources from one resource container to another.
@@ -57,10 +60,13 @@ public class TransferEvent extends AbstractEvent {
     }
 
     if (demands.size() == 0) {
-      simulator.getWarnings().add(new SimWarning(simulator.getTime(), this, "No demands defined."));
+      simulator.report(new SimWarning(simulator.getTime(), this, "No demands defined."));
     } else {
-      System.out.printf("%.3f: %s\n", getTime(),
-          "Transferring " + demands + " to " + destinationContainer);
+      if (simulator.getTraceSink().isEnabled(TraceLevel.INFO)) {
+        simulator.getTraceSink().trace(TraceLevel.INFO, getTime(), this,
+            Arrays.asList(originContainer, destinationContainer), "Transferring %s to %s", demands,
+            destinationContainer);
+      }
       for (Demand demand : demands) {
         if (originContainer.remove(demand.getResource(), demand.getAmount())) {
           if (destinationContainer.add(demand.getResource(), demand.getAmount())) {
@@ -0,0 +1,710 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.thoughtworks.xstream.converters.reflection.ReflectionProvider;
+import com.thoughtworks.xstream.core.JVM;
+
+/**
+ * A compact, versioned binary encoding of SpaceNet object graphs, used for the binary scenario
+ * format. It stores the same information as an XStream serialization (all non-static,
+ * non-transient fields, shared references and cycles, and the exact order of sorted collections)
+ * without the cost of parsing text:
+ * 
+ * <ul>
+ * <li>every value is tagged with its kind, so unknown fields can be skipped;</li>
+ * <li>each class is described once, by name and field names, and referred to by index after that,
+ * so fields added to or removed from a class in later versions are tolerated;</li>
+ * <li>each distinct string is written once and referred to by index after that;</li>
+ * <li>strings, arrays, collections, and maps are prefixed by their lengths;</li>
+ * <li>integers, lengths, and indices are variable-length encoded.</li>
+ * </ul>
+ * 
+ * <p>
+ * As with XStream, objects are created without invoking constructors and only domain types,
+ * {@code java.util} collections, maps, and dates, strings, primitive wrappers, and enumerations
+ * can be encoded.
+ * 
+ * @author Paul Grogan
+ */
+public class BinaryGraphCodec {
+  /** The format version written by this codec; older versions can still be read. */
+  public static final int VERSION = 1;
+
+  private static final int MAGIC = 0x534E4200; // "SNB\0"
+  private static final int BUFFER_SIZE = 1 << 16;
+  // longest string, array, collection, or map read from a channel of unknown size
+  private static final int MAX_LENGTH = 1 << 24;
+
+  private static final byte NULL = 0;
+  private static final byte REFERENCE = 1;
+  private static final byte STRING = 2;
+  private static final byte TRUE = 3;
+  private static final byte FALSE = 4;
+  private static final byte INT = 5;
+  private static final byte LONG = 6;
+  private static final byte DOUBLE = 7;
+  private static final byte FLOAT = 8;
+  private static final byte SHORT = 9;
+  private static final byte BYTE = 10;
+  private static final byte CHAR = 11;
+  private static final byte ENUM = 12;
+  private static final byte DATE = 13;
+  private static final byte OBJECT = 14;
+  private static final byte COLLECTION = 15;
+  private static final byte MAP = 16;
+  private static final byte ARRAY = 17;
+
+  private static final ReflectionProvider reflectionProvider = JVM.newReflectionProvider();
+
+  private final Map<Class<?>, Set<String>> omittedFields = new HashMap<Class<?>, Set<String>>();
+  private final Map<Class<?>, Field[]> fieldCache = new ConcurrentHashMap<Class<?>, Field[]>();
+
+  /**
+   * Omits a field from encoding. When decoding, the field keeps the value it has after the object
+   * is created (or, for the root object, the value it already had).
+   * 
+   * @param type the class declaring the field
+   * @param name the field name
+   */
+  public void omitField(Class<?> type, String name) {
+    Set<String> names = omittedFields.get(type);
+    if (names == null) {
+      names = new HashSet<String>();
+      omittedFields.put(type, names);
+    }
+    names.add(name);
+    fieldCache.clear();
+  }
+
+  /**
+   * Encodes an object graph to a channel. The channel is not closed.
+   * 
+   * @param root the root object
+   * @param channel the channel
+   * @throws IOException Signals that an I/O exception has occurred, or that the graph contains an
+   *         object that cannot be encoded.
+   */
+  public void write(Object root, WritableByteChannel channel) throws IOException {
+    new Encoder(channel).encode(root);
+  }
+
+  /**
+   * Decodes an object graph from a channel. The channel is not closed. Lengths are checked against
+   * the bytes remaining in a seekable channel (or a fixed limit for other channels) before anything
+   * is allocated, so a damaged file cannot exhaust memory.
+   * 
+   * @param channel the channel
+   * @param root the object to populate as the root of the graph, or null to create one
+   * @return the root object
+   * @throws IOException Signals that an I/O exception has occurred, or that the channel does not
+   *         hold a graph that can be decoded.
+   */
+  public Object read(ReadableByteChannel channel, Object root) throws IOException {
+    return new Decoder(channel).decode(root);
+  }
+
+  /**
+   * Gets the encoded fields of a class, i.e. the copyable fields that are not omitted.
+   * 
+   * @param type the class
+   * @return the fields
+   */
+  private Field[] getFields(Class<?> type) {
+    Field[] fields = fieldCache.get(type);
+    if (fields == null) {
+      List<Field> list = new ArrayList<Field>();
+      for (Field field : ObjectGraphCloner.getFields(type)) {
+        Set<String> names = omittedFields.get(field.getDeclaringClass());
+        if (names == null || !names.contains(field.getName())) {
+          list.add(field);
+        }
+      }
+      fields = list.toArray(new Field[list.size()]);
+      fieldCache.put(type, fields);
+    }
+    return fields;
+  }
+
+  private static boolean isSorted(Class<?> type) {
+    return type == TreeSet.class || type == TreeMap.class || type == PriorityQueue.class;
+  }
+
+  private static boolean isEncodable(Class<?> type) {
+    while (type.isArray()) {
+      type = type.getComponentType();
+    }
+    return type.isPrimitive() || type == String.class || type == Boolean.class
+        || type == Character.class || Number.class.isAssignableFrom(type)
+        && isInPackage(type, "java.lang") || isInPackage(type, "java.util")
+        || ObjectGraphCloner.isDomainType(type);
+  }
+
+  // matches the package itself but not its subpackages, as XStreamEngine permits java.util.*
+  private static boolean isInPackage(Class<?> type, String name) {
+    return type.getPackage() != null && name.equals(type.getPackage().getName());
+  }
+
+  private static boolean canCreate(Class<?> type) {
+    if (type == ArrayList.class || type == TreeSet.class || type == HashSet.class
+        || type == LinkedHashSet.class || type == LinkedList.class || type == ArrayDeque.class
+        || type == PriorityQueue.class || type == HashMap.class || type == TreeMap.class
+        || type == LinkedHashMap.class) {
+      return true;
+    }
+    try {
+      type.getConstructor();
+      return true;
+    } catch (NoSuchMethodException ex) {
+      // e.g. unmodifiable views, which could not be created again when decoding
+      return false;
+    }
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static Object newContainer(Class<?> type, Object comparator) throws IOException {
+    if (type == ArrayList.class) {
+      return new ArrayList<Object>();
+    } else if (type == TreeSet.class) {
+      return new TreeSet((Comparator) comparator);
+    } else if (type == HashSet.class) {
+      return new HashSet<Object>();
+    } else if (type == LinkedHashSet.class) {
+      return new LinkedHashSet<Object>();
+    } else if (type == LinkedList.class) {
+      return new LinkedList<Object>();
+    } else if (type == ArrayDeque.class) {
+      return new ArrayDeque<Object>();
+    } else if (type == PriorityQueue.class) {
+      return new PriorityQueue(11, (Comparator) comparator);
+    } else if (type == HashMap.class) {
+      return new HashMap<Object, Object>();
+    } else if (type == TreeMap.class) {
+      return new TreeMap((Comparator) comparator);
+    } else if (type == LinkedHashMap.class) {
+      return new LinkedHashMap<Object, Object>();
+    }
+    try {
+      return type.getConstructor().newInstance();
+    } catch (ReflectiveOperationException ex) {
+      throw new IOException("Cannot create " + type.getName(), ex);
+    }
+  }
+
+  private class Encoder {
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final IdentityHashMap<Object, Integer> handles = new IdentityHashMap<Object, Integer>();
+    private final Map<String, Integer> strings = new HashMap<String, Integer>();
+    private final Map<Class<?>, Integer> classes = new HashMap<Class<?>, Integer>();
+
+    private Encoder(WritableByteChannel channel) {
+      this.channel = channel;
+    }
+
+    private void encode(Object root) throws IOException {
+      buffer.putInt(MAGIC);
+      writeVarInt(VERSION);
+      writeValue(root);
+      flush();
+    }
+
+    private void writeValue(Object value) throws IOException {
+      if (value == null) {
+        writeByte(NULL);
+        return;
+      }
+      Integer handle = handles.get(value);
+      if (handle != null) {
+        writeByte(REFERENCE);
+        writeVarInt(handle);
+        return;
+      }
+      Class<?> type = value.getClass();
+      if (type == String.class) {
+        writeByte(STRING);
+        writeString((String) value);
+      } else if (type == Boolean.class) {
+        writeByte((Boolean) value ? TRUE : FALSE);
+      } else if (type == Integer.class) {
+        writeByte(INT);
+        writeVarLong(zigZag((Integer) value));
+      } else if (type == Long.class) {
+        writeByte(LONG);
+        writeVarLong(zigZag((Long) value));
+      } else if (type == Double.class) {
+        writeByte(DOUBLE);
+        ensure(8);
+        buffer.putDouble((Double) value);
+      } else if (type == Float.class) {
+        writeByte(FLOAT);
+        ensure(4);
+        buffer.putFloat((Float) value);
+      } else if (type == Short.class) {
+        writeByte(SHORT);
+        writeVarLong(zigZag((Short) value));
+      } else if (type == Byte.class) {
+        writeByte(BYTE);
+        writeByte((Byte) value);
+      } else if (type == Character.class) {
+        writeByte(CHAR);
+        writeVarInt((Character) value);
+      } else if (value instanceof Enum) {
+        writeByte(ENUM);
+        writeClass(((Enum<?>) value).getDeclaringClass(), null);
+        writeString(((Enum<?>) value).name());
+      } else if (!isEncodable(type)) {
+        throw new IOException("Cannot encode " + type.getName());
+      } else if (type.isArray()) {
+        writeByte(ARRAY);
+        writeClass(type, null);
+        handles.put(value, handles.size());
+        int length = Array.getLength(value);
+        writeVarInt(length);
+        for (int i = 0; i < length; i++) {
+          writeValue(Array.get(value, i));
+        }
+      } else if (type == Date.class) {
+        writeByte(DATE);
+        handles.put(value, handles.size());
+        writeVarLong(zigZag(((Date) value).getTime()));
+      } else if (ObjectGraphCloner.isDomainType(type)) {
+        Field[] fields = getFields(type);
+        writeByte(OBJECT);
+        writeClass(type, fields);
+        handles.put(value, handles.size());
+        try {
+          for (Field field : fields) {
+            writeValue(field.get(value));
+          }
+        } catch (IllegalAccessException ex) {
+          throw new IOException("Cannot encode " + type.getName(), ex);
+        }
+      } else if (value instanceof Collection && canCreate(type)) {
+        writeByte(COLLECTION);
+        writeClass(type, null);
+        if (type == TreeSet.class) {
+          writeValue(((TreeSet<?>) value).comparator());
+        } else if (type == PriorityQueue.class) {
+          writeValue(((PriorityQueue<?>) value).comparator());
+        }
+        handles.put(value, handles.size());
+        Collection<?> collection = (Collection<?>) value;
+        writeVarInt(collection.size());
+        for (Object element : collection) {
+          writeValue(element);
+        }
+      } else if (value instanceof Map && canCreate(type)) {
+        writeByte(MAP);
+        writeClass(type, null);
+        if (type == TreeMap.class) {
+          writeValue(((TreeMap<?, ?>) value).comparator());
+        }
+        handles.put(value, handles.size());
+        Map<?, ?> map = (Map<?, ?>) value;
+        writeVarInt(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+          writeValue(entry.getKey());
+          writeValue(entry.getValue());
+        }
+      } else {
+        throw new IOException("Cannot encode " + type.getName());
+      }
+    }
+
+    private void writeClass(Class<?> type, Field[] fields) throws IOException {
+      Integer index = classes.get(type);
+      if (index != null) {
+        writeVarInt(index);
+        return;
+      }
+      writeVarInt(classes.size());
+      classes.put(type, classes.size());
+      writeString(type.getName());
+      if (fields != null) {
+        writeVarInt(fields.length);
+        for (Field field : fields) {
+          writeString(field.getName());
+        }
+      }
+    }
+
+    private void writeString(String value) throws IOException {
+      Integer index = strings.get(value);
+      if (index != null) {
+        writeVarInt(index);
+        return;
+      }
+      writeVarInt(strings.size());
+      strings.put(value, strings.size());
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(bytes.length);
+      for (int offset = 0; offset < bytes.length;) {
+        ensure(1);
+        int length = Math.min(buffer.remaining(), bytes.length - offset);
+        buffer.put(bytes, offset, length);
+        offset += length;
+      }
+    }
+
+    private void writeByte(int value) throws IOException {
+      ensure(1);
+      buffer.put((byte) value);
+    }
+
+    private void writeVarInt(int value) throws IOException {
+      writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+      ensure(10);
+      while ((value & ~0x7FL) != 0) {
+        buffer.put((byte) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      buffer.put((byte) value);
+    }
+
+    private long zigZag(long value) {
+      return (value << 1) ^ (value >> 63);
+    }
+
+    private void ensure(int bytes) throws IOException {
+      if (buffer.remaining() < bytes) {
+        flush();
+      }
+    }
+
+    private void flush() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+  }
+
+  private class Decoder {
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final List<Object> handles = new ArrayList<Object>();
+    private final List<String> strings = new ArrayList<String>();
+    private final List<Class<?>> classes = new ArrayList<Class<?>>();
+    private final List<Field[]> classFields = new ArrayList<Field[]>();
+    private final List<Object> fills = new ArrayList<Object>();
+    private final long available;
+    private long read;
+
+    private Decoder(ReadableByteChannel channel) throws IOException {
+      this.channel = channel;
+      if (channel instanceof SeekableByteChannel) {
+        SeekableByteChannel seekable = (SeekableByteChannel) channel;
+        available = seekable.size() - seekable.position();
+      } else {
+        available = -1;
+      }
+      buffer.flip();
+    }
+
+    private Object decode(Object root) throws IOException {
+      ensure(4);
+      if (buffer.getInt() != MAGIC) {
+        throw new IOException("Not a SpaceNet binary file.");
+      }
+      int version = readVarInt();
+      if (version < 1 || version > VERSION) {
+        throw new IOException("Unsupported SpaceNet binary version " + version + ".");
+      }
+      Object value = readValue(root);
+      // collections are filled last (innermost first) so that ordering and hashing operate on
+      // fully-populated elements
+      for (int i = 0; i < fills.size(); i += 2) {
+        ObjectGraphCloner.fill(fills.get(i), (Object[]) fills.get(i + 1));
+      }
+      return value;
+    }
+
+    private Object readValue(Object root) throws IOException {
+      byte tag = readByte();
+      switch (tag) {
+        case NULL:
+          return null;
+        case REFERENCE:
+          int handle = readVarInt();
+          if (handle >= handles.size()) {
+            throw new IOException("Corrupt SpaceNet binary file (reference " + handle + ").");
+          }
+          return handles.get(handle);
+        case STRING:
+          return readString();
+        case TRUE:
+          return Boolean.TRUE;
+        case FALSE:
+          return Boolean.FALSE;
+        case INT:
+          return (int) unZigZag(readVarLong());
+        case LONG:
+          return unZigZag(readVarLong());
+        case DOUBLE:
+          ensure(8);
+          return buffer.getDouble();
+        case FLOAT:
+          ensure(4);
+          return buffer.getFloat();
+        case SHORT:
+          return (short) unZigZag(readVarLong());
+        case BYTE:
+          return readByte();
+        case CHAR:
+          return (char) readVarInt();
+        case ENUM:
+          return readEnum(readClass(false));
+        case DATE:
+          Date date = new Date();
+          handles.add(date);
+          date.setTime(unZigZag(readVarLong()));
+          return date;
+        case OBJECT:
+          return readObject(root);
+        case COLLECTION:
+        case MAP:
+          return readContainer(tag);
+        case ARRAY:
+          return readArray();
+        default:
+          throw new IOException("Corrupt SpaceNet binary file (tag " + tag + ").");
+      }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object readEnum(Class<?> type) throws IOException {
+      String name = readString();
+      try {
+        return Enum.valueOf((Class<Enum>) type, name);
+      } catch (IllegalArgumentException ex) {
+        throw new IOException("Unknown constant " + type.getName() + "." + name, ex);
+      }
+    }
+
+    private Object readObject(Object root) throws IOException {
+      int index = readClassIndex(true);
+      Class<?> type = classes.get(index);
+      Object object;
+      if (root != null) {
+        if (root.getClass() != type) {
+          throw new IOException("Expected " + root.getClass().getName() + " but found "
+              + type.getName() + ".");
+        }
+        object = root;
+      } else {
+        object = reflectionProvider.newInstance(type);
+      }
+      handles.add(object);
+      for (Field field : classFields.get(index)) {
+        Object value = readValue(null);
+        if (field != null) {
+          try {
+            field.set(object, value);
+          } catch (IllegalArgumentException | IllegalAccessException ex) {
+            throw new IOException("Cannot set " + type.getName() + "." + field.getName(), ex);
+          }
+        }
+      }
+      return object;
+    }
+
+    private Object readContainer(byte tag) throws IOException {
+      Class<?> type = readClass(false);
+      if (!(tag == MAP ? Map.class : Collection.class).isAssignableFrom(type)) {
+        throw new IOException("Corrupt SpaceNet binary file (container " + type.getName() + ").");
+      }
+      Object comparator = isSorted(type) ? readValue(null) : null;
+      Object container = newContainer(type, comparator);
+      handles.add(container);
+      // each element is at least a tag
+      int size = readLength(tag == MAP ? 2 : 1);
+      Object[] contents = new Object[tag == MAP ? 2 * size : size];
+      for (int i = 0; i < contents.length; i++) {
+        contents[i] = readValue(null);
+      }
+      fills.add(container);
+      fills.add(contents);
+      return container;
+    }
+
+    private Object readArray() throws IOException {
+      Class<?> type = readClass(false);
+      if (!type.isArray()) {
+        throw new IOException("Corrupt SpaceNet binary file (array " + type.getName() + ").");
+      }
+      int length = readLength(1);
+      Object array = Array.newInstance(type.getComponentType(), length);
+      handles.add(array);
+      for (int i = 0; i < length; i++) {
+        Array.set(array, i, readValue(null));
+      }
+      return array;
+    }
+
+    private Class<?> readClass(boolean hasFields) throws IOException {
+      return classes.get(readClassIndex(hasFields));
+    }
+
+    private int readClassIndex(boolean hasFields) throws IOException {
+      int index = readVarInt();
+      if (index < classes.size()) {
+        return index;
+      } else if (index > classes.size()) {
+        throw new IOException("Corrupt SpaceNet binary file (class " + index + ").");
+      }
+      String name = readString();
+      Class<?> type;
+      try {
+        type = Class.forName(name, false, BinaryGraphCodec.class.getClassLoader());
+      } catch (ClassNotFoundException ex) {
+        throw new IOException("Unknown type " + name, ex);
+      }
+      if (!isEncodable(type)) {
+        throw new IOException("Unsupported type " + name);
+      }
+      classes.add(type);
+      Field[] fields = null;
+      if (hasFields) {
+        // match the k-th field of a name to the k-th local field of that name (shadowed fields);
+        // fields no longer declared are read and discarded
+        Field[] local = getFields(type);
+        boolean[] used = new boolean[local.length];
+        fields = new Field[readLength(1)];
+        for (int i = 0; i < fields.length; i++) {
+          String fieldName = readString();
+          for (int j = 0; j < local.length; j++) {
+            if (!used[j] && local[j].getName().equals(fieldName)) {
+              used[j] = true;
+              fields[i] = local[j];
+              break;
+            }
+          }
+        }
+      }
+      classFields.add(fields);
+      return index;
+    }
+
+    private String readString() throws IOException {
+      int index = readVarInt();
+      if (index < strings.size()) {
+        return strings.get(index);
+      } else if (index > strings.size()) {
+        throw new IOException("Corrupt SpaceNet binary file (string " + index + ").");
+      }
+      byte[] bytes = new byte[readLength(1)];
+      for (int offset = 0; offset < bytes.length;) {
+        ensure(1);
+        int length = Math.min(buffer.remaining(), bytes.length - offset);
+        buffer.get(bytes, offset, length);
+        offset += length;
+      }
+      String value = new String(bytes, StandardCharsets.UTF_8);
+      strings.add(value);
+      return value;
+    }
+
+    private byte readByte() throws IOException {
+      ensure(1);
+      return buffer.get();
+    }
+
+    // variable-length ints are only written for lengths, counts, and indices, so a negative value
+    // (as read from a damaged or crafted file) is rejected rather than allocated or indexed
+    private int readVarInt() throws IOException {
+      long value = readVarLong();
+      if (value < 0 || value > Integer.MAX_VALUE) {
+        throw new IOException("Corrupt SpaceNet binary file (integer).");
+      }
+      return (int) value;
+    }
+
+    /**
+     * Reads the length of a value that takes at least a number of bytes per item, rejecting one
+     * that cannot fit in the rest of the channel.
+     */
+    private int readLength(int bytesPerItem) throws IOException {
+      int length = readVarInt();
+      long limit = available < 0 ? MAX_LENGTH
+          : (available - read + buffer.remaining()) / bytesPerItem;
+      if (length > limit || length > Integer.MAX_VALUE / bytesPerItem) {
+        throw new IOException("Corrupt SpaceNet binary file (length " + length + ").");
+      }
+      return length;
+    }
+
+    private long readVarLong() throws IOException {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        byte b = readByte();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IOException("Corrupt SpaceNet binary file (integer).");
+    }
+
+    private long unZigZag(long value) {
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    private void ensure(int bytes) throws IOException {
+      if (buffer.remaining() < bytes) {
+        buffer.compact();
+        while (buffer.position() < bytes) {
+          int count = channel.read(buffer);
+          if (count < 0) {
+            throw new EOFException("Unexpected end of SpaceNet binary file.");
+          }
+          read += count;
+        }
+        buffer.flip();
+      }
+    }
+  }
+}
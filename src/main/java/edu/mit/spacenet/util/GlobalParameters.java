@@ -17,20 +17,20 @@ import edu.mit.spacenet.scenario.ItemDiscretization;
 import edu.mit.spacenet.scenario.Scenario;
 
 /**
- * A global access point to scenario options.
+ * A global access point to scenario options. Each {@link SimulationContext} owns one instance; the
+ * "singleton" is the instance of the context active on the current thread.
  * 
  * @author Paul Grogan
  */
 public class GlobalParameters {
-  private static final GlobalParameters singleton = new GlobalParameters();
 
   /**
-   * Gets the singleton.
+   * Gets the parameters of the simulation context active on the current thread.
    *
-   * @return the singleton
+   * @return the active parameters
    */
   public static final GlobalParameters getSingleton() {
-    return singleton;
+    return SimulationContext.getCurrent().getParameters();
   }
 
   private final int DECIMAL_PRECISION = 1000;
@@ -74,11 +74,12 @@ public class GlobalParameters {
   private double cargoTransferBagVolume = 0.053;
   private double cargoTransferBagMaxMass = 26.8;
   private double cargoTransferBagMaxVolume = 0.049;
+  private int revision;
 
   /**
    * Instantiates a new global parameters.
    */
-  private GlobalParameters() {}
+  GlobalParameters() {}
 
   /**
    * Sets the parameters from.
@@ -121,6 +122,26 @@ public class GlobalParameters {
     setCargoTransferBagMaxVolume(scenario.getCargoTransferBagMaxVolume());
   }
 
+  /**
+   * Gets the revision of the parameters that affect cached quantities such as container masses and
+   * supply times (the time, demand, mass, and volume precisions and spares scavenging). It
+   * increases whenever one of them changes, so values computed from them can be cached and
+   * discarded when stale.
+   * 
+   * @return the revision
+   */
+  public int getRevision() {
+    return revision;
+  }
+
+  /**
+   * Increments the revision to discard cached masses after a change they depend on that is not
+   * tracked by the containers themselves, such as the unit mass of a resource.
+   */
+  public void incrementRevision() {
+    revision++;
+  }
+
   /**
    * Gets the time precision.
    * 
@@ -136,7 +157,10 @@ public class GlobalParameters {
    * @param timePrecision the time precision (days)
    */
   public void setTimePrecision(double timePrecision) {
-    this.timePrecision = timePrecision;
+    if (this.timePrecision != timePrecision) {
+      this.timePrecision = timePrecision;
+      revision++;
+    }
   }
 
   /**
@@ -167,7 +191,10 @@ public class GlobalParameters {
    * @param demandPrecision the demand precision (units)
    */
   public void setDemandPrecision(double demandPrecision) {
-    this.demandPrecision = demandPrecision;
+    if (this.demandPrecision != demandPrecision) {
+      this.demandPrecision = demandPrecision;
+      revision++;
+    }
   }
 
   /**
@@ -197,7 +224,10 @@ public class GlobalParameters {
    * @param massPrecision the mass precision (kilograms)
    */
   public void setMassPrecision(double massPrecision) {
-    this.massPrecision = massPrecision;
+    if (this.massPrecision != massPrecision) {
+      this.massPrecision = massPrecision;
+      revision++;
+    }
   }
 
   /**
@@ -226,7 +256,10 @@ public class GlobalParameters {
    * @param volumePrecision the volume precision (cubic meters)
    */
   public void setVolumePrecision(double volumePrecision) {
-    this.volumePrecision = volumePrecision;
+    if (this.volumePrecision != volumePrecision) {
+      this.volumePrecision = volumePrecision;
+      revision++;
+    }
   }
 
   /**
@@ -337,7 +370,10 @@ public class GlobalParameters {
    * @param scavengeSpares true if spares can be scavenged, false otherwise
    */
   public void setScavengeSpares(boolean scavengeSpares) {
-    this.scavengeSpares = scavengeSpares;
+    if (this.scavengeSpares != scavengeSpares) {
+      this.scavengeSpares = scavengeSpares;
+      revision++;
+    }
   }
 
   /**
@@ -13,23 +13,20 @@
  */
 package edu.mit.spacenet.util;
 
-import java.util.concurrent.atomic.AtomicInteger;
-
 /**
  * Keeps track of the sequence of unique identifiers that are assigned to newly instantiated items.
+ * The sequence is owned by the simulation context active on the current thread.
  * 
  * @author Paul Grogan
  */
 public class IdGenerator {
-  private static AtomicInteger uid = new AtomicInteger(1);
-
   /**
    * Gets the next unique identifier in the sequence.
    * 
    * @return the next unique identifier
    */
   public static int getUid() {
-    return uid.getAndIncrement();
+    return SimulationContext.getCurrent().getNextUid();
   }
 
   /**
@@ -38,6 +35,6 @@ public class IdGenerator {
    * @param lastUid the last uid
    */
   public static void setLastUid(int lastUid) {
-    uid.set(lastUid + 1);
+    SimulationContext.getCurrent().setLastUid(lastUid);
   }
 }
@@ -0,0 +1,570 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet.util;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.thoughtworks.xstream.converters.reflection.ReflectionProvider;
+import com.thoughtworks.xstream.core.JVM;
+
+/**
+ * A structural deep-copy engine for the SpaceNet domain model. Objects are copied field-by-field
+ * with an identity map so shared references and cycles in the original graph are preserved in the
+ * copy. It replicates the semantics of an XStream serialization round trip: constructors are not
+ * invoked (unique identifiers are retained), transient fields are reset to their defaults, enums
+ * and immutable values are shared, and sorted collections keep their exact internal order.
+ *
+ * @author Paul Grogan
+ */
+public class ObjectGraphCloner {
+  private static final String DOMAIN_PACKAGE = "edu.mit.spacenet.";
+  private static final ReflectionProvider reflectionProvider = JVM.newReflectionProvider();
+  private static final Map<Class<?>, Field[]> fieldCache =
+      new ConcurrentHashMap<Class<?>, Field[]>();
+
+  private final IdentityHashMap<Object, Object> copies = new IdentityHashMap<Object, Object>();
+  private final ArrayDeque<Object> pending = new ArrayDeque<Object>();
+  private final List<Object> fills = new ArrayList<Object>();
+
+  /**
+   * Creates a deep copy of an object graph.
+   *
+   * @param object the root object to copy
+   *
+   * @return the copied root object
+   */
+  public static Object deepClone(Object object) {
+    return new ObjectGraphCloner().copyGraph(object);
+  }
+
+  private ObjectGraphCloner() {}
+
+  private Object copyGraph(Object root) {
+    Object copy = copyOf(root);
+    while (!pending.isEmpty()) {
+      Object original = pending.pop();
+      populate(original, pending.pop());
+    }
+    // collections are filled last (innermost first) so that ordering and hashing operate on
+    // fully-populated elements
+    for (int i = fills.size() - 2; i >= 0; i -= 2) {
+      fill(fills.get(i), (Object[]) fills.get(i + 1));
+    }
+    return copy;
+  }
+
+  /**
+   * Gets the copy of an object, allocating (but not populating) it if it has not yet been visited.
+   *
+   * @param object the original object
+   *
+   * @return the copied object, or the original if it is immutable or shared
+   */
+  private Object copyOf(Object object) {
+    if (object == null || isShared(object.getClass())) {
+      return object;
+    }
+    Object copy = copies.get(object);
+    if (copy == null) {
+      copy = allocate(object);
+      if (copy == object) {
+        return object;
+      }
+      copies.put(object, copy);
+      if (!(copy instanceof Date) && !(copy.getClass().isArray()
+          && copy.getClass().getComponentType().isPrimitive())) {
+        pending.push(copy);
+        pending.push(object);
+      }
+    }
+    return copy;
+  }
+
+  private Object allocate(Object object) {
+    Class<?> type = object.getClass();
+    if (type.isArray()) {
+      if (type.getComponentType().isPrimitive()) {
+        int length = Array.getLength(object);
+        Object copy = Array.newInstance(type.getComponentType(), length);
+        System.arraycopy(object, 0, copy, 0, length);
+        return copy;
+      }
+      return Array.newInstance(type.getComponentType(), ((Object[]) object).length);
+    } else if (object instanceof Date) {
+      return ((Date) object).clone();
+    } else if (object instanceof Collection) {
+      return allocateCollection((Collection<?>) object);
+    } else if (object instanceof Map) {
+      return allocateMap((Map<?, ?>) object);
+    } else {
+      return reflectionProvider.newInstance(type);
+    }
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private Object allocateCollection(Collection<?> collection) {
+    Class<?> type = collection.getClass();
+    int size = collection.size();
+    if (type == ArrayList.class) {
+      return new ArrayList<Object>(size);
+    } else if (type == TreeSet.class) {
+      return new TreeSet(((TreeSet<?>) collection).comparator());
+    } else if (type == HashSet.class) {
+      return new HashSet<Object>(capacity(size));
+    } else if (type == LinkedHashSet.class) {
+      return new LinkedHashSet<Object>(capacity(size));
+    } else if (type == LinkedList.class) {
+      return new LinkedList<Object>();
+    } else if (type == ArrayDeque.class) {
+      return new ArrayDeque<Object>(size);
+    } else if (type == PriorityQueue.class) {
+      return new PriorityQueue(Math.max(1, size), ((PriorityQueue<?>) collection).comparator());
+    } else if (type.getName().startsWith(DOMAIN_PACKAGE)) {
+      return reflectionProvider.newInstance(type);
+    }
+    return newDefaultInstance(collection);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private Object allocateMap(Map<?, ?> map) {
+    Class<?> type = map.getClass();
+    if (type == HashMap.class) {
+      return new HashMap<Object, Object>(capacity(map.size()));
+    } else if (type == TreeMap.class) {
+      return new TreeMap(((TreeMap<?, ?>) map).comparator());
+    } else if (type == LinkedHashMap.class) {
+      return new LinkedHashMap<Object, Object>(capacity(map.size()));
+    } else if (type.getName().startsWith(DOMAIN_PACKAGE)) {
+      return reflectionProvider.newInstance(type);
+    }
+    return newDefaultInstance(map);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static Object newDefaultInstance(Object object) {
+    try {
+      return object.getClass().getConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      // collection types without a public default constructor (e.g. unmodifiable views or
+      // Arrays.asList) are copied into an equivalent mutable type so no state is shared
+      if (object instanceof EnumSet) {
+        EnumSet set = ((EnumSet) object).clone();
+        set.clear();
+        return set;
+      } else if (object instanceof SortedSet) {
+        return new TreeSet(((SortedSet<?>) object).comparator());
+      } else if (object instanceof Set) {
+        return new LinkedHashSet<Object>();
+      } else if (object instanceof Queue) {
+        return new ArrayDeque<Object>();
+      } else if (object instanceof Collection) {
+        return new ArrayList<Object>();
+      } else if (object instanceof EnumMap) {
+        EnumMap map = new EnumMap((EnumMap) object);
+        map.clear();
+        return map;
+      } else if (object instanceof SortedMap) {
+        return new TreeMap(((SortedMap<?, ?>) object).comparator());
+      } else if (object instanceof Map) {
+        return new LinkedHashMap<Object, Object>();
+      }
+      throw new IllegalStateException("Cannot copy " + object.getClass().getName(), e);
+    }
+  }
+
+  private static int capacity(int size) {
+    return Math.max((int) (size / 0.75f) + 1, 16);
+  }
+
+  private void populate(Object original, Object copy) {
+    if (original instanceof Object[]) {
+      Object[] source = (Object[]) original;
+      Object[] target = (Object[]) copy;
+      for (int i = 0; i < source.length; i++) {
+        target[i] = copyOf(source[i]);
+      }
+    } else if (original instanceof Collection && !isDomainType(original.getClass())) {
+      Collection<?> source = (Collection<?>) original;
+      Object[] elements = new Object[source.size()];
+      int i = 0;
+      for (Object element : source) {
+        elements[i++] = copyOf(element);
+      }
+      fills.add(copy);
+      fills.add(elements);
+    } else if (original instanceof Map && !isDomainType(original.getClass())) {
+      Map<?, ?> source = (Map<?, ?>) original;
+      Object[] entries = new Object[2 * source.size()];
+      int i = 0;
+      for (Map.Entry<?, ?> entry : source.entrySet()) {
+        entries[i++] = copyOf(entry.getKey());
+        entries[i++] = copyOf(entry.getValue());
+      }
+      fills.add(copy);
+      fills.add(entries);
+    } else {
+      try {
+        for (Field field : getFields(original.getClass())) {
+          if (field.getType().isPrimitive()) {
+            copyPrimitive(field, original, copy);
+          } else {
+            field.set(copy, copyOf(field.get(original)));
+          }
+        }
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException("Cannot copy " + original.getClass().getName(), e);
+      }
+    }
+  }
+
+  private static void copyPrimitive(Field field, Object original, Object copy)
+      throws IllegalAccessException {
+    Class<?> type = field.getType();
+    if (type == double.class) {
+      field.setDouble(copy, field.getDouble(original));
+    } else if (type == int.class) {
+      field.setInt(copy, field.getInt(original));
+    } else if (type == boolean.class) {
+      field.setBoolean(copy, field.getBoolean(original));
+    } else if (type == long.class) {
+      field.setLong(copy, field.getLong(original));
+    } else {
+      field.set(copy, field.get(original));
+    }
+  }
+
+  /**
+   * Fills an empty collection or map with its contents in the original iteration order (keys and
+   * values alternate for maps). Sorted collections are rebuilt without any comparisons.
+   *
+   * @param copy the empty collection or map
+   * @param contents the contents
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  static void fill(Object copy, Object[] contents) {
+    if (copy instanceof TreeSet) {
+      // a presorted source lets the tree be built without any comparisons
+      TreeSet set = (TreeSet) copy;
+      set.addAll(new PresortedSet(contents, set.comparator()));
+    } else if (copy instanceof PriorityQueue) {
+      // offering in heap order reproduces the original heap layout
+      PriorityQueue queue = (PriorityQueue) copy;
+      for (Object element : contents) {
+        queue.offer(element);
+      }
+    } else if (copy instanceof Collection) {
+      Collection collection = (Collection) copy;
+      for (Object element : contents) {
+        collection.add(element);
+      }
+    } else if (copy instanceof TreeMap) {
+      TreeMap map = (TreeMap) copy;
+      map.putAll(new PresortedMap(contents, map.comparator()));
+    } else {
+      Map map = (Map) copy;
+      for (int i = 0; i < contents.length; i += 2) {
+        map.put(contents[i], contents[i + 1]);
+      }
+    }
+  }
+
+  static boolean isDomainType(Class<?> type) {
+    return type.getName().startsWith(DOMAIN_PACKAGE);
+  }
+
+  /**
+   * Checks whether instances of a type are shared between the original and the copy: immutable
+   * values, enumerations, and any non-domain type other than arrays, dates, and collections.
+   *
+   * @param type the type
+   *
+   * @return true if the instances are shared, false if they are copied
+   */
+  private static boolean isShared(Class<?> type) {
+    if (type.isArray()) {
+      return false;
+    } else if (Enum.class.isAssignableFrom(type)) {
+      return true;
+    } else if (isDomainType(type)) {
+      return false;
+    }
+    return !(Date.class.isAssignableFrom(type) || Collection.class.isAssignableFrom(type)
+        || Map.class.isAssignableFrom(type));
+  }
+
+  /**
+   * Gets the (cached) copyable fields of a class, i.e. all non-static, non-transient fields of the
+   * class and its superclasses.
+   *
+   * @param type the class
+   *
+   * @return the fields
+   */
+  static Field[] getFields(Class<?> type) {
+    Field[] fields = fieldCache.get(type);
+    if (fields == null) {
+      List<Field> list = new ArrayList<Field>();
+      for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+        for (Field field : c.getDeclaredFields()) {
+          int modifiers = field.getModifiers();
+          if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+            field.setAccessible(true);
+            list.add(field);
+          }
+        }
+      }
+      fields = list.toArray(new Field[list.size()]);
+      fieldCache.put(type, fields);
+    }
+    return fields;
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static int compare(Comparator<Object> comparator, Object a, Object b) {
+    return comparator == null ? ((Comparable) a).compareTo(b) : comparator.compare(a, b);
+  }
+
+  /**
+   * A read-only sorted set view over a range of elements known to be in order.
+   */
+  static class PresortedSet extends AbstractSet<Object> implements SortedSet<Object> {
+    private final Object[] elements;
+    private final int from, to;
+    private final Comparator<Object> comparator;
+
+    PresortedSet(Object[] elements, Comparator<Object> comparator) {
+      this(elements, 0, elements.length, comparator);
+    }
+
+    private PresortedSet(Object[] elements, int from, int to, Comparator<Object> comparator) {
+      this.elements = elements;
+      this.from = from;
+      this.to = to;
+      this.comparator = comparator;
+    }
+
+    public Iterator<Object> iterator() {
+      return new Iterator<Object>() {
+        private int index = from;
+
+        public boolean hasNext() {
+          return index < to;
+        }
+
+        public Object next() {
+          if (index >= to) {
+            throw new NoSuchElementException();
+          }
+          return elements[index++];
+        }
+      };
+    }
+
+    public int size() {
+      return to - from;
+    }
+
+    public boolean contains(Object object) {
+      int index = indexOf(object);
+      return index < to && compare(comparator, elements[index], object) == 0;
+    }
+
+    public Comparator<Object> comparator() {
+      return comparator;
+    }
+
+    public SortedSet<Object> subSet(Object fromElement, Object toElement) {
+      if (compare(comparator, fromElement, toElement) > 0) {
+        throw new IllegalArgumentException("fromElement > toElement");
+      }
+      return new PresortedSet(elements, indexOf(fromElement), indexOf(toElement), comparator);
+    }
+
+    public SortedSet<Object> headSet(Object toElement) {
+      return new PresortedSet(elements, from, indexOf(toElement), comparator);
+    }
+
+    public SortedSet<Object> tailSet(Object fromElement) {
+      return new PresortedSet(elements, indexOf(fromElement), to, comparator);
+    }
+
+    public Object first() {
+      if (from == to) {
+        throw new NoSuchElementException();
+      }
+      return elements[from];
+    }
+
+    public Object last() {
+      if (from == to) {
+        throw new NoSuchElementException();
+      }
+      return elements[to - 1];
+    }
+
+    // the index of the first element in range not less than an object
+    private int indexOf(Object object) {
+      int low = from, high = to;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (compare(comparator, elements[mid], object) < 0) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+
+  /**
+   * A read-only sorted map view over a range of alternating keys and values known to be in key
+   * order.
+   */
+  static class PresortedMap extends AbstractMap<Object, Object>
+      implements SortedMap<Object, Object> {
+    private final Object[] entries;
+    private final int from, to;
+    private final Comparator<Object> comparator;
+
+    PresortedMap(Object[] entries, Comparator<Object> comparator) {
+      this(entries, 0, entries.length / 2, comparator);
+    }
+
+    private PresortedMap(Object[] entries, int from, int to, Comparator<Object> comparator) {
+      this.entries = entries;
+      this.from = from;
+      this.to = to;
+      this.comparator = comparator;
+    }
+
+    public int size() {
+      return to - from;
+    }
+
+    public boolean containsKey(Object key) {
+      int index = indexOf(key);
+      return index < to && compare(comparator, entries[2 * index], key) == 0;
+    }
+
+    public Object get(Object key) {
+      int index = indexOf(key);
+      return index < to && compare(comparator, entries[2 * index], key) == 0
+          ? entries[2 * index + 1] : null;
+    }
+
+    public Set<Map.Entry<Object, Object>> entrySet() {
+      return new AbstractSet<Map.Entry<Object, Object>>() {
+        public Iterator<Map.Entry<Object, Object>> iterator() {
+          return new Iterator<Map.Entry<Object, Object>>() {
+            private int index = from;
+
+            public boolean hasNext() {
+              return index < to;
+            }
+
+            public Map.Entry<Object, Object> next() {
+              if (index >= to) {
+                throw new NoSuchElementException();
+              }
+              index++;
+              return new AbstractMap.SimpleImmutableEntry<Object, Object>(
+                  entries[2 * index - 2], entries[2 * index - 1]);
+            }
+          };
+        }
+
+        public int size() {
+          return to - from;
+        }
+      };
+    }
+
+    public Comparator<Object> comparator() {
+      return comparator;
+    }
+
+    public SortedMap<Object, Object> subMap(Object fromKey, Object toKey) {
+      if (compare(comparator, fromKey, toKey) > 0) {
+        throw new IllegalArgumentException("fromKey > toKey");
+      }
+      return new PresortedMap(entries, indexOf(fromKey), indexOf(toKey), comparator);
+    }
+
+    public SortedMap<Object, Object> headMap(Object toKey) {
+      return new PresortedMap(entries, from, indexOf(toKey), comparator);
+    }
+
+    public SortedMap<Object, Object> tailMap(Object fromKey) {
+      return new PresortedMap(entries, indexOf(fromKey), to, comparator);
+    }
+
+    public Object firstKey() {
+      if (from == to) {
+        throw new NoSuchElementException();
+      }
+      return entries[2 * from];
+    }
+
+    public Object lastKey() {
+      if (from == to) {
+        throw new NoSuchElementException();
+      }
+      return entries[2 * to - 2];
+    }
+
+    // the index of the first entry in range whose key is not less than an object
+    private int indexOf(Object key) {
+      int low = from, high = to;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (compare(comparator, entries[2 * mid], key) < 0) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+}
@@ -13,11 +13,6 @@
  */
 package edu.mit.spacenet.util;
 
-import com.thoughtworks.xstream.XStream;
-import com.thoughtworks.xstream.security.NoTypePermission;
-import com.thoughtworks.xstream.security.NullPermission;
-import com.thoughtworks.xstream.security.PrimitiveTypePermission;
-
 /**
  * A utility class used to serialize (clone) objects.
  * 
@@ -26,18 +21,14 @@ import com.thoughtworks.xstream.security.PrimitiveTypePermission;
 public class SerializeUtil {
 
   /**
-   * Creates a serialized version of an object.
+   * Creates a deep copy of an object, equivalent to a serialization round trip. Shared references
+   * and cycles within the object graph are preserved.
    * 
-   * @param object the object to serialize
+   * @param object the object to copy
    * 
-   * @return the serialized object
+   * @return the copied object
    */
   public static Object deepClone(Object object) {
-    XStream xs = new XStream();
-    xs.addPermission(NoTypePermission.NONE);
-    xs.addPermission(NullPermission.NULL);
-    xs.addPermission(PrimitiveTypePermission.PRIMITIVES);
-    xs.allowTypesByWildcard(new String[] {"edu.mit.spacenet.**", "java.util.*"});
-    return xs.fromXML((String) xs.toXML(object));
+    return ObjectGraphCloner.deepClone(object);
   }
 }
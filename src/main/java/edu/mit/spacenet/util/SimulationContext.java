@@ -0,0 +1,191 @@
+/*
+ * Copyright 2010 MIT Strategic Engineering Research Group
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package edu.mit.spacenet.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.mit.spacenet.domain.element.I_Element;
+import edu.mit.spacenet.scenario.Scenario;
+import edu.mit.spacenet.simulator.ConsoleTraceSink;
+import edu.mit.spacenet.simulator.I_TraceSink;
+import edu.mit.spacenet.simulator.TraceLevel;
+
+/**
+ * Owns the scenario options and the unique identifier sequence used while working with one
+ * scenario, and the sink that receives simulation trace messages. Each thread has an active
+ * context, which is returned by {@link #getCurrent()} and backs both
+ * {@link GlobalParameters#getSingleton()} and {@link IdGenerator}; threads that never activate a
+ * context share a default one. Giving each simulation its own context lets several scenarios be
+ * loaded and simulated in the same JVM at the same time without overwriting each other's rounding
+ * precisions or identifiers.
+ * 
+ * <p>
+ * A context is activated for a block of work with:
+ * 
+ * <pre>
+ * SimulationContext previous = context.activate();
+ * try {
+ *   ...
+ * } finally {
+ *   previous.activate();
+ * }
+ * </pre>
+ * 
+ * @author Paul Grogan
+ */
+public final class SimulationContext {
+  private static final SimulationContext DEFAULT = new SimulationContext();
+  private static final ThreadLocal<SimulationContext> ACTIVE =
+      new ThreadLocal<SimulationContext>();
+
+  /**
+   * Gets the context active on the current thread.
+   * 
+   * @return the active context, or the default context if none was activated
+   */
+  public static SimulationContext getCurrent() {
+    SimulationContext context = ACTIVE.get();
+    return context == null ? DEFAULT : context;
+  }
+
+  private final GlobalParameters parameters;
+  private final AtomicInteger uid = new AtomicInteger(1);
+  private volatile I_TraceSink traceSink = new ConsoleTraceSink(TraceLevel.DEBUG);
+
+  /**
+   * Instantiates a new context with default parameters.
+   */
+  public SimulationContext() {
+    parameters = new GlobalParameters();
+  }
+
+  /**
+   * Instantiates a new context with the parameters of a scenario and a unique identifier sequence
+   * that continues after the last identifier used in the scenario.
+   * 
+   * @param scenario the scenario
+   */
+  public SimulationContext(Scenario scenario) {
+    this();
+    setScenario(scenario);
+  }
+
+  private SimulationContext(GlobalParameters parameters) {
+    this.parameters = parameters;
+  }
+
+  /**
+   * Creates a context for work on other threads that is part of the work in this context. The new
+   * context shares the parameters and trace sink of this context and has its own unique identifier
+   * sequence, starting where this one would continue. Identifiers drawn in the new context may
+   * repeat identifiers drawn in this one and must be reassigned before its results are used here.
+   * 
+   * @return the forked context
+   */
+  public SimulationContext fork() {
+    SimulationContext context = new SimulationContext(parameters);
+    context.setTraceSink(traceSink);
+    context.setLastUid(getLastUid());
+    return context;
+  }
+
+  /**
+   * Activates this context on the current thread.
+   * 
+   * @return the context that was active before, to be re-activated when done
+   */
+  public SimulationContext activate() {
+    SimulationContext previous = getCurrent();
+    if (this == DEFAULT) {
+      ACTIVE.remove();
+    } else {
+      ACTIVE.set(this);
+    }
+    return previous;
+  }
+
+  /**
+   * Sets the parameters from a scenario and restarts the unique identifier sequence after the last
+   * identifier used in the scenario.
+   * 
+   * @param scenario the scenario
+   */
+  public void setScenario(Scenario scenario) {
+    parameters.setParametersFrom(scenario);
+    int lastUid = 0;
+    for (I_Element element : scenario.getElements()) {
+      if (element.getUid() > lastUid)
+        lastUid = element.getUid();
+    }
+    for (I_Element container : scenario.getManifest().getContainers()) {
+      if (container.getUid() > lastUid)
+        lastUid = container.getUid();
+    }
+    setLastUid(lastUid);
+  }
+
+  /**
+   * Gets the scenario options.
+   * 
+   * @return the parameters
+   */
+  public GlobalParameters getParameters() {
+    return parameters;
+  }
+
+  /**
+   * Gets the simulation trace sink. The default sink prints all messages to standard output.
+   * 
+   * @return the trace sink
+   */
+  public I_TraceSink getTraceSink() {
+    return traceSink;
+  }
+
+  /**
+   * Sets the simulation trace sink. Simulators created while this context is active use it.
+   * 
+   * @param traceSink the trace sink
+   */
+  public void setTraceSink(I_TraceSink traceSink) {
+    this.traceSink = traceSink;
+  }
+
+  /**
+   * Gets the next unique identifier in the sequence.
+   * 
+   * @return the next unique identifier
+   */
+  public int getNextUid() {
+    return uid.getAndIncrement();
+  }
+
+  /**
+   * Gets the last unique identifier drawn from the sequence.
+   * 
+   * @return the last uid
+   */
+  public int getLastUid() {
+    return uid.get() - 1;
+  }
+
+  /**
+   * Sets the sequence of unique identifiers to restart after the last uid.
+   * 
+   * @param lastUid the last uid
+   */
+  public void setLastUid(int lastUid) {
+    uid.set(lastUid + 1);
+  }
+}